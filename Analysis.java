@@ -0,0 +1,199 @@
+package solver;
+
+import expressions.CompiledExpression;
+import expressions.Expression;
+import expressions.Interpretation;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Represents the classification of an expression, built by {@link SatSolver#analyze(Expression)} with a single pass.
+ * Expressions with few variables are evaluated once under all their assignments, 64 at a time, and the values are
+ * kept as a truth table of one bit per assignment, from which the flags, the counts and both partitions are read.
+ * Larger ones are classified with a single {@link SolverSession}, and their models are only counted or listed when asked for.
+ * An analysis is immutable: every stream of interpretations it returns is new and produced on demand, and what it
+ * computes on demand can be bounded by a {@link SolverContext}.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'program' cannot be null
+ * 'table' is null, or holds the value of 'program' under assignment 64 * b + k at bit k of word b, unused bits cleared
+ * 'satisfiable' and 'tautology' classify 'program', and 'models', once set, is its number of models
+ */
+public final class Analysis {
+
+    /* (non-javadoc)
+     * The largest number of variables whose truth table is kept
+     */
+    private static final int TABLE_LIMIT = 20;
+
+    private final CompiledExpression program;
+    private final long[] table;
+    private final long mask;
+    private final boolean satisfiable;
+    private final boolean tautology;
+    private volatile BigInteger models;
+
+    /* (non-javadoc)
+     * Analyses an expression, given compiled, reporting the work done to a probe and charging it to a governor
+     */
+    Analysis(Expression expression, CompiledExpression program, QueryProbe probe, Governor governor) {
+        this.program = program;
+        if ( program.variableCount() <= TABLE_LIMIT ){
+            probe.engine(SatSolver.Engine.BIT_SLICED.name(), program.variableCount());
+            probe.phase(SolverMetrics.Phase.EVALUATE);
+            BitSlicedEngine engine = new BitSlicedEngine(program);
+            engine.govern(governor);
+            long[] words = new long[(int) engine.blockCount()];
+            long count = 0;
+            for ( int block = 0 ; block < words.length ; block++ ){
+                words[block] = engine.hits(block, true);
+                count += Long.bitCount(words[block]);
+            }
+            this.table = words;
+            this.mask = engine.mask();
+            this.models = BigInteger.valueOf(count);
+            this.satisfiable = count > 0;
+            this.tautology = count == 1L << program.variableCount();
+            probe.evaluated(1L << program.variableCount(), program.length());
+        } else {
+            probe.engine(SatSolver.Engine.CDCL.name(), program.variableCount());
+            probe.phase(SolverMetrics.Phase.ENCODE);
+            SolverSession session = new SolverSession(expression, governor);
+            session.govern(governor);
+            probe.phase(SolverMetrics.Phase.SEARCH);
+            this.table = null;
+            this.mask = 0;
+            this.satisfiable = session.solve();
+            this.tautology = satisfiable && session.isTautology();
+            probe.searched(session.decisions(), session.propagations(), session.conflicts());
+            if ( !satisfiable ){
+                this.models = BigInteger.ZERO;
+            }
+        }
+    }
+
+    /**
+     * @return the variables of the expression, in natural order
+     */
+    public List<String> variables() {
+        return program.variableIndex().names();
+    }
+
+    /**
+     * @return {@code true} iff the expression is true under at least one interpretation
+     */
+    public boolean isSatisfiable() {
+        return satisfiable;
+    }
+
+    /**
+     * @return {@code true} iff the expression is true under all interpretations
+     */
+    public boolean isTautology() {
+        return tautology;
+    }
+
+    /**
+     * @return {@code true} iff the expression is false under all interpretations
+     */
+    public boolean isContradiction() {
+        return !satisfiable;
+    }
+
+    /**
+     * @return the number of interpretations of the variables of the expression under which it is true
+     */
+    public BigInteger modelCount() {
+        return modelCount(SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Counts the models of the expression within the limits of a context; a count once known is kept
+     * @param context the limits of the count
+     * @return the number of interpretations of the variables of the expression under which it is true, or unknown
+     * if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code context} is {@code null}
+     */
+    public Outcome<BigInteger> modelCount(SolverContext context) {
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
+        }
+        BigInteger count = models;
+        if ( count != null ){
+            return Outcome.known(count);
+        }
+        try {
+            count = tautology ? interpretationCount() : countModels(Governor.of(context));
+        } catch ( Governor.Exceeded e ){
+            return Outcome.unknown(e.limit());
+        }
+        models = count;
+        return Outcome.known(count);
+    }
+
+    /**
+     * @return the number of interpretations of the variables of the expression under which it is false
+     */
+    public BigInteger countermodelCount() {
+        return interpretationCount().subtract(modelCount());
+    }
+
+    /**
+     * Counts the countermodels of the expression within the limits of a context
+     * @param context the limits of the count
+     * @return the number of interpretations of the variables of the expression under which it is false, or unknown
+     * if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code context} is {@code null}
+     */
+    public Outcome<BigInteger> countermodelCount(SolverContext context) {
+        Outcome<BigInteger> count = modelCount(context);
+        return count.isKnown() ? Outcome.known(interpretationCount().subtract(count.get())) : count;
+    }
+
+    /**
+     * @return the interpretations of the variables of the expression under which it is true, produced on demand
+     */
+    public Stream<Interpretation> models() {
+        return partition(true);
+    }
+
+    /**
+     * @return the interpretations of the variables of the expression under which it is false, produced on demand
+     */
+    public Stream<Interpretation> countermodels() {
+        return partition(false);
+    }
+
+    private Stream<Interpretation> partition(boolean value) {
+        if ( value ? !satisfiable : tautology ){
+            return Stream.empty();
+        }
+        ModelCursor cursor = table != null ? ModelCursor.of(table, mask, value) : ModelCursor.of(program, value);
+        return StreamSupport.stream(new ModelSpliterator(program.variableIndex(), cursor), false);
+    }
+
+    /* (non-javadoc)
+     * Counts the models of the encoding, every model of the expression extending to exactly one of them
+     */
+    private BigInteger countModels(Governor governor) {
+        ModelCounter counter = new ModelCounter(CnfEncoder.encode(program, true, true, governor).clauses());
+        counter.govern(governor);
+        return counter.count();
+    }
+
+    private BigInteger interpretationCount() {
+        return BigInteger.ONE.shiftLeft(program.variableCount());
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return program != null && (table == null || table.length << 6 >= 1L << program.variableCount())
+                && (satisfiable || !tautology);
+    }
+}
@@ -0,0 +1,114 @@
+package solver;
+
+import expressions.Expression;
+import expressions.Interpretation;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Represents what a {@link BatchSolver} found about one expression of a batch: whether it is satisfiable,
+ * with a model if it is, and whether it is a tautology. Either answer is unknown if the task reached a limit
+ * of its context first. A result is immutable.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'expression', 'model' and 'tautology' cannot be null, and 'position' and 'nanos' are not negative
+ * 'tautology' is known to be false if 'model' is known to be empty, and unknown if 'model' is unknown
+ */
+public final class BatchResult {
+
+    private final long position;
+    private final Expression expression;
+    private final Outcome<Optional<Interpretation>> model;
+    private final Outcome<Boolean> tautology;
+    private final long nanos;
+
+    /* (non-javadoc)
+     * Constructs the result of the expression at a position of its batch, solved in 'nanos' nanoseconds
+     */
+    BatchResult(long position, Expression expression, Outcome<Optional<Interpretation>> model, Outcome<Boolean> tautology, long nanos) {
+        this.position = position;
+        this.expression = expression;
+        this.model = model;
+        this.tautology = tautology;
+        this.nanos = nanos;
+    }
+
+    /**
+     * @return the position of the expression in its batch, counting from {@code 0}
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * @return the expression solved
+     */
+    public Expression expression() {
+        return expression;
+    }
+
+    /**
+     * @return whether the expression is true under at least one interpretation, or unknown
+     */
+    public Outcome<Boolean> satisfiable() {
+        return model.isKnown() ? Outcome.known(model.get().isPresent()) : Outcome.unknown(model.limit().get());
+    }
+
+    /**
+     * @return whether the expression is true under all interpretations, or unknown
+     */
+    public Outcome<Boolean> tautology() {
+        return tautology;
+    }
+
+    /**
+     * @return an interpretation of every variable of the expression under which it is true, or nothing
+     * if it is not satisfiable or that is unknown
+     */
+    public Optional<Interpretation> model() {
+        return model.orElse(Optional.empty());
+    }
+
+    /**
+     * @return the time taken to solve the expression, from when its task started
+     */
+    public Duration elapsed() {
+        return Duration.ofNanos(nanos);
+    }
+
+    /**
+     * @return the position, the classification and the model of the expression, e.g.: {@code 3 SATISFIABLE p & !q},
+     * where the classification is {@code TAUTOLOGY}, {@code SATISFIABLE}, {@code CONTRADICTION} or {@code UNKNOWN}
+     * followed by the limit reached
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder().append(position).append(' ');
+        if ( model.isUnknown() ){
+            return text.append(model).toString();
+        }
+        Optional<Interpretation> found = model.get();
+        if ( found.isEmpty() ){
+            return text.append("CONTRADICTION").toString();
+        }
+        text.append(tautology.orElse(false) ? "TAUTOLOGY" : "SATISFIABLE");
+        String separator = " ";
+        for ( String var : new TreeSet<>(expression.variables()) ){
+            text.append(separator).append(found.get().valueOf(var) ? "" : "!").append(var);
+            separator = " & ";
+        }
+        return text.toString();
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return expression != null && model != null && tautology != null && position >= 0 && nanos >= 0
+                && (model.isKnown() || tautology.isUnknown())
+                && (model.isUnknown() || model.get().isPresent() || !tautology.orElse(true));
+    }
+}
@@ -0,0 +1,270 @@
+package solver;
+
+import expressions.Expression;
+import expressions.Interpretation;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * A solver of many independent expressions at once. Every expression is a task that looks for a model of it
+ * and, if it has one, checks if it is a tautology (see {@link BatchResult}), with the queries of {@link SatSolver}.
+ * <p>
+ * Tasks run on virtual threads when the runtime has them, and on a pool of platform threads otherwise; either way,
+ * at most {@code parallelism} of them solve at once. At most {@code capacity} tasks are waiting or solving:
+ * submitting another one waits until one of them finishes, so a producer reading expressions faster than they
+ * are solved is slowed down instead of filling the memory. Every task runs under the context it is submitted with,
+ * and under the timeout of the solver, if it has one, counted from when the task starts solving: whichever of the
+ * deadline of the context and the timeout comes first stops it.
+ * A batch solver is thread-safe.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'executor', 'admitted' and 'running' cannot be null, and 'capacity' is positive
+ * 'admitted' has a permit for every task that can still be submitted, 'running' for every task that can still start solving
+ * 'timeout' is null or not negative
+ */
+public final class BatchSolver implements AutoCloseable {
+
+    /* (non-javadoc)
+     * The number of tasks that can wait per task solving, by default
+     */
+    private static final int TASKS_PER_THREAD = 4;
+
+    private final ExecutorService executor;
+    private final boolean virtual;
+    private final int capacity;
+    private final Semaphore admitted;
+    private final Semaphore running;
+    private final Duration timeout;
+    private final AtomicLong submitted = new AtomicLong();
+
+    /**
+     * Constructs a new batch solver solving as many tasks at once as there are processors, without timeout
+     */
+    public BatchSolver() {
+        this(Runtime.getRuntime().availableProcessors(), TASKS_PER_THREAD * Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * Constructs a new batch solver
+     * @param parallelism the number of tasks solving at once
+     * @param capacity the number of tasks waiting or solving at once
+     * @param timeout the time every task can take, or {@code null} for no timeout
+     * @throws IllegalArgumentException if {@code parallelism} or {@code capacity} is not positive
+     * @throws IllegalArgumentException if {@code timeout} is negative
+     */
+    public BatchSolver(int parallelism, int capacity, Duration timeout) {
+        if ( parallelism <= 0 || capacity <= 0 ){
+            throw new IllegalArgumentException("The 'parallelism' and 'capacity' must be positive");
+        }
+        if ( timeout != null && timeout.isNegative() ){
+            throw new IllegalArgumentException("The 'timeout' cannot be negative");
+        }
+        ExecutorService threads = virtualThreads();
+        this.virtual = threads != null;
+        this.executor = virtual ? threads : platformThreads(parallelism);
+        this.capacity = capacity;
+        this.admitted = new Semaphore(capacity);
+        this.running = new Semaphore(parallelism);
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return {@code true} iff the tasks of this solver run on virtual threads
+     */
+    public boolean usesVirtualThreads() {
+        return virtual;
+    }
+
+    /**
+     * Submits an expression to solve, waiting while this solver has as many tasks as its capacity
+     * @param expression the expression to solve
+     * @param context the limits of the task
+     * @return the result of the task, once it is solved; its position is the number of tasks submitted before it
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     * @throws InterruptedException if the thread is interrupted while waiting
+     * @throws java.util.concurrent.RejectedExecutionException if this solver is closed
+     */
+    public CompletableFuture<BatchResult> submit(Expression expression, SolverContext context) throws InterruptedException {
+        if ( expression == null || context == null ){
+            throw new IllegalArgumentException("The 'expression' and 'context' cannot be null");
+        }
+        return submit(submitted.getAndIncrement(), expression, context);
+    }
+
+    /**
+     * Solves a batch of expressions, handing the result of every one to a consumer as soon as it can be handed.
+     * Expressions are taken from the batch only while this solver has room for them, and the consumer
+     * is only called by the calling thread, so it needs no synchronization
+     * @param expressions the batch of expressions, read once
+     * @param context the limits of every task
+     * @param ordered {@code true} to hand the results in the order of the batch, {@code false} to hand
+     * every result as soon as it is solved
+     * @param sink the consumer of the results
+     * @throws IllegalArgumentException if {@code expressions}, {@code context} or {@code sink} is {@code null}, or
+     * if {@code expressions} has {@code null}
+     * @throws InterruptedException if the thread is interrupted while waiting; the tasks submitted still run
+     */
+    public void solveAll(Iterator<? extends Expression> expressions, SolverContext context, boolean ordered,
+            Consumer<? super BatchResult> sink) throws InterruptedException {
+        if ( expressions == null || context == null || sink == null ){
+            throw new IllegalArgumentException("The 'expressions', 'context' and 'sink' cannot be null");
+        }
+        Deque<CompletableFuture<BatchResult>> pending = new ArrayDeque<>();                    //in the order of the batch
+        BlockingQueue<CompletableFuture<BatchResult>> solved = new LinkedBlockingQueue<>();     //in the order they finish
+        int inFlight = 0;
+        long position = 0;
+        while ( expressions.hasNext() ){
+            Expression expression = expressions.next();
+            if ( expression == null ){
+                throw new IllegalArgumentException("The 'expressions' cannot contain null");
+            }
+
+            //First, I make room for the expression by handing results, waiting for them if there is no room
+
+            while ( inFlight >= capacity ){
+                sink.accept(result(ordered ? pending.poll() : solved.take()));
+                inFlight--;
+            }
+
+            //Then, I submit it, and hand every result that can already be handed
+
+            CompletableFuture<BatchResult> task = submit(position++, expression, context);
+            inFlight++;
+            if ( ordered ){
+                pending.add(task);
+                while ( !pending.isEmpty() && pending.peek().isDone() ){
+                    sink.accept(result(pending.poll()));
+                    inFlight--;
+                }
+            } else {
+                task.whenComplete((result, failure) -> solved.add(task));
+                for ( CompletableFuture<BatchResult> done = solved.poll() ; done != null ; done = solved.poll() ){
+                    sink.accept(result(done));
+                    inFlight--;
+                }
+            }
+        }
+        for ( ; inFlight > 0 ; inFlight-- ){
+            sink.accept(result(ordered ? pending.poll() : solved.take()));
+        }
+    }
+
+    /**
+     * Stops accepting tasks and waits for the submitted ones to finish. If the thread is interrupted while waiting,
+     * the tasks still running are cancelled instead, and the thread keeps its interrupt status
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch ( InterruptedException e ){
+            executor.shutdownNow();                                                            //interrupted queries stop as cancelled ones
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CompletableFuture<BatchResult> submit(long position, Expression expression, SolverContext context) throws InterruptedException {
+        admitted.acquire();
+        try {
+            return CompletableFuture.supplyAsync(() -> solve(position, expression, context), executor)
+                    .whenComplete((result, failure) -> admitted.release());
+        } catch ( RuntimeException e ){
+            admitted.release();
+            throw e;
+        }
+    }
+
+    /* (non-javadoc)
+     * Solves an expression once a thread is free to, under its context and the timeout of this solver, if it comes first
+     */
+    private BatchResult solve(long position, Expression expression, SolverContext context) {
+        try {
+            running.acquire();
+        } catch ( InterruptedException e ){
+            Thread.currentThread().interrupt();
+            return new BatchResult(position, expression, Outcome.unknown(SolverContext.Limit.CANCELLED),
+                    Outcome.unknown(SolverContext.Limit.CANCELLED), 0);
+        }
+        try {
+            long start = System.nanoTime();
+            SolverContext limits = timeout == null ? context : context.withTimeout(context.remaining()     //the earlier of both deadlines
+                    .filter(left -> left.compareTo(timeout) < 0).orElse(timeout));
+            Outcome<Optional<Interpretation>> model = SatSolver.findModel(expression, limits);
+            Outcome<Boolean> tautology;
+            if ( model.isUnknown() ){
+                tautology = Outcome.unknown(model.limit().get());
+            } else if ( model.get().isEmpty() ){
+                tautology = Outcome.known(false);
+            } else {
+                tautology = SatSolver.isTautology(expression, limits);
+            }
+            return new BatchResult(position, expression, model, tautology, System.nanoTime() - start);
+        } finally {
+            running.release();
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the result of a task, waiting for it, with the failure of the task thrown as it was
+     */
+    private static BatchResult result(CompletableFuture<BatchResult> task) {
+        try {
+            return task.join();
+        } catch ( CompletionException e ){
+            if ( e.getCause() instanceof RuntimeException ){
+                throw (RuntimeException) e.getCause();
+            }
+            if ( e.getCause() instanceof Error ){
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /* (non-javadoc)
+     * @return an executor starting a virtual thread per task, or null if the runtime has no virtual threads
+     */
+    private static ExecutorService virtualThreads() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch ( ReflectiveOperationException | RuntimeException e ){                       //missing, or a preview that is not enabled
+            return null;
+        }
+    }
+
+    private static ExecutorService platformThreads(int parallelism) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(parallelism, task -> {
+            Thread thread = new Thread(task, "batch-solver-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return executor != null && admitted != null && running != null && capacity > 0
+                && (timeout == null || !timeout.isNegative());
+    }
+}
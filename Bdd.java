@@ -0,0 +1,233 @@
+package solver;
+
+import expressions.CompiledExpression;
+import expressions.Interpretation;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Represents the reduced ordered binary decision diagram of an expression, built by a {@link BddManager}.
+ * Whether the expression is a tautology or a contradiction is read from the diagram in constant time,
+ * and its models are read by walking the diagram instead of evaluating it.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'manager' and 'program' cannot be null
+ * 'node' is a node of 'manager' over variables of 'program' only
+ */
+public final class Bdd {
+
+    private final BddManager manager;
+    private final int node;
+    private final CompiledExpression program;
+    private int[] slotOf;
+
+    Bdd(BddManager manager, int node, CompiledExpression program) {
+        this.manager = manager;
+        this.node = node;
+        this.program = program;
+    }
+
+    /**
+     * @return {@code true} iff the expression is true under all interpretations
+     */
+    public boolean isTautology() {
+        return node == BddManager.TRUE;
+    }
+
+    /**
+     * @return {@code true} iff the expression is false under all interpretations
+     */
+    public boolean isContradiction() {
+        return node == BddManager.FALSE;
+    }
+
+    /**
+     * @return {@code true} iff the expression is true under at least one interpretation
+     */
+    public boolean isSatisfiable() {
+        return node != BddManager.FALSE;
+    }
+
+    /**
+     * Checks if the expression of this diagram is equivalent to the one of another diagram of the same manager
+     * @param other the other diagram
+     * @return {@code true} iff both expressions have the same value under every interpretation
+     * @throws IllegalArgumentException if {@code other} is {@code null} or was built by another manager
+     */
+    public boolean isEquivalentTo(Bdd other) {
+        if ( other == null || other.manager != manager ){
+            throw new IllegalArgumentException("The 'other' cannot be null and must be built by the same manager");
+        }
+        return node == other.node;
+    }
+
+    /**
+     * @return the number of non-terminal nodes of this diagram
+     */
+    public int nodeCount() {
+        return manager.nodeCount(node);
+    }
+
+    /**
+     * Reads an interpretation under which the expression is true from a path of this diagram
+     * @return an interpretation of the variables of the expression under which it is true, or nothing if it is not satisfiable
+     */
+    public Optional<Interpretation> findModel() {
+        long[] assignment = assignment(true);
+        return assignment == null ? Optional.empty() : Optional.of(new Interpretation(program.variableIndex(), assignment));
+    }
+
+    /**
+     * Performs an action for every interpretation of the variables of the expression under which it is true
+     * @param action the action to perform
+     * @throws IllegalArgumentException if {@code action} is {@code null}
+     */
+    public void forEachModel(Consumer<? super Interpretation> action) {
+        if ( action == null ){
+            throw new IllegalArgumentException("The 'action' cannot be null");
+        }
+        forEachAssignment(true, assignment -> action.accept(new Interpretation(program.variableIndex(), assignment)));
+    }
+
+    /* (non-javadoc)
+     * @return an assignment of the variable slots of the program under which it has a given value, or null if there is none
+     */
+    long[] assignment(boolean value) {
+        if ( node == (value ? BddManager.FALSE : BddManager.TRUE) ){
+            return null;
+        }
+        long[] assignment = new long[InterpretationSpliterator.words(program.variableCount())];
+        manager.path(node, value, slots(), assignment);
+        return assignment;
+    }
+
+    /* (non-javadoc)
+     * Calls 'action' with every assignment of the variable slots of the program under which it has a given value,
+     * reusing the same array
+     */
+    void forEachAssignment(boolean value, Consumer<long[]> action) {
+        manager.forEachPath(node, value, slots(), program.variableCount(), action);
+    }
+
+    /**
+     * Lists the models of the expression as cubes, one per path of this diagram to the {@code true} terminal.
+     * The cubes are disjoint and together cover exactly the models; they are read from the diagram on demand,
+     * with memory for a single path
+     * @return the cubes of the models of the expression
+     */
+    public Iterator<Cube> cubes() {
+        return cubes(true);
+    }
+
+    /* (non-javadoc)
+     * @return the cubes of the assignments under which the expression has a given value, one per path to that terminal
+     */
+    Iterator<Cube> cubes(boolean value) {
+        return new CubeIterator(value ? BddManager.TRUE : BddManager.FALSE);
+    }
+
+    /* (non-javadoc)
+     * A depth-first walk of the paths, kept on an explicit stack of nodes and of the branch taken at each
+     */
+    private final class CubeIterator implements Iterator<Cube> {
+        private final int target;
+        private final int[] slots = slots();
+        private final int[] nodes = new int[manager.variableCount() + 1];
+        private final byte[] branches = new byte[nodes.length];
+        private final long[] fixed = new long[InterpretationSpliterator.words(program.variableCount())];
+        private final long[] values = new long[fixed.length];
+        private int depth;
+        private Cube next;
+
+        CubeIterator(int target) {
+            this.target = target;
+            this.nodes[0] = node;
+            this.next = advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Cube next() {
+            if ( next == null ){
+                throw new NoSuchElementException();
+            }
+            Cube cube = next;
+            next = advance();
+            return cube;
+        }
+
+        private Cube advance() {
+            while ( depth >= 0 ){
+                int n = nodes[depth];
+                if ( n <= BddManager.TRUE ){
+                    depth--;
+                    if ( n == target ){
+                        return new Cube(program.variableIndex(), fixed, values);
+                    }
+                    continue;
+                }
+                int slot = slots[manager.variableOf(n)];
+                long bit = 1L << slot;
+                switch ( branches[depth] ){
+                    case 0:
+                        branches[depth] = 1;
+                        fixed[slot >>> 6] |= bit;
+                        push(manager.child(n, false));
+                        break;
+                    case 1:
+                        branches[depth] = 2;
+                        values[slot >>> 6] |= bit;
+                        push(manager.child(n, true));
+                        break;
+                    default:
+                        fixed[slot >>> 6] &= ~bit;
+                        values[slot >>> 6] &= ~bit;
+                        depth--;
+                        break;
+                }
+            }
+            return null;
+        }
+
+        private void push(int child) {
+            nodes[++depth] = child;
+            branches[depth] = 0;
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the node of this diagram in its manager
+     */
+    int node() {
+        return node;
+    }
+
+    /* (non-javadoc)
+     * @return the slot of the program of every variable of the manager, or -1 for the variables it does not use
+     */
+    private int[] slots() {
+        if ( slotOf == null ){
+            int[] slots = new int[manager.variableCount()];
+            for ( int v = 0 ; v < slots.length ; v++ ){
+                slots[v] = program.variableIndex().indexOf(manager.nameOf(v));
+            }
+            slotOf = slots;
+        }
+        return slotOf;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return manager != null && program != null && node >= 0;
+    }
+}
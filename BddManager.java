@@ -0,0 +1,832 @@
+package solver;
+
+import expressions.CompiledExpression;
+import expressions.Expression;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Builds reduced ordered binary decision diagrams (ROBDDs) of expressions.
+ * Every node is unique in the manager, so two expressions compiled by the same manager are
+ * equivalent iff their diagrams are the same node, and a tautology is the {@code true} terminal.
+ * <p>
+ * Nodes are combined with the if-then-else operator, whose results are remembered in a direct-mapped
+ * cache of bounded size where a new result evicts the one in its slot. Variables are ordered as given
+ * when the manager is built, then in order of first use; the order can be improved by sifting, on
+ * demand with {@link #reorder()} or automatically when the diagrams grow.
+ * <p>
+ * Nodes no longer reachable from a live {@link Bdd} are reclaimed when the manager collects garbage,
+ * which it does before a compilation once it has grown enough. Managers are not thread-safe.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * nodes 0 and 1 are the false and true terminals, every other node below 'top' is either free or live
+ * a live node has a variable, two different children whose levels are below its own, and is in the unique table
+ * no two live nodes have the same variable and children
+ * 'levels' and 'order' are inverse permutations of the variables
+ * while reordering, 'refs' counts the parents and the live diagrams of every live node, and 'nodesOf' lists the live
+ * nodes of every variable, the first 'nodeCounts' of them, each at its index in 'positions'; otherwise they are null
+ */
+public final class BddManager {
+
+    static final int FALSE = 0;
+    static final int TRUE = 1;
+
+    /* (non-javadoc)
+     * The variables of the terminals and of the free nodes, which are no variable
+     */
+    private static final int TERMINAL = -2;
+    private static final int FREE = -1;
+
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final int DEFAULT_CACHE_SIZE = 1 << 16;
+
+    /* (non-javadoc)
+     * Sifting stops moving a variable in a direction once the diagrams grow past this factor of the best size
+     */
+    private static final double MAX_GROWTH = 1.2;
+
+    //The nodes, a node being an index in these arrays
+
+    private int[] vars = new int[INITIAL_CAPACITY];
+    private int[] lows = new int[INITIAL_CAPACITY];
+    private int[] highs = new int[INITIAL_CAPACITY];
+    private int[] next = new int[INITIAL_CAPACITY];                                            //the unique table chain, or the free list
+    private int top = 2;
+    private int size;
+    private int free;
+
+    private int[] buckets = new int[INITIAL_CAPACITY];
+
+    //The if-then-else cache
+
+    private final int[] cacheF;
+    private final int[] cacheG;
+    private final int[] cacheH;
+    private final int[] cacheResult;
+
+    //The variables and their order
+
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> variables = new HashMap<>();
+    private int[] levels = new int[16];
+    private int[] order = new int[16];
+
+    private final List<WeakReference<Bdd>> roots = new ArrayList<>();
+    private int collectThreshold = INITIAL_CAPACITY;
+    private boolean autoReorder;
+    private int reorderThreshold = INITIAL_CAPACITY;
+    private Governor governor = Governor.NONE;
+
+    //The reference counts and the nodes of every variable, only kept while reordering
+
+    private int[] refs;
+    private int[] positions;
+    private int[][] nodesOf;
+    private int[] nodeCounts;
+
+    /**
+     * Constructs a new manager, ordering the variables as they are first used
+     */
+    public BddManager() {
+        this(Collections.emptyList(), DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a new manager with an initial variable order
+     * @param ordering the variables placed first, from the top of the diagrams down; other variables follow as they are first used
+     * @throws IllegalArgumentException if {@code ordering} is {@code null} or has a {@code null} or repeated variable
+     */
+    public BddManager(List<String> ordering) {
+        this(ordering, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Constructs a new manager with an initial variable order and a bound on its cache
+     * @param ordering the variables placed first, from the top of the diagrams down; other variables follow as they are first used
+     * @param cacheSize the number of results the if-then-else cache keeps, rounded up to a power of two
+     * @throws IllegalArgumentException if {@code ordering} is {@code null} or has a {@code null} or repeated variable
+     * @throws IllegalArgumentException if {@code cacheSize} is not positive
+     */
+    public BddManager(List<String> ordering, int cacheSize) {
+        if ( ordering == null ){
+            throw new IllegalArgumentException("The 'ordering' cannot be null");
+        }
+        if ( cacheSize <= 0 ){
+            throw new IllegalArgumentException("The 'cacheSize' must be positive");
+        }
+        int capacity = Integer.highestOneBit(Math.min(cacheSize, 1 << 30));
+        if ( capacity < cacheSize ){
+            capacity <<= 1;
+        }
+        this.cacheF = new int[capacity];
+        this.cacheG = new int[capacity];
+        this.cacheH = new int[capacity];
+        this.cacheResult = new int[capacity];
+        Arrays.fill(cacheF, -1);
+
+        vars[FALSE] = vars[TRUE] = TERMINAL;
+        for ( String name : ordering ){
+            if ( name == null || variables.containsKey(name) ){
+                throw new IllegalArgumentException("The 'ordering' cannot have null or repeated variables");
+            }
+            variable(name);
+        }
+    }
+
+    /**
+     * Enables or disables reordering the variables by sifting whenever the diagrams have doubled since the last reordering
+     * @param enabled {@code true} to reorder automatically after compilations
+     */
+    public void setAutoReorder(boolean enabled) {
+        this.autoReorder = enabled;
+    }
+
+    /**
+     * Compiles an expression into its diagram
+     * @param expression the expression to compile
+     * @return the diagram of {@code expression}, which stays valid as long as this manager
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public Bdd compile(Expression expression) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        return compile(CompiledExpression.compile(expression));
+    }
+
+    /* (non-javadoc)
+     * Compiles a program by running it over diagrams instead of boolean values
+     */
+    Bdd compile(CompiledExpression program) {
+        if ( size > collectThreshold ){                                                        //no diagram is being built, so only the live ones are roots
+            collectGarbage();
+            collectThreshold = Math.max(INITIAL_CAPACITY, 2 * size);
+        }
+
+        int[] slots = new int[program.variableCount()];
+        for ( int i = 0 ; i < slots.length ; i++ ){
+            slots[i] = variable(program.variables().get(i));
+        }
+        int[] stack = new int[Math.max(1, program.stackDepth())];
+        int[] registers = new int[program.registerCount()];
+        int sp = -1;
+        for ( int pc = 0 ; pc < program.length() ; pc++ ){
+            switch ( program.opcode(pc) ){
+                case CompiledExpression.VAR:
+                    stack[++sp] = mk(slots[program.operand(pc)], FALSE, TRUE);
+                    break;
+                case CompiledExpression.CONST:
+                    stack[++sp] = program.operand(pc) == 1 ? TRUE : FALSE;
+                    break;
+                case CompiledExpression.NOT:
+                    stack[sp] = ite(stack[sp], FALSE, TRUE);
+                    break;
+                case CompiledExpression.STORE:
+                    registers[program.operand(pc)] = stack[sp];
+                    break;
+                case CompiledExpression.LOAD:
+                    stack[++sp] = registers[program.operand(pc)];
+                    break;
+                case CompiledExpression.AND:
+                    sp--;
+                    stack[sp] = ite(stack[sp], stack[sp + 1], FALSE);
+                    break;
+                case CompiledExpression.OR:
+                    sp--;
+                    stack[sp] = ite(stack[sp], TRUE, stack[sp + 1]);
+                    break;
+                case CompiledExpression.IMPLIES:
+                    sp--;
+                    stack[sp] = ite(stack[sp], stack[sp + 1], TRUE);
+                    break;
+                case CompiledExpression.IFF:
+                    sp--;
+                    stack[sp] = ite(stack[sp], stack[sp + 1], ite(stack[sp + 1], FALSE, TRUE));
+                    break;
+                case CompiledExpression.XOR:
+                    sp--;
+                    stack[sp] = ite(stack[sp], ite(stack[sp + 1], FALSE, TRUE), stack[sp + 1]);
+                    break;
+                case CompiledExpression.NAND:
+                    sp--;
+                    stack[sp] = ite(stack[sp], ite(stack[sp + 1], FALSE, TRUE), TRUE);
+                    break;
+                case CompiledExpression.NOR:
+                    sp--;
+                    stack[sp] = ite(stack[sp], FALSE, ite(stack[sp + 1], FALSE, TRUE));
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown opcode " + program.opcode(pc));
+            }
+        }
+
+        Bdd bdd = new Bdd(this, stack[0], program);
+        roots.add(new WeakReference<>(bdd));
+        if ( autoReorder && size > reorderThreshold ){
+            reorder();
+            reorderThreshold = Math.max(INITIAL_CAPACITY, 2 * size);
+        }
+        return bdd;
+    }
+
+    /**
+     * Reorders the variables by sifting: each variable in turn, starting with those labelling the most nodes,
+     * is moved through every level and left where the diagrams were smallest. The diagrams keep their meaning.
+     * Garbage is collected once, before; then every node counts its references, so a swap frees the nodes it
+     * leaves unreferenced at once and only visits the nodes of the variables it swaps.
+     */
+    public void reorder() {
+        collectGarbage();
+        int count = names.size();
+        if ( count < 2 ){
+            return;
+        }
+
+        //First, I count the references to every node and list the nodes of every variable
+
+        refs = new int[vars.length];
+        positions = new int[vars.length];
+        nodesOf = new int[count][];
+        nodeCounts = new int[count];
+        int[] labels = new int[count];
+        for ( int n = 2 ; n < top ; n++ ){
+            if ( vars[n] >= 0 ){
+                labels[vars[n]]++;
+                refs[lows[n]]++;
+                refs[highs[n]]++;
+            }
+        }
+        for ( WeakReference<Bdd> root : roots ){
+            Bdd bdd = root.get();
+            if ( bdd != null ){
+                refs[bdd.node()]++;
+            }
+        }
+        for ( int v = 0 ; v < count ; v++ ){
+            nodesOf[v] = new int[Math.max(4, labels[v])];
+        }
+        for ( int n = 2 ; n < top ; n++ ){
+            if ( vars[n] >= 0 ){
+                list(n);
+            }
+        }
+
+        //Then, I sift the variables, the most used first
+
+        List<Integer> candidates = new ArrayList<>();
+        for ( int v = 0 ; v < count ; v++ ){
+            candidates.add(v);
+        }
+        candidates.sort((a, b) -> Integer.compare(labels[b], labels[a]));
+        try {
+            for ( int v : candidates ){
+                sift(v);
+            }
+        } finally {
+            refs = null;
+            positions = null;
+            nodesOf = null;
+            nodeCounts = null;
+            Arrays.fill(cacheF, -1);                                                           //freed nodes may be reused by other functions
+        }
+    }
+
+    /**
+     * Reclaims the nodes no longer reachable from a live diagram, and clears the cache
+     */
+    public void collectGarbage() {
+        boolean[] marked = new boolean[top];
+        marked[FALSE] = marked[TRUE] = true;
+        int[] stack = new int[64];
+        int sp = 0;
+        for ( Iterator<WeakReference<Bdd>> it = roots.iterator() ; it.hasNext() ; ){
+            Bdd root = it.next().get();
+            if ( root == null ){
+                it.remove();
+                continue;
+            }
+            if ( sp == stack.length ){
+                stack = Arrays.copyOf(stack, sp * 2);
+            }
+            stack[sp++] = root.node();
+        }
+        while ( sp > 0 ){
+            int n = stack[--sp];
+            if ( marked[n] ){
+                continue;
+            }
+            marked[n] = true;
+            if ( sp + 2 > stack.length ){
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[sp++] = lows[n];
+            stack[sp++] = highs[n];
+        }
+
+        Arrays.fill(buckets, 0);
+        size = 0;
+        free = 0;
+        for ( int n = top - 1 ; n >= 2 ; n-- ){
+            if ( marked[n] && vars[n] != FREE ){
+                link(n);
+                size++;
+            } else {
+                vars[n] = FREE;
+                next[n] = free;
+                free = n;
+            }
+        }
+        Arrays.fill(cacheF, -1);
+    }
+
+    /**
+     * @return the variables, from the top of the diagrams down
+     */
+    public List<String> ordering() {
+        List<String> ordering = new ArrayList<>(names.size());
+        for ( int level = 0 ; level < names.size() ; level++ ){
+            ordering.add(names.get(order[level]));
+        }
+        return ordering;
+    }
+
+    /**
+     * @return the number of nodes of this manager, not counting the terminals nor the nodes already reclaimed
+     */
+    public int nodeCount() {
+        return size;
+    }
+
+    //The diagrams
+
+    /* (non-javadoc)
+     * @return the node for 'if f then g else h'
+     */
+    int ite(int f, int g, int h) {
+        if ( f == TRUE ){
+            return g;
+        }
+        if ( f == FALSE ){
+            return h;
+        }
+        if ( g == f ){
+            g = TRUE;
+        }
+        if ( h == f ){
+            h = FALSE;
+        }
+        if ( g == h ){
+            return g;
+        }
+        if ( g == TRUE && h == FALSE ){
+            return f;
+        }
+
+        int slot = ((f * 0x9e3779b9) ^ (g * 0x85ebca6b) ^ (h * 0xc2b2ae35)) >>> 7 & (cacheF.length - 1);
+        if ( cacheF[slot] == f && cacheG[slot] == g && cacheH[slot] == h ){
+            return cacheResult[slot];
+        }
+
+        int level = Math.min(level(f), Math.min(level(g), level(h)));
+        int v = order[level];
+        int low = ite(cofactor(f, v, false), cofactor(g, v, false), cofactor(h, v, false));
+        int high = ite(cofactor(f, v, true), cofactor(g, v, true), cofactor(h, v, true));
+        int result = mk(v, low, high);
+
+        cacheF[slot] = f;
+        cacheG[slot] = g;
+        cacheH[slot] = h;
+        cacheResult[slot] = result;
+        return result;
+    }
+
+    /* (non-javadoc)
+     * @return the number of non-terminal nodes reachable from a node
+     */
+    int nodeCount(int root) {
+        boolean[] seen = new boolean[top];
+        int count = 0;
+        int[] stack = new int[64];
+        int sp = 0;
+        stack[sp++] = root;
+        while ( sp > 0 ){
+            int n = stack[--sp];
+            if ( n <= TRUE || seen[n] ){
+                continue;
+            }
+            seen[n] = true;
+            count++;
+            if ( sp + 2 > stack.length ){
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            stack[sp++] = lows[n];
+            stack[sp++] = highs[n];
+        }
+        return count;
+    }
+
+    /* (non-javadoc)
+     * Follows a path from a node to a terminal: the variables on the path get the values of its edges in
+     * 'assignment', indexed by the slots of 'slotOf', and every other variable stays false
+     */
+    void path(int root, boolean value, int[] slotOf, long[] assignment) {
+        int avoid = value ? FALSE : TRUE;
+        for ( int n = root ; n > TRUE ; ){
+            if ( lows[n] != avoid ){                                                           //a reduced diagram reaches both terminals from any other node
+                n = lows[n];
+            } else {
+                int slot = slotOf[vars[n]];
+                assignment[slot >>> 6] |= 1L << slot;
+                n = highs[n];
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * Calls 'action' with every assignment of 'slots' variables leading from a node to a terminal, expanding the
+     * variables skipped by each path into both values. The same array is passed to every call
+     */
+    void forEachPath(int root, boolean value, int[] slotOf, int slots, Consumer<long[]> action) {
+        long[] assignment = new long[(slots >>> 6) + 1];
+        boolean[] fixed = new boolean[slots];
+        forEachPath(root, value ? TRUE : FALSE, slotOf, assignment, fixed, action);
+    }
+
+    private void forEachPath(int n, int target, int[] slotOf, long[] assignment, boolean[] fixed, Consumer<long[]> action) {
+        if ( n <= TRUE ){
+            if ( n == target ){
+                forEachCompletion(0, assignment, fixed, action);
+            }
+            return;
+        }
+        int slot = slotOf[vars[n]];
+        fixed[slot] = true;
+        forEachPath(lows[n], target, slotOf, assignment, fixed, action);
+        assignment[slot >>> 6] |= 1L << slot;
+        forEachPath(highs[n], target, slotOf, assignment, fixed, action);
+        assignment[slot >>> 6] &= ~(1L << slot);
+        fixed[slot] = false;
+    }
+
+    private static void forEachCompletion(int from, long[] assignment, boolean[] fixed, Consumer<long[]> action) {
+        int slot = from;
+        while ( slot < fixed.length && fixed[slot] ){
+            slot++;
+        }
+        if ( slot == fixed.length ){
+            action.accept(assignment);
+            return;
+        }
+        forEachCompletion(slot + 1, assignment, fixed, action);
+        assignment[slot >>> 6] |= 1L << slot;
+        forEachCompletion(slot + 1, assignment, fixed, action);
+        assignment[slot >>> 6] &= ~(1L << slot);
+    }
+
+    /* (non-javadoc)
+     * @return the variable of a non-terminal node
+     */
+    int variableOf(int n) {
+        return vars[n];
+    }
+
+    /* (non-javadoc)
+     * @return the child of a non-terminal node for a value of its variable
+     */
+    int child(int n, boolean value) {
+        return value ? highs[n] : lows[n];
+    }
+
+    /* (non-javadoc)
+     * @return the variable of a name, added below every other variable if it is new
+     */
+    int variable(String name) {
+        Integer v = variables.get(name);
+        if ( v != null ){
+            return v;
+        }
+        int id = names.size();
+        if ( id == levels.length ){
+            levels = Arrays.copyOf(levels, id * 2);
+            order = Arrays.copyOf(order, id * 2);
+        }
+        names.add(name);
+        variables.put(name, id);
+        levels[id] = id;
+        order[id] = id;
+        return id;
+    }
+
+    /* (non-javadoc)
+     * @return the name of a variable
+     */
+    String nameOf(int variable) {
+        return names.get(variable);
+    }
+
+    /* (non-javadoc)
+     * Reports every node created to a governor, which can stop the construction; a construction stopped leaves the manager unusable
+     */
+    void govern(Governor governor) {
+        this.governor = governor;
+    }
+
+    /* (non-javadoc)
+     * @return the number of variables of this manager
+     */
+    int variableCount() {
+        return names.size();
+    }
+
+    //The nodes
+
+    private int level(int n) {
+        return n <= TRUE ? Integer.MAX_VALUE : levels[vars[n]];
+    }
+
+    private int cofactor(int n, int v, boolean value) {
+        if ( n <= TRUE || vars[n] != v ){
+            return n;
+        }
+        return value ? highs[n] : lows[n];
+    }
+
+    /* (non-javadoc)
+     * @return the unique node with a variable and two children
+     */
+    private int mk(int v, int low, int high) {
+        if ( low == high ){
+            return low;
+        }
+        for ( int n = buckets[bucket(v, low, high)] ; n != 0 ; n = next[n] ){
+            if ( vars[n] == v && lows[n] == low && highs[n] == high ){
+                return n;
+            }
+        }
+        int n = allocate();
+        vars[n] = v;
+        lows[n] = low;
+        highs[n] = high;
+        link(n);
+        size++;
+        if ( size > buckets.length ){
+            buckets = new int[buckets.length * 2];
+            for ( int m = 2 ; m < top ; m++ ){
+                if ( vars[m] >= 0 ){
+                    link(m);
+                }
+            }
+        }
+        return n;
+    }
+
+    private int allocate() {
+        governor.charge(0, 1);
+        if ( free != 0 ){
+            int n = free;
+            free = next[n];
+            return n;
+        }
+        if ( top == vars.length ){
+            int capacity = vars.length * 2;
+            vars = Arrays.copyOf(vars, capacity);
+            lows = Arrays.copyOf(lows, capacity);
+            highs = Arrays.copyOf(highs, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        return top++;
+    }
+
+    private int bucket(int v, int low, int high) {
+        int h = (v * 31 + low) * 31 + high;
+        h *= 0x9e3779b9;
+        return (h ^ (h >>> 16)) & (buckets.length - 1);
+    }
+
+    private void link(int n) {
+        int b = bucket(vars[n], lows[n], highs[n]);
+        next[n] = buckets[b];
+        buckets[b] = n;
+    }
+
+    private void unlink(int n) {
+        int b = bucket(vars[n], lows[n], highs[n]);
+        if ( buckets[b] == n ){
+            buckets[b] = next[n];
+            return;
+        }
+        for ( int m = buckets[b] ; next[m] != 0 ; m = next[m] ){
+            if ( next[m] == n ){
+                next[m] = next[n];
+                return;
+            }
+        }
+    }
+
+    //The reordering
+
+    /* (non-javadoc)
+     * Swaps the variables at a level and the level below in place: every node keeps its meaning, so every
+     * diagram stays valid, and only the nodes of the upper variable that depend on the lower one are rebuilt.
+     * The children they no longer reference are freed if nothing else does, so the size stays exact
+     */
+    private void swap(int level) {
+        int x = order[level];
+        int y = order[level + 1];
+        int[] candidates = nodesOf[x];
+        int count = nodeCounts[x];
+        nodesOf[x] = new int[Math.max(4, count)];                                              //listed again as they are visited, with the new ones
+        nodeCounts[x] = 0;
+        for ( int i = 0 ; i < count ; i++ ){
+            int n = candidates[i];
+            int f0 = lows[n];
+            int f1 = highs[n];
+            boolean y0 = vars[f0] == y;
+            boolean y1 = vars[f1] == y;
+            if ( !y0 && !y1 ){
+                list(n);                                                                       //independent of y, it just moves down a level
+                continue;
+            }
+            int f00 = y0 ? lows[f0] : f0;
+            int f01 = y0 ? highs[f0] : f0;
+            int f10 = y1 ? lows[f1] : f1;
+            int f11 = y1 ? highs[f1] : f1;
+            unlink(n);
+            size--;
+            vars[n] = FREE;                                                                    //kept out of the unique table until rebuilt
+            int g0 = reference(x, f00, f10);                                                   //no node of x waiting to be rebuilt can match these
+            int g1 = reference(x, f01, f11);
+            vars[n] = y;
+            lows[n] = g0;
+            highs[n] = g1;
+            link(n);
+            size++;
+            list(n);
+            release(f0);
+            release(f1);
+        }
+        order[level] = y;
+        order[level + 1] = x;
+        levels[y] = level;
+        levels[x] = level + 1;
+    }
+
+    /* (non-javadoc)
+     * Moves a variable down to the bottom and up to the top, then back to the level where the diagrams were smallest
+     */
+    private void sift(int v) {
+        int last = names.size() - 1;
+        int best = size;
+        int bestLevel = levels[v];
+        boolean downFirst = levels[v] <= last / 2;
+        for ( int pass = 0 ; pass < 2 ; pass++ ){
+            boolean down = downFirst == (pass == 0);
+            while ( down ? levels[v] < last : levels[v] > 0 ){
+                swap(down ? levels[v] : levels[v] - 1);
+                if ( size < best ){
+                    best = size;
+                    bestLevel = levels[v];
+                } else if ( size > best * MAX_GROWTH ){
+                    break;
+                }
+            }
+        }
+        while ( levels[v] < bestLevel ){
+            swap(levels[v]);
+        }
+        while ( levels[v] > bestLevel ){
+            swap(levels[v] - 1);
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the unique node with a variable and two children, with one more reference; a new node references its children
+     */
+    private int reference(int v, int low, int high) {
+        int before = size;
+        int n = mk(v, low, high);
+        if ( size != before ){
+            if ( n >= refs.length ){
+                refs = Arrays.copyOf(refs, vars.length);
+                positions = Arrays.copyOf(positions, vars.length);
+            }
+            refs[n] = 0;
+            refs[low]++;
+            refs[high]++;
+            list(n);
+        }
+        refs[n]++;
+        return n;
+    }
+
+    /* (non-javadoc)
+     * Removes a reference to a node, freeing it and then its children in turn once nothing references them
+     */
+    private void release(int n) {
+        if ( n <= TRUE || --refs[n] > 0 ){
+            return;
+        }
+        int[] stack = new int[16];
+        int sp = 0;
+        stack[sp++] = n;
+        while ( sp > 0 ){
+            int m = stack[--sp];
+            int low = lows[m];
+            int high = highs[m];
+            unlink(m);
+            unlist(m);
+            size--;
+            vars[m] = FREE;
+            next[m] = free;
+            free = m;
+            if ( sp + 2 > stack.length ){
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if ( low > TRUE && --refs[low] == 0 ){
+                stack[sp++] = low;
+            }
+            if ( high > TRUE && --refs[high] == 0 ){
+                stack[sp++] = high;
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * Adds a node to the nodes of its variable
+     */
+    private void list(int n) {
+        int v = vars[n];
+        if ( nodeCounts[v] == nodesOf[v].length ){
+            nodesOf[v] = Arrays.copyOf(nodesOf[v], nodesOf[v].length * 2);
+        }
+        positions[n] = nodeCounts[v];
+        nodesOf[v][nodeCounts[v]++] = n;
+    }
+
+    /* (non-javadoc)
+     * Removes a node from the nodes of its variable, moving the last of them to its place
+     */
+    private void unlist(int n) {
+        int v = vars[n];
+        int last = nodesOf[v][--nodeCounts[v]];
+        nodesOf[v][positions[n]] = last;
+        positions[last] = positions[n];
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        if ( vars[FALSE] != TERMINAL || vars[TRUE] != TERMINAL ){
+            return false;
+        }
+        for ( int v = 0 ; v < names.size() ; v++ ){
+            if ( order[levels[v]] != v ){
+                return false;
+            }
+        }
+        int live = 0;
+        for ( int n = 2 ; n < top ; n++ ){
+            if ( vars[n] == FREE ){
+                continue;
+            }
+            live++;
+            if ( lows[n] == highs[n] || level(lows[n]) <= level(n) || level(highs[n]) <= level(n) ){
+                return false;
+            }
+            boolean found = false;
+            for ( int m = buckets[bucket(vars[n], lows[n], highs[n])] ; m != 0 ; m = next[m] ){
+                if ( m == n ){
+                    found = true;
+                } else if ( vars[m] == vars[n] && lows[m] == lows[n] && highs[m] == highs[n] ){
+                    return false;
+                }
+            }
+            if ( !found ){
+                return false;
+            }
+            if ( nodesOf != null && nodesOf[vars[n]][positions[n]] != n ){
+                return false;
+            }
+        }
+        if ( nodesOf != null ){
+            int listed = 0;
+            for ( int count : nodeCounts ){
+                listed += count;
+            }
+            if ( listed != live ){
+                return false;
+            }
+        }
+        return live == size;
+    }
+}
@@ -1,6 +1,5 @@
 package expressions;
 
-import java.util.HashSet;
 import java.util.Set;
 
 /**
@@ -14,17 +13,25 @@ import java.util.Set;
   */
 class BinaryExpression implements Expression {
 
-    private Expression a;
-    private Expression b;
-    private BinaryOperator op;
+    private final Expression a;
+    private final Expression b;
+    private final BinaryOperator op;
+    private final boolean hasVariables;
+    private final int hash;
+    private volatile VariableSet support;
 
     /* (non-javadoc)
      * An enumeration of all possible binary operator for this
-     * kind of expressions
+     * kind of expressions; all of them are native, so every operand occurs once in the tree
      */
     enum BinaryOperator {
         AND,
         OR,
+        IMPLIES,                                                                               //left implies right
+        IFF,
+        XOR,
+        NAND,
+        NOR,
     }
 
     /**
@@ -34,9 +41,14 @@ class BinaryExpression implements Expression {
      * @param op the operator for this binary expression
      */
     BinaryExpression(Expression a, Expression b, BinaryOperator op) {
+        if ( a == null || b == null || op == null ){
+            throw new IllegalArgumentException("The 'a' , 'b' , 'op' cannot be null");
+        }
         this.a = a;
         this.b = b;
         this.op = op;
+        this.hasVariables = ExpressionFactory.hasVariables(a) || ExpressionFactory.hasVariables(b);
+        this.hash = ExpressionFactory.binaryHash(a, b, op);
     }
     
     @Override
@@ -47,35 +59,59 @@ class BinaryExpression implements Expression {
         if ( this.a == null || this.b == null || this.op == null ){
             throw new IllegalArgumentException("The 'a' , 'b' , 'op' cannot be null");
         }
-        if ( this.a.variables().isEmpty() && this.b.variables().isEmpty() ){
-            throw new IllegalArgumentException("The 'a' and 'b' have no variables");
-        }
-        
-        if ( op == BinaryOperator.AND ){
-            return this.a.evaluate(interpretation) && this.b.evaluate(interpretation);
-        } else if ( op == BinaryOperator.OR ){
-            return this.a.evaluate(interpretation) || this.b.evaluate(interpretation);
-        } else {
-            throw new IllegalArgumentException("The BinaryOperator is unknown");
-        }
+        return Evaluator.evaluate(this, interpretation);                                       //without recursion, so no depth overflows the stack
     }
 
     @Override
     public Set<String> variables() {
-        if ( this.a == null || this.b == null ){
-            throw new IllegalArgumentException("The 'a' , 'b' cannot be null");
-        }
-        Set<String> vars = new HashSet<>();
-
-        for ( String var : a.variables()){
-            vars.add(var);
-        }
-        for ( String var : b.variables()){
-            vars.add(var);
+        VariableSet vars = this.support;
+        if ( vars == null ){
+            vars = VariableSet.supportOf(this);                                                //computed once, then shared by every call
+            this.support = vars;
         }
         return vars;
     }
 
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /* (non-javadoc)
+     * @return true iff at least one variable occurs in this expression, without computing its variables
+     */
+    boolean hasVariables() {
+        return this.hasVariables;
+    }
+
+    /* (non-javadoc)
+     * @return the support set of this expression if it was already computed, null otherwise
+     */
+    VariableSet cachedSupport() {
+        return this.support;
+    }
+
+    /* (non-javadoc)
+     * @return the left sub-expression
+     */
+    Expression left() {
+        return this.a;
+    }
+
+    /* (non-javadoc)
+     * @return the right sub-expression
+     */
+    Expression right() {
+        return this.b;
+    }
+
+    /* (non-javadoc)
+     * @return the operator for this binary expression
+     */
+    BinaryOperator operator() {
+        return this.op;
+    }
+
     /*
      * Then we need to check the invariants
      * We create this new method repOK
@@ -0,0 +1,179 @@
+package solver;
+
+import expressions.CompiledExpression;
+import java.util.function.LongConsumer;
+
+/**
+ * Evaluates a compiled expression under 64 consecutive assignments per pass.
+ * Assignment {@code i} gives the variable at slot {@code j} the value of bit {@code j} of {@code i},
+ * and the assignments are grouped in blocks of 64: bit {@code k} of the word for block {@code b}
+ * belongs to assignment {@code 64 * b + k}.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'program', 'words' and 'stack' cannot be null
+ * 'words' holds one word per variable slot of 'program'
+ */
+final class BitSlicedEngine {
+
+    /* (non-javadoc)
+     * The word of each of the six lowest slots, which is the same in every block:
+     * bit k of PATTERNS[j] is bit j of k
+     */
+    private static final long[] PATTERNS = {
+        0xAAAAAAAAAAAAAAAAL,
+        0xCCCCCCCCCCCCCCCCL,
+        0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L,
+        0xFFFF0000FFFF0000L,
+        0xFFFFFFFF00000000L,
+    };
+
+    private static final int BLOCK_BITS = 6;
+
+    private final CompiledExpression program;
+    private final long[] words;
+    private final long[] stack;
+    private final long blocks;
+    private final long mask;
+    private final long nodesPerBlock;
+    private Governor governor = Governor.NONE;
+
+    /**
+     * Constructs a new bit-sliced engine
+     * @param program the compiled expression to evaluate, with at most 62 variables
+     */
+    BitSlicedEngine(CompiledExpression program) {
+        this.program = program;
+        this.words = new long[program.variableCount()];
+        this.stack = new long[program.scratchSize()];
+        int variables = program.variableCount();
+        if ( variables < BLOCK_BITS ){
+            this.blocks = 1;
+            this.mask = (1L << (1 << variables)) - 1;                                          //only the first 2^variables bits are real assignments
+        } else {
+            this.blocks = 1L << (variables - BLOCK_BITS);
+            this.mask = -1L;
+        }
+        this.nodesPerBlock = Long.bitCount(mask) * (long) program.length();
+        for ( int j = 0 ; j < Math.min(variables, BLOCK_BITS) ; j++ ){
+            words[j] = PATTERNS[j];
+        }
+    }
+
+    /* (non-javadoc)
+     * Reports every block searched to a governor, which can stop the search
+     */
+    void govern(Governor governor) {
+        this.governor = governor;
+    }
+
+    /**
+     * @return the number of blocks of 64 assignments
+     */
+    long blockCount() {
+        return blocks;
+    }
+
+    /**
+     * @return the word whose set bits are the real assignments of a block
+     */
+    long mask() {
+        return mask;
+    }
+
+    /**
+     * Evaluates the program under all assignments of a block
+     * @param block the block to evaluate
+     * @return the word whose bit {@code k} is the value under assignment {@code 64 * block + k}, unused bits cleared
+     */
+    long evaluateBlock(long block) {
+        for ( int j = BLOCK_BITS ; j < words.length ; j++ ){
+            words[j] = -((block >>> (j - BLOCK_BITS)) & 1L);
+        }
+        return program.evaluateSliced(words, stack) & mask;
+    }
+
+    /**
+     * Evaluates the program under all assignments of a block and keeps those with a given value
+     * @param block the block to evaluate
+     * @param value the value to look for
+     * @return the word whose bit {@code k} is set iff the program has {@code value} under assignment {@code 64 * block + k}
+     */
+    long hits(long block, boolean value) {
+        governor.charge(Long.bitCount(mask), nodesPerBlock);
+        long result = evaluateBlock(block);
+        return value ? result : ~result & mask;
+    }
+
+    /**
+     * Counts the assignments under which the program has a given value
+     * @param value the value to look for
+     * @return the number of such assignments
+     */
+    long count(boolean value) {
+        long count = 0;
+        for ( long block = 0 ; block < blocks ; block++ ){
+            count += Long.bitCount(hits(block, value));
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first assignment under which the program has a given value
+     * @param value the value to look for
+     * @return the first such assignment, or {@code -1} if there is none
+     */
+    long find(boolean value) {
+        for ( long block = 0 ; block < blocks ; block++ ){
+            long hits = hits(block, value);
+            if ( hits != 0 ){
+                return assignment(block, hits);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Passes every assignment under which the program has a given value to a consumer, in increasing order
+     * @param value the value to look for
+     * @param consumer the consumer of the assignments
+     */
+    void forEach(boolean value, LongConsumer consumer) {
+        forEach(value, 0, blocks, consumer);
+    }
+
+    /**
+     * Passes every assignment of a range of blocks under which the program has a given value to a consumer, in increasing order
+     * @param value the value to look for
+     * @param from the first block of the range
+     * @param to the block after the last one of the range
+     * @param consumer the consumer of the assignments
+     */
+    void forEach(boolean value, long from, long to, LongConsumer consumer) {
+        for ( long block = from ; block < to ; block++ ){
+            long hits = hits(block, value);
+            while ( hits != 0 ){
+                consumer.accept(assignment(block, hits));
+                hits &= hits - 1;
+            }
+        }
+    }
+
+    /**
+     * @param block a block of assignments
+     * @param hits a non-zero word of hits in {@code block}
+     * @return the assignment of the lowest hit
+     */
+    static long assignment(long block, long hits) {
+        return (block << BLOCK_BITS) + Long.numberOfTrailingZeros(hits);
+    }
+
+    //Check the invariants
+
+    boolean repOK(){
+        return program != null && words != null && stack != null && words.length == program.variableCount();
+    }
+}
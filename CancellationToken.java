@@ -0,0 +1,32 @@
+package solver;
+
+/**
+ * Represents a request to stop the queries given a context with this token (see {@link SolverContext#withCancellation(CancellationToken)}).
+ * Any thread can cancel the token; the queries notice it at their next checkpoint and return an unknown outcome.
+ * A token cannot be reset once cancelled.
+ * @version 0.1
+ */
+public final class CancellationToken {
+
+    private volatile boolean cancelled;
+
+    /**
+     * Constructs a new token, not cancelled
+     */
+    public CancellationToken() {
+    }
+
+    /**
+     * Cancels the queries using this token
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return {@code true} iff this token was cancelled
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+}
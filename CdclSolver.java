@@ -0,0 +1,817 @@
+package solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A conflict-driven clause-learning sat solver over clauses in conjunctive normal form.
+ * Variables are numbered from {@code 1} and literals follow the DIMACS convention:
+ * {@code v} is the variable {@code v} and {@code -v} its negation.
+ * The search uses two watched literals per clause for unit propagation, first-UIP conflict analysis,
+ * VSIDS decisions with phase saving, Luby restarts and periodic deletion of learned clauses.
+ * <p>
+ * The solver is incremental: clauses can be added between calls to {@link #solve(int...)}, and each call
+ * can assume some literals true, decided before any other variable. Learned clauses never depend on
+ * the assumptions, so they are kept from one call to the next.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * every clause attached to the solver watches its first two literals
+ * the literal implied by a reason clause is its first literal
+ * 'trail' holds the assigned literals in assignment order, 'qhead' of them already propagated
+ */
+final class CdclSolver {
+
+    private static final byte TRUE = 1;
+    private static final byte FALSE = -1;
+    private static final byte UNDEFINED = 0;
+
+    private static final double VARIABLE_DECAY = 0.95;
+    private static final double CLAUSE_DECAY = 0.999;
+    private static final double RESCALE_LIMIT = 1e100;
+    private static final int RESTART_UNIT = 100;
+    private static final int MIN_LEARNED_LIMIT = 2000;
+    private static final double LEARNED_LIMIT_GROWTH = 1.1;
+
+    /* (non-javadoc)
+     * A clause of the solver, original or learned
+     */
+    private static final class Clause {
+        final int[] literals;
+        final boolean learned;
+        double activity;
+        int glue;
+        boolean deleted;
+
+        Clause(int[] literals, boolean learned) {
+            this.literals = literals;
+            this.learned = learned;
+        }
+    }
+
+    private int variables;
+    private boolean consistent = true;
+
+    //Per variable, indexed from 0
+
+    private byte[] values = new byte[0];
+    private int[] levels = new int[0];
+    private Clause[] reasons = new Clause[0];
+    private double[] activities = new double[0];
+    private boolean[] phases = new boolean[0];
+    private boolean[] seen = new boolean[0];
+    private boolean[] model = new boolean[0];
+
+    //Per literal, literal 2v is variable v and 2v+1 its negation
+
+    private Clause[][] watches = new Clause[0][];
+    private int[] watchCounts = new int[0];
+
+    private int[] trail = new int[0];
+    private int trailSize;
+    private int qhead;
+    private int[] levelStarts = new int[0];
+    private int decisionLevel;
+
+    private final List<Clause> clauses = new ArrayList<>();
+    private final List<Clause> learnedClauses = new ArrayList<>();
+
+    private final VariableHeap heap = new VariableHeap();
+    private double variableIncrement = 1;
+    private double clauseIncrement = 1;
+    private double learnedLimit;
+
+    private int[] failed = new int[0];
+
+    private long decisions;
+    private long propagations;
+    private long conflicts;
+    private long restarts;
+    private long propagationsCharged;
+    private Governor governor = Governor.NONE;
+
+    /**
+     * Adds a new variable to this solver
+     * @return the number of the new variable
+     */
+    int newVariable() {
+        int v = variables++;
+        if ( v == values.length ){
+            int capacity = Math.max(16, v * 2);
+            values = Arrays.copyOf(values, capacity);
+            levels = Arrays.copyOf(levels, capacity);
+            reasons = Arrays.copyOf(reasons, capacity);
+            activities = Arrays.copyOf(activities, capacity);
+            phases = Arrays.copyOf(phases, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            trail = Arrays.copyOf(trail, capacity);
+            levelStarts = Arrays.copyOf(levelStarts, Math.max(levelStarts.length, capacity + 1));
+            watches = Arrays.copyOf(watches, capacity * 2);
+            watchCounts = Arrays.copyOf(watchCounts, capacity * 2);
+        }
+        watches[2 * v] = new Clause[4];
+        watches[2 * v + 1] = new Clause[4];
+        heap.insert(v);
+        return v + 1;
+    }
+
+    /**
+     * @return the number of variables of this solver
+     */
+    int variableCount() {
+        return variables;
+    }
+
+    /**
+     * Adds a clause, i.e.: a disjunction of literals, to this solver
+     * @param literals the literals of the clause
+     * @return {@code false} iff the clauses of this solver are now known to be unsatisfiable
+     * @throws IllegalArgumentException if {@code literals} is {@code null}
+     * @throws IllegalArgumentException if a literal is {@code 0} or refers to a variable that does not exist
+     */
+    boolean addClause(int... literals) {
+        if ( literals == null ){
+            throw new IllegalArgumentException("The 'literals' cannot be null");
+        }
+        return addClause(literals, 0, literals.length);
+    }
+
+    /**
+     * Adds every clause of a clause store to this solver, creating the variables it needs
+     * @param store the clauses to add
+     * @return {@code false} iff the clauses of this solver are now known to be unsatisfiable
+     * @throws IllegalArgumentException if {@code store} is {@code null}
+     */
+    boolean addClauses(ClauseStore store) {
+        if ( store == null ){
+            throw new IllegalArgumentException("The 'store' cannot be null");
+        }
+        while ( variables < store.variableCount() ){
+            newVariable();
+        }
+        int[] literals = store.literals();
+        for ( int c = 0 ; c < store.clauseCount() && consistent ; c++ ){
+            addClause(literals, store.start(c), store.start(c + 1));
+        }
+        return consistent;
+    }
+
+    /* (non-javadoc)
+     * Adds the clause made of literals[from..to)
+     */
+    private boolean addClause(int[] literals, int from, int to) {
+        cancelUntil(0);
+        if ( !consistent ){
+            return false;
+        }
+
+        int[] clause = new int[to - from];
+        int size = 0;
+        for ( int i = from ; i < to ; i++ ){
+            int literal = literals[i];
+            if ( literal == 0 || Math.abs(literal) > variables ){
+                throw new IllegalArgumentException("The literal " + literal + " is not valid");
+            }
+            int lit = internal(literal);
+            byte value = value(lit);
+            if ( value == TRUE || contains(clause, size, lit ^ 1) ){
+                return true;                                                                   //the clause is already satisfied or a tautology
+            }
+            if ( value == UNDEFINED && !contains(clause, size, lit) ){
+                clause[size++] = lit;
+            }
+        }
+
+        if ( size == 0 ){
+            consistent = false;
+        } else if ( size == 1 ){
+            enqueue(clause[0], null);
+            consistent = propagate() == null;
+        } else {
+            Clause c = new Clause(Arrays.copyOf(clause, size), false);
+            clauses.add(c);
+            attach(c);
+        }
+        return consistent;
+    }
+
+    /**
+     * Decides if the clauses of this solver are satisfiable under some assumptions
+     * @param assumptions literals assumed true for this call only
+     * @return {@code true} iff there is an assignment satisfying all clauses and assumptions, available through {@link #modelValue(int)};
+     * if there is none because of the assumptions, the ones responsible are available through {@link #failedAssumptions()}
+     * @throws IllegalArgumentException if {@code assumptions} is {@code null}
+     * @throws IllegalArgumentException if an assumption is {@code 0} or refers to a variable that does not exist
+     */
+    boolean solve(int... assumptions) {
+        if ( assumptions == null ){
+            throw new IllegalArgumentException("The 'assumptions' cannot be null");
+        }
+        int[] assumed = new int[assumptions.length];
+        for ( int i = 0 ; i < assumptions.length ; i++ ){
+            if ( assumptions[i] == 0 || Math.abs(assumptions[i]) > variables ){
+                throw new IllegalArgumentException("The literal " + assumptions[i] + " is not valid");
+            }
+            assumed[i] = internal(assumptions[i]);
+        }
+        failed = new int[0];
+        cancelUntil(0);
+        if ( !consistent ){
+            return false;
+        }
+        learnedLimit = Math.max(MIN_LEARNED_LIMIT, clauses.size() / 3.0);
+        try {
+            return search(assumed);
+        } catch ( Governor.Exceeded e ){
+            cancelUntil(0);                                                                    //what was learned is kept, the search is not
+            throw e;
+        }
+    }
+
+    /* (non-javadoc)
+     * Searches from decision level 0 under assumptions already translated; it is stopped by the governor before a round
+     * of propagation, never with a conflict found and not yet analysed, so it can be resumed by the next call
+     */
+    private boolean search(int[] assumed) {
+        long restartLimit = RESTART_UNIT * luby(restarts);
+        long conflictsAtRestart = conflicts;
+
+        while ( true ){
+            governor.charge(0, propagations - propagationsCharged);                            //a checkpoint before every round of propagation
+            propagationsCharged = propagations;
+            Clause conflict = propagate();
+            if ( conflict != null ){
+                conflicts++;
+                if ( decisionLevel == 0 ){
+                    consistent = false;
+                    return false;
+                }
+                learn(conflict);
+                variableIncrement /= VARIABLE_DECAY;
+                clauseIncrement /= CLAUSE_DECAY;
+                continue;
+            }
+
+            if ( conflicts - conflictsAtRestart >= restartLimit ){
+                restarts++;
+                cancelUntil(0);
+                restartLimit = RESTART_UNIT * luby(restarts);
+                conflictsAtRestart = conflicts;
+                continue;
+            }
+            if ( learnedClauses.size() - trailSize >= learnedLimit ){
+                reduceLearnedClauses();
+            }
+
+            int next = -1;
+            while ( decisionLevel < assumed.length ){                                           //the assumptions are the first decisions
+                int p = assumed[decisionLevel];
+                if ( value(p) == TRUE ){
+                    newDecisionLevel();                                                        //an empty level keeps levels and assumptions aligned
+                } else if ( value(p) == FALSE ){
+                    failed = analyzeFinal(p);
+                    cancelUntil(0);
+                    return false;
+                } else {
+                    next = p;
+                    break;
+                }
+            }
+            if ( next < 0 ){
+                next = pickBranchLiteral();
+            }
+            if ( next < 0 ){
+                if ( model.length < variables ){
+                    model = new boolean[variables];
+                }
+                for ( int v = 0 ; v < variables ; v++ ){
+                    model[v] = values[v] == TRUE;
+                }
+                cancelUntil(0);
+                return true;
+            }
+            decisions++;
+            newDecisionLevel();
+            enqueue(next, null);
+        }
+    }
+
+    /* (non-javadoc)
+     * Opens a decision level at the end of the trail. Assumptions already true open empty levels, so there can be
+     * more levels than variables, and the level starts grow when they run out
+     */
+    private void newDecisionLevel() {
+        if ( decisionLevel == levelStarts.length ){
+            levelStarts = Arrays.copyOf(levelStarts, Math.max(16, 2 * levelStarts.length));
+        }
+        levelStarts[decisionLevel++] = trailSize;
+    }
+
+    /**
+     * @return the assumptions of the last call to {@link #solve(int...)} that together made it fail, as given;
+     * empty if it did not fail because of its assumptions
+     */
+    int[] failedAssumptions() {
+        return failed.clone();
+    }
+
+    /**
+     * @param variable the number of a variable
+     * @return the value of {@code variable} in the model found by the last successful {@link #solve(int...)}
+     * @throws IllegalArgumentException if {@code variable} does not exist
+     */
+    boolean modelValue(int variable) {
+        if ( variable <= 0 || variable > variables ){
+            throw new IllegalArgumentException("The variable " + variable + " is not valid");
+        }
+        return variable <= model.length && model[variable - 1];
+    }
+
+    /* (non-javadoc)
+     * Reports every literal propagated to a governor, which can stop the search; a search stopped leaves the solver at
+     * decision level 0 with every clause it learned, so it can still be asked and added to
+     */
+    void govern(Governor governor) {
+        this.governor = governor;
+    }
+
+    /**
+     * @return the number of decisions made by this solver so far
+     */
+    long decisions() {
+        return decisions;
+    }
+
+    /**
+     * @return the number of literals propagated by this solver so far
+     */
+    long propagations() {
+        return propagations;
+    }
+
+    /**
+     * @return the number of conflicts found by this solver so far
+     */
+    long conflicts() {
+        return conflicts;
+    }
+
+    /* (non-javadoc)
+     * Unit propagation with two watched literals
+     * @return the conflicting clause, or null if every clause is satisfied or unresolved
+     */
+    private Clause propagate() {
+        while ( qhead < trailSize ){
+            int falseLiteral = trail[qhead++] ^ 1;
+            propagations++;
+            Clause[] watchers = watches[falseLiteral];
+            int count = watchCounts[falseLiteral];
+            int i = 0;
+            int j = 0;
+            while ( i < count ){
+                Clause c = watchers[i++];
+                if ( c.deleted ){
+                    continue;
+                }
+                int[] lits = c.literals;
+                if ( lits[0] == falseLiteral ){
+                    lits[0] = lits[1];
+                    lits[1] = falseLiteral;
+                }
+                if ( value(lits[0]) == TRUE ){
+                    watchers[j++] = c;
+                    continue;
+                }
+
+                boolean moved = false;
+                for ( int k = 2 ; k < lits.length ; k++ ){
+                    if ( value(lits[k]) != FALSE ){
+                        lits[1] = lits[k];
+                        lits[k] = falseLiteral;
+                        watch(lits[1], c);
+                        moved = true;
+                        break;
+                    }
+                }
+                if ( moved ){
+                    continue;
+                }
+
+                watchers[j++] = c;
+                if ( value(lits[0]) == FALSE ){
+                    while ( i < count ){
+                        watchers[j++] = watchers[i++];
+                    }
+                    watchCounts[falseLiteral] = j;
+                    qhead = trailSize;
+                    return c;
+                }
+                enqueue(lits[0], c);
+            }
+            watchCounts[falseLiteral] = j;
+        }
+        return null;
+    }
+
+    /* (non-javadoc)
+     * Analyses a conflict down to its first unique implication point, learns the resulting clause and backjumps
+     */
+    private void learn(Clause conflict) {
+        int[] learned = new int[decisionLevel + 8];
+        int size = 1;                                                                          //slot 0 is for the asserting literal
+        int pending = 0;
+        int literal = -1;
+        int index = trailSize - 1;
+        Clause reason = conflict;
+
+        do {
+            if ( reason.learned ){
+                bumpClause(reason);
+            }
+            int[] lits = reason.literals;
+            for ( int k = literal < 0 ? 0 : 1 ; k < lits.length ; k++ ){
+                int q = lits[k];
+                int v = q >> 1;
+                if ( !seen[v] && levels[v] > 0 ){
+                    bumpVariable(v);
+                    seen[v] = true;
+                    if ( levels[v] >= decisionLevel ){
+                        pending++;
+                    } else {
+                        if ( size == learned.length ){
+                            learned = Arrays.copyOf(learned, size * 2);
+                        }
+                        learned[size++] = q;
+                    }
+                }
+            }
+            while ( !seen[trail[index] >> 1] ){
+                index--;
+            }
+            literal = trail[index--];
+            reason = reasons[literal >> 1];
+            seen[literal >> 1] = false;
+            pending--;
+        } while ( pending > 0 );
+        learned[0] = literal ^ 1;
+
+        //Drop the literals implied by the other literals of the clause
+
+        int[] analysed = Arrays.copyOf(learned, size);
+        int kept = 1;
+        for ( int k = 1 ; k < size ; k++ ){
+            if ( !isRedundant(analysed[k]) ){
+                learned[kept++] = analysed[k];
+            }
+        }
+        for ( int k = 1 ; k < size ; k++ ){
+            seen[analysed[k] >> 1] = false;
+        }
+        size = kept;
+
+        int backjumpLevel = 0;
+        if ( size > 1 ){
+            int highest = 1;
+            for ( int k = 2 ; k < size ; k++ ){
+                if ( levels[learned[k] >> 1] > levels[learned[highest] >> 1] ){
+                    highest = k;
+                }
+            }
+            int swap = learned[1];
+            learned[1] = learned[highest];
+            learned[highest] = swap;
+            backjumpLevel = levels[learned[1] >> 1];
+        }
+        int[] literals = Arrays.copyOf(learned, size);
+        int glue = glue(literals);
+        cancelUntil(backjumpLevel);
+
+        if ( size == 1 ){
+            enqueue(learned[0], null);
+        } else {
+            Clause c = new Clause(literals, true);
+            c.glue = glue;
+            bumpClause(c);
+            learnedClauses.add(c);
+            attach(c);
+            enqueue(learned[0], c);
+        }
+    }
+
+    /* (non-javadoc)
+     * Finds the assumptions that imply the negation of a false assumption, walking the trail back through the reasons
+     * @return the false assumption and those assumptions, as external literals
+     */
+    private int[] analyzeFinal(int p) {
+        int[] result = new int[decisionLevel + 1];
+        int size = 0;
+        result[size++] = external(p);
+        if ( decisionLevel == 0 ){
+            return Arrays.copyOf(result, size);
+        }
+        seen[p >> 1] = true;
+        for ( int i = trailSize - 1 ; i >= levelStarts[0] ; i-- ){
+            int v = trail[i] >> 1;
+            if ( !seen[v] ){
+                continue;
+            }
+            if ( reasons[v] == null ){
+                if ( levels[v] > 0 ){
+                    result[size++] = external(trail[i]);                                       //a decision below the assumptions is an assumption
+                }
+            } else {
+                int[] lits = reasons[v].literals;
+                for ( int k = 1 ; k < lits.length ; k++ ){
+                    if ( levels[lits[k] >> 1] > 0 ){
+                        seen[lits[k] >> 1] = true;
+                    }
+                }
+            }
+            seen[v] = false;
+        }
+        seen[p >> 1] = false;
+        return Arrays.copyOf(result, size);
+    }
+
+    /* (non-javadoc)
+     * A literal of a learned clause is redundant if its reason only has literals already in the clause or at level 0
+     */
+    private boolean isRedundant(int literal) {
+        Clause reason = reasons[literal >> 1];
+        if ( reason == null ){
+            return false;
+        }
+        int[] lits = reason.literals;
+        for ( int k = 1 ; k < lits.length ; k++ ){
+            int v = lits[k] >> 1;
+            if ( !seen[v] && levels[v] > 0 ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* (non-javadoc)
+     * The number of distinct decision levels among the literals of a clause
+     */
+    private int glue(int[] lits) {
+        int glue = 0;
+        boolean[] counted = new boolean[decisionLevel + 1];
+        for ( int lit : lits ){
+            int level = levels[lit >> 1];
+            if ( !counted[level] ){
+                counted[level] = true;
+                glue++;
+            }
+        }
+        return glue;
+    }
+
+    /* (non-javadoc)
+     * Deletes about half of the learned clauses, keeping those with a small glue and those that are reasons
+     */
+    private void reduceLearnedClauses() {
+        learnedClauses.sort(Comparator.<Clause>comparingInt(c -> c.glue).thenComparing(c -> -c.activity));
+        int keep = learnedClauses.size() / 2;
+        List<Clause> kept = new ArrayList<>(learnedClauses.size());
+        for ( int i = 0 ; i < learnedClauses.size() ; i++ ){
+            Clause c = learnedClauses.get(i);
+            if ( i < keep || c.glue <= 2 || isLocked(c) ){
+                kept.add(c);
+            } else {
+                c.deleted = true;
+            }
+        }
+        learnedClauses.clear();
+        learnedClauses.addAll(kept);
+        for ( int lit = 0 ; lit < 2 * variables ; lit++ ){                                    //purge the deleted clauses from the watch lists
+            Clause[] watchers = watches[lit];
+            int j = 0;
+            for ( int i = 0 ; i < watchCounts[lit] ; i++ ){
+                if ( !watchers[i].deleted ){
+                    watchers[j++] = watchers[i];
+                }
+            }
+            Arrays.fill(watchers, j, watchCounts[lit], null);
+            watchCounts[lit] = j;
+        }
+        learnedLimit *= LEARNED_LIMIT_GROWTH;
+    }
+
+    private boolean isLocked(Clause c) {
+        int v = c.literals[0] >> 1;
+        return reasons[v] == c && value(c.literals[0]) == TRUE;
+    }
+
+    private int pickBranchLiteral() {
+        while ( !heap.isEmpty() ){
+            int v = heap.removeMax();
+            if ( values[v] == UNDEFINED ){
+                return 2 * v + (phases[v] ? 0 : 1);
+            }
+        }
+        return -1;
+    }
+
+    private void enqueue(int literal, Clause reason) {
+        int v = literal >> 1;
+        values[v] = (literal & 1) == 0 ? TRUE : FALSE;
+        levels[v] = decisionLevel;
+        reasons[v] = reason;
+        trail[trailSize++] = literal;
+    }
+
+    /* (non-javadoc)
+     * Undoes every assignment above a decision level, saving the phases of the undone variables
+     */
+    private void cancelUntil(int level) {
+        if ( decisionLevel <= level ){
+            return;
+        }
+        for ( int i = trailSize - 1 ; i >= levelStarts[level] ; i-- ){
+            int v = trail[i] >> 1;
+            phases[v] = values[v] == TRUE;
+            values[v] = UNDEFINED;
+            reasons[v] = null;
+            if ( !heap.contains(v) ){
+                heap.insert(v);
+            }
+        }
+        trailSize = levelStarts[level];
+        qhead = trailSize;
+        decisionLevel = level;
+    }
+
+    private void attach(Clause c) {
+        watch(c.literals[0], c);
+        watch(c.literals[1], c);
+    }
+
+    private void watch(int literal, Clause c) {
+        if ( watchCounts[literal] == watches[literal].length ){
+            watches[literal] = Arrays.copyOf(watches[literal], watchCounts[literal] * 2);
+        }
+        watches[literal][watchCounts[literal]++] = c;
+    }
+
+    private void bumpVariable(int v) {
+        activities[v] += variableIncrement;
+        if ( activities[v] > RESCALE_LIMIT ){
+            for ( int i = 0 ; i < variables ; i++ ){
+                activities[i] /= RESCALE_LIMIT;
+            }
+            variableIncrement /= RESCALE_LIMIT;
+        }
+        heap.increased(v);
+    }
+
+    private void bumpClause(Clause c) {
+        c.activity += clauseIncrement;
+        if ( c.activity > RESCALE_LIMIT ){
+            for ( Clause learned : learnedClauses ){
+                learned.activity /= RESCALE_LIMIT;
+            }
+            clauseIncrement /= RESCALE_LIMIT;
+        }
+    }
+
+    private byte value(int literal) {
+        byte value = values[literal >> 1];
+        return (literal & 1) == 0 ? value : (byte) -value;
+    }
+
+    private static int internal(int literal) {
+        return literal > 0 ? 2 * (literal - 1) : 2 * (-literal - 1) + 1;
+    }
+
+    private static int external(int literal) {
+        return (literal & 1) == 0 ? (literal >> 1) + 1 : -((literal >> 1) + 1);
+    }
+
+    private static boolean contains(int[] lits, int size, int lit) {
+        for ( int i = 0 ; i < size ; i++ ){
+            if ( lits[i] == lit ){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* (non-javadoc)
+     * The i-th element of the Luby sequence 1, 1, 2, 1, 1, 2, 4, ...
+     */
+    private static long luby(long i) {
+        long size = 1;
+        int exponent = 0;
+        while ( size < i + 1 ){
+            exponent++;
+            size = 2 * size + 1;
+        }
+        while ( size - 1 != i ){
+            size = (size - 1) >> 1;
+            exponent--;
+            i = i % size;
+        }
+        return 1L << exponent;
+    }
+
+    /* (non-javadoc)
+     * A binary max-heap of variables ordered by activity
+     */
+    private final class VariableHeap {
+        private int[] heap = new int[16];
+        private int[] positions = new int[0];
+        private int size;
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        boolean contains(int v) {
+            return v < positions.length && positions[v] >= 0;
+        }
+
+        void insert(int v) {
+            if ( v >= positions.length ){
+                int old = positions.length;
+                positions = Arrays.copyOf(positions, Math.max(v + 1, old * 2));
+                Arrays.fill(positions, old, positions.length, -1);
+            }
+            if ( size == heap.length ){
+                heap = Arrays.copyOf(heap, size * 2);
+            }
+            heap[size] = v;
+            positions[v] = size;
+            up(size++);
+        }
+
+        void increased(int v) {
+            if ( contains(v) ){
+                up(positions[v]);
+            }
+        }
+
+        int removeMax() {
+            int top = heap[0];
+            positions[top] = -1;
+            size--;
+            if ( size > 0 ){
+                heap[0] = heap[size];
+                positions[heap[0]] = 0;
+                down(0);
+            }
+            return top;
+        }
+
+        private void up(int i) {
+            int v = heap[i];
+            while ( i > 0 ){
+                int parent = (i - 1) >> 1;
+                if ( activities[heap[parent]] >= activities[v] ){
+                    break;
+                }
+                heap[i] = heap[parent];
+                positions[heap[i]] = i;
+                i = parent;
+            }
+            heap[i] = v;
+            positions[v] = i;
+        }
+
+        private void down(int i) {
+            int v = heap[i];
+            while ( true ){
+                int child = 2 * i + 1;
+                if ( child >= size ){
+                    break;
+                }
+                if ( child + 1 < size && activities[heap[child + 1]] > activities[heap[child]] ){
+                    child++;
+                }
+                if ( activities[heap[child]] <= activities[v] ){
+                    break;
+                }
+                heap[i] = heap[child];
+                positions[heap[i]] = i;
+                i = child;
+            }
+            heap[i] = v;
+            positions[v] = i;
+        }
+    }
+
+    //Check the invariants
+
+    boolean repOK(){
+        for ( Clause c : clauses ){
+            if ( c.literals.length < 2 ){
+                return false;
+            }
+        }
+        return trailSize <= variables && qhead <= trailSize && decisionLevel >= 0;
+    }
+}
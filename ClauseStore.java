@@ -0,0 +1,173 @@
+package solver;
+
+import java.util.Arrays;
+
+/**
+ * A growable set of clauses stored in two primitive arrays: all literals one after the other,
+ * and the index where every clause starts. Literals follow the DIMACS convention, i.e.:
+ * {@code v} is the variable {@code v} (numbered from {@code 1}) and {@code -v} its negation.
+ * Clauses are added whole with {@link #addClause(int...)} or streamed literal by literal
+ * with {@link #add(int)} and {@link #endClause()}, which does not allocate once the arrays have grown.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'literals' and 'starts' cannot be null
+ * no literal is 0 and every literal refers to a variable not greater than 'variableCount'
+ * starts[0] == 0 and starts[i] <= starts[i + 1] for every clause i
+ * starts[clauseCount] is where the clause being added starts
+ */
+public final class ClauseStore {
+
+    private int[] literals = new int[64];
+    private int[] starts = new int[16];
+    private int literalCount;
+    private int clauseCount;
+    private int variableCount;
+
+    /**
+     * Adds a literal to the clause being added
+     * @param literal the literal to add
+     * @throws IllegalArgumentException if {@code literal} is {@code 0} or {@link Integer#MIN_VALUE}
+     */
+    public void add(int literal) {
+        if ( literal == 0 || literal == Integer.MIN_VALUE ){
+            throw new IllegalArgumentException("The 'literal' is not valid");
+        }
+        if ( literalCount == literals.length ){
+            literals = Arrays.copyOf(literals, literalCount * 2);
+        }
+        literals[literalCount++] = literal;
+        variableCount = Math.max(variableCount, Math.abs(literal));
+    }
+
+    /**
+     * Ends the clause being added, made of the literals added since the previous clause ended
+     */
+    public void endClause() {
+        if ( clauseCount + 2 > starts.length ){
+            starts = Arrays.copyOf(starts, starts.length * 2);
+        }
+        starts[++clauseCount] = literalCount;
+    }
+
+    /**
+     * Adds a whole clause
+     * @param clause the literals of the clause
+     * @throws IllegalArgumentException if {@code clause} is {@code null}
+     * @throws IllegalArgumentException if a literal is {@code 0} or {@link Integer#MIN_VALUE}
+     */
+    public void addClause(int... clause) {
+        if ( clause == null ){
+            throw new IllegalArgumentException("The 'clause' cannot be null");
+        }
+        for ( int literal : clause ){
+            add(literal);
+        }
+        endClause();
+    }
+
+    /**
+     * Makes sure variables up to a given number are counted by this store even if no clause uses them
+     * @param variables the number of variables
+     * @throws IllegalArgumentException if {@code variables} is negative
+     */
+    public void declareVariables(int variables) {
+        if ( variables < 0 ){
+            throw new IllegalArgumentException("The 'variables' cannot be negative");
+        }
+        variableCount = Math.max(variableCount, variables);
+    }
+
+    /**
+     * @return the largest variable number used or declared in this store
+     */
+    public int variableCount() {
+        return variableCount;
+    }
+
+    /**
+     * @return the number of complete clauses in this store
+     */
+    public int clauseCount() {
+        return clauseCount;
+    }
+
+    /**
+     * @return the number of literals of all complete clauses in this store
+     */
+    public int literalCount() {
+        return starts[clauseCount];
+    }
+
+    /**
+     * @param clause the index of a clause
+     * @return the number of literals of clause {@code clause}
+     * @throws IndexOutOfBoundsException if {@code clause} is not the index of a complete clause
+     */
+    public int clauseLength(int clause) {
+        checkClause(clause);
+        return starts[clause + 1] - starts[clause];
+    }
+
+    /**
+     * @param clause the index of a clause
+     * @param index the index of a literal in the clause
+     * @return the literal at {@code index} of clause {@code clause}
+     * @throws IndexOutOfBoundsException if {@code clause} or {@code index} are out of bounds
+     */
+    public int literal(int clause, int index) {
+        checkClause(clause);
+        if ( index < 0 || index >= starts[clause + 1] - starts[clause] ){
+            throw new IndexOutOfBoundsException("The 'index' is out of bounds");
+        }
+        return literals[starts[clause] + index];
+    }
+
+    /**
+     * @param clause the index of a clause
+     * @return a copy of the literals of clause {@code clause}
+     * @throws IndexOutOfBoundsException if {@code clause} is not the index of a complete clause
+     */
+    public int[] clause(int clause) {
+        checkClause(clause);
+        return Arrays.copyOfRange(literals, starts[clause], starts[clause + 1]);
+    }
+
+    /* (non-javadoc)
+     * Direct access to the literal array for the solvers of this package, clause i spans [start(i), start(i + 1))
+     */
+    int[] literals() {
+        return literals;
+    }
+
+    int start(int clause) {
+        return starts[clause];
+    }
+
+    private void checkClause(int clause) {
+        if ( clause < 0 || clause >= clauseCount ){
+            throw new IndexOutOfBoundsException("The 'clause' is out of bounds");
+        }
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        if ( literals == null || starts == null || starts[0] != 0 ){
+            return false;
+        }
+        for ( int i = 0 ; i < clauseCount ; i++ ){
+            if ( starts[i] > starts[i + 1] ){
+                return false;
+            }
+        }
+        for ( int i = 0 ; i < literalCount ; i++ ){
+            if ( literals[i] == 0 || Math.abs(literals[i]) > variableCount ){
+                return false;
+            }
+        }
+        return starts[clauseCount] <= literalCount;
+    }
+}
@@ -0,0 +1,129 @@
+package solver;
+
+import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents a formula in conjunctive normal form together with the names of its variables.
+ * Variables {@code 1} to {@code n} stand for the {@code n} named variables of the original
+ * expression; variables above {@code n} are auxiliary, introduced by the encoding.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'clauses' and 'names' cannot be null
+ * the names are distinct and 'indices' maps each of them to its variable number
+ */
+public final class Cnf {
+
+    private final ClauseStore clauses;
+    private final String[] names;
+    private final Map<String, Integer> indices;
+    private VariableIndex index;
+
+    /**
+     * Constructs a new formula in conjunctive normal form
+     * @param clauses the clauses of the formula
+     * @param names the names of variables {@code 1} to {@code names.size()}
+     * @throws IllegalArgumentException if {@code clauses} or {@code names} is {@code null}
+     * @throws IllegalArgumentException if a name is {@code null} or repeated
+     */
+    public Cnf(ClauseStore clauses, List<String> names) {
+        if ( clauses == null || names == null ){
+            throw new IllegalArgumentException("The 'clauses' and 'names' cannot be null");
+        }
+        this.clauses = clauses;
+        this.names = names.toArray(new String[0]);
+        this.indices = new HashMap<>();
+        for ( int i = 0 ; i < this.names.length ; i++ ){
+            if ( this.names[i] == null || indices.put(this.names[i], i + 1) != null ){
+                throw new IllegalArgumentException("The 'names' cannot be null or repeated");
+            }
+        }
+        clauses.declareVariables(this.names.length);
+    }
+
+    /**
+     * @return the clauses of this formula
+     */
+    public ClauseStore clauses() {
+        return clauses;
+    }
+
+    /**
+     * @return the number of variables of this formula, named and auxiliary
+     */
+    public int variableCount() {
+        return clauses.variableCount();
+    }
+
+    /**
+     * @return the names of the named variables, the name at index {@code i} being the one of variable {@code i + 1}
+     */
+    public List<String> names() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /**
+     * @param variable a variable number
+     * @return {@code true} iff {@code variable} was introduced by the encoding and has no name
+     */
+    public boolean isAuxiliary(int variable) {
+        return variable > names.length;
+    }
+
+    /**
+     * @param variable a variable number
+     * @return the name of {@code variable}, or {@code null} if it is auxiliary
+     * @throws IllegalArgumentException if {@code variable} is not positive
+     */
+    public String nameOf(int variable) {
+        if ( variable <= 0 ){
+            throw new IllegalArgumentException("The 'variable' must be positive");
+        }
+        return variable <= names.length ? names[variable - 1] : null;
+    }
+
+    /**
+     * @param name a variable name
+     * @return the number of the variable called {@code name}, or {@code 0} if there is none
+     */
+    public int variableOf(String name) {
+        Integer index = indices.get(name);
+        return index == null ? 0 : index;
+    }
+
+    /**
+     * Reads an interpretation of the named variables from a model of this formula, dropping the auxiliary variables
+     * @param model the model, {@code model[v - 1]} being the value of variable {@code v}
+     * @return the interpretation of the named variables under {@code model}
+     * @throws IllegalArgumentException if {@code model} is {@code null} or shorter than the number of named variables
+     */
+    public Interpretation toInterpretation(boolean[] model) {
+        if ( model == null || model.length < names.length ){
+            throw new IllegalArgumentException("The 'model' must give a value to every named variable");
+        }
+        if ( index == null ){
+            index = VariableIndex.of(names());                                                 //validated on the first model only
+        }
+        long[] values = new long[(names.length >>> 6) + 1];
+        for ( int i = 0 ; i < names.length ; i++ ){
+            if ( model[i] ){
+                values[i >>> 6] |= 1L << i;
+            }
+        }
+        return new Interpretation(index, values);
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return clauses != null && names != null && indices.size() == names.length;
+    }
+}
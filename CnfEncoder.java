@@ -0,0 +1,303 @@
+package solver;
+
+import expressions.CompiledExpression;
+import expressions.Expression;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Converts expressions into equisatisfiable formulas in conjunctive normal form with the Tseitin transformation:
+ * every binary operator gets a fresh auxiliary variable constrained to follow it, so the number of
+ * clauses grows linearly with the size of the expression instead of exponentially. Every operator is
+ * encoded as a conjunction or an exclusive disjunction of its operands, possibly negated, so negations cost nothing.
+ * The encoding runs over the compiled expression, where a shared sub-expression is computed once and loaded
+ * wherever else it is used, so it gets one gate however many times it occurs: the size of the encoding follows
+ * the DAG of the expression, not its tree.
+ * <p>
+ * By default the encoding is polarity-optimised: a gate that only occurs positively only gets the clauses
+ * forcing its operands when it is true, and one that only occurs negatively only gets the opposite clauses.
+ * Constants are folded away while encoding, as are gates whose operands are equal or complementary.
+ * When every gate is constrained in both directions, gates over the same literals are also shared, through a
+ * {@link GateTable} that can outlive one encoding.
+ * @version 0.1
+ */
+public final class CnfEncoder {
+
+    /* (non-javadoc)
+     * The gates already encoded, keyed on their operand literals in increasing order, so an operator over the
+     * same operands is given the same literal. Only gates constrained in both directions can be shared this way:
+     * a polarity-optimised gate only follows its operands in the directions its own occurrences needed
+     */
+    static final class GateTable {
+        private final Map<Long, Integer> andGates = new HashMap<>();
+        private final Map<Long, Integer> xorGates = new HashMap<>();
+
+        private static long key(int a, int b) {
+            return a < b ? (long) a << 32 | (b & 0xffffffffL) : (long) b << 32 | (a & 0xffffffffL);
+        }
+    }
+
+    /* (non-javadoc)
+     * Literals standing for the constants while encoding, never written to a clause
+     */
+    static final int TRUE = Integer.MAX_VALUE;
+    static final int FALSE = -TRUE;
+
+    /* (non-javadoc)
+     * The polarities a sub-expression occurs with
+     */
+    private static final byte POSITIVE = 1;
+    private static final byte NEGATIVE = 2;
+    private static final byte BOTH = POSITIVE | NEGATIVE;
+
+    private CnfEncoder() {
+    }
+
+    /**
+     * Encodes an expression into a polarity-optimised formula that is satisfiable iff the expression is
+     * @param expression the expression to encode
+     * @return the encoding of {@code expression}, whose named variables are the variables of {@code expression} in natural order
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public static Cnf encode(Expression expression) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        return encode(CompiledExpression.compile(expression), true, false);
+    }
+
+    /**
+     * Encodes the constraint that a compiled expression has a given value.
+     * The variable at slot {@code i} of {@code program} becomes variable {@code i + 1}, the auxiliary variables follow.
+     * @param program the compiled expression to encode
+     * @param value the value the expression is constrained to
+     * @param equivalence {@code true} to constrain every auxiliary variable in both directions, so every model
+     * of the constraint extends to exactly one model of the encoding; {@code false} for the smaller
+     * polarity-optimised encoding, which only preserves satisfiability
+     * @return the encoding of {@code program = value}
+     * @throws IllegalArgumentException if {@code program} is {@code null}
+     */
+    public static Cnf encode(CompiledExpression program, boolean value, boolean equivalence) {
+        if ( program == null ){
+            throw new IllegalArgumentException("The 'program' cannot be null");
+        }
+        return encode(program, value, equivalence, Governor.NONE);
+    }
+
+    /* (non-javadoc)
+     * Encodes the constraint that a compiled expression has a given value, charging a node to a governor for every
+     * instruction encoded, so it can stop the encoding
+     */
+    static Cnf encode(CompiledExpression program, boolean value, boolean equivalence, Governor governor) {
+        ClauseStore clauses = new ClauseStore();
+        clauses.declareVariables(program.variableCount());
+        int[] variables = new int[program.variableCount()];
+        for ( int i = 0 ; i < variables.length ; i++ ){
+            variables[i] = i + 1;
+        }
+        int[] nextVariable = { program.variableCount() + 1 };
+        GateTable gates = equivalence ? new GateTable() : null;
+        int root = encodeGates(program, value, equivalence, variables, () -> nextVariable[0]++, clauses, gates, governor);
+        if ( !value ){
+            root = -root;
+        }
+        if ( root == FALSE ){
+            clauses.endClause();                                                               //the empty clause
+        } else if ( root != TRUE ){
+            clauses.addClause(root);
+        }
+        clauses.declareVariables(nextVariable[0] - 1);
+        return new Cnf(clauses, program.variables());
+    }
+
+    /* (non-javadoc)
+     * Adds to 'clauses' the gates of a compiled expression without constraining its value, the variable at slot i
+     * being 'variables[i]' and every auxiliary variable taken from 'fresh'. Gates get the clauses needed for the root
+     * to have 'value', or both directions if 'equivalence', in which case the gates of 'gates', unless it is null,
+     * are reused and the new ones added to it. Every instruction encoded charges a node to 'governor'
+     * @return the literal of the root, or TRUE/FALSE if it folds to a constant
+     */
+    static int encodeGates(CompiledExpression program, boolean value, boolean equivalence, int[] variables, IntSupplier fresh,
+            ClauseStore clauses, GateTable gates, Governor governor) {
+        GateTable shared = equivalence ? gates : null;
+        int length = program.length();
+        int[] left = new int[length];
+        int[] right = new int[length];
+        byte[] polarities = new byte[length];
+
+        //First, I link every instruction to the instructions computing its operands, a loaded value to the one storing it
+
+        int[] stack = new int[Math.max(1, program.stackDepth())];
+        int[] registers = new int[program.registerCount()];
+        int top = -1;
+        for ( int pc = 0 ; pc < length ; pc++ ){
+            switch ( program.opcode(pc) ){
+                case CompiledExpression.VAR:
+                case CompiledExpression.CONST:
+                    break;
+                case CompiledExpression.NOT:
+                    left[pc] = stack[top--];
+                    break;
+                case CompiledExpression.STORE:
+                    registers[program.operand(pc)] = stack[top];
+                    continue;
+                case CompiledExpression.LOAD:
+                    stack[++top] = registers[program.operand(pc)];
+                    continue;
+                default:
+                    right[pc] = stack[top--];
+                    left[pc] = stack[top--];
+                    break;
+            }
+            stack[++top] = pc;
+        }
+
+        //Then, I push the polarities down from the root, every shared operator getting those of all its occurrences
+
+        int root = stack[0];
+        polarities[root] = equivalence ? BOTH : (value ? POSITIVE : NEGATIVE);
+        for ( int pc = length - 1 ; pc >= 0 ; pc-- ){
+            byte polarity = equivalence ? BOTH : polarities[pc];
+            switch ( program.opcode(pc) ){
+                case CompiledExpression.VAR:
+                case CompiledExpression.CONST:
+                case CompiledExpression.STORE:
+                case CompiledExpression.LOAD:
+                    break;
+                case CompiledExpression.NOT:
+                    polarities[left[pc]] |= flip(polarity);
+                    break;
+                case CompiledExpression.AND:
+                case CompiledExpression.OR:
+                    polarities[left[pc]] |= polarity;
+                    polarities[right[pc]] |= polarity;
+                    break;
+                case CompiledExpression.NAND:
+                case CompiledExpression.NOR:
+                    polarities[left[pc]] |= flip(polarity);
+                    polarities[right[pc]] |= flip(polarity);
+                    break;
+                case CompiledExpression.IMPLIES:
+                    polarities[left[pc]] |= flip(polarity);
+                    polarities[right[pc]] |= polarity;
+                    break;
+                default:                                                                       //the value of an operand of iff/xor matters both ways
+                    polarities[left[pc]] = BOTH;
+                    polarities[right[pc]] = BOTH;
+                    break;
+            }
+        }
+
+        //Finally, I give every instruction a literal, adding the clauses of its gate, so every operator gets one gate
+
+        int[] literals = new int[length];
+        for ( int pc = 0 ; pc < length ; pc++ ){
+            governor.charge(0, 1);
+            switch ( program.opcode(pc) ){
+                case CompiledExpression.STORE:
+                case CompiledExpression.LOAD:
+                    break;
+                case CompiledExpression.VAR:
+                    literals[pc] = variables[program.operand(pc)];
+                    break;
+                case CompiledExpression.CONST:
+                    literals[pc] = program.operand(pc) == 1 ? TRUE : FALSE;
+                    break;
+                case CompiledExpression.NOT:
+                    literals[pc] = -literals[left[pc]];
+                    break;
+                default: {
+                    int opcode = program.opcode(pc);
+                    int a = literals[left[pc]];
+                    int b = literals[right[pc]];
+                    boolean xor = opcode == CompiledExpression.XOR || opcode == CompiledExpression.IFF;
+                    boolean negated = opcode == CompiledExpression.NAND || opcode == CompiledExpression.OR
+                            || opcode == CompiledExpression.IMPLIES || opcode == CompiledExpression.IFF;
+                    if ( opcode == CompiledExpression.OR || opcode == CompiledExpression.NOR ){   //a or b is not (not a and not b)
+                        a = -a;
+                        b = -b;
+                    } else if ( opcode == CompiledExpression.IMPLIES ){                        //a implies b is not (a and not b)
+                        b = -b;
+                    }
+                    byte polarity = negated ? flip(polarities[pc]) : polarities[pc];
+                    int gate = xor ? xorGate(a, b, polarity, fresh, clauses, shared) : andGate(a, b, polarity, fresh, clauses, shared);
+                    literals[pc] = negated ? -gate : gate;
+                    break;
+                }
+            }
+        }
+
+        return literals[root];
+    }
+
+    /* (non-javadoc)
+     * @return the literal of 'a and b', adding the clauses of a new gate unless it folds away or is in 'gates'
+     */
+    private static int andGate(int a, int b, byte polarity, IntSupplier fresh, ClauseStore clauses, GateTable gates) {
+        if ( a == FALSE || b == FALSE || a == -b ){
+            return FALSE;
+        }
+        if ( a == TRUE || a == b ){
+            return b;
+        }
+        if ( b == TRUE ){
+            return a;
+        }
+        Integer known = gates == null ? null : gates.andGates.get(GateTable.key(a, b));
+        if ( known != null ){
+            return known;
+        }
+        int gate = fresh.getAsInt();
+        if ( gates != null ){
+            gates.andGates.put(GateTable.key(a, b), gate);
+        }
+        if ( (polarity & POSITIVE) != 0 ){                                                     //gate -> a and b
+            clauses.addClause(-gate, a);
+            clauses.addClause(-gate, b);
+        }
+        if ( (polarity & NEGATIVE) != 0 ){                                                     //a and b -> gate
+            clauses.addClause(gate, -a, -b);
+        }
+        return gate;
+    }
+
+    /* (non-javadoc)
+     * @return the literal of 'a xor b', adding the clauses of a new gate unless it folds away or is in 'gates'
+     */
+    private static int xorGate(int a, int b, byte polarity, IntSupplier fresh, ClauseStore clauses, GateTable gates) {
+        if ( a == TRUE || a == FALSE ){
+            return a == TRUE ? -b : b;
+        }
+        if ( b == TRUE || b == FALSE ){
+            return b == TRUE ? -a : a;
+        }
+        if ( a == b || a == -b ){
+            return a == b ? FALSE : TRUE;
+        }
+        if ( gates != null ){                                                                  //not a xor b is (not a) xor b, so only variables are keys
+            boolean negated = (a < 0) != (b < 0);
+            long key = GateTable.key(Math.abs(a), Math.abs(b));
+            Integer gate = gates.xorGates.get(key);
+            if ( gate == null ){
+                gate = xorGate(Math.abs(a), Math.abs(b), polarity, fresh, clauses, null);
+                gates.xorGates.put(key, gate);
+            }
+            return negated ? -gate : gate;
+        }
+        int gate = fresh.getAsInt();
+        if ( (polarity & POSITIVE) != 0 ){                                                     //gate -> a xor b
+            clauses.addClause(-gate, a, b);
+            clauses.addClause(-gate, -a, -b);
+        }
+        if ( (polarity & NEGATIVE) != 0 ){                                                     //a xor b -> gate
+            clauses.addClause(gate, -a, b);
+            clauses.addClause(gate, a, -b);
+        }
+        return gate;
+    }
+
+    private static byte flip(byte polarity) {
+        return (byte) (((polarity & POSITIVE) != 0 ? NEGATIVE : 0) | ((polarity & NEGATIVE) != 0 ? POSITIVE : 0));
+    }
+}
@@ -0,0 +1,756 @@
+package expressions;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Represents a boolean expression compiled into a flat, postfix evaluation program.
+ * Every variable of the expression is mapped to an integer slot (in the natural order
+ * of the variable names) and the program is evaluated against a primitive assignment
+ * where bit {@code i} holds the value of the variable at slot {@code i}.
+ * A sub-expression shared by several operators is computed once: its value is then copied into a register
+ * by {@link #STORE} and pushed again by {@link #LOAD} wherever else it is an operand, so the program has the size
+ * of the DAG of the expression, not of its tree.
+ * Evaluating a compiled expression does not allocate: the stack and the registers are kept in the bits of two words,
+ * or, for a program with more than 64 of either, in a scratch array the caller provides (see {@link #scratchSize()}).
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'code' and 'variables' cannot be null
+ * every VAR instruction refers to a slot in 'variables', and every LOAD to a register stored by an earlier STORE
+ * the program leaves exactly one value on a stack of at most 'stackDepth' entries, using 'registerCount' registers
+ */
+public final class CompiledExpression {
+
+    /**
+     * Pushes the value of the variable slot given by the operand
+     */
+    public static final int VAR = 0;
+
+    /**
+     * Pushes the constant given by the operand ({@code 0} or {@code 1})
+     */
+    public static final int CONST = 1;
+
+    /**
+     * Negates the value on top of the stack
+     */
+    public static final int NOT = 2;
+
+    /**
+     * Replaces the two values on top of the stack by their conjunction
+     */
+    public static final int AND = 3;
+
+    /**
+     * Replaces the two values on top of the stack by their disjunction
+     */
+    public static final int OR = 4;
+
+    /**
+     * Replaces the two values on top of the stack by the implication from the lower one to the top one
+     */
+    public static final int IMPLIES = 5;
+
+    /**
+     * Replaces the two values on top of the stack by their equivalence
+     */
+    public static final int IFF = 6;
+
+    /**
+     * Replaces the two values on top of the stack by their exclusive disjunction
+     */
+    public static final int XOR = 7;
+
+    /**
+     * Replaces the two values on top of the stack by their negated conjunction
+     */
+    public static final int NAND = 8;
+
+    /**
+     * Replaces the two values on top of the stack by their negated disjunction
+     */
+    public static final int NOR = 9;
+
+    /**
+     * Copies the value on top of the stack into the register given by the operand, leaving it on the stack
+     */
+    public static final int STORE = 10;
+
+    /**
+     * Pushes the value of the register given by the operand
+     */
+    public static final int LOAD = 11;
+
+    private static final int OPCODE_BITS = 4;
+    private static final int OPCODE_MASK = (1 << OPCODE_BITS) - 1;
+
+    /* (non-javadoc)
+     * The checkpoint of a compilation nothing watches
+     */
+    private static final Runnable NO_CHECKPOINT = () -> { };
+
+    private final int[] code;
+    private final String[] variables;
+    private final VariableIndex index;
+    private final int stackDepth;
+    private final int registerCount;
+
+    private CompiledExpression(int[] code, String[] variables, int stackDepth, int registerCount) {
+        this.code = code;
+        this.variables = variables;
+        this.index = VariableIndex.of(Arrays.asList(variables));
+        this.stackDepth = stackDepth;
+        this.registerCount = registerCount;
+    }
+
+    /**
+     * Compiles an expression into a flat evaluation program.
+     * The operands of every binary expression are emitted so that the deeper one is
+     * evaluated first, which keeps the evaluation stack small;
+     * an implication whose antecedent comes second is emitted as the disjunction of its consequent
+     * and its negated antecedent, the only operator that is not commutative.
+     * Every operator that is the operand of several others is emitted once, followed by a {@link #STORE},
+     * and loaded from its register everywhere else.
+     * @param expression the expression to compile
+     * @return the compiled form of {@code expression}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public static CompiledExpression compile(Expression expression) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        return compile(expression, NO_CHECKPOINT);
+    }
+
+    /**
+     * Compiles an expression as {@link #compile(Expression)} does, reporting every step to a checkpoint
+     * @param expression the expression to compile
+     * @param checkpoint run once for every node visited and every instruction emitted; it can stop the compilation
+     * by throwing an unchecked exception
+     * @return the compiled form of {@code expression}
+     * @throws IllegalArgumentException if {@code expression} or {@code checkpoint} is {@code null}
+     */
+    public static CompiledExpression compile(Expression expression, Runnable checkpoint) {
+        if ( expression == null || checkpoint == null ){
+            throw new IllegalArgumentException("The 'expression' and 'checkpoint' cannot be null");
+        }
+
+        //First, I compute the stack depth each sub-expression needs, count its parents and collect the variables
+
+        Map<Expression, Integer> depths = new IdentityHashMap<>();
+        Map<Expression, Integer> parents = new IdentityHashMap<>();
+        TreeSet<String> names = new TreeSet<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while ( !pending.isEmpty() ){
+            checkpoint.run();
+            Expression current = pending.peek();
+            if ( depths.containsKey(current) ){
+                pending.pop();
+                continue;
+            }
+            if ( current instanceof Variable ){
+                names.add(((Variable) current).name());
+                depths.put(current, 1);
+                pending.pop();
+            } else if ( current instanceof Constant ){
+                depths.put(current, 1);
+                pending.pop();
+            } else if ( current instanceof Negation ){
+                Expression operand = ((Negation) current).operand();
+                Integer depth = depths.get(operand);
+                if ( depth == null ){
+                    pending.push(operand);
+                } else {
+                    depths.put(current, depth);
+                    pending.pop();
+                    parents.merge(operand, 1, Integer::sum);
+                }
+            } else if ( current instanceof BinaryExpression ){
+                BinaryExpression binary = (BinaryExpression) current;
+                Integer left = depths.get(binary.left());
+                Integer right = depths.get(binary.right());
+                if ( left == null || right == null ){
+                    if ( left == null ){
+                        pending.push(binary.left());
+                    }
+                    if ( right == null ){
+                        pending.push(binary.right());
+                    }
+                    continue;
+                }
+                int depth = left.intValue() == right.intValue() ? left + 1 : Math.max(left, right);
+                depths.put(current, depth);
+                pending.pop();
+                parents.merge(binary.left(), 1, Integer::sum);
+                parents.merge(binary.right(), 1, Integer::sum);
+            } else if ( current instanceof NaryExpression ){
+                NaryExpression nary = (NaryExpression) current;
+                boolean ready = true;
+                for ( int i = 0 ; i < nary.arity() ; i++ ){
+                    if ( !depths.containsKey(nary.operand(i)) ){
+                        pending.push(nary.operand(i));
+                        ready = false;
+                    }
+                }
+                if ( ready ){
+                    int[] sorted = sortedDepths(nary, depths);
+                    int depth = sorted[sorted.length - 1];                                     //the deepest operand first, then each one over the value so far
+                    for ( int i = sorted.length - 2 ; i >= 0 ; i-- ){
+                        depth = Math.max(depth, sorted[i] + 1);
+                    }
+                    depths.put(current, depth);
+                    pending.pop();
+                    for ( int i = 0 ; i < nary.arity() ; i++ ){
+                        parents.merge(nary.operand(i), 1, Integer::sum);
+                    }
+                }
+            } else {
+                throw new IllegalArgumentException("The expression type is unknown");
+            }
+        }
+
+        String[] variables = names.toArray(new String[0]);
+        Map<String, Integer> slots = new HashMap<>();
+        for ( int i = 0 ; i < variables.length ; i++ ){
+            slots.put(variables[i], i);
+        }
+
+        //Then, I emit the program in postfix order, the deeper operand first and every shared operator once
+
+        int[] code = new int[16];
+        int length = 0;
+        Map<Expression, Integer> registers = new IdentityHashMap<>();
+        Deque<Object> work = new ArrayDeque<>();
+        work.push(expression);
+        while ( !work.isEmpty() ){
+            checkpoint.run();
+            Object item = work.pop();
+            if ( length == code.length ){
+                code = Arrays.copyOf(code, length * 2);
+            }
+            Integer register = item instanceof Integer ? null : registers.get(item);
+            if ( register != null ){
+                code[length++] = instruction(LOAD, register);
+                continue;
+            }
+            if ( !(item instanceof Integer || item instanceof Variable || item instanceof Constant)
+                    && parents.getOrDefault(item, 0) > 1 ){
+                register = registers.size();
+                registers.put((Expression) item, register);
+                work.push(instruction(STORE, register));                                        //right after the code of the operator
+            }
+            if ( item instanceof Integer ){
+                code[length++] = (Integer) item;
+            } else if ( item instanceof Variable ){
+                code[length++] = instruction(VAR, slots.get(((Variable) item).name()));
+            } else if ( item instanceof Constant ){
+                code[length++] = instruction(CONST, ((Constant) item).value() ? 1 : 0);
+            } else if ( item instanceof Negation ){
+                work.push(instruction(NOT, 0));
+                work.push(((Negation) item).operand());
+            } else if ( item instanceof NaryExpression ){
+                NaryExpression nary = (NaryExpression) item;
+                Expression[] operands = byDepth(nary, depths);
+                int opcode = nary.operator() == BinaryExpression.BinaryOperator.AND ? AND : OR;
+                for ( int i = operands.length - 1 ; i > 0 ; i-- ){
+                    work.push(instruction(opcode, 0));
+                    work.push(operands[i]);
+                }
+                work.push(operands[0]);
+            } else {
+                BinaryExpression binary = (BinaryExpression) item;
+                int opcode = opcodeOf(binary.operator());
+                Expression first = binary.left();
+                Expression second = binary.right();
+                if ( depths.get(second) > depths.get(first) ){
+                    first = binary.right();
+                    second = binary.left();
+                    if ( opcode == IMPLIES ){                                                  //the consequent, the negated antecedent and their disjunction
+                        work.push(instruction(OR, 0));
+                        opcode = NOT;
+                    }
+                }
+                work.push(instruction(opcode, 0));
+                work.push(second);
+                work.push(first);
+            }
+        }
+
+        code = Arrays.copyOf(code, length);
+        return new CompiledExpression(code, variables, stackDepthOf(code), registers.size());
+    }
+
+    /**
+     * @return the variable names of this program, the name at index {@code i} being the one bound to slot {@code i}
+     */
+    public List<String> variables() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+
+    /**
+     * @return the variables of this program as an index, the variable at position {@code i} being the one bound to slot {@code i},
+     * so assignments of this program can be turned into interpretations without validating the variables again
+     */
+    public VariableIndex variableIndex() {
+        return index;
+    }
+
+    /**
+     * @return the number of variable slots of this program
+     */
+    public int variableCount() {
+        return variables.length;
+    }
+
+    /**
+     * @return the largest number of values this program keeps on its evaluation stack
+     */
+    public int stackDepth() {
+        return stackDepth;
+    }
+
+    /**
+     * @return the number of registers this program stores shared values in, {@code 0} if it shares none
+     */
+    public int registerCount() {
+        return registerCount;
+    }
+
+    /**
+     * @return the number of instructions of this program
+     */
+    public int length() {
+        return code.length;
+    }
+
+    /**
+     * @param pc the index of the instruction
+     * @return the opcode of the instruction at {@code pc}, one of {@link #VAR}, {@link #CONST}, {@link #NOT},
+     * {@link #STORE}, {@link #LOAD} or a binary opcode (see {@link #isBinary(int)})
+     * @throws IndexOutOfBoundsException if {@code pc} is not a valid instruction index
+     */
+    public int opcode(int pc) {
+        return code[pc] & OPCODE_MASK;
+    }
+
+    /**
+     * @param pc the index of the instruction
+     * @return the operand of the instruction at {@code pc}: the slot for {@link #VAR}, the value for {@link #CONST},
+     * the register for {@link #STORE} and {@link #LOAD}, {@code 0} otherwise
+     * @throws IndexOutOfBoundsException if {@code pc} is not a valid instruction index
+     */
+    public int operand(int pc) {
+        return code[pc] >>> OPCODE_BITS;
+    }
+
+    /**
+     * Evaluates this program under an assignment of at most 64 variables; a program with more than 64 stack entries
+     * or registers allocates its scratch, which {@link #evaluate(long[], long[])} takes from the caller instead
+     * @param assignment the assignment, bit {@code i} being the value of the variable at slot {@code i}
+     * @return the value of the compiled expression under {@code assignment}
+     * @throws IllegalStateException if this program has more than 64 variables
+     */
+    public boolean evaluate(long assignment) {
+        if ( variables.length > Long.SIZE ){
+            throw new IllegalStateException("The program has more than 64 variables");
+        }
+        if ( !fitsInWord() ){
+            return evaluate(new long[]{ assignment });
+        }
+        long stack = 0L;
+        long registers = 0L;
+        for ( int pc = 0 ; pc < code.length ; pc++ ){
+            int instruction = code[pc];
+            int operand = instruction >>> OPCODE_BITS;
+            switch ( instruction & OPCODE_MASK ){
+                case VAR:
+                    stack = (stack << 1) | ((assignment >>> operand) & 1L);
+                    break;
+                case STORE:
+                    registers = (registers & ~(1L << operand)) | ((stack & 1L) << operand);
+                    break;
+                case LOAD:
+                    stack = (stack << 1) | ((registers >>> operand) & 1L);
+                    break;
+                case CONST:
+                    stack = (stack << 1) | operand;
+                    break;
+                case NOT:
+                    stack ^= 1L;
+                    break;
+                case AND:
+                    stack = (stack >>> 1) & (stack | ~1L);
+                    break;
+                case OR:
+                    stack = (stack >>> 1) | (stack & 1L);
+                    break;
+                case IMPLIES:
+                    stack = ((stack >>> 1) ^ 1L) | (stack & 1L);
+                    break;
+                case IFF:
+                    stack = (stack >>> 1) ^ (stack & 1L) ^ 1L;
+                    break;
+                case XOR:
+                    stack = (stack >>> 1) ^ (stack & 1L);
+                    break;
+                case NAND:
+                    stack = ((stack >>> 1) & (stack | ~1L)) ^ 1L;
+                    break;
+                default:
+                    stack = ((stack >>> 1) | (stack & 1L)) ^ 1L;
+                    break;
+            }
+        }
+        return (stack & 1L) != 0;
+    }
+
+    /**
+     * Evaluates this program under an assignment of any number of variables; a program with more than 64 stack entries
+     * or registers allocates its scratch, which {@link #evaluate(long[], long[])} takes from the caller instead
+     * @param assignment the assignment, bit {@code i % 64} of {@code assignment[i / 64]} being the value of the variable at slot {@code i}
+     * @return the value of the compiled expression under {@code assignment}
+     * @throws IllegalArgumentException if {@code assignment} is {@code null}
+     * @throws IllegalArgumentException if {@code assignment} has fewer than {@code variableCount()} bits
+     */
+    public boolean evaluate(long[] assignment) {
+        return evaluate(assignment, fitsInWord() ? null : new long[scratchSize()]);
+    }
+
+    /**
+     * Evaluates this program under an assignment of any number of variables, with a scratch array kept by the caller,
+     * so that no evaluation allocates whatever the size of the program
+     * @param assignment the assignment, bit {@code i % 64} of {@code assignment[i / 64]} being the value of the variable at slot {@code i}
+     * @param scratch the scratch to evaluate with, at least {@code scratchSize()} long; it is only used by programs with
+     * more than 64 stack entries or registers, and can be {@code null} for the others
+     * @return the value of the compiled expression under {@code assignment}
+     * @throws IllegalArgumentException if {@code assignment} is {@code null}
+     * @throws IllegalArgumentException if {@code assignment} has fewer than {@code variableCount()} bits
+     * @throws IllegalArgumentException if {@code scratch} is needed and is {@code null} or has fewer than {@code scratchSize()} words
+     */
+    public boolean evaluate(long[] assignment, long[] scratch) {
+        if ( assignment == null ){
+            throw new IllegalArgumentException("The 'assignment' cannot be null");
+        }
+        if ( (long) assignment.length * Long.SIZE < variables.length ){
+            throw new IllegalArgumentException("The 'assignment' does not provide all variables");
+        }
+        if ( !fitsInWord() ){
+            if ( scratch == null || scratch.length < stackDepth + registerCount ){
+                throw new IllegalArgumentException("The 'scratch' is too small for this program");
+            }
+            return evaluateInScratch(assignment, scratch);
+        }
+        long stack = 0L;
+        long registers = 0L;
+        for ( int pc = 0 ; pc < code.length ; pc++ ){
+            int instruction = code[pc];
+            int operand = instruction >>> OPCODE_BITS;
+            switch ( instruction & OPCODE_MASK ){
+                case VAR:
+                    stack = (stack << 1) | ((assignment[operand >>> 6] >>> operand) & 1L);
+                    break;
+                case STORE:
+                    registers = (registers & ~(1L << operand)) | ((stack & 1L) << operand);
+                    break;
+                case LOAD:
+                    stack = (stack << 1) | ((registers >>> operand) & 1L);
+                    break;
+                case CONST:
+                    stack = (stack << 1) | operand;
+                    break;
+                case NOT:
+                    stack ^= 1L;
+                    break;
+                case AND:
+                    stack = (stack >>> 1) & (stack | ~1L);
+                    break;
+                case OR:
+                    stack = (stack >>> 1) | (stack & 1L);
+                    break;
+                case IMPLIES:
+                    stack = ((stack >>> 1) ^ 1L) | (stack & 1L);
+                    break;
+                case IFF:
+                    stack = (stack >>> 1) ^ (stack & 1L) ^ 1L;
+                    break;
+                case XOR:
+                    stack = (stack >>> 1) ^ (stack & 1L);
+                    break;
+                case NAND:
+                    stack = ((stack >>> 1) & (stack | ~1L)) ^ 1L;
+                    break;
+                default:
+                    stack = ((stack >>> 1) | (stack & 1L)) ^ 1L;
+                    break;
+            }
+        }
+        return (stack & 1L) != 0;
+    }
+
+    /* (non-javadoc)
+     * Evaluates this program under a single assignment, one entry of 'scratch' per value, the registers after the stack
+     */
+    private boolean evaluateInScratch(long[] assignment, long[] scratch) {
+        int top = -1;
+        for ( int pc = 0 ; pc < code.length ; pc++ ){
+            int instruction = code[pc];
+            int operand = instruction >>> OPCODE_BITS;
+            switch ( instruction & OPCODE_MASK ){
+                case VAR:
+                    scratch[++top] = (assignment[operand >>> 6] >>> operand) & 1L;
+                    break;
+                case CONST:
+                    scratch[++top] = operand;
+                    break;
+                case NOT:
+                    scratch[top] ^= 1L;
+                    break;
+                case STORE:
+                    scratch[stackDepth + operand] = scratch[top];
+                    break;
+                case LOAD:
+                    scratch[++top] = scratch[stackDepth + operand];
+                    break;
+                case AND:
+                    top--;
+                    scratch[top] &= scratch[top + 1];
+                    break;
+                case OR:
+                    top--;
+                    scratch[top] |= scratch[top + 1];
+                    break;
+                case IMPLIES:
+                    top--;
+                    scratch[top] = (scratch[top] ^ 1L) | scratch[top + 1];
+                    break;
+                case IFF:
+                    top--;
+                    scratch[top] ^= scratch[top + 1] ^ 1L;
+                    break;
+                case XOR:
+                    top--;
+                    scratch[top] ^= scratch[top + 1];
+                    break;
+                case NAND:
+                    top--;
+                    scratch[top] = (scratch[top] & scratch[top + 1]) ^ 1L;
+                    break;
+                default:
+                    top--;
+                    scratch[top] = (scratch[top] | scratch[top + 1]) ^ 1L;
+                    break;
+            }
+        }
+        return scratch[0] != 0;
+    }
+
+    /**
+     * Evaluates this program under 64 assignments at once.
+     * Every value is a word whose bit {@code k} belongs to the {@code k}-th assignment,
+     * so every operator becomes one or two bitwise operations.
+     * @param variableWords the word of every variable slot, bit {@code k} of {@code variableWords[i]} being the value of the variable at slot {@code i} in the {@code k}-th assignment
+     * @param stack the scratch stack to evaluate with, at least {@code scratchSize()} long, the registers
+     * being kept after the stack entries
+     * @return the word whose bit {@code k} is the value of the compiled expression under the {@code k}-th assignment
+     * @throws IllegalArgumentException if {@code variableWords} or {@code stack} is {@code null}
+     * @throws IllegalArgumentException if {@code variableWords} has fewer than {@code variableCount()} words
+     * @throws IllegalArgumentException if {@code stack} has fewer than {@code scratchSize()} words
+     */
+    public long evaluateSliced(long[] variableWords, long[] stack) {
+        if ( variableWords == null || stack == null ){
+            throw new IllegalArgumentException("The 'variableWords' and 'stack' cannot be null");
+        }
+        if ( variableWords.length < variables.length ){
+            throw new IllegalArgumentException("The 'variableWords' does not provide all variables");
+        }
+        if ( stack.length < stackDepth + registerCount ){
+            throw new IllegalArgumentException("The 'stack' is too small for this program");
+        }
+        int top = -1;
+        for ( int pc = 0 ; pc < code.length ; pc++ ){
+            int instruction = code[pc];
+            int operand = instruction >>> OPCODE_BITS;
+            switch ( instruction & OPCODE_MASK ){
+                case VAR:
+                    stack[++top] = variableWords[operand];
+                    break;
+                case CONST:
+                    stack[++top] = -operand;                                                   //all ones for true, all zeros for false
+                    break;
+                case NOT:
+                    stack[top] = ~stack[top];
+                    break;
+                case STORE:
+                    stack[stackDepth + operand] = stack[top];
+                    break;
+                case LOAD:
+                    stack[++top] = stack[stackDepth + operand];
+                    break;
+                case AND:
+                    top--;
+                    stack[top] &= stack[top + 1];
+                    break;
+                case OR:
+                    top--;
+                    stack[top] |= stack[top + 1];
+                    break;
+                case IMPLIES:
+                    top--;
+                    stack[top] = ~stack[top] | stack[top + 1];
+                    break;
+                case IFF:
+                    top--;
+                    stack[top] = ~(stack[top] ^ stack[top + 1]);
+                    break;
+                case XOR:
+                    top--;
+                    stack[top] ^= stack[top + 1];
+                    break;
+                case NAND:
+                    top--;
+                    stack[top] = ~(stack[top] & stack[top + 1]);
+                    break;
+                default:
+                    top--;
+                    stack[top] = ~(stack[top] | stack[top + 1]);
+                    break;
+            }
+        }
+        return stack[0];
+    }
+
+    /**
+     * @return the number of words {@link #evaluateSliced(long[], long[])} and {@link #evaluate(long[], long[])} need
+     * for their stack and registers
+     */
+    public int scratchSize() {
+        return Math.max(1, stackDepth + registerCount);
+    }
+
+    /**
+     * @param opcode an opcode
+     * @return {@code true} iff {@code opcode} replaces the two values on top of the stack by one, i.e.: it is one of
+     * {@link #AND}, {@link #OR}, {@link #IMPLIES}, {@link #IFF}, {@link #XOR}, {@link #NAND} or {@link #NOR}
+     */
+    public static boolean isBinary(int opcode) {
+        return opcode >= AND && opcode <= NOR;
+    }
+
+    /* (non-javadoc)
+     * @return true iff the stack and the registers each fit a single word, one bit per entry
+     */
+    private boolean fitsInWord() {
+        return stackDepth <= Long.SIZE && registerCount <= Long.SIZE;
+    }
+
+    /* (non-javadoc)
+     * @return the largest number of values a program keeps on its stack
+     */
+    private static int stackDepthOf(int[] code) {
+        int depth = 0;
+        int deepest = 0;
+        for ( int instruction : code ){
+            int opcode = instruction & OPCODE_MASK;
+            if ( opcode == VAR || opcode == CONST || opcode == LOAD ){
+                deepest = Math.max(deepest, ++depth);
+            } else if ( isBinary(opcode) ){
+                depth--;
+            }
+        }
+        return deepest;
+    }
+
+    /* (non-javadoc)
+     * @return the depths of the operands of an n-ary expression, in increasing order
+     */
+    private static int[] sortedDepths(NaryExpression nary, Map<Expression, Integer> depths) {
+        int[] sorted = new int[nary.arity()];
+        for ( int i = 0 ; i < sorted.length ; i++ ){
+            sorted[i] = depths.get(nary.operand(i));
+        }
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /* (non-javadoc)
+     * @return the operands of an n-ary expression, the deepest first, which is the order they are emitted in
+     */
+    private static Expression[] byDepth(NaryExpression nary, Map<Expression, Integer> depths) {
+        Expression[] operands = new Expression[nary.arity()];
+        for ( int i = 0 ; i < operands.length ; i++ ){
+            operands[i] = nary.operand(i);
+        }
+        Arrays.sort(operands, (x, y) -> Integer.compare(depths.get(y), depths.get(x)));
+        return operands;
+    }
+
+    private static int opcodeOf(BinaryExpression.BinaryOperator operator) {
+        switch ( operator ){
+            case AND:
+                return AND;
+            case OR:
+                return OR;
+            case IMPLIES:
+                return IMPLIES;
+            case IFF:
+                return IFF;
+            case XOR:
+                return XOR;
+            case NAND:
+                return NAND;
+            default:
+                return NOR;
+        }
+    }
+
+    private static int instruction(int opcode, int operand) {
+        return operand << OPCODE_BITS | opcode;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        if ( code == null || variables == null ){
+            return false;
+        }
+        int depth = 0;
+        int stored = 0;
+        boolean[] registers = new boolean[registerCount];
+        for ( int pc = 0 ; pc < code.length ; pc++ ){
+            int opcode = opcode(pc);
+            if ( opcode == VAR && operand(pc) >= variables.length ){
+                return false;
+            }
+            if ( opcode == STORE ){
+                if ( operand(pc) >= registerCount || registers[operand(pc)] ){                 //every register is stored once
+                    return false;
+                }
+                registers[operand(pc)] = true;
+                stored++;
+            }
+            if ( opcode == LOAD && (operand(pc) >= registerCount || !registers[operand(pc)]) ){
+                return false;
+            }
+            if ( opcode == VAR || opcode == CONST || opcode == LOAD ){
+                depth++;
+            } else if ( isBinary(opcode) ){
+                depth--;
+            }
+            if ( depth < 1 || depth > stackDepth ){
+                return false;
+            }
+        }
+        return depth == 1 && stored == registerCount;
+    }
+}
@@ -13,7 +13,7 @@ import java.util.Set;
   */
 class Constant implements Expression {
 
-    private boolean value;
+    private final boolean value;
 
     /**
      * Constructs a new boolean value
@@ -23,6 +23,11 @@ class Constant implements Expression {
         this.value = value;
     }
 
+    @Override
+    public int hashCode() {
+        return ExpressionFactory.constantHash(value);
+    }
+
     @Override
     public boolean evaluate(Interpretation interpretation) {
         if ( interpretation == null ){
@@ -33,9 +38,16 @@ class Constant implements Expression {
 
     @Override
     public Set<String> variables() {
-        return Set.of();
+        return VariableSet.EMPTY;
     }   
     
+    /* (non-javadoc)
+     * @return the internal boolean value this expression represents
+     */
+    boolean value() {
+        return this.value;
+    }
+
     /*
     * Check the class invariants by repOK
     * Since the type of 'value' is boolean
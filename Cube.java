@@ -0,0 +1,146 @@
+package solver;
+
+import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.math.BigInteger;
+import java.util.List;
+
+/**
+ * Represents a cube, i.e.: a partial assignment of the variables of an expression that stands for every
+ * interpretation agreeing with it. Variables the cube does not fix are don't-cares, so a cube fixing
+ * {@code k} of {@code n} variables covers {@code 2^(n - k)} interpretations.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'variables', 'fixed' and 'values' cannot be null
+ * 'fixed' and 'values' have a bit for every position of 'variables' and none above, and 'values' only within 'fixed'
+ */
+public final class Cube {
+
+    private final VariableIndex variables;
+    private final long[] fixed;
+    private final long[] values;
+
+    /* (non-javadoc)
+     * Constructs a new cube, copying the bits of the fixed variables and of their values
+     */
+    Cube(VariableIndex variables, long[] fixed, long[] values) {
+        this.variables = variables;
+        this.fixed = fixed.clone();
+        this.values = values.clone();
+    }
+
+    /**
+     * @return the variables of the expression, fixed or not
+     */
+    public List<String> variables() {
+        return variables.names();
+    }
+
+    /**
+     * @return the number of variables this cube fixes
+     */
+    public int fixedCount() {
+        int count = 0;
+        for ( long word : fixed ){
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return the number of interpretations this cube covers
+     */
+    public BigInteger size() {
+        return BigInteger.ONE.shiftLeft(variables.size() - fixedCount());
+    }
+
+    /**
+     * @param var a variable of the expression
+     * @return {@code true} iff this cube does not fix {@code var}
+     * @throws IllegalArgumentException if {@code var} is not a variable of the expression
+     */
+    public boolean isDontCare(String var) {
+        return !isFixed(position(var));
+    }
+
+    /**
+     * @param var a variable fixed by this cube
+     * @return the value this cube gives to {@code var}
+     * @throws IllegalArgumentException if {@code var} is not a variable of the expression, or is a don't-care
+     */
+    public boolean valueOf(String var) {
+        int position = position(var);
+        if ( !isFixed(position) ){
+            throw new IllegalArgumentException("The 'var' is a don't-care of this cube");
+        }
+        return (values[position >>> 6] & (1L << position)) != 0;
+    }
+
+    /**
+     * Checks if this cube covers an interpretation, i.e.: the interpretation agrees with every variable it fixes
+     * @param interpretation the interpretation to check
+     * @return {@code true} iff {@code interpretation} gives every fixed variable its value in this cube
+     * @throws IllegalArgumentException if {@code interpretation} is {@code null} or misses a fixed variable
+     */
+    public boolean covers(Interpretation interpretation) {
+        if ( interpretation == null ){
+            throw new IllegalArgumentException("The 'interpretation' cannot be null");
+        }
+        for ( int i = 0 ; i < variables.size() ; i++ ){
+            if ( isFixed(i) && interpretation.valueOf(variables.name(i)) != ((values[i >>> 6] & (1L << i)) != 0) ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the conjunction of the literals of this cube, e.g.: {@code p & !r}, or {@code true} if it fixes no variable
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0 ; i < variables.size() ; i++ ){
+            if ( !isFixed(i) ){
+                continue;
+            }
+            if ( text.length() > 0 ){
+                text.append(" & ");
+            }
+            if ( (values[i >>> 6] & (1L << i)) == 0 ){
+                text.append('!');
+            }
+            text.append(variables.name(i));
+        }
+        return text.length() == 0 ? "true" : text.toString();
+    }
+
+    private boolean isFixed(int position) {
+        return (fixed[position >>> 6] & (1L << position)) != 0;
+    }
+
+    private int position(String var) {
+        int position = variables.indexOf(var);
+        if ( position < 0 ){
+            throw new IllegalArgumentException("The 'var' is not a variable of the expression");
+        }
+        return position;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        if ( variables == null || fixed == null || values == null || fixed.length != values.length ){
+            return false;
+        }
+        for ( int i = 0 ; i < values.length ; i++ ){
+            if ( (values[i] & ~fixed[i]) != 0 ){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,231 @@
+package solver;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads formulas in the DIMACS CNF format, i.e.: comment lines starting with {@code c},
+ * a header line {@code p cnf <variables> <clauses>}, and clauses written as literals ended by {@code 0}.
+ * A file is rejected if its header declares another format, or another number of clauses than it holds.
+ * <p>
+ * Files are memory-mapped in windows and scanned byte by byte by a state machine that keeps its
+ * state across windows, so numbers split between two windows need no copy. Literals are streamed
+ * straight into a {@link ClauseStore}; nothing is allocated per line or per literal.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'clauses' cannot be null
+ * 'negative' and 'digits' only describe the number being scanned
+ * 'formatLength' is the number of bytes of the format word of the header scanned so far
+ * 'clauseCount' is the number of clauses ended so far
+ */
+public final class DimacsReader {
+
+    /* (non-javadoc)
+     * The largest part of a file mapped at once
+     */
+    private static final long WINDOW_SIZE = 1L << 28;
+
+    /* (non-javadoc)
+     * The only format of header read
+     */
+    private static final byte[] FORMAT = { 'c', 'n', 'f' };
+
+    private final ClauseStore clauses;
+
+    //The state of the scanner, kept between windows
+
+    private boolean lineStart = true;
+    private boolean comment;
+    private boolean header;
+    private boolean finished;
+    private boolean negative;
+    private int digits;
+    private long number;
+    private int headerNumbers;
+    private int formatLength;
+    private boolean formatMatches = true;
+    private boolean formatEnded;
+    private long declaredVariables = -1;
+    private long declaredClauses = -1;
+    private boolean clauseOpen;
+    private long clauseCount;
+    private long line = 1;
+
+    private DimacsReader(ClauseStore clauses) {
+        this.clauses = clauses;
+    }
+
+    /**
+     * Reads a DIMACS CNF file into a new clause store
+     * @param path the file to read
+     * @return the clauses of the file
+     * @throws IllegalArgumentException if {@code path} is {@code null}
+     * @throws IllegalArgumentException if the file is not in the DIMACS CNF format
+     * @throws IOException if the file cannot be read
+     */
+    public static ClauseStore read(Path path) throws IOException {
+        ClauseStore clauses = new ClauseStore();
+        read(path, clauses);
+        return clauses;
+    }
+
+    /**
+     * Reads a DIMACS CNF file, streaming its clauses into an existing clause store
+     * @param path the file to read
+     * @param clauses the store receiving the clauses
+     * @throws IllegalArgumentException if {@code path} or {@code clauses} is {@code null}
+     * @throws IllegalArgumentException if the file is not in the DIMACS CNF format
+     * @throws IOException if the file cannot be read
+     */
+    public static void read(Path path, ClauseStore clauses) throws IOException {
+        if ( path == null || clauses == null ){
+            throw new IllegalArgumentException("The 'path' and 'clauses' cannot be null");
+        }
+
+        DimacsReader reader = new DimacsReader(clauses);
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ){
+            long size = channel.size();
+            for ( long position = 0 ; position < size && !reader.finished ; position += WINDOW_SIZE ){
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW_SIZE, size - position));
+                reader.scan(window);
+            }
+        }
+        reader.finish();
+    }
+
+    /* (non-javadoc)
+     * Feeds every byte of a window to the state machine
+     */
+    private void scan(MappedByteBuffer window) {
+        int limit = window.limit();
+        for ( int i = 0 ; i < limit && !finished ; i++ ){
+            byte b = window.get(i);
+            if ( b == '\n' ){
+                endNumber();
+                if ( header ){
+                    endHeader();
+                }
+                comment = false;
+                lineStart = true;
+                line++;
+                continue;
+            }
+            if ( comment ){
+                continue;
+            }
+            if ( lineStart && b != ' ' && b != '\t' && b != '\r' ){
+                lineStart = false;
+                if ( b == 'c' ){
+                    comment = true;
+                    continue;
+                }
+                if ( b == 'p' ){
+                    header = true;
+                    continue;
+                }
+                if ( b == '%' ){
+                    finished = true;                                                           //the end marker of some benchmark files
+                    continue;
+                }
+            }
+
+            if ( b >= '0' && b <= '9' ){
+                number = number * 10 + (b - '0');
+                if ( ++digits > 10 || number > Integer.MAX_VALUE ){
+                    throw error("number too large");
+                }
+            } else if ( b == '-' && digits == 0 && !negative ){
+                negative = true;
+            } else if ( b == ' ' || b == '\t' || b == '\r' ){
+                endNumber();
+                formatEnded = formatLength > 0;
+            } else if ( header && headerNumbers == 0 && digits == 0 && !negative && !formatEnded ){
+                formatMatches &= formatLength < FORMAT.length && b == FORMAT[formatLength];     //the format word, before the numbers
+                formatLength++;
+            } else {
+                throw error("unexpected character '" + (char) b + "'");
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * Ends the number being scanned, if any, and hands it to the header or the current clause
+     */
+    private void endNumber() {
+        if ( digits == 0 ){
+            if ( negative ){
+                throw error("a sign without digits");
+            }
+            return;
+        }
+        long value = negative ? -number : number;
+        negative = false;
+        digits = 0;
+        number = 0;
+
+        if ( header ){
+            if ( value < 0 || headerNumbers >= 2 ){
+                throw error("malformed header");
+            }
+            if ( headerNumbers++ == 0 ){
+                declaredVariables = value;
+            } else {
+                declaredClauses = value;
+            }
+        } else if ( value == 0 ){
+            clauses.endClause();
+            clauseCount++;
+            clauseOpen = false;
+        } else {
+            if ( declaredVariables >= 0 && Math.abs(value) > declaredVariables ){
+                throw error("literal " + value + " exceeds the declared number of variables");
+            }
+            clauses.add((int) value);
+            clauseOpen = true;
+        }
+    }
+
+    private void endHeader() {
+        if ( formatLength != FORMAT.length || !formatMatches ){
+            throw error("the format is not cnf");
+        }
+        if ( headerNumbers != 2 ){
+            throw error("malformed header");
+        }
+        header = false;
+        clauses.declareVariables((int) declaredVariables);
+    }
+
+    private void finish() {
+        endNumber();
+        if ( header ){
+            endHeader();
+        }
+        if ( clauseOpen ){
+            clauses.endClause();                                                               //the last clause may lack its 0
+            clauseCount++;
+        }
+        if ( declaredClauses < 0 ){
+            throw new IllegalArgumentException("The file is not valid DIMACS: the header is missing");
+        }
+        if ( clauseCount != declaredClauses ){
+            throw error(clauseCount + " clauses where the header declares " + declaredClauses);
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("The file is not valid DIMACS: " + message + " at line " + line);
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return clauses != null && digits >= 0 && headerNumbers <= 2 && formatLength >= 0 && clauseCount >= 0;
+    }
+}
@@ -0,0 +1,155 @@
+package solver;
+
+import expressions.Expression;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes formulas in the DIMACS CNF format, so they can be exchanged with other solvers.
+ * Expressions are converted with {@link CnfEncoder}; the name of every named variable is written
+ * in a comment line {@code c var <number> <name>} before the header.
+ * Numbers are formatted straight into a byte buffer, without building strings.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'out' and 'buffer' cannot be null
+ * 0 <= 'count' <= buffer.length
+ */
+public final class DimacsWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /* (non-javadoc)
+     * The longest number written, i.e.: a sign and ten digits
+     */
+    private static final int MAX_NUMBER_LENGTH = 11;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    private DimacsWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Converts an expression to conjunctive normal form and writes it to a file
+     * @param expression the expression to write
+     * @param path the file to write, replaced if it exists
+     * @throws IllegalArgumentException if {@code expression} or {@code path} is {@code null}
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Expression expression, Path path) throws IOException {
+        if ( expression == null || path == null ){
+            throw new IllegalArgumentException("The 'expression' and 'path' cannot be null");
+        }
+        try ( OutputStream out = Files.newOutputStream(path) ){
+            write(CnfEncoder.encode(expression), out);
+        }
+    }
+
+    /**
+     * Writes a formula in conjunctive normal form, with the names of its named variables
+     * @param cnf the formula to write
+     * @param out the stream to write to, which is flushed but not closed
+     * @throws IllegalArgumentException if {@code cnf} or {@code out} is {@code null}
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(Cnf cnf, OutputStream out) throws IOException {
+        if ( cnf == null || out == null ){
+            throw new IllegalArgumentException("The 'cnf' and 'out' cannot be null");
+        }
+        DimacsWriter writer = new DimacsWriter(out);
+        for ( int v = 1 ; v <= cnf.names().size() ; v++ ){
+            writer.text("c var ");
+            writer.number(v);
+            writer.text(" ");
+            writer.text(cnf.nameOf(v));
+            writer.text("\n");
+        }
+        writer.clauses(cnf.clauses());
+    }
+
+    /**
+     * Writes a set of clauses
+     * @param clauses the clauses to write
+     * @param out the stream to write to, which is flushed but not closed
+     * @throws IllegalArgumentException if {@code clauses} or {@code out} is {@code null}
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(ClauseStore clauses, OutputStream out) throws IOException {
+        if ( clauses == null || out == null ){
+            throw new IllegalArgumentException("The 'clauses' and 'out' cannot be null");
+        }
+        new DimacsWriter(out).clauses(clauses);
+    }
+
+    private void clauses(ClauseStore clauses) throws IOException {
+        text("p cnf ");
+        number(clauses.variableCount());
+        text(" ");
+        number(clauses.clauseCount());
+        text("\n");
+        int[] literals = clauses.literals();
+        for ( int c = 0 ; c < clauses.clauseCount() ; c++ ){
+            for ( int i = clauses.start(c) ; i < clauses.start(c + 1) ; i++ ){
+                number(literals[i]);
+                put(' ');
+            }
+            put('0');
+            put('\n');
+        }
+        out.write(buffer, 0, count);
+        count = 0;
+        out.flush();
+    }
+
+    private void text(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        for ( byte b : bytes ){
+            put(b);
+        }
+    }
+
+    /* (non-javadoc)
+     * Formats a number into the buffer, digits written backwards from the end of its slot
+     */
+    private void number(int value) throws IOException {
+        if ( count + MAX_NUMBER_LENGTH > buffer.length ){
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        long magnitude = Math.abs((long) value);
+        if ( value < 0 ){
+            buffer[count++] = '-';
+        }
+        int digits = 1;
+        for ( long rest = magnitude / 10 ; rest > 0 ; rest /= 10 ){
+            digits++;
+        }
+        for ( int i = count + digits - 1 ; i >= count ; i-- ){
+            buffer[i] = (byte) ('0' + magnitude % 10);
+            magnitude /= 10;
+        }
+        count += digits;
+    }
+
+    private void put(int b) throws IOException {
+        if ( count == buffer.length ){
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return out != null && buffer != null && count >= 0 && count <= buffer.length;
+    }
+}
@@ -0,0 +1,111 @@
+package expressions;
+
+import java.util.Arrays;
+
+/**
+ * Evaluates expressions with an explicit stack instead of recursion, so no depth of expression can
+ * overflow the call stack. Conjunctions, disjunctions and the operators that can be decided by their
+ * first operand stop as soon as their value is known, as the recursive evaluation did. A constant is a
+ * leaf like any other, so a node whose operands have no variables folds to their value.
+ * @version 0.1
+ */
+final class Evaluator {
+
+    private Evaluator() {
+    }
+
+    /* (non-javadoc)
+     * Evaluates an expression under an interpretation, the leaves and the expressions of other packages
+     * being evaluated by themselves
+     */
+    static boolean evaluate(Expression expression, Interpretation interpretation) {
+        Expression[] nodes = new Expression[16];
+        int[] states = new int[16];                                                            //per node: the number of operands evaluated
+        boolean[] lefts = new boolean[16];                                                     //per binary node: the value of its left operand
+        int top = 0;
+        nodes[0] = expression;
+        boolean value = false;                                                                 //the value of the last node evaluated
+        while ( true ){
+            Expression node = nodes[top];
+            int state = states[top];
+            Expression next = null;
+            if ( node instanceof Negation ){
+                if ( state == 0 ){
+                    next = ((Negation) node).operand();
+                } else {
+                    value = !value;
+                }
+            } else if ( node instanceof BinaryExpression ){
+                BinaryExpression binary = (BinaryExpression) node;
+                if ( state == 0 ){
+                    next = binary.left();
+                } else if ( state == 1 && !decides(binary.operator(), value) ){
+                    lefts[top] = value;
+                    next = binary.right();
+                } else {
+                    value = state == 1 ? apply(binary.operator(), value, value)                //the right operand does not matter
+                            : apply(binary.operator(), lefts[top], value);
+                }
+            } else if ( node instanceof NaryExpression ){
+                NaryExpression nary = (NaryExpression) node;
+                boolean and = nary.operator() == BinaryExpression.BinaryOperator.AND;
+                if ( state < nary.arity() && (state == 0 || value == and) ){                   //not decided by the last operand
+                    next = nary.operand(state);
+                }
+            } else {
+                value = node.evaluate(interpretation);
+            }
+
+            if ( next == null ){
+                if ( top == 0 ){
+                    return value;
+                }
+                states[--top]++;
+            } else {
+                if ( ++top == nodes.length ){
+                    nodes = Arrays.copyOf(nodes, top * 2);
+                    states = Arrays.copyOf(states, top * 2);
+                    lefts = Arrays.copyOf(lefts, top * 2);
+                }
+                nodes[top] = next;
+                states[top] = 0;
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * @return true iff the value of the left operand alone decides the value of an operator
+     */
+    private static boolean decides(BinaryExpression.BinaryOperator op, boolean left) {
+        switch ( op ){
+            case AND:
+            case NAND:
+            case IMPLIES:
+                return !left;
+            case OR:
+            case NOR:
+                return left;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean apply(BinaryExpression.BinaryOperator op, boolean left, boolean right) {
+        switch ( op ){
+            case AND:
+                return left && right;
+            case OR:
+                return left || right;
+            case IMPLIES:
+                return !left || right;
+            case IFF:
+                return left == right;
+            case XOR:
+                return left != right;
+            case NAND:
+                return !(left && right);
+            default:
+                return !(left || right);
+        }
+    }
+}
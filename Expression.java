@@ -5,6 +5,9 @@ import java.util.Set;
 
 /**
  * Represents a boolean expression.
+ * Expressions are immutable and hash-consed: every factory method returns the existing node when a
+ * structurally equal expression already exists, so equal sub-expressions are shared, {@code equals}
+ * is identity and {@code hashCode} is a structural hash computed once per node.
  * @version 0.1
  */
 public interface Expression {
@@ -30,7 +33,7 @@ public interface Expression {
      * @see {@link expressions.Constant}
      */
     public static Expression createConstant(boolean value) {
-        return new Constant(value);
+        return ExpressionFactory.getInstance().constant(value);
     }
 
     /**
@@ -46,7 +49,7 @@ public interface Expression {
         if (!Variable.checkFormat(var)) {
             throw new IllegalArgumentException("var has an invalid format or value");
         }
-        return new Variable(var);
+        return ExpressionFactory.getInstance().variable(var);
     }
 
     /**
@@ -59,7 +62,7 @@ public interface Expression {
         if ( expr == null ){
             throw new IllegalArgumentException("The 'expr' cannot be null");
         }
-        return new Negation(expr);
+        return ExpressionFactory.getInstance().negation(expr);
     }
 
     /**
@@ -75,7 +78,7 @@ public interface Expression {
         if ( left == null || right == null ){
             throw new IllegalArgumentException("The 'left' and 'right' cannot be null");
         }
-        return new BinaryExpression(left, right, BinaryOperator.AND);
+        return ExpressionFactory.getInstance().binary(left, right, BinaryOperator.AND);
     }
 
     /**
@@ -90,45 +93,145 @@ public interface Expression {
         if ( left == null || right == null ){
             throw new IllegalArgumentException("The 'left' and 'right' cannot be null");
         }
-        return new BinaryExpression(left, right, BinaryOperator.OR);
+        return ExpressionFactory.getInstance().binary(left, right, BinaryOperator.OR);
     }
 
-    // antecedent implies consequent
-    // left iff right (this means left `if and only iff` right)
-    // left xor right
     /**
-     *  
-     * @param antecedent
-     * @param consequent
-     * @return
+     * Creates a new expression as the conjunction of any number of given expressions, kept in a single node.
+     * The operands of operands that are themselves n-ary conjunctions are taken in their place
+     * @param operands the expressions to join
+     * @return an expression representing {@code operands[0] and ... and operands[n - 1]}, which is {@code true} if there is none
+     * @throws IllegalArgumentException if {@code operands} is {@code null} or contains {@code null}
      */
+    public default Expression and(Expression... operands) {
+        return ExpressionFactory.getInstance().join(operands, BinaryOperator.AND);
+    }
+
+    /**
+     * Creates a new expression as the disjunction of any number of given expressions, kept in a single node.
+     * The operands of operands that are themselves n-ary disjunctions are taken in their place
+     * @param operands the expressions to join
+     * @return an expression representing {@code operands[0] or ... or operands[n - 1]}, which is {@code false} if there is none
+     * @throws IllegalArgumentException if {@code operands} is {@code null} or contains {@code null}
+     */
+    public default Expression or(Expression... operands) {
+        return ExpressionFactory.getInstance().join(operands, BinaryOperator.OR);
+    }
+
+    /**
+     * Collapses every chain of conjunctions, or of disjunctions, of an expression into a single n-ary node,
+     * so a long chain is neither deep to evaluate nor scattered in memory
+     * @param expr the expression to flatten
+     * @return an expression equivalent to {@code expr} with no conjunction directly under another, nor disjunction under another
+     * @throws IllegalArgumentException if {@code expr} is {@code null}
+     */
+    public static Expression flatten(Expression expr) {
+        if ( expr == null ){
+            throw new IllegalArgumentException("The 'expr' cannot be null");
+        }
+        return NaryExpression.flatten(expr);
+    }
 
+    /**
+     * Simplifies an expression into negation normal form: negations only apply to variables, and constants, repeated
+     * operands, complementary literals and absorbed operands are removed, until nothing changes (see {@link Simplifier})
+     * @param expr the expression to simplify
+     * @return an expression equivalent to {@code expr}, whose variables are among those of {@code expr}
+     * @throws IllegalArgumentException if {@code expr} is {@code null}
+     */
+    public static Expression simplify(Expression expr) {
+        if ( expr == null ){
+            throw new IllegalArgumentException("The 'expr' cannot be null");
+        }
+        return Simplifier.simplify(expr, () -> { });
+    }
+
+    /**
+     * Simplifies an expression as {@link #simplify(Expression)} does, reporting every step to a checkpoint
+     * @param expr the expression to simplify
+     * @param checkpoint run once for every node visited; it can stop the simplification by throwing an unchecked exception
+     * @return an expression equivalent to {@code expr}, whose variables are among those of {@code expr}
+     * @throws IllegalArgumentException if {@code expr} or {@code checkpoint} is {@code null}
+     */
+    public static Expression simplify(Expression expr, Runnable checkpoint) {
+        if ( expr == null || checkpoint == null ){
+            throw new IllegalArgumentException("The 'expr' and 'checkpoint' cannot be null");
+        }
+        return Simplifier.simplify(expr, checkpoint);
+    }
+
+    /**
+     * Creates a new expression as the implication between two given expressions
+     * @param antecedent the antecedent expression
+     * @param consequent the consequent expression
+     * @return an expression representing {@code antecedent implies consequent}
+     * @throws IllegalArgumentException if {@code antecedent} is {@code null}
+     * @throws IllegalArgumentException if {@code consequent} is {@code null}
+     */
     public default Expression implies(Expression antecedent, Expression consequent) {
         if ( antecedent == null || consequent == null ){
             throw new IllegalArgumentException("The 'antecedent' and 'consequent' cannot be null");
         }
-        return or(not(antecedent), consequent);
+        return ExpressionFactory.getInstance().binary(antecedent, consequent, BinaryOperator.IMPLIES);
     }
 
+    /**
+     * Creates a new expression as the equivalence of two given expressions
+     * @param left the left expression
+     * @param right the right expression
+     * @return an expression representing {@code left iff right}
+     * @throws IllegalArgumentException if {@code left} is {@code null}
+     * @throws IllegalArgumentException if {@code right} is {@code null}
+     */
     public default Expression iff(Expression left, Expression right){
-       if ( left == null || right == null ){
+        if ( left == null || right == null ){
             throw new IllegalArgumentException("The 'left' and 'right' cannot be null");
         }
-        return and(implies(left, right), implies(right, left)); 
+        return ExpressionFactory.getInstance().binary(left, right, BinaryOperator.IFF);
     }
+
     /**
-     * 
-     * @param left
-     * @param right
-     * @return
+     * Creates a new expression as the exclusive disjunction of two given expressions
+     * @param left the left expression
+     * @param right the right expression
+     * @return an expression representing {@code left xor right}
+     * @throws IllegalArgumentException if {@code left} is {@code null}
+     * @throws IllegalArgumentException if {@code right} is {@code null}
      */
     public default Expression xor(Expression left, Expression right){
-       if ( left == null || right == null ){
+        if ( left == null || right == null ){
             throw new IllegalArgumentException("The 'left' and 'right' cannot be null");
-        } 
-        return or(and(left, not(right)), and(not(left), right));
+        }
+        return ExpressionFactory.getInstance().binary(left, right, BinaryOperator.XOR);
     }
 
+    /**
+     * Creates a new expression as the negated conjunction of two given expressions
+     * @param left the left expression
+     * @param right the right expression
+     * @return an expression representing {@code not (left and right)}
+     * @throws IllegalArgumentException if {@code left} is {@code null}
+     * @throws IllegalArgumentException if {@code right} is {@code null}
+     */
+    public default Expression nand(Expression left, Expression right){
+        if ( left == null || right == null ){
+            throw new IllegalArgumentException("The 'left' and 'right' cannot be null");
+        }
+        return ExpressionFactory.getInstance().binary(left, right, BinaryOperator.NAND);
+    }
 
-    
-}
\ No newline at end of file
+    /**
+     * Creates a new expression as the negated disjunction of two given expressions
+     * @param left the left expression
+     * @param right the right expression
+     * @return an expression representing {@code not (left or right)}
+     * @throws IllegalArgumentException if {@code left} is {@code null}
+     * @throws IllegalArgumentException if {@code right} is {@code null}
+     */
+    public default Expression nor(Expression left, Expression right){
+        if ( left == null || right == null ){
+            throw new IllegalArgumentException("The 'left' and 'right' cannot be null");
+        }
+        return ExpressionFactory.getInstance().binary(left, right, BinaryOperator.NOR);
+    }
+}
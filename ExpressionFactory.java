@@ -0,0 +1,362 @@
+package expressions;
+
+import expressions.BinaryExpression.BinaryOperator;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Creates hash-consed expressions: a unique table keyed on the operator and the identity of the
+ * operands returns the existing node whenever a structurally equal expression already exists,
+ * so expressions form a shared DAG and structural equality is plain identity.
+ * The table only holds weak references, so nodes no longer used anywhere else can be collected.
+ * It is split into segments by the high bits of the hashes, each with its own lock, so threads creating
+ * expressions only wait for each other when they create nodes of the same segment at once.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'segments' cannot be null, and there are SEGMENT_COUNT of them
+ * every live node is in the segment of the high bits of its hash, and in its table in the bucket of its low bits
+ * no two live nodes are structurally equal
+ * the 'table' and 'queue' of a segment cannot be null, and its 'size' is the number of entries in its 'table',
+ * live or not yet expunged
+ */
+final class ExpressionFactory {
+
+    private static final ExpressionFactory INSTANCE = new ExpressionFactory();
+
+    private static final int SEGMENT_BITS = 6;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+    private static final int INITIAL_CAPACITY = 1 << 4;                                        //per segment
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private static final int VARIABLE_SEED = 0x1b873593;
+    private static final int NEGATION_SEED = 0x5bd1e995;
+    private static final int NARY_SEED = 0x27d4eb2f;
+
+    /* (non-javadoc)
+     * An entry of the unique table, a weak reference to a node that remembers its hash
+     */
+    private static final class Entry extends WeakReference<Expression> {
+        final int hash;
+        Entry next;
+
+        Entry(Expression node, int hash, Entry next, ReferenceQueue<Expression> queue) {
+            super(node, queue);
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+
+    /* (non-javadoc)
+     * A part of the unique table, guarded by its own monitor; the entries of its nodes are queued to its own queue
+     * once collected, so it expunges them alone
+     */
+    private static final class Segment {
+        final ReferenceQueue<Expression> queue = new ReferenceQueue<>();
+        Entry[] table = new Entry[INITIAL_CAPACITY];
+        int size;
+
+        Entry bucket(int hash) {
+            return table[index(hash)];
+        }
+
+        <T extends Expression> T insert(T node, int hash) {
+            expunge();
+            if ( size >= table.length * LOAD_FACTOR ){
+                resize();
+            }
+            int index = index(hash);
+            table[index] = new Entry(node, hash, table[index], queue);
+            size++;
+            return node;
+        }
+
+        /* (non-javadoc)
+         * Removes the entries of the nodes that have been collected
+         */
+        void expunge() {
+            for ( Object ref = queue.poll() ; ref != null ; ref = queue.poll() ){
+                Entry dead = (Entry) ref;
+                int index = index(dead.hash);
+                Entry previous = null;
+                for ( Entry e = table[index] ; e != null ; previous = e, e = e.next ){
+                    if ( e == dead ){
+                        if ( previous == null ){
+                            table[index] = e.next;
+                        } else {
+                            previous.next = e.next;
+                        }
+                        size--;
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void resize() {
+            Entry[] old = table;
+            table = new Entry[old.length * 2];
+            for ( Entry head : old ){
+                for ( Entry e = head ; e != null ; ){
+                    Entry next = e.next;
+                    int index = index(e.hash);
+                    e.next = table[index];
+                    table[index] = e;
+                    e = next;
+                }
+            }
+        }
+
+        int index(int hash) {
+            return hash & (table.length - 1);
+        }
+    }
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+
+    private final Constant trueConstant = new Constant(true);
+    private final Constant falseConstant = new Constant(false);
+
+    private ExpressionFactory() {
+        for ( int i = 0 ; i < SEGMENT_COUNT ; i++ ){
+            segments[i] = new Segment();
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the factory every expression is created with
+     */
+    static ExpressionFactory getInstance() {
+        return INSTANCE;
+    }
+
+    /* (non-javadoc)
+     * @return the unique constant expression of a value
+     */
+    Constant constant(boolean value) {
+        return value ? trueConstant : falseConstant;
+    }
+
+    /* (non-javadoc)
+     * @return the unique variable expression of a name, which must already be valid
+     */
+    Variable variable(String name) {
+        int hash = variableHash(name);
+        Segment segment = segmentOf(hash);
+        synchronized ( segment ){
+            for ( Entry e = segment.bucket(hash) ; e != null ; e = e.next ){
+                Expression node = e.get();
+                if ( e.hash == hash && node instanceof Variable && ((Variable) node).name().equals(name) ){
+                    return (Variable) node;
+                }
+            }
+            return segment.insert(new Variable(name), hash);
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the unique negation of an expression
+     */
+    Negation negation(Expression operand) {
+        int hash = negationHash(operand);
+        Segment segment = segmentOf(hash);
+        synchronized ( segment ){
+            for ( Entry e = segment.bucket(hash) ; e != null ; e = e.next ){
+                Expression node = e.get();
+                if ( e.hash == hash && node instanceof Negation && ((Negation) node).operand() == operand ){
+                    return (Negation) node;
+                }
+            }
+            return segment.insert(new Negation(operand), hash);
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the unique binary expression of an operator and two operands
+     */
+    BinaryExpression binary(Expression left, Expression right, BinaryOperator op) {
+        int hash = binaryHash(left, right, op);
+        Segment segment = segmentOf(hash);
+        synchronized ( segment ){
+            for ( Entry e = segment.bucket(hash) ; e != null ; e = e.next ){
+                Expression node = e.get();
+                if ( e.hash == hash && node instanceof BinaryExpression ){
+                    BinaryExpression binary = (BinaryExpression) node;
+                    if ( binary.left() == left && binary.right() == right && binary.operator() == op ){
+                        return binary;
+                    }
+                }
+            }
+            return segment.insert(new BinaryExpression(left, right, op), hash);
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the unique n-ary expression of an operator and an array of operands, which it keeps without copying
+     */
+    NaryExpression nary(Expression[] operands, BinaryOperator op) {
+        int hash = naryHash(operands, op);
+        Segment segment = segmentOf(hash);
+        synchronized ( segment ){
+            for ( Entry e = segment.bucket(hash) ; e != null ; e = e.next ){
+                Expression node = e.get();
+                if ( e.hash == hash && node instanceof NaryExpression ){
+                    NaryExpression nary = (NaryExpression) node;
+                    if ( nary.operator() == op && sameOperands(nary, operands) ){
+                        return nary;
+                    }
+                }
+            }
+            return segment.insert(new NaryExpression(operands, op), hash);
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the conjunction or disjunction of some operands, the operands of n-ary operands with the same operator
+     * spliced in, the neutral constant if there is none and the operand itself if there is one
+     */
+    Expression join(Expression[] operands, BinaryOperator op) {
+        if ( operands == null ){
+            throw new IllegalArgumentException("The 'operands' cannot be null");
+        }
+        List<Expression> spliced = new ArrayList<>(operands.length);
+        for ( Expression operand : operands ){
+            if ( operand == null ){
+                throw new IllegalArgumentException("The 'operands' cannot contain null");
+            }
+            if ( operand instanceof NaryExpression && ((NaryExpression) operand).operator() == op ){
+                NaryExpression nary = (NaryExpression) operand;
+                for ( int i = 0 ; i < nary.arity() ; i++ ){
+                    spliced.add(nary.operand(i));
+                }
+            } else {
+                spliced.add(operand);
+            }
+        }
+        if ( spliced.size() < 2 ){
+            return spliced.isEmpty() ? constant(op == BinaryOperator.AND) : spliced.get(0);
+        }
+        return nary(spliced.toArray(new Expression[0]), op);
+    }
+
+    private static boolean sameOperands(NaryExpression nary, Expression[] operands) {
+        if ( nary.arity() != operands.length ){
+            return false;
+        }
+        for ( int i = 0 ; i < operands.length ; i++ ){
+            if ( nary.operand(i) != operands[i] ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /* (non-javadoc)
+     * @return the number of nodes in the unique table, including collected ones not yet expunged
+     */
+    int size() {
+        int size = 0;
+        for ( Segment segment : segments ){
+            synchronized ( segment ){
+                segment.expunge();
+                size += segment.size;
+            }
+        }
+        return size;
+    }
+
+    /* (non-javadoc)
+     * @return true iff at least one variable occurs in an expression, in O(1) for the expressions of this package
+     */
+    static boolean hasVariables(Expression expression) {
+        if ( expression instanceof Variable ){
+            return true;
+        } else if ( expression instanceof Constant ){
+            return false;
+        } else if ( expression instanceof Negation ){
+            return ((Negation) expression).hasVariables();
+        } else if ( expression instanceof BinaryExpression ){
+            return ((BinaryExpression) expression).hasVariables();
+        } else if ( expression instanceof NaryExpression ){
+            return ((NaryExpression) expression).hasVariables();
+        }
+        return !expression.variables().isEmpty();
+    }
+
+    //The structural hashes, combined from the hashes of the operands so they are computed in O(1)
+
+    static int constantHash(boolean value) {
+        return value ? 1231 : 1237;
+    }
+
+    static int variableHash(String name) {
+        return mix(name.hashCode() ^ VARIABLE_SEED);
+    }
+
+    static int negationHash(Expression operand) {
+        return mix(operand.hashCode() * 31 + NEGATION_SEED);
+    }
+
+    static int binaryHash(Expression left, Expression right, BinaryOperator op) {
+        return mix((left.hashCode() * 31 + right.hashCode()) * 31 + op.ordinal() + 1);
+    }
+
+    static int naryHash(Expression[] operands, BinaryOperator op) {
+        int h = NARY_SEED + op.ordinal();
+        for ( Expression operand : operands ){
+            h = h * 31 + operand.hashCode();
+        }
+        return mix(h);
+    }
+
+    /* (non-javadoc)
+     * The finalizer of MurmurHash3, spreading every input bit over the whole hash
+     */
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /* (non-javadoc)
+     * @return the segment of a hash, chosen by its high bits, as the buckets of a segment are chosen by the low ones
+     */
+    private Segment segmentOf(int hash) {
+        return segments[hash >>> (Integer.SIZE - SEGMENT_BITS)];
+    }
+
+    //Check the invariants
+
+    boolean repOK(){
+        if ( segments == null || segments.length != SEGMENT_COUNT ){
+            return false;
+        }
+        for ( Segment segment : segments ){
+            synchronized ( segment ){
+                if ( segment.table == null || segment.queue == null ){
+                    return false;
+                }
+                int count = 0;
+                for ( int i = 0 ; i < segment.table.length ; i++ ){
+                    for ( Entry e = segment.table[i] ; e != null ; e = e.next ){
+                        if ( segment.index(e.hash) != i || segmentOf(e.hash) != segment ){
+                            return false;
+                        }
+                        count++;
+                    }
+                }
+                if ( count != segment.size ){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,459 @@
+package expressions;
+
+import expressions.BinaryExpression.BinaryOperator;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Parses boolean expressions written in infix notation, e.g.: {@code !(p & q) -> r}.
+ * From the loosest to the tightest, the operators are {@code <->}, {@code ->}, {@code |}, {@code ^}, {@code &}
+ * and {@code !}; all of them group to the left but {@code ->}, which groups to the right. Parentheses group,
+ * {@code true}, {@code false}, {@code 1} and {@code 0} are constants, and any other name following the format
+ * <letter>(<letter-or-number>)* is a variable. Spaces between the tokens are ignored.
+ * <p>
+ * The text is read through a buffer of characters, refilled as it is consumed, so a text read from a {@link Reader}
+ * is never held whole. Operators are ordered by precedence climbing on explicit stacks instead of recursion, so no
+ * depth of nesting can overflow the call stack, and every node is built as soon as its operator is complete.
+ * Chains of {@code &} or {@code |} become a single n-ary node (see {@link Expression#and(Expression...)}), and every
+ * name is looked up in the characters of the buffer, so the string of a name repeated in the text is only built once.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * exactly one of 'text' and 'reader' is null, and 'buffer' cannot be null
+ * buffer[next..limit) holds the characters not yet read, the first of them at 'offset' + 'next' in the text
+ * 'operands' holds 'operandCount' expressions, and 'operators' and 'arities' hold 'operatorCount' operators,
+ * the arity of a binary operator being the number of operands it joins
+ * 'names', 'atoms' and 'hashes' are an open-addressing table of 'interned' names and their expressions
+ */
+public final class ExpressionParser {
+
+    /* (non-javadoc)
+     * The number of characters read at once
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private static final int END = 0;
+    private static final int ATOM = 1;
+    private static final int OPEN = 2;
+    private static final int CLOSE = 3;
+    private static final int NOT = 4;
+    private static final int AND = 5;
+    private static final int XOR = 6;
+    private static final int OR = 7;
+    private static final int IMPLIES = 8;
+    private static final int IFF = 9;
+
+    private final ExpressionFactory factory = ExpressionFactory.getInstance();
+    private final CharSequence text;
+    private final Reader reader;
+
+    private char[] buffer;
+    private int next;
+    private int limit;
+    private long offset;
+    private int consumed;                                                                      //the characters of 'text' already in the buffer
+    private boolean exhausted;
+
+    private long tokenStart;
+    private Expression atom;
+
+    private Expression[] operands = new Expression[16];
+    private int operandCount;
+    private int[] operators = new int[16];
+    private int[] arities = new int[16];
+    private int operatorCount;
+
+    private String[] names = new String[16];
+    private Expression[] atoms = new Expression[16];
+    private int[] hashes = new int[16];
+    private int interned;
+
+    private ExpressionParser(CharSequence text, Reader reader, int capacity) {
+        this.text = text;
+        this.reader = reader;
+        this.buffer = new char[capacity];
+        intern("true", factory.constant(true));
+        intern("false", factory.constant(false));
+    }
+
+    /**
+     * Parses an expression
+     * @param text the expression, in infix notation
+     * @return the expression written in {@code text}
+     * @throws IllegalArgumentException if {@code text} is {@code null}
+     * @throws IllegalArgumentException if {@code text} is not a well-formed expression
+     */
+    public static Expression parse(CharSequence text) {
+        if ( text == null ){
+            throw new IllegalArgumentException("The 'text' cannot be null");
+        }
+        try {
+            return new ExpressionParser(text, null, Math.max(16, Math.min(BUFFER_SIZE, text.length()))).expression();
+        } catch ( IOException e ){
+            throw new AssertionError(e);                                                       //a text is never read from a reader
+        }
+    }
+
+    /**
+     * Parses an expression, reading it until the end of a reader, which is not closed
+     * @param reader the reader of the expression, in infix notation
+     * @return the expression read from {@code reader}
+     * @throws IllegalArgumentException if {@code reader} is {@code null}
+     * @throws IllegalArgumentException if the text read is not a well-formed expression
+     * @throws IOException if the reader fails
+     */
+    public static Expression parse(Reader reader) throws IOException {
+        if ( reader == null ){
+            throw new IllegalArgumentException("The 'reader' cannot be null");
+        }
+        return new ExpressionParser(null, reader, BUFFER_SIZE).expression();
+    }
+
+    /* (non-javadoc)
+     * Reads the whole text, alternating between the operands and the binary operators that must come after them
+     */
+    private Expression expression() throws IOException {
+        while ( true ){
+
+            //First, I read an operand, after the negations and parentheses opened before it
+
+            int token = token();
+            while ( token == NOT || token == OPEN ){
+                pushOperator(token);
+                token = token();
+            }
+            if ( token != ATOM ){
+                throw unexpected(token);
+            }
+            pushOperand(atom);
+
+            //Then, I read the operator after it, building every node that the operator completes
+
+            token = token();
+            while ( token == CLOSE ){
+                reduceUntil(precedence(OPEN));
+                if ( operatorCount == 0 ){
+                    throw unexpected(token);
+                }
+                operatorCount--;                                                               //the matching parenthesis
+                token = token();
+            }
+            if ( token == END ){
+                reduceUntil(precedence(OPEN));
+                if ( operatorCount > 0 ){
+                    throw error("Expected ')'");
+                }
+                return operands[0];
+            }
+            if ( token < AND ){
+                throw unexpected(token);
+            }
+            boolean chains = token == AND || token == OR || token == IMPLIES;                  //extends a chain, or groups to the right
+            reduceUntil(chains ? precedence(token) + 1 : precedence(token));
+            if ( operatorCount > 0 && operators[operatorCount - 1] == token && (token == AND || token == OR) ){
+                arities[operatorCount - 1]++;                                                   //one more operand of the chain
+            } else {
+                pushOperator(token);
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * Builds the nodes of the operators on the stack, up to the first one looser than a precedence or a parenthesis
+     */
+    private void reduceUntil(int precedence) {
+        while ( operatorCount > 0 && operators[operatorCount - 1] != OPEN && precedence(operators[operatorCount - 1]) >= precedence ){
+            int operator = operators[--operatorCount];
+            if ( operator == NOT ){
+                operands[operandCount - 1] = factory.negation(operands[operandCount - 1]);
+                continue;
+            }
+            int arity = arities[operatorCount];
+            operandCount -= arity;
+            Expression node;
+            if ( arity == 2 ){
+                node = factory.binary(operands[operandCount], operands[operandCount + 1], operatorOf(operator));
+            } else {
+                node = factory.join(Arrays.copyOfRange(operands, operandCount, operandCount + arity), operatorOf(operator));
+            }
+            Arrays.fill(operands, operandCount + 1, operandCount + arity, null);
+            operands[operandCount++] = node;
+        }
+    }
+
+    private void pushOperand(Expression operand) {
+        if ( operandCount == operands.length ){
+            operands = Arrays.copyOf(operands, operandCount * 2);
+        }
+        operands[operandCount++] = operand;
+    }
+
+    private void pushOperator(int operator) {
+        if ( operatorCount == operators.length ){
+            operators = Arrays.copyOf(operators, operatorCount * 2);
+            arities = Arrays.copyOf(arities, operatorCount * 2);
+        }
+        operators[operatorCount] = operator;
+        arities[operatorCount++] = 2;
+    }
+
+    private static int precedence(int operator) {
+        switch ( operator ){
+            case IFF:
+                return 1;
+            case IMPLIES:
+                return 2;
+            case OR:
+                return 3;
+            case XOR:
+                return 4;
+            case AND:
+                return 5;
+            case NOT:
+                return 6;
+            default:
+                return 0;
+        }
+    }
+
+    private static BinaryOperator operatorOf(int operator) {
+        switch ( operator ){
+            case AND:
+                return BinaryOperator.AND;
+            case OR:
+                return BinaryOperator.OR;
+            case XOR:
+                return BinaryOperator.XOR;
+            case IMPLIES:
+                return BinaryOperator.IMPLIES;
+            default:
+                return BinaryOperator.IFF;
+        }
+    }
+
+    /* (non-javadoc)
+     * Reads the next token and the spaces before it; a name or a constant is left in 'atom'
+     * @return the kind of the token
+     */
+    private int token() throws IOException {
+        while ( available(1) && Character.isWhitespace(buffer[next]) ){
+            next++;
+        }
+        tokenStart = offset + next;
+        if ( !available(1) ){
+            return END;
+        }
+        char c = buffer[next];
+        switch ( c ){
+            case '!':
+                next++;
+                return NOT;
+            case '&':
+                next++;
+                return AND;
+            case '^':
+                next++;
+                return XOR;
+            case '|':
+                next++;
+                return OR;
+            case '(':
+                next++;
+                return OPEN;
+            case ')':
+                next++;
+                return CLOSE;
+            case '-':
+                return symbol("->", IMPLIES);
+            case '<':
+                return symbol("<->", IFF);
+            default:
+                return name();
+        }
+    }
+
+    private int symbol(String symbol, int token) throws IOException {
+        available(symbol.length());
+        for ( int i = 0 ; i < symbol.length() ; i++ ){
+            if ( next + i == limit || buffer[next + i] != symbol.charAt(i) ){
+                throw error("Unexpected '" + buffer[next] + "'");
+            }
+        }
+        next += symbol.length();
+        return token;
+    }
+
+    /* (non-javadoc)
+     * Reads a name, or one of the constants 1 and 0
+     */
+    private int name() throws IOException {
+        int length = 0;
+        int hash = 0;
+        while ( available(length + 1) && Character.isLetterOrDigit(buffer[next + length]) ){
+            hash = 31 * hash + buffer[next + length];
+            length++;
+        }
+        if ( length == 0 ){
+            throw error("Unexpected '" + buffer[next] + "'");
+        }
+        if ( Character.isDigit(buffer[next]) ){
+            if ( length != 1 || (buffer[next] != '0' && buffer[next] != '1') ){
+                throw error("The variable '" + new String(buffer, next, length) + "' does not satisfy the format");
+            }
+            atom = factory.constant(buffer[next] == '1');
+            next++;
+            return ATOM;
+        }
+        atom = lookup(length, hash);
+        next += length;
+        return ATOM;
+    }
+
+    /* (non-javadoc)
+     * @return the expression of the name of a given length and hash at the start of the buffer, interning it the first time
+     */
+    private Expression lookup(int length, int hash) {
+        int mask = names.length - 1;
+        for ( int slot = mix(hash) & mask ; names[slot] != null ; slot = (slot + 1) & mask ){
+            if ( hashes[slot] == hash && names[slot].length() == length && matches(names[slot]) ){
+                return atoms[slot];
+            }
+        }
+        String name = new String(buffer, next, length);                                       //a letter followed by letters or digits
+        return intern(name, factory.variable(name));
+    }
+
+    private boolean matches(String name) {
+        for ( int i = 0 ; i < name.length() ; i++ ){
+            if ( buffer[next + i] != name.charAt(i) ){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private Expression intern(String name, Expression expression) {
+        if ( 2 * (interned + 1) > names.length ){
+            String[] oldNames = names;
+            Expression[] oldAtoms = atoms;
+            names = new String[oldNames.length * 2];
+            atoms = new Expression[names.length];
+            hashes = new int[names.length];
+            for ( int i = 0 ; i < oldNames.length ; i++ ){
+                if ( oldNames[i] != null ){
+                    insert(oldNames[i], oldAtoms[i]);
+                }
+            }
+        }
+        insert(name, expression);
+        interned++;
+        return expression;
+    }
+
+    private void insert(String name, Expression expression) {
+        int hash = name.hashCode();                                                            //the hash computed while scanning
+        int mask = names.length - 1;
+        int slot = mix(hash) & mask;
+        while ( names[slot] != null ){
+            slot = (slot + 1) & mask;
+        }
+        names[slot] = name;
+        atoms[slot] = expression;
+        hashes[slot] = hash;
+    }
+
+    private static int mix(int hash) {
+        int h = hash * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    /* (non-javadoc)
+     * Makes at least 'count' characters available from 'next', refilling the buffer as needed
+     * @return false iff the text ends before
+     */
+    private boolean available(int count) throws IOException {
+        while ( limit - next < count ){
+            if ( exhausted ){
+                return false;
+            }
+            if ( next > 0 ){                                                                   //keeps the token being read
+                System.arraycopy(buffer, next, buffer, 0, limit - next);
+                offset += next;
+                limit -= next;
+                next = 0;
+            }
+            if ( limit == buffer.length ){
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = fill(limit, buffer.length - limit);
+            if ( read < 0 ){
+                exhausted = true;
+            } else {
+                limit += read;
+            }
+        }
+        return true;
+    }
+
+    private int fill(int from, int length) throws IOException {
+        if ( reader != null ){
+            return reader.read(buffer, from, length);
+        }
+        int count = Math.min(length, text.length() - consumed);
+        if ( count <= 0 ){
+            return -1;
+        }
+        if ( text instanceof String ){
+            ((String) text).getChars(consumed, consumed + count, buffer, from);
+        } else {
+            for ( int i = 0 ; i < count ; i++ ){
+                buffer[from + i] = text.charAt(consumed + i);
+            }
+        }
+        consumed += count;
+        return count;
+    }
+
+    private IllegalArgumentException unexpected(int token) {
+        if ( token == END ){
+            return error("Unexpected end of the expression");
+        }
+        return token == ATOM ? error("Expected an operator") : error("Unexpected '" + symbolOf(token) + "'");
+    }
+
+    private static String symbolOf(int token) {
+        switch ( token ){
+            case OPEN:
+                return "(";
+            case CLOSE:
+                return ")";
+            case NOT:
+                return "!";
+            case AND:
+                return "&";
+            case XOR:
+                return "^";
+            case OR:
+                return "|";
+            case IMPLIES:
+                return "->";
+            default:
+                return "<->";
+        }
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException(message + " at position " + tokenStart);
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return (text == null) != (reader == null) && buffer != null && 0 <= next && next <= limit && limit <= buffer.length
+                && operandCount <= operands.length && operatorCount <= operators.length && arities.length == operators.length
+                && names.length == atoms.length && names.length == hashes.length && 2 * interned <= names.length;
+    }
+}
@@ -0,0 +1,273 @@
+package expressions;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Reads expressions in the binary format written by {@link ExpressionWriter}, into an {@link ExpressionTable}.
+ * <p>
+ * Files are memory-mapped in windows and streams are read in blocks; either way the bytes are decoded one at a time
+ * by a loop that fetches the next window or block when one runs out, so varints split between two need no copy,
+ * and nodes go straight into the arrays of the table; nothing is allocated per node. Every operand is checked to be
+ * an earlier node, so the table read is a DAG, whatever the bytes.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'window' cannot be null, and exactly one of 'channel' and 'in' is null
+ * 'offset' is the position in the input of the first byte of 'window'
+ * 0 < 'limit'
+ */
+public final class ExpressionReader {
+
+    /* (non-javadoc)
+     * The largest part of a file mapped at once, and the size of the blocks read from a stream
+     */
+    private static final long WINDOW_SIZE = 1L << 28;
+    private static final int BLOCK_SIZE = 1 << 16;
+
+    private final FileChannel channel;
+    private final InputStream in;
+    private final byte[] block;
+    private final long limit;
+    private ByteBuffer window = ByteBuffer.allocate(0);
+    private long offset;
+
+    /* (non-javadoc)
+     * Constructs a reader of a file or of a stream; 'limit' bounds the sizes allocated before the nodes are read
+     */
+    private ExpressionReader(FileChannel channel, InputStream in, long limit) {
+        this.channel = channel;
+        this.in = in;
+        this.block = in == null ? null : new byte[BLOCK_SIZE];
+        this.limit = Math.max(1, limit);
+    }
+
+    /**
+     * Reads an expression from a file, memory-mapping it
+     * @param path the file to read
+     * @return the table of the expression of the file
+     * @throws IllegalArgumentException if {@code path} is {@code null}
+     * @throws IllegalArgumentException if the file is not in the format of {@link ExpressionWriter}
+     * @throws IOException if the file cannot be read
+     */
+    public static ExpressionTable read(Path path) throws IOException {
+        if ( path == null ){
+            throw new IllegalArgumentException("The 'path' cannot be null");
+        }
+        try ( FileChannel channel = FileChannel.open(path, StandardOpenOption.READ) ){
+            return new ExpressionReader(channel, null, channel.size()).table();
+        }
+    }
+
+    /**
+     * Reads an expression from a stream, to its end
+     * @param in the stream to read, which is not closed
+     * @return the table of the expression of the stream
+     * @throws IllegalArgumentException if {@code in} is {@code null}
+     * @throws IllegalArgumentException if the stream is not in the format of {@link ExpressionWriter}
+     * @throws IOException if the stream cannot be read
+     */
+    public static ExpressionTable read(InputStream in) throws IOException {
+        if ( in == null ){
+            throw new IllegalArgumentException("The 'in' cannot be null");
+        }
+        return new ExpressionReader(null, in, BLOCK_SIZE).table();
+    }
+
+    private ExpressionTable table() throws IOException {
+        for ( byte b : ExpressionWriter.MAGIC ){
+            if ( next() != b ){
+                throw error("not an expression file");
+            }
+        }
+        int version = next() & 0xff;
+        if ( version != ExpressionWriter.VERSION ){
+            throw error("unsupported version " + version);
+        }
+
+        //First, I read the names, checking that they are variables and distinct
+
+        int nameCount = count("name");
+        String[] names = new String[capacity(nameCount)];
+        Set<String> seen = new HashSet<>();
+        byte[] bytes = new byte[64];
+        for ( int i = 0 ; i < nameCount ; i++ ){
+            int length = count("name length");
+            if ( length > bytes.length ){
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            for ( int j = 0 ; j < length ; j++ ){
+                bytes[j] = next();
+            }
+            String name = new String(bytes, 0, length, StandardCharsets.UTF_8);
+            if ( !Variable.checkFormat(name) ){
+                throw error("the variable '" + name + "' does not satisfy the format");
+            }
+            if ( !seen.add(name) ){
+                throw error("the variable '" + name + "' is named twice");
+            }
+            if ( i == names.length ){
+                names = Arrays.copyOf(names, (int) Math.min(nameCount, 2L * names.length));
+            }
+            names[i] = name;
+        }
+
+        //Then, I read the nodes, checking that every operand is an earlier node
+
+        int nodeCount = count("node");
+        int argumentCount = count("argument");
+        if ( nodeCount == 0 ){
+            throw error("no node");
+        }
+        byte[] kinds = new byte[capacity(nodeCount)];
+        int[] starts = new int[kinds.length + 1];
+        int[] arguments = new int[capacity(argumentCount)];
+        int length = 0;
+        for ( int node = 0 ; node < nodeCount ; node++ ){
+            long header = number();
+            int kind = (int) (header & 0xf);
+            long first = header >>> 4;
+            int arity = kind == ExpressionTable.AND || kind == ExpressionTable.OR ? (int) Math.min(first, Integer.MAX_VALUE)
+                    : kind >= ExpressionTable.BINARY ? 2 : 1;
+            if ( kind > ExpressionTable.OR ){
+                throw error("unknown kind " + kind);
+            }
+            if ( arity < 2 && kind >= ExpressionTable.AND ){
+                throw error("a conjunction or disjunction of less than two operands");
+            }
+            if ( arity > argumentCount - length ){
+                throw error("more arguments than declared");
+            }
+            if ( node == kinds.length ){
+                kinds = Arrays.copyOf(kinds, (int) Math.min(nodeCount, 2L * kinds.length));
+                starts = Arrays.copyOf(starts, kinds.length + 1);
+            }
+            if ( length + arity > arguments.length ){
+                arguments = Arrays.copyOf(arguments, (int) Math.min(argumentCount, Math.max(2L * arguments.length, length + arity)));
+            }
+            kinds[node] = (byte) kind;
+            if ( kind == ExpressionTable.VAR ){
+                if ( first >= nameCount ){
+                    throw error("a variable without name");
+                }
+                arguments[length++] = (int) first;
+            } else if ( kind == ExpressionTable.CONST ){
+                if ( first > 1 ){
+                    throw error("a constant other than 0 or 1");
+                }
+                arguments[length++] = (int) first;
+            } else {
+                int i = 0;
+                if ( kind < ExpressionTable.AND ){
+                    arguments[length++] = operand(node, first);
+                    i++;
+                }
+                for ( ; i < arity ; i++ ){
+                    arguments[length++] = operand(node, number());
+                }
+            }
+            starts[node + 1] = length;
+        }
+        if ( length != argumentCount ){
+            throw error("fewer arguments than declared");
+        }
+        if ( window.hasRemaining() || fetch() ){
+            throw error("trailing bytes");
+        }
+        return new ExpressionTable(kinds, starts, arguments, names);
+    }
+
+    /* (non-javadoc)
+     * @return the position of an operand of a node from its distance back, which must lead to an earlier node
+     */
+    private int operand(int node, long distance) {
+        if ( distance < 1 || distance > node ){
+            throw error("an operand that is not an earlier node");
+        }
+        return node - (int) distance;
+    }
+
+    /* (non-javadoc)
+     * @return the initial length of an array of 'count' entries, each of which takes at least a byte of the input
+     */
+    private int capacity(int count) {
+        return (int) Math.min(count, limit);
+    }
+
+    /* (non-javadoc)
+     * @return the next number, which must fit an int
+     */
+    private int count(String what) throws IOException {
+        long value = number();
+        if ( value > Integer.MAX_VALUE ){
+            throw error("too many " + what + "s");
+        }
+        return (int) value;
+    }
+
+    /* (non-javadoc)
+     * Decodes the next varint
+     */
+    private long number() throws IOException {
+        long value = 0;
+        for ( int shift = 0 ; shift < 64 ; shift += 7 ){
+            byte b = next();
+            value |= (long) (b & 0x7f) << shift;
+            if ( b >= 0 ){
+                return value;
+            }
+        }
+        throw error("number too large");
+    }
+
+    private byte next() throws IOException {
+        if ( !window.hasRemaining() && !fetch() ){
+            throw error("unexpected end");
+        }
+        return window.get();
+    }
+
+    /* (non-javadoc)
+     * Replaces the window by the next part of the input
+     * @return false if the input has no more bytes
+     */
+    private boolean fetch() throws IOException {
+        offset += window.limit();
+        if ( channel != null ){
+            long size = channel.size();
+            if ( offset >= size ){
+                window = ByteBuffer.allocate(0);
+                return false;
+            }
+            window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(WINDOW_SIZE, size - offset));
+            return true;
+        }
+        int read = in.read(block);
+        while ( read == 0 ){
+            read = in.read(block);
+        }
+        window = ByteBuffer.wrap(block, 0, Math.max(read, 0));
+        return read > 0;
+    }
+
+    private IllegalArgumentException error(String message) {
+        return new IllegalArgumentException("The input is not a valid expression: " + message + " at byte "
+                + (offset + window.position()));
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return window != null && (channel == null) != (in == null) && limit > 0;
+    }
+}
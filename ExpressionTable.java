@@ -0,0 +1,324 @@
+package expressions;
+
+import expressions.BinaryExpression.BinaryOperator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Represents an expression as a table of its nodes in topological order, every node listed once after its operands,
+ * the last one being the expression itself. A node is a kind and a few integers: the number of a variable in a table
+ * of names, the value of a constant, or the positions of the operands in the node table. Shared sub-expressions are
+ * listed once, so the table has the size of the DAG, not of the tree, and it holds no object per node.
+ * <p>
+ * It is the form {@link ExpressionWriter} writes and {@link ExpressionReader} reads: a table is read without
+ * building any expression, and turned into one by {@link #toExpression()} only when needed.
+ * A table is immutable.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'kinds', 'starts', 'arguments' and 'names' cannot be null, and 'kinds' has at least one node
+ * 'starts' has one more entry than 'kinds', starts at 0, never decreases, and ends at the length of 'arguments'
+ * the arguments of node i are arguments[starts[i]] to arguments[starts[i + 1] - 1]: the number of a name for VAR,
+ * 0 or 1 for CONST, and for any other kind the positions of its operands, all below i
+ * every name follows the format of the variables, and no two names are equal
+ */
+public final class ExpressionTable {
+
+    /**
+     * The kind of a variable, whose argument is the number of its name
+     */
+    public static final int VAR = 0;
+
+    /**
+     * The kind of a constant, whose argument is {@code 0} or {@code 1}
+     */
+    public static final int CONST = 1;
+
+    /**
+     * The kind of a negation, whose argument is its operand
+     */
+    public static final int NOT = 2;
+
+    /**
+     * The kind of a binary expression of the first operator, the others following in the order of
+     * {@code AND, OR, IMPLIES, IFF, XOR, NAND, NOR}; the arguments are the left and the right operands
+     */
+    public static final int BINARY = 3;
+
+    /**
+     * The kind of a conjunction of any number of operands, at least two
+     */
+    public static final int AND = BINARY + 7;
+
+    /**
+     * The kind of a disjunction of any number of operands, at least two
+     */
+    public static final int OR = AND + 1;
+
+    private static final BinaryOperator[] OPERATORS = BinaryOperator.values();
+
+    private final byte[] kinds;
+    private final int[] starts;
+    private final int[] arguments;
+    private final String[] names;
+
+    /* (non-javadoc)
+     * Constructs a table from arrays it keeps without copying, which must satisfy the invariants
+     */
+    ExpressionTable(byte[] kinds, int[] starts, int[] arguments, String[] names) {
+        this.kinds = kinds;
+        this.starts = starts;
+        this.arguments = arguments;
+        this.names = names;
+    }
+
+    /**
+     * Lists the nodes of an expression, without recursion
+     * @param expression the expression
+     * @return the table of the nodes of {@code expression}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}, or is made of expressions of another package
+     */
+    public static ExpressionTable of(Expression expression) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+
+        Map<Expression, Integer> positions = new IdentityHashMap<>();
+        Map<String, Integer> numbers = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        byte[] kinds = new byte[16];
+        int[] starts = new int[17];
+        int[] arguments = new int[32];
+        int count = 0;
+        Expression[] stack = new Expression[16];
+        int[] states = new int[16];                                                            //per node: the number of operands visited
+        int top = 0;
+        stack[0] = expression;
+        while ( top >= 0 ){
+            Expression node = stack[top];
+            if ( positions.containsKey(node) ){
+                top--;
+                continue;
+            }
+
+            //First, I visit the operands of the node, one at a time
+
+            int arity = arityOf(node);
+            if ( states[top] < arity ){
+                Expression operand = operandOf(node, states[top]++);
+                if ( !positions.containsKey(operand) ){
+                    if ( ++top == stack.length ){
+                        stack = Arrays.copyOf(stack, top * 2);
+                        states = Arrays.copyOf(states, top * 2);
+                    }
+                    stack[top] = operand;
+                    states[top] = 0;
+                }
+                continue;
+            }
+
+            //Then, I list it once they are all listed
+
+            if ( count + 1 == kinds.length ){
+                kinds = Arrays.copyOf(kinds, kinds.length * 2);
+                starts = Arrays.copyOf(starts, kinds.length + 1);
+            }
+            int length = starts[count];
+            if ( length + Math.max(arity, 1) > arguments.length ){
+                arguments = Arrays.copyOf(arguments, Math.max(arguments.length * 2, length + Math.max(arity, 1)));
+            }
+            kinds[count] = (byte) kindOf(node);
+            if ( node instanceof Variable ){
+                String name = ((Variable) node).name();
+                Integer number = numbers.get(name);
+                if ( number == null ){
+                    number = names.size();
+                    numbers.put(name, number);
+                    names.add(name);
+                }
+                arguments[length++] = number;
+            } else if ( node instanceof Constant ){
+                arguments[length++] = ((Constant) node).value() ? 1 : 0;
+            } else {
+                for ( int i = 0 ; i < arity ; i++ ){
+                    arguments[length++] = positions.get(operandOf(node, i));
+                }
+            }
+            starts[++count] = length;
+            positions.put(node, count - 1);
+            top--;
+        }
+        return new ExpressionTable(Arrays.copyOf(kinds, count), Arrays.copyOf(starts, count + 1),
+                Arrays.copyOf(arguments, starts[count]), names.toArray(new String[0]));
+    }
+
+    /**
+     * Builds the expression of this table, every node once and from the leaves up, so without recursion
+     * @return the expression of the last node of this table
+     */
+    public Expression toExpression() {
+        ExpressionFactory factory = ExpressionFactory.getInstance();
+        Variable[] variables = new Variable[names.length];
+        Expression[] nodes = new Expression[kinds.length];
+        for ( int i = 0 ; i < kinds.length ; i++ ){
+            int kind = kinds[i];
+            int start = starts[i];
+            if ( kind == VAR ){
+                int number = arguments[start];
+                if ( variables[number] == null ){
+                    variables[number] = factory.variable(names[number]);
+                }
+                nodes[i] = variables[number];
+            } else if ( kind == CONST ){
+                nodes[i] = factory.constant(arguments[start] == 1);
+            } else if ( kind == NOT ){
+                nodes[i] = factory.negation(nodes[arguments[start]]);
+            } else if ( kind < AND ){
+                nodes[i] = factory.binary(nodes[arguments[start]], nodes[arguments[start + 1]], OPERATORS[kind - BINARY]);
+            } else {
+                Expression[] operands = new Expression[starts[i + 1] - start];
+                for ( int j = 0 ; j < operands.length ; j++ ){
+                    operands[j] = nodes[arguments[start + j]];
+                }
+                nodes[i] = factory.nary(operands, kind == AND ? BinaryOperator.AND : BinaryOperator.OR);
+            }
+        }
+        return nodes[kinds.length - 1];
+    }
+
+    /**
+     * @return the number of nodes of this table
+     */
+    public int size() {
+        return kinds.length;
+    }
+
+    /**
+     * @param node the position of a node
+     * @return the kind of the node, one of the constants of this class
+     * @throws IndexOutOfBoundsException if {@code node} is not the position of a node
+     */
+    public int kind(int node) {
+        return kinds[node];
+    }
+
+    /**
+     * @param node the position of a node
+     * @return the number of arguments of the node: 1 for a variable, a constant or a negation, and the number of
+     * operands otherwise
+     * @throws IndexOutOfBoundsException if {@code node} is not the position of a node
+     */
+    public int arity(int node) {
+        return starts[node + 1] - starts[node];
+    }
+
+    /**
+     * @param node the position of a node
+     * @param index the index of an argument of the node
+     * @return the argument: the number of a name, the value of a constant, or the position of an operand
+     * @throws IndexOutOfBoundsException if {@code index} is not the index of an argument of the node
+     */
+    public int argument(int node, int index) {
+        if ( index < 0 || index >= arity(node) ){
+            throw new IndexOutOfBoundsException("The 'index' is not the index of an argument");
+        }
+        return arguments[starts[node] + index];
+    }
+
+    /**
+     * @return the names of the variables, at their numbers, in the order they are first met
+     */
+    public List<String> names() {
+        return Collections.unmodifiableList(Arrays.asList(names));
+    }
+
+    /* (non-javadoc)
+     * @return the total number of arguments of the nodes
+     */
+    int argumentCount() {
+        return arguments.length;
+    }
+
+    /* (non-javadoc)
+     * @return the kind of a node, as listed in a table
+     */
+    private static int kindOf(Expression node) {
+        if ( node instanceof Variable ){
+            return VAR;
+        }
+        if ( node instanceof Constant ){
+            return CONST;
+        }
+        if ( node instanceof Negation ){
+            return NOT;
+        }
+        if ( node instanceof BinaryExpression ){
+            return BINARY + ((BinaryExpression) node).operator().ordinal();
+        }
+        if ( node instanceof NaryExpression ){
+            return ((NaryExpression) node).operator() == BinaryOperator.AND ? AND : OR;
+        }
+        throw new IllegalArgumentException("The expression type is unknown");
+    }
+
+    private static int arityOf(Expression node) {
+        if ( node instanceof Negation ){
+            return 1;
+        }
+        if ( node instanceof BinaryExpression ){
+            return 2;
+        }
+        if ( node instanceof NaryExpression ){
+            return ((NaryExpression) node).arity();
+        }
+        return 0;
+    }
+
+    private static Expression operandOf(Expression node, int index) {
+        if ( node instanceof Negation ){
+            return ((Negation) node).operand();
+        }
+        if ( node instanceof BinaryExpression ){
+            return index == 0 ? ((BinaryExpression) node).left() : ((BinaryExpression) node).right();
+        }
+        return ((NaryExpression) node).operand(index);
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        if ( kinds == null || starts == null || arguments == null || names == null || kinds.length == 0 ){
+            return false;
+        }
+        if ( starts.length != kinds.length + 1 || starts[0] != 0 || starts[kinds.length] != arguments.length ){
+            return false;
+        }
+        for ( int i = 0 ; i < kinds.length ; i++ ){
+            if ( starts[i + 1] < starts[i] ){
+                return false;
+            }
+            int kind = kinds[i];
+            for ( int j = starts[i] ; j < starts[i + 1] ; j++ ){
+                int argument = arguments[j];
+                if ( kind == VAR ? argument < 0 || argument >= names.length
+                        : kind == CONST ? argument != 0 && argument != 1
+                        : argument < 0 || argument >= i ){
+                    return false;
+                }
+            }
+        }
+        for ( String name : names ){
+            if ( !Variable.checkFormat(name) ){
+                return false;
+            }
+        }
+        return true;
+    }
+}
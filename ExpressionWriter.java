@@ -0,0 +1,170 @@
+package expressions;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes expressions in a compact binary format, read back by {@link ExpressionReader}. The expression is written
+ * as its {@link ExpressionTable}, i.e.: every node of its DAG once, after its operands, so shared sub-expressions
+ * are written once and reading needs no recursion. The format is:
+ * <ul>
+ * <li>the magic bytes {@code BEXP} and a version byte, currently {@code 1}</li>
+ * <li>the number of names, then every name as its length in bytes and its bytes in UTF-8</li>
+ * <li>the number of nodes and the total number of their arguments</li>
+ * <li>every node, in the order of the table, as a header {@code kind | first << 4} followed by the other arguments,
+ * where the first argument is the number of the name of a variable, the value of a constant, the first operand
+ * of a negation or a binary expression, or the number of operands of a conjunction or disjunction</li>
+ * </ul>
+ * Every number is an unsigned varint: seven bits per byte, lowest first, the high bit set on every byte but the last.
+ * An operand is written as the distance back from the node to it, which is small for most nodes, so most nodes take
+ * one byte per argument. Nodes are encoded straight into a byte buffer, without building arrays or strings.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'out' and 'buffer' cannot be null
+ * 0 <= 'count' <= buffer.length
+ */
+public final class ExpressionWriter {
+
+    /* (non-javadoc)
+     * The bytes every file starts with, and the version of the format written
+     */
+    static final byte[] MAGIC = { 'B', 'E', 'X', 'P' };
+    static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /* (non-javadoc)
+     * The longest number written, i.e.: a varint of 64 bits
+     */
+    private static final int MAX_NUMBER_LENGTH = 10;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    private ExpressionWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Writes an expression to a file
+     * @param expression the expression to write
+     * @param path the file to write, replaced if it exists
+     * @throws IllegalArgumentException if {@code expression} or {@code path} is {@code null}
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Expression expression, Path path) throws IOException {
+        if ( expression == null || path == null ){
+            throw new IllegalArgumentException("The 'expression' and 'path' cannot be null");
+        }
+        try ( OutputStream out = Files.newOutputStream(path) ){
+            write(ExpressionTable.of(expression), out);
+        }
+    }
+
+    /**
+     * Writes an expression
+     * @param expression the expression to write
+     * @param out the stream to write to, which is flushed but not closed
+     * @throws IllegalArgumentException if {@code expression} or {@code out} is {@code null}
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(Expression expression, OutputStream out) throws IOException {
+        if ( expression == null || out == null ){
+            throw new IllegalArgumentException("The 'expression' and 'out' cannot be null");
+        }
+        write(ExpressionTable.of(expression), out);
+    }
+
+    /**
+     * Writes the table of an expression
+     * @param table the table to write
+     * @param out the stream to write to, which is flushed but not closed
+     * @throws IllegalArgumentException if {@code table} or {@code out} is {@code null}
+     * @throws IOException if the stream cannot be written
+     */
+    public static void write(ExpressionTable table, OutputStream out) throws IOException {
+        if ( table == null || out == null ){
+            throw new IllegalArgumentException("The 'table' and 'out' cannot be null");
+        }
+        new ExpressionWriter(out).table(table);
+    }
+
+    private void table(ExpressionTable table) throws IOException {
+        for ( byte b : MAGIC ){
+            put(b);
+        }
+        put(VERSION);
+
+        //First, I write the names, which every variable refers to by number
+
+        number(table.names().size());
+        for ( String name : table.names() ){
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            number(bytes.length);
+            for ( byte b : bytes ){
+                put(b);
+            }
+        }
+
+        //Then, I write the nodes, operands as distances back
+
+        number(table.size());
+        number(table.argumentCount());
+        for ( int node = 0 ; node < table.size() ; node++ ){
+            int kind = table.kind(node);
+            int arity = table.arity(node);
+            if ( kind == ExpressionTable.VAR || kind == ExpressionTable.CONST ){
+                number(kind | (long) table.argument(node, 0) << 4);
+            } else if ( kind == ExpressionTable.AND || kind == ExpressionTable.OR ){
+                number(kind | (long) arity << 4);
+                for ( int i = 0 ; i < arity ; i++ ){
+                    number(node - table.argument(node, i));
+                }
+            } else {
+                number(kind | (long) (node - table.argument(node, 0)) << 4);
+                for ( int i = 1 ; i < arity ; i++ ){
+                    number(node - table.argument(node, i));
+                }
+            }
+        }
+        out.write(buffer, 0, count);
+        count = 0;
+        out.flush();
+    }
+
+    /* (non-javadoc)
+     * Encodes a number as a varint into the buffer
+     */
+    private void number(long value) throws IOException {
+        if ( count + MAX_NUMBER_LENGTH > buffer.length ){
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        while ( (value & ~0x7fL) != 0 ){
+            buffer[count++] = (byte) (value | 0x80);
+            value >>>= 7;
+        }
+        buffer[count++] = (byte) value;
+    }
+
+    private void put(int b) throws IOException {
+        if ( count == buffer.length ){
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return out != null && buffer != null && count >= 0 && count <= buffer.length;
+    }
+}
@@ -0,0 +1,313 @@
+package expressions;
+
+import expressions.BinaryExpression.BinaryOperator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the canonical structure of an expression, regardless of the names of its variables and of the order
+ * of the operands of its commutative operators: chains of conjunctions or disjunctions are read as a single operator
+ * over the set of their operands, and the operands of every commutative operator are ordered by a hash of their shape,
+ * which does not depend on names. The variables are then numbered in the order they are first met.
+ * <p>
+ * Two expressions with equal fingerprints are the same expression up to a renaming of their variables, which maps
+ * the variable at each position of {@link #variables()} of one to the one at the same position of the other;
+ * so they are satisfiable, tautologies, or contradictions alike, have as many models, and a model of one is a model
+ * of the other once renamed. The converse holds whenever the shapes order the operands without ties, which is the
+ * common case: operands of equal shape keep their order, so such expressions can get different fingerprints.
+ * A fingerprint is immutable.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'code' and 'variables' cannot be null, and 'hash' is the hash of 'code'
+ * 'code' lists the nodes of the canonical DAG in postfix order, every node once: a kind, then the number of the
+ * variable or the value of the constant, or the number of operands and the position of each operand in the list
+ * 'variables' has the name of every variable, at the number it has in 'code'
+ */
+public final class Fingerprint {
+
+    private static final int VAR = 0;
+    private static final int CONST = 1;
+    private static final int NOT = 2;
+
+    private static final int SHAPE_SEED = 0x2f0b3a49;
+
+    /* (non-javadoc)
+     * A node of the canonical DAG, with what both passes need to know about it
+     */
+    private static final class Node {
+        Expression expression;
+        final int kind;
+        final boolean commutative;
+        final String name;
+        final int value;
+        Node[] operands;
+        int shape;
+        boolean shaped;
+        int position = -1;
+
+        Node(Expression expression) {
+            this.expression = expression;
+            this.kind = kindOf(expression);
+            this.commutative = isCommutative(expression);
+            this.name = expression instanceof Variable ? ((Variable) expression).name() : null;
+            this.value = expression instanceof Constant && ((Constant) expression).value() ? 1 : 0;
+        }
+    }
+
+    private static final Comparator<Node> BY_SHAPE = Comparator.comparingInt(node -> node.shape);
+
+    private final int[] code;
+    private final String[] variables;
+    private final int hash;
+
+    private Fingerprint(int[] code, String[] variables) {
+        this.code = code;
+        this.variables = variables;
+        this.hash = Arrays.hashCode(code);
+    }
+
+    /**
+     * Computes the fingerprint of an expression, without recursion
+     * @param expression the expression
+     * @return the fingerprint of {@code expression}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}, or is made of expressions of another package
+     */
+    public static Fingerprint of(Expression expression) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+
+        //First, I hash the shape of every node, from the leaves up, and order the operands of the commutative ones
+
+        Map<Expression, Node> nodes = new IdentityHashMap<>();
+        Node root = new Node(expression);
+        nodes.put(expression, root);
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(root);
+        while ( !pending.isEmpty() ){
+            Node node = pending.peek();
+            if ( node.shaped ){
+                pending.pop();
+                continue;
+            }
+            if ( node.operands == null ){
+                Expression[] operands = operandsOf(node.expression);
+                node.operands = new Node[operands.length];
+                for ( int i = 0 ; i < operands.length ; i++ ){
+                    node.operands[i] = nodes.computeIfAbsent(operands[i], Node::new);
+                }
+            }
+            boolean ready = true;
+            for ( Node operand : node.operands ){
+                if ( !operand.shaped ){
+                    pending.push(operand);
+                    ready = false;
+                }
+            }
+            if ( !ready ){
+                continue;
+            }
+            if ( node.commutative ){
+                Arrays.sort(node.operands, BY_SHAPE);                                          //stable, so ties keep their order
+            }
+            int shape = SHAPE_SEED * 31 + node.kind;
+            if ( node.kind == CONST ){
+                shape = shape * 31 + node.value;
+            }
+            for ( Node operand : node.operands ){
+                shape = mix(shape * 31 + operand.shape);
+            }
+            node.shape = shape;
+            node.shaped = true;
+            node.expression = null;                                                            //only needed to find the operands
+            pending.pop();
+        }
+
+        //Then, I list the nodes in postfix order, numbering the variables as they are met
+
+        List<String> names = new ArrayList<>();
+        int[] code = new int[16];
+        int length = 0;
+        int listed = 0;
+        Node[] stack = new Node[16];
+        int[] states = new int[16];                                                            //per node: the number of operands listed
+        int top = 0;
+        stack[0] = root;
+        while ( top >= 0 ){
+            Node node = stack[top];
+            int state = states[top];
+            if ( node.position >= 0 ){
+                top--;
+                continue;
+            }
+            if ( state < node.operands.length ){
+                states[top]++;
+                if ( ++top == stack.length ){
+                    stack = Arrays.copyOf(stack, top * 2);
+                    states = Arrays.copyOf(states, top * 2);
+                }
+                stack[top] = node.operands[state];
+                states[top] = 0;
+                continue;
+            }
+            if ( length + node.operands.length + 2 > code.length ){
+                code = Arrays.copyOf(code, Math.max(code.length * 2, length + node.operands.length + 2));
+            }
+            code[length++] = node.kind;
+            if ( node.kind == VAR ){
+                code[length++] = names.size();
+                names.add(node.name);
+            } else if ( node.kind == CONST ){
+                code[length++] = node.value;
+            } else {
+                code[length++] = node.operands.length;
+                for ( Node operand : node.operands ){
+                    code[length++] = operand.position;
+                }
+            }
+            node.position = listed++;
+            top--;
+        }
+        return new Fingerprint(Arrays.copyOf(code, length), names.toArray(new String[0]));
+    }
+
+    /**
+     * @return the names of the variables of the expression, in the order they are numbered by this fingerprint
+     */
+    public List<String> variables() {
+        return Collections.unmodifiableList(Arrays.asList(variables));
+    }
+
+    /**
+     * @return the number of nodes of the canonical structure
+     */
+    public int size() {
+        int count = 0;
+        for ( int i = 0 ; i < code.length ; count++ ){
+            i += code[i] == VAR || code[i] == CONST ? 2 : 2 + code[i + 1];
+        }
+        return count;
+    }
+
+    /**
+     * @param other the object to compare with
+     * @return {@code true} iff {@code other} is the fingerprint of the same canonical structure, whatever the
+     * names of the variables
+     */
+    @Override
+    public boolean equals(Object other) {
+        if ( this == other ){
+            return true;
+        }
+        if ( !(other instanceof Fingerprint) ){
+            return false;
+        }
+        Fingerprint that = (Fingerprint) other;
+        return hash == that.hash && Arrays.equals(code, that.code);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /* (non-javadoc)
+     * @return the operands of a node, the operands of a chain of conjunctions or disjunctions being those of all its
+     * links that are not themselves links, each once
+     */
+    private static Expression[] operandsOf(Expression node) {
+        if ( node instanceof Variable || node instanceof Constant ){
+            return new Expression[0];
+        }
+        if ( node instanceof Negation ){
+            return new Expression[]{((Negation) node).operand()};
+        }
+        BinaryOperator operator = chainOf(node);
+        if ( operator == null ){
+            return new Expression[]{((BinaryExpression) node).left(), ((BinaryExpression) node).right()};
+        }
+        List<Expression> operands = new ArrayList<>();
+        Set<Expression> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Expression> links = new ArrayDeque<>();
+        links.push(node);
+        while ( !links.isEmpty() ){
+            Expression link = links.pop();
+            if ( link != node && chainOf(link) != operator ){
+                if ( seen.add(link) ){
+                    operands.add(link);
+                }
+            } else if ( link instanceof BinaryExpression ){
+                links.push(((BinaryExpression) link).right());
+                links.push(((BinaryExpression) link).left());
+            } else {
+                NaryExpression nary = (NaryExpression) link;
+                for ( int i = nary.arity() - 1 ; i >= 0 ; i-- ){
+                    links.push(nary.operand(i));
+                }
+            }
+        }
+        return operands.toArray(new Expression[0]);
+    }
+
+    /* (non-javadoc)
+     * @return AND or OR if a node is a link of a chain of that operator, null otherwise
+     */
+    private static BinaryOperator chainOf(Expression node) {
+        BinaryOperator operator = null;
+        if ( node instanceof BinaryExpression ){
+            operator = ((BinaryExpression) node).operator();
+        } else if ( node instanceof NaryExpression ){
+            operator = ((NaryExpression) node).operator();
+        }
+        return operator == BinaryOperator.AND || operator == BinaryOperator.OR ? operator : null;
+    }
+
+    private static boolean isCommutative(Expression node) {
+        return (node instanceof BinaryExpression && ((BinaryExpression) node).operator() != BinaryOperator.IMPLIES)
+                || node instanceof NaryExpression;
+    }
+
+    /* (non-javadoc)
+     * @return the kind of a node: VAR, CONST, NOT, or 3 plus the ordinal of its operator
+     */
+    private static int kindOf(Expression node) {
+        if ( node instanceof Variable ){
+            return VAR;
+        }
+        if ( node instanceof Constant ){
+            return CONST;
+        }
+        if ( node instanceof Negation ){
+            return NOT;
+        }
+        if ( node instanceof NaryExpression ){
+            return 3 + ((NaryExpression) node).operator().ordinal();
+        }
+        if ( node instanceof BinaryExpression ){
+            return 3 + ((BinaryExpression) node).operator().ordinal();
+        }
+        throw new IllegalArgumentException("The expression type is unknown");
+    }
+
+    private static int mix(int h) {
+        h *= 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return code != null && variables != null && hash == Arrays.hashCode(code);
+    }
+}
@@ -0,0 +1,99 @@
+package solver;
+
+/**
+ * Estimates how often keys were seen recently, in a count-min sketch of 4-bit counters, 16 to a {@code long}.
+ * Every key has a counter in each of four rows, found from its hash, and its estimate is the smallest of the four.
+ * Once ten times as many sightings as the capacity were counted, every counter is halved, so old popularity fades.
+ * Used by {@link ResultCache} to decide which of two keys is worth keeping. A sketch is not thread-safe.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'table' cannot be null and its length is a power of two
+ * 'additions' is the number of counters incremented since the last halving, below 'sampleSize'
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = { 0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L };
+    private static final long ONE_MASK = 0x1111111111111111L;
+    private static final long HALF_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int sampleSize;
+    private int additions;
+
+    /* (non-javadoc)
+     * Constructs a sketch for about 'capacity' keys
+     */
+    FrequencySketch(int capacity) {
+        int length = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.table = new long[Math.max(8, Math.min(length, 1 << 26))];
+        this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * Math.max(1, capacity));
+    }
+
+    /* (non-javadoc)
+     * @return the estimated number of times a key was seen, between 0 and 15
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for ( int row = 0 ; row < 4 ; row++ ){
+            long word = table[indexOf(hash, row)];
+            frequency = Math.min(frequency, (int) ((word >>> offsetOf(hash, row)) & 0xf));
+        }
+        return frequency;
+    }
+
+    /* (non-javadoc)
+     * Counts one more sighting of a key, halving every counter once enough were counted
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for ( int row = 0 ; row < 4 ; row++ ){
+            int index = indexOf(hash, row);
+            int offset = offsetOf(hash, row);
+            if ( ((table[index] >>> offset) & 0xf) < 15 ){
+                table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if ( added && ++additions == sampleSize ){
+            halve();
+        }
+    }
+
+    private void halve() {
+        int odd = 0;
+        for ( int i = 0 ; i < table.length ; i++ ){
+            odd += Long.bitCount(table[i] & ONE_MASK);
+            table[i] = (table[i] >>> 1) & HALF_MASK;
+        }
+        additions = (additions - (odd >>> 2)) >>> 1;                                          //the truncated halves are about a quarter of the odd counters
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        h += h >>> 32;
+        return (int) h & (table.length - 1);
+    }
+
+    /* (non-javadoc)
+     * @return the bit offset of the counter of a key in the row of its word, every row having four counters of a word
+     */
+    private static int offsetOf(int hash, int row) {
+        return (((hash >>> (row << 3)) & 3) << 2 | row) << 2;
+    }
+
+    private static int spread(int hash) {
+        int h = hash * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return table != null && Integer.bitCount(table.length) == 1 && additions >= 0 && additions < sampleSize;
+    }
+}
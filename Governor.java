@@ -0,0 +1,200 @@
+package solver;
+
+import java.util.concurrent.atomic.AtomicLong;
+import solver.SolverContext.Limit;
+
+/**
+ * Enforces the limits of a {@link SolverContext} on a single query. The engines, and the simplification, compilation
+ * and encoding before them, report what they visit at their checkpoints, and the governor stops the query by throwing
+ * {@link Exceeded} once a limit is reached, which the query turns into an unknown {@link Outcome}. The caps are checked
+ * at every checkpoint, and the clock, the token and the memory every {@code POLL_INTERVAL} checkpoints, so a
+ * checkpoint costs a few additions.
+ * The governor of an unlimited query does nothing at all. A governor belongs to the thread answering its query;
+ * a query split across threads gives each of its tasks a governor of its own (see {@link #task()}), which reports
+ * its totals to the query every {@code POLL_INTERVAL} checkpoints, so the caps hold over all of them up to that many
+ * checkpoints per task, and stops every other task once it reaches a limit.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * 'context' is null iff this is the inert governor, and so is 'shared'
+ * 'assignments' and 'nodes' are the totals reported so far, 'startBytes' the bytes allocated by the thread before the query,
+ * or -1 if they are not measured
+ * a task governor has reported 'reportedAssignments', 'reportedNodes' and 'reportedBytes' of its totals to 'shared'
+ */
+final class Governor {
+
+    /* (non-javadoc)
+     * The governor of every unlimited query
+     */
+    static final Governor NONE = new Governor(null, null, false);
+
+    private static final int POLL_INTERVAL = 64;
+
+    /* (non-javadoc)
+     * What the tasks of a query share: the totals they reported, and the limit one of them reached, if any
+     */
+    private static final class Shared {
+        final AtomicLong assignments = new AtomicLong();
+        final AtomicLong nodes = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        volatile Limit reached;
+    }
+
+    private final SolverContext context;
+    private final Shared shared;
+    private final boolean isTask;
+    private final long startBytes;
+    private long assignments;
+    private long nodes;
+    private int checkpoints;
+    private long reportedAssignments;
+    private long reportedNodes;
+    private long reportedBytes;
+
+    private Governor(SolverContext context, Shared shared, boolean isTask) {
+        this.context = context;
+        this.shared = shared;
+        this.isTask = isTask;
+        this.startBytes = context != null && context.hasMemoryBudget() ? SolverMetrics.allocatedBytes() : -1;
+    }
+
+    /* (non-javadoc)
+     * @return the governor of a query run under a context, which checks it at once
+     * @throws Exceeded if the context is already past one of its limits
+     */
+    static Governor of(SolverContext context) {
+        if ( context.isUnlimited() ){
+            return NONE;
+        }
+        Governor governor = new Governor(context, new Shared(), false);
+        governor.poll();
+        return governor;
+    }
+
+    /* (non-javadoc)
+     * @return the governor of a task of this query, to be used by the thread running the task only
+     */
+    Governor task() {
+        return context == null ? NONE : new Governor(context, shared, true);
+    }
+
+    /* (non-javadoc)
+     * Called by the thread of the query once its tasks are done
+     * @throws Exceeded if one of the tasks reached a limit
+     */
+    void joinTasks() {
+        if ( shared != null && shared.reached != null ){
+            throw new Exceeded(shared.reached);
+        }
+    }
+
+    /* (non-javadoc)
+     * A checkpoint of an engine, which visited some assignments and nodes since the last one
+     * @throws Exceeded if a limit is reached
+     */
+    void charge(long assignments, long nodes) {
+        if ( context == null ){
+            return;
+        }
+        this.assignments += assignments;
+        this.nodes += nodes;
+        if ( isTask ){
+            chargeTask();
+            return;
+        }
+        if ( this.assignments > context.maxAssignments() ){
+            throw new Exceeded(Limit.ASSIGNMENTS);
+        }
+        if ( this.nodes > context.maxNodes() ){
+            throw new Exceeded(Limit.NODES);
+        }
+        if ( ++checkpoints % POLL_INTERVAL == 0 ){
+            poll();
+        }
+    }
+
+    /* (non-javadoc)
+     * The checkpoint of a task, which stops once another task reached a limit and reports its totals every
+     * POLL_INTERVAL checkpoints, checking the caps against the totals of the query
+     */
+    private void chargeTask() {
+        Limit reached = shared.reached;
+        if ( reached != null ){
+            throw new Exceeded(reached);
+        }
+        if ( ++checkpoints % POLL_INTERVAL != 0 ){
+            return;
+        }
+        long allAssignments = shared.assignments.addAndGet(assignments - reportedAssignments);
+        long allNodes = shared.nodes.addAndGet(nodes - reportedNodes);
+        reportedAssignments = assignments;
+        reportedNodes = nodes;
+        if ( allAssignments > context.maxAssignments() ){
+            throw stop(Limit.ASSIGNMENTS);
+        }
+        if ( allNodes > context.maxNodes() ){
+            throw stop(Limit.NODES);
+        }
+        long bytes = startBytes < 0 ? 0 : SolverMetrics.allocatedBytes() - startBytes;
+        Limit limit = context.reached(shared.bytes.addAndGet(bytes - reportedBytes));
+        reportedBytes = bytes;
+        if ( limit != null ){
+            throw stop(limit);
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the exception stopping a task at a limit, which stops every other task of the query at its next checkpoint
+     */
+    private Exceeded stop(Limit limit) {
+        shared.reached = limit;
+        return new Exceeded(limit);
+    }
+
+    /* (non-javadoc)
+     * A checkpoint of an engine that visited nothing countable since the last one
+     * @throws Exceeded if a limit is reached
+     */
+    void checkpoint() {
+        charge(0, 0);
+    }
+
+    private void poll() {
+        long allocated = startBytes < 0 ? 0 : SolverMetrics.allocatedBytes() - startBytes;
+        Limit limit = context.reached(allocated + shared.bytes.get());                        //with what the tasks allocated
+        if ( limit != null ){
+            throw new Exceeded(limit);
+        }
+    }
+
+    /**
+     * Thrown through the engines when a query reaches a limit; it has no stack trace, as it is always caught by the query
+     */
+    static final class Exceeded extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Limit limit;
+
+        Exceeded(Limit limit) {
+            super("The " + limit + " limit was reached", null, false, false);
+            this.limit = limit;
+        }
+
+        /* (non-javadoc)
+         * @return the limit reached
+         */
+        Limit limit() {
+            return limit;
+        }
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return assignments >= 0 && nodes >= 0 && (context != null || startBytes == -1 && shared == null && !isTask)
+                && (context == null || shared != null);
+    }
+}
@@ -1,29 +1,39 @@
 package expressions;
 
+import java.util.Arrays;
 import java.util.BitSet;
 import java.util.List;
-import java.util.Map;
-import java.util.TreeMap;
 
 /**
- * Represents an interpretation of a boolean expression
+ * Represents an interpretation of a boolean expression.
+ * The variables are kept in a {@link VariableIndex} and their values in a bitset over their positions,
+ * so looking a variable up takes constant time. Interpretations built from the same index share it,
+ * and cloning one only copies its values.
+ * <p>
+ * An interpretation is not thread-safe while it is modified by {@link #add(String, boolean)}: once published to
+ * other threads, for instance as the result of a task, it can be read and cloned by any number of them as long as none
+ * of them modifies it. Reading never modifies an interpretation, and neither does cloning one whose index is
+ * already shared, as the index of every interpretation built from a {@link VariableIndex} is.
  */
 
 /*
  * Class invariants: 
- * The interpretation cannot be null
- * The keys in interpretation cannot be null or empty
- * The values in interpretation cannot be null
+ * The 'index' and 'values' cannot be null
+ * Every variable of 'index' has a value: 'values' has a bit for each of its positions and no bit above them
+ * An index that is 'shared' is never modified, an index that is not is only used by this interpretation
  */
 public class Interpretation implements Cloneable {
 
-    private Map<String, Boolean> interpretation;
+    private VariableIndex index;
+    private boolean shared;
+    private long[] values;
 
     /**
      * Constructs a new empty interpretation.
      */
     public Interpretation() {
-        interpretation = new TreeMap<>((String a, String b) -> {return a.compareTo(b);});
+        this.index = VariableIndex.of(List.of());
+        this.values = new long[1];
     }
 
     /**
@@ -45,28 +55,66 @@ public class Interpretation implements Cloneable {
      * {@code v} at {@code variables.get(i)} will be mapped to boolean value {@code booleanValues.get(i)}
      */
     public Interpretation(List<String> variables, BitSet booleanValues) {
-        if ( variables == null && booleanValues == null ){
+        if ( variables == null || booleanValues == null ){
             throw new IllegalArgumentException("The 'variables' and 'booleanValues' cannot be null");
         }
+        this.index = VariableIndex.of(variables);
+        this.shared = true;
+        this.values = values(index.size(), booleanValues.toLongArray());
+    }
 
-        this.interpretation = new TreeMap<>((String a, String b) -> {return a.compareTo(b);});
-
-        for ( int i=0 ; i < variables.size() ; i++ ){
-            String v = variables.get(i);
-            if ( v == null || v.isEmpty() ){
-                throw new IllegalArgumentException("At least one element in 'variables' cannot be null or empty");
-            }
-            if ( !Variable.checkFormat(v) ){
-                throw new IllegalArgumentException("At least one element in 'variables' do not satisfy the given format");
-            }
-            if( interpretation.containsKey(v) ){
-                throw new IllegalArgumentException("The element in 'variables' cannot be repeated");
-            }
-
-            interpretation.put( v, Boolean.valueOf(booleanValues.get(i)));
+    /**
+     * Construct a new interpretation of the variables of an index, without validating them again.
+     * This is the cheap way to build many interpretations of the same variables.
+     * @param variables the variables for this interpretation, shared with the other interpretations built from it
+     * @param booleanValues the boolean values of the variables, bit {@code i} (bit {@code i % 64} of
+     * {@code booleanValues[i / 64]}) being the value of the variable at position {@code i} of {@code variables}.
+     * Missing words are {@code false}, and the array is copied.
+     * @throws IllegalArgumentException if {@code variables} or {@code booleanValues} is {@code null}
+     */
+    public Interpretation(VariableIndex variables, long[] booleanValues) {
+        if ( variables == null || booleanValues == null ){
+            throw new IllegalArgumentException("The 'variables' and 'booleanValues' cannot be null");
+        }
+        this.index = variables;
+        this.shared = true;
+        this.values = values(variables.size(), booleanValues);
+    }
 
+    private Interpretation(VariableIndex variables, long[] booleanValues, boolean view) {
+        this.index = variables;
+        this.shared = true;
+        this.values = booleanValues;
+    }
 
+    /**
+     * Creates a view of an assignment that is not copied: the interpretation reads its values straight from
+     * {@code booleanValues}, so it follows every later change of the array. A single view can then stand for
+     * each assignment of an enumeration in turn, {@link #clone() cloned} when one must be kept.
+     * Giving a value to a variable that is not in {@code variables} detaches the view from the array.
+     * @param variables the variables of the view
+     * @param booleanValues the shared values, bit {@code i} being the value of the variable at position {@code i} of
+     * {@code variables}; it must have a word for every 64 positions and no bit set above them
+     * @return a view of {@code booleanValues}
+     * @throws IllegalArgumentException if {@code variables} or {@code booleanValues} is {@code null}, or {@code booleanValues} is too short
+     */
+    public static Interpretation viewOf(VariableIndex variables, long[] booleanValues) {
+        if ( variables == null || booleanValues == null ){
+            throw new IllegalArgumentException("The 'variables' and 'booleanValues' cannot be null");
+        }
+        if ( booleanValues.length <= (variables.size() >>> 6) ){
+            throw new IllegalArgumentException("The 'booleanValues' must have a word for every 64 variables");
         }
+        return new Interpretation(variables, booleanValues, true);
+    }
+
+    /* (non-javadoc)
+     * @return the words holding the values of 'size' variables, copied from 'words' and cleared above them
+     */
+    private static long[] values(int size, long[] words) {
+        long[] values = Arrays.copyOf(words, (size >>> 6) + 1);
+        values[size >>> 6] &= (1L << size) - 1;
+        return values;
     }
 
     /**
@@ -85,10 +133,28 @@ public class Interpretation implements Cloneable {
         if ( var == null || var.isEmpty() ){
             throw new IllegalArgumentException("The 'var' cannot be null or empty");
         }
-        if ( !Variable.checkFormat(var) ){
+        int id = VariableIndex.idOf(var);
+        if ( id < 0 ){
             throw new IllegalArgumentException("The 'var'doesnot satisfy the format");
         }
-        interpretation.put(var, Boolean.valueOf(value));
+        int position = index.position(id);
+        if ( position < 0 ){
+            if ( shared ){
+                index = index.copy();                                                          //copied on the first write, then owned
+                values = values.clone();                                                       //which also detaches a view
+                shared = false;
+            }
+            position = index.size();
+            index.append(var, id);
+            if ( (position >>> 6) == values.length ){
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+        }
+        if ( value ){
+            values[position >>> 6] |= 1L << position;
+        } else {
+            values[position >>> 6] &= ~(1L << position);
+        }
     }
 
     /**
@@ -106,10 +172,7 @@ public class Interpretation implements Cloneable {
         if ( var == null || var.isEmpty() ){
             throw new IllegalArgumentException("The 'var' cannot be null or empty");
         }
-        if ( !Variable.checkFormat(var) ){
-            throw new IllegalArgumentException("The 'var' doesnot satisfy the format");
-        }
-        return interpretation.containsKey(var);
+        return position(var) >= 0;
     }
 
     /**
@@ -128,21 +191,54 @@ public class Interpretation implements Cloneable {
         if ( var == null || var.isEmpty() ){
             throw new IllegalArgumentException("The 'var' cannot be null or empty");
         }
-        if ( !Variable.checkFormat(var) ){
-            throw new IllegalArgumentException("The 'var' doesnot satisfy the format");
-        }
-        if ( !interpretation.containsKey(var) ){
+        int position = position(var);
+        if ( position < 0 ){
             throw new IllegalArgumentException("The 'var' doesnot exist in this intertation");
         }
-        return interpretation.get(var);
+        return valueAt(position);
+    }
+
+    /* (non-javadoc)
+     * @return the position of a valid variable in this interpretation, or -1 if it has no value
+     * @throws IllegalArgumentException if 'var' doesn't satisfy the format
+     */
+    private int position(String var) {
+        int id = SymbolTable.idOf(var);
+        if ( id < 0 ){
+            if ( !Variable.checkFormat(var) ){                                                 //registered names are known to be valid
+                throw new IllegalArgumentException("The 'var' doesnot satisfy the format");
+            }
+            return -1;
+        }
+        return index.position(id);
+    }
+
+    /* (non-javadoc)
+     * @return the position of the variable with a given id in this interpretation, or -1 if it has no value
+     */
+    int positionOf(int id) {
+        return index.position(id);
+    }
+
+    /* (non-javadoc)
+     * @return the value of the variable at a position of this interpretation
+     */
+    boolean valueAt(int position) {
+        return (values[position >>> 6] & (1L << position)) != 0;
     }
 
     @Override
     public Object clone() {
-        Interpretation clone = new Interpretation();
-        for (Map.Entry<String, Boolean> entry : interpretation.entrySet()) {
-            clone.interpretation.put(new String(entry.getKey()), Boolean.valueOf(entry.getValue()));
+        if ( !shared ){
+            shared = true;                                                                     //both copies now read the same index
+        }
+        Interpretation clone;
+        try {
+            clone = (Interpretation) super.clone();
+        } catch ( CloneNotSupportedException e ){
+            throw new AssertionError(e);
         }
+        clone.values = values.clone();
         return clone;
     }
     
@@ -150,17 +246,19 @@ public class Interpretation implements Cloneable {
     //Check the invariants
 
     public boolean repOK(){
-        if ( interpretation == null ){
+        if ( index == null || values == null || !index.repOK() ){
             return false;
         }
-
-        for ( Map.Entry<String, Boolean> entry : interpretation.entrySet() ){
-
-            if ( entry.getKey() == null || entry.getValue() == null || entry.getKey().isEmpty() ){
+        int size = index.size();
+        if ( values.length <= (size >>> 6) ){
+            return false;
+        }
+        for ( int i = size >>> 6 ; i < values.length ; i++ ){
+            long above = i == (size >>> 6) ? values[i] & (-1L << size) : values[i];
+            if ( above != 0 ){
                 return false;
             }
         }
-
         return true;
     }
 }
@@ -0,0 +1,161 @@
+package solver;
+
+import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Enumerates the interpretations of a list of variables on demand.
+ * Assignment {@code i} gives the variable at index {@code j} the value of bit {@code j} of {@code i},
+ * and the assignments are kept as multi-word counters so any number of variables can be enumerated.
+ * The range of assignments splits in halves, so the enumeration can be consumed by parallel streams.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'variables', 'next' and 'end' cannot be null
+ * 'next' and 'end' have the same number of words, enough to hold 2^variables.size()
+ * 'next' is never greater than 'end'
+ */
+public final class InterpretationSpliterator implements Spliterator<Interpretation> {
+
+    private final VariableIndex variables;
+    private final long[] next;
+    private final long[] end;
+
+    /**
+     * Constructs a new enumeration of all interpretations of a list of variables
+     * @param variables the variables to enumerate, bound to bits in the given order
+     * @throws IllegalArgumentException if {@code variables} is {@code null}
+     * @throws IllegalArgumentException if a variable is {@code null}, empty, repeated or not in the format of variables
+     */
+    public InterpretationSpliterator(List<String> variables) {
+        if ( variables == null ){
+            throw new IllegalArgumentException("The 'variables' cannot be null");
+        }
+        this.variables = VariableIndex.of(variables);                                          //validated once for every interpretation
+        this.next = new long[words(variables.size())];
+        this.end = new long[next.length];
+        this.end[variables.size() >>> 6] = 1L << variables.size();                            //2^n, one past the last assignment
+    }
+
+    private InterpretationSpliterator(VariableIndex variables, long[] next, long[] end) {
+        this.variables = variables;
+        this.next = next;
+        this.end = end;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Interpretation> action) {
+        if ( action == null ){
+            throw new IllegalArgumentException("The 'action' cannot be null");
+        }
+        if ( compare(next, end) >= 0 ){
+            return false;
+        }
+        action.accept(new Interpretation(variables, next));
+        increment(next);
+        return true;
+    }
+
+    @Override
+    public Spliterator<Interpretation> trySplit() {
+        long[] mid = new long[next.length];
+        long carry = 0;
+        for ( int i = 0 ; i < next.length ; i++ ){                                             //mid = next + end, which never overflows the top word
+            long sum = next[i] + end[i];
+            long out = (Long.compareUnsigned(sum, next[i]) < 0 ? 1 : 0);
+            sum += carry;
+            out |= (carry != 0 && sum == 0) ? 1 : 0;
+            mid[i] = sum;
+            carry = out;
+        }
+        for ( int i = 0 ; i < mid.length ; i++ ){                                              //mid = mid / 2
+            long high = i + 1 < mid.length ? mid[i + 1] : 0;
+            mid[i] = (mid[i] >>> 1) | (high << 63);
+        }
+        if ( compare(mid, next) <= 0 ){
+            return null;                                                                       //fewer than two assignments left
+        }
+        InterpretationSpliterator prefix = new InterpretationSpliterator(variables, next.clone(), mid);
+        System.arraycopy(mid, 0, next, 0, next.length);
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        long[] remaining = new long[next.length];
+        long borrow = 0;
+        for ( int i = 0 ; i < next.length ; i++ ){
+            long difference = end[i] - next[i] - borrow;
+            borrow = (Long.compareUnsigned(end[i], next[i]) < 0 || (borrow != 0 && end[i] == next[i])) ? 1 : 0;
+            remaining[i] = difference;
+        }
+        for ( int i = 1 ; i < remaining.length ; i++ ){
+            if ( remaining[i] != 0 ){
+                return Long.MAX_VALUE;
+            }
+        }
+        return remaining[0] < 0 ? Long.MAX_VALUE : remaining[0];
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+        if ( variables.size() < Long.SIZE - 1 ){
+            characteristics |= SIZED | SUBSIZED;
+        }
+        return characteristics;
+    }
+
+    /* (non-javadoc)
+     * @return the number of words of a counter able to hold 2^variables
+     */
+    static int words(int variables) {
+        return (variables >>> 6) + 1;
+    }
+
+    /* (non-javadoc)
+     * Adds one to a multi-word counter
+     */
+    static void increment(long[] counter) {
+        for ( int i = 0 ; i < counter.length ; i++ ){
+            if ( ++counter[i] != 0 ){
+                return;
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * Adds one to the counter of an assignment of some variables
+     * @return {@code false} iff the counter went past the last assignment, i.e.: reached 2^variables
+     */
+    static boolean increment(long[] counter, int variables) {
+        increment(counter);
+        return (counter[variables >>> 6] & (1L << variables)) == 0;
+    }
+
+    /* (non-javadoc)
+     * Compares two multi-word counters of the same length as unsigned numbers
+     */
+    private static int compare(long[] a, long[] b) {
+        for ( int i = a.length - 1 ; i >= 0 ; i-- ){
+            int comparison = Long.compareUnsigned(a[i], b[i]);
+            if ( comparison != 0 ){
+                return comparison;
+            }
+        }
+        return 0;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return variables != null && next != null && end != null
+            && next.length == end.length && next.length == words(variables.size())
+            && compare(next, end) <= 0;
+    }
+}
@@ -0,0 +1,29 @@
+package solver;
+
+/**
+ * Thrown by the lazy queries run under a {@link SolverContext}, e.g.: a stream of models, when a limit of the context
+ * is reached while they start or while they are consumed. The queries answered at once return an unknown
+ * {@link Outcome} instead; a lazy one has already handed out its first results when it reaches a limit.
+ * @version 0.1
+ */
+public final class LimitReachedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final SolverContext.Limit limit;
+
+    /* (non-javadoc)
+     * Constructs the exception of a query stopped by 'limit'
+     */
+    LimitReachedException(SolverContext.Limit limit) {
+        super("The " + limit + " limit was reached");
+        this.limit = limit;
+    }
+
+    /**
+     * @return the limit reached
+     */
+    public SolverContext.Limit limit() {
+        return limit;
+    }
+}
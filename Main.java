@@ -1,7 +1,23 @@
 
 import expressions.Expression;
-import expressions.Interpretation;
+import expressions.ExpressionParser;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import solver.Analysis;
+import solver.BatchSolver;
 import solver.SatSolver;
+import solver.SolverContext;
 
 /**
  * Class to test SatSolver and related expressions.
@@ -9,7 +25,11 @@ import solver.SatSolver;
 public class Main {
     private static final Expression placeholder = Expression.createConstant(true);
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if ( args.length > 0 ){
+            batch(args);
+            return;
+        }
         Main main = new Main();
         main.print(main.expression1());
         main.print(main.expression2());
@@ -21,24 +41,78 @@ public class Main {
 
     }
 
+    /**
+     * Solves the expressions of a file, or of the standard input, one per line, printing a line per expression
+     * with its position among them, its classification and a model (see {@link solver.BatchResult#toString()}).
+     * Blank lines and lines starting with {@code #} are skipped, and lines that are not expressions are reported
+     * on the standard error.
+     * Usage: {@code Main [--unordered] [--timeout <millis>] [--threads <n>] [--queue <n>] (<file> | -)}
+     * @param args the options and the file to read, {@code -} for the standard input
+     */
+    public static void batch(String[] args) throws IOException, InterruptedException {
+        boolean ordered = true;
+        Duration timeout = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int queue = 0;
+        String file = null;
+        for ( int i = 0 ; i < args.length ; i++ ){
+            if ( args[i].equals("--unordered") ){
+                ordered = false;
+            } else if ( args[i].equals("--timeout") && i + 1 < args.length ){
+                timeout = Duration.ofMillis(Long.parseLong(args[++i]));
+            } else if ( args[i].equals("--threads") && i + 1 < args.length ){
+                threads = Integer.parseInt(args[++i]);
+            } else if ( args[i].equals("--queue") && i + 1 < args.length ){
+                queue = Integer.parseInt(args[++i]);
+            } else if ( file == null && (args[i].equals("-") || !args[i].startsWith("--")) ){
+                file = args[i];
+            } else {
+                System.err.println("Usage: Main [--unordered] [--timeout <millis>] [--threads <n>] [--queue <n>] (<file> | -)");
+                return;
+            }
+        }
+
+        BufferedReader reader = file == null || file.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Path.of(file));
+        PrintWriter out = new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)));
+        AtomicLong line = new AtomicLong();
+        Iterator<Expression> expressions = reader.lines()
+                .peek( text -> line.incrementAndGet() )
+                .map( String::strip )
+                .filter( text -> !text.isEmpty() && !text.startsWith("#") )
+                .map( text -> parse(text, line.get()) )
+                .filter( Objects::nonNull )
+                .iterator();
+        try ( reader ; BatchSolver solver = new BatchSolver(threads, queue > 0 ? queue : 4 * threads, timeout) ){
+            solver.solveAll(expressions, SolverContext.unlimited(), ordered, out::println);
+        } finally {
+            out.flush();
+        }
+    }
+
+    private static Expression parse( String text, long line ){
+        try {
+            return ExpressionParser.parse(text);
+        } catch ( IllegalArgumentException e ){
+            System.err.println( "Line " + line + ": " + e.getMessage() );
+            return null;
+        }
+    }
+
     public void  print( Expression expr ){
         System.out.println( "Expression: " + expr +"\n" );
         System.out.println( "The variables: " + expr.variables() + "\n" );
         System.out.println( "All possible interpretations: \n");
-        for ( Interpretation interpretation : SatSolver.getAllInterpretations(expr) ){
-            System.out.println(interpretation + "\n" );
-        }
-        System.out.println( "The expression is " + (SatSolver.isSatisfiable(expr) ? "" : "not") + " satisfiable");
-        System.out.println( "The expression is " + (SatSolver.isTautology(expr) ? "" : "not") + " a tautology");
-        System.out.println( "The expression is " + (SatSolver.isContradiction(expr) ? "" : "not") + " a contradiction");
+        SatSolver.interpretations(expr).forEach( interpretation -> System.out.println(interpretation + "\n") );
+        Analysis analysis = SatSolver.analyze(expr);
+        System.out.println( "The expression is " + (analysis.isSatisfiable() ? "" : "not") + " satisfiable");
+        System.out.println( "The expression is " + (analysis.isTautology() ? "" : "not") + " a tautology");
+        System.out.println( "The expression is " + (analysis.isContradiction() ? "" : "not") + " a contradiction");
         System.out.println( "All interpretations that satisfies the expression: \n");
-        for ( Interpretation interpretation : SatSolver.allSatisfiableInterpretations(expr) ){
-            System.out.println(interpretation + "\n");
-        }
+        analysis.models().forEach( interpretation -> System.out.println(interpretation + "\n") );
         System.out.println( "All interpretations that do not satisfy the expression: \n");
-        for ( Interpretation interpretation : SatSolver.allUnsatisfiableInterpretations(expr) ){
-            System.out.println(interpretation + "\n");
-        }
+        analysis.countermodels().forEach( interpretation -> System.out.println(interpretation + "\n") );
     }
 
     public Expression expression1(){
@@ -0,0 +1,467 @@
+package solver;
+
+import java.math.BigInteger;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Counts the models of a formula in conjunctive normal form without listing them, with a DPLL search:
+ * after each decision and its unit propagation, the clauses left are split into connected components
+ * that share no variable, each counted on its own and multiplied together. The count of every component
+ * is cached under its variables and clauses, so a component reached again on another branch is not counted twice.
+ * Variables that occur in no clause left count twice, one for each value.
+ * The search keeps its splits and branches on an explicit stack, so long chains of decisions need no thread stack.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'clauses', 'occurrences' and 'values' cannot be null
+ * 'trueLiterals[c]' and 'unassigned[c]' count the true and unassigned literals of clause c under 'values'
+ * the trail holds exactly the assigned variables, in order of assignment
+ */
+final class ModelCounter {
+
+    /* (non-javadoc)
+     * The number of components cached before the cache is cleared
+     */
+    private static final int CACHE_LIMIT = 1 << 20;
+
+    private final int variables;
+    private final int[][] clauses;
+    private final int[][] occurrences;                                                         //per variable: (clause << 1) | 1 if it occurs negated
+    private final byte[] values;                                                               //per variable: 0 unassigned, 1 true, -1 false
+    private final int[] trueLiterals;
+    private final int[] unassigned;
+    private final int[] trail;
+    private int trailSize;
+    private boolean empty;
+
+    private final Map<Key, BigInteger> cache = new HashMap<>();
+
+    //Scratch space of the component split
+
+    private final int[] componentOf;
+    private final int[] clauseMark;
+    private int stamp;
+    private Governor governor = Governor.NONE;
+
+    /**
+     * Constructs a new counter of the models of a set of clauses
+     * @param store the clauses, over the variables {@code 1} to {@code store.variableCount()}
+     */
+    ModelCounter(ClauseStore store) {
+        this.variables = store.variableCount();
+        this.values = new byte[variables + 1];
+        this.trail = new int[variables];
+        this.componentOf = new int[variables + 1];
+
+        int[][] kept = new int[store.clauseCount()][];
+        int count = 0;
+        int[] mark = new int[variables + 1];
+        for ( int c = 0 ; c < store.clauseCount() ; c++ ){
+            int[] clause = store.clause(c);
+            int length = 0;
+            boolean tautology = false;
+            for ( int literal : clause ){                                                      //drops repeated literals and clauses with complementary ones
+                int v = Math.abs(literal);
+                if ( mark[v] == literal ){
+                    continue;
+                }
+                if ( mark[v] == -literal ){
+                    tautology = true;
+                    break;
+                }
+                mark[v] = literal;
+                clause[length++] = literal;
+            }
+            for ( int literal : clause ){
+                mark[Math.abs(literal)] = 0;
+            }
+            if ( tautology ){
+                continue;
+            }
+            if ( length == 0 ){
+                empty = true;
+            }
+            kept[count++] = Arrays.copyOf(clause, length);
+        }
+        this.clauses = Arrays.copyOf(kept, count);
+        this.trueLiterals = new int[count];
+        this.unassigned = new int[count];
+        this.clauseMark = new int[count];
+
+        int[] degree = new int[variables + 1];
+        for ( int[] clause : clauses ){
+            for ( int literal : clause ){
+                degree[Math.abs(literal)]++;
+            }
+        }
+        this.occurrences = new int[variables + 1][];
+        for ( int v = 1 ; v <= variables ; v++ ){
+            occurrences[v] = new int[degree[v]];
+        }
+        for ( int c = 0 ; c < count ; c++ ){
+            unassigned[c] = clauses[c].length;
+            for ( int literal : clauses[c] ){
+                int v = Math.abs(literal);
+                occurrences[v][--degree[v]] = (c << 1) | (literal < 0 ? 1 : 0);
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * Reports every component branched on to a governor, which can stop the count
+     */
+    void govern(Governor governor) {
+        this.governor = governor;
+    }
+
+    /**
+     * @return the number of assignments of all the variables that satisfy every clause
+     */
+    BigInteger count() {
+        if ( empty ){
+            return BigInteger.ZERO;
+        }
+        for ( int c = 0 ; c < clauses.length ; c++ ){
+            if ( clauses[c].length == 1 && !assignAndPropagate(clauses[c][0]) ){
+                return BigInteger.ZERO;
+            }
+        }
+        int[] open = new int[variables];
+        int size = 0;
+        for ( int v = 1 ; v <= variables ; v++ ){
+            if ( values[v] == 0 ){
+                open[size++] = v;
+            }
+        }
+        return countSplit(Arrays.copyOf(open, size));
+    }
+
+    /* (non-javadoc)
+     * Counts the assignments of a set of unassigned variables satisfying the clauses left over them.
+     * Every split into components and every component being branched on is a frame of an explicit stack,
+     * so the number of decisions in a row is not bounded by the depth of the thread stack
+     */
+    private BigInteger countSplit(int[] vars) {
+        Deque<Frame> frames = new ArrayDeque<>();
+        frames.push(split(vars));
+        BigInteger result = null;                                                              //the count of the frame last popped, for its parent
+        while ( true ){
+            Frame frame = frames.peek();
+            if ( frame.split ){
+
+                //A split multiplies the counts of its components, stopping at the first one without models
+
+                if ( result != null ){
+                    frame.product = frame.product.multiply(result);
+                    result = null;
+                    if ( frame.product.signum() == 0 ){
+                        frame.next = frame.componentVars.length;
+                    }
+                }
+                if ( frame.next < frame.componentVars.length ){
+                    int[] componentVars = frame.componentVars[frame.next];
+                    int[] componentClauses = frame.componentClauses[frame.next];
+                    frame.next++;
+                    Arrays.sort(componentVars);
+                    Arrays.sort(componentClauses);
+                    Key key = new Key(componentVars, componentClauses);
+                    result = cache.get(key);
+                    if ( result == null ){
+                        frames.push(component(key, componentVars));
+                    }
+                    continue;
+                }
+                result = frame.product.shiftLeft(frame.free);
+            } else {
+
+                //A component adds the counts of its two branches, the assignments of each undone after it
+
+                if ( result != null ){
+                    frame.total = frame.total.add(result);
+                    result = null;
+                    undo(frame.mark);
+                    frame.phase++;
+                }
+                if ( frame.phase < 2 ){
+                    frame.mark = trailSize;
+                    if ( assignAndPropagate(frame.phase == 0 ? frame.branch : -frame.branch) ){
+                        frames.push(split(openOf(frame.vars)));
+                    } else {
+                        undo(frame.mark);
+                        frame.phase++;
+                    }
+                    continue;
+                }
+                if ( cache.size() >= CACHE_LIMIT ){
+                    cache.clear();
+                }
+                cache.put(frame.key, frame.total);
+                result = frame.total;
+            }
+            frames.pop();
+            if ( frames.isEmpty() ){
+                return result;
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the frame splitting a set of unassigned variables into the connected components of the clauses left
+     * over them, found with a breadth-first search before any of them is counted, since counting reuses the marks
+     */
+    private Frame split(int[] vars) {
+        stamp++;
+        int free = 0;
+        int[] queue = new int[vars.length];
+        int[] starts = new int[vars.length + 1];
+        int components = 0;
+        int tail = 0;
+        int[] componentClauses = new int[16];
+        int[] clauseStarts = new int[vars.length + 1];
+        int clauseCount = 0;
+        for ( int start : vars ){
+            if ( componentOf[start] == stamp ){
+                continue;
+            }
+            int head = tail;
+            int firstClause = clauseCount;
+            componentOf[start] = stamp;
+            queue[tail++] = start;
+            for ( int i = head ; i < tail ; i++ ){
+                for ( int occurrence : occurrences[queue[i]] ){
+                    int c = occurrence >>> 1;
+                    if ( trueLiterals[c] > 0 || clauseMark[c] == stamp ){
+                        continue;
+                    }
+                    clauseMark[c] = stamp;
+                    if ( clauseCount == componentClauses.length ){
+                        componentClauses = Arrays.copyOf(componentClauses, clauseCount * 2);
+                    }
+                    componentClauses[clauseCount++] = c;
+                    for ( int literal : clauses[c] ){
+                        int w = Math.abs(literal);
+                        if ( values[w] == 0 && componentOf[w] != stamp ){
+                            componentOf[w] = stamp;
+                            queue[tail++] = w;
+                        }
+                    }
+                }
+            }
+            if ( clauseCount == firstClause ){
+                free++;                                                                        //in no clause left, so both of its values count
+                tail = head;
+                continue;
+            }
+            starts[components] = head;
+            clauseStarts[components] = firstClause;
+            components++;
+        }
+        starts[components] = tail;
+        clauseStarts[components] = clauseCount;
+
+        Frame frame = new Frame(true);
+        frame.componentVars = new int[components][];
+        frame.componentClauses = new int[components][];
+        for ( int i = 0 ; i < components ; i++ ){
+            frame.componentVars[i] = Arrays.copyOfRange(queue, starts[i], starts[i + 1]);
+            frame.componentClauses[i] = Arrays.copyOfRange(componentClauses, clauseStarts[i], clauseStarts[i + 1]);
+        }
+        frame.free = free;
+        frame.product = BigInteger.ONE;
+        return frame;
+    }
+
+    /* (non-javadoc)
+     * @return the frame counting the models of a connected component not in the cache, by branching on its most
+     * frequent variable
+     */
+    private Frame component(Key key, int[] vars) {
+        governor.charge(0, 1);
+
+        int branch = vars[0];
+        int best = -1;
+        for ( int v : vars ){
+            int score = 0;
+            for ( int occurrence : occurrences[v] ){
+                if ( trueLiterals[occurrence >>> 1] == 0 ){
+                    score++;
+                }
+            }
+            if ( score > best ){
+                best = score;
+                branch = v;
+            }
+        }
+
+        Frame frame = new Frame(false);
+        frame.key = key;
+        frame.vars = vars;
+        frame.branch = branch;
+        frame.total = BigInteger.ZERO;
+        return frame;
+    }
+
+    /* (non-javadoc)
+     * @return the variables of a set still unassigned
+     */
+    private int[] openOf(int[] vars) {
+        int[] open = new int[vars.length];
+        int size = 0;
+        for ( int v : vars ){
+            if ( values[v] == 0 ){
+                open[size++] = v;
+            }
+        }
+        return Arrays.copyOf(open, size);
+    }
+
+    /* (non-javadoc)
+     * Makes a literal true and propagates the unit clauses it leaves
+     * @return false iff a clause became false, in which case the assignments stay on the trail to be undone
+     */
+    private boolean assignAndPropagate(int literal) {
+        int head = trailSize;
+        if ( !assign(literal) ){
+            return false;
+        }
+        while ( head < trailSize ){
+            int v = trail[head++];
+            for ( int occurrence : occurrences[v] ){
+                int c = occurrence >>> 1;
+                if ( trueLiterals[c] > 0 ){
+                    continue;
+                }
+                if ( unassigned[c] == 0 ){
+                    return false;
+                }
+                if ( unassigned[c] == 1 ){
+                    for ( int other : clauses[c] ){
+                        if ( values[Math.abs(other)] == 0 ){
+                            if ( !assign(other) ){
+                                return false;
+                            }
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean assign(int literal) {
+        int v = Math.abs(literal);
+        if ( values[v] != 0 ){
+            return values[v] == (literal > 0 ? 1 : -1);
+        }
+        values[v] = (byte) (literal > 0 ? 1 : -1);
+        trail[trailSize++] = v;
+        for ( int occurrence : occurrences[v] ){
+            int c = occurrence >>> 1;
+            unassigned[c]--;
+            if ( ((occurrence & 1) == 1) == (literal < 0) ){
+                trueLiterals[c]++;
+            }
+        }
+        return true;
+    }
+
+    private void undo(int mark) {
+        while ( trailSize > mark ){
+            int v = trail[--trailSize];
+            boolean negative = values[v] < 0;
+            values[v] = 0;
+            for ( int occurrence : occurrences[v] ){
+                int c = occurrence >>> 1;
+                unassigned[c]++;
+                if ( ((occurrence & 1) == 1) == negative ){
+                    trueLiterals[c]--;
+                }
+            }
+        }
+    }
+
+    /* (non-javadoc)
+     * A frame of the search: either a split, with its components and the product of the counts of those counted
+     * so far, or a component, with its branch variable, the branch being counted, the trail mark to undo it to
+     * and the sum of the counts of the branches counted so far
+     */
+    private static final class Frame {
+        final boolean split;
+        int[][] componentVars;
+        int[][] componentClauses;
+        int next;
+        int free;
+        BigInteger product;
+        Key key;
+        int[] vars;
+        int branch;
+        int phase;                                                                             //0 for the positive branch, 1 for the negative one, 2 once done
+        int mark;
+        BigInteger total;
+
+        Frame(boolean split) {
+            this.split = split;
+        }
+    }
+
+    /* (non-javadoc)
+     * The cache key of a component: its sorted variables and sorted clauses, which determine the clauses left
+     * since every literal of a clause left outside the variables is false
+     */
+    private static final class Key {
+        private final int[] vars;
+        private final int[] clauses;
+        private final int hash;
+
+        Key(int[] vars, int[] clauses) {
+            this.vars = vars;
+            this.clauses = clauses;
+            this.hash = 31 * Arrays.hashCode(vars) + Arrays.hashCode(clauses);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if ( !(o instanceof Key) ){
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && Arrays.equals(vars, other.vars) && Arrays.equals(clauses, other.clauses);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    //Check the invariants
+
+    boolean repOK(){
+        if ( clauses == null || occurrences == null || values == null ){
+            return false;
+        }
+        for ( int c = 0 ; c < clauses.length ; c++ ){
+            int t = 0;
+            int u = 0;
+            for ( int literal : clauses[c] ){
+                byte value = values[Math.abs(literal)];
+                if ( value == 0 ){
+                    u++;
+                } else if ( (value > 0) == (literal > 0) ){
+                    t++;
+                }
+            }
+            if ( t != trueLiterals[c] || u != unassigned[c] ){
+                return false;
+            }
+        }
+        return true;
+    }
+}
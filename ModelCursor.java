@@ -0,0 +1,220 @@
+package solver;
+
+import expressions.CompiledExpression;
+
+/**
+ * Produces, one at a time, the assignments under which a compiled expression has a given value.
+ * Each assignment is written into an array supplied by the consumer, so nothing is allocated per result
+ * and a consumer that stops pulling stops the search.
+ * Expressions with up to 62 variables are swept 64 assignments at a time, and the range of blocks
+ * left can be split off for parallel consumption; larger ones are searched with the clause-learning
+ * engine, blocking every model found.
+ * @version 0.1
+ */
+abstract class ModelCursor {
+
+    /* (non-javadoc)
+     * The largest number of variables whose assignments are swept in blocks
+     */
+    private static final int MAX_SLICED_VARIABLES = Long.SIZE - 2;
+
+    /* (non-javadoc)
+     * @return a cursor over the assignments under which a compiled expression has a given value
+     */
+    static ModelCursor of(CompiledExpression program, boolean value) {
+        return of(program, value, Governor.NONE);
+    }
+
+    /* (non-javadoc)
+     * @return a cursor over the assignments under which a compiled expression has a given value, reporting what it
+     * evaluates and propagates to a governor; the cursors split from it report to tasks of that governor
+     * @throws Governor.Exceeded if a limit is reached while encoding the expression
+     */
+    static ModelCursor of(CompiledExpression program, boolean value, Governor governor) {
+        if ( program.variableCount() <= MAX_SLICED_VARIABLES ){
+            BitSlicedEngine engine = new BitSlicedEngine(program);
+            engine.govern(governor);
+            return new Sliced(program, value, 0, engine.blockCount(), engine, governor);
+        }
+        return new Clausal(program, value, governor);
+    }
+
+    /* (non-javadoc)
+     * @return a cursor over the assignments with a given value of a truth table already computed,
+     * where word b holds the values under the assignments of block b and 'mask' the real assignments of a block
+     */
+    static ModelCursor of(long[] table, long mask, boolean value) {
+        return new Table(table, mask, value, 0, table.length);
+    }
+
+    /* (non-javadoc)
+     * Writes the next assignment into 'assignment', bit i being the value of the variable at slot i
+     * @return false iff there is no assignment left, in which case 'assignment' is unchanged
+     * @throws Governor.Exceeded if a limit of the governor of the cursor is reached
+     */
+    abstract boolean next(long[] assignment);
+
+    /* (non-javadoc)
+     * @return a cursor over a prefix of the assignments left, which this cursor no longer produces, or null
+     */
+    abstract ModelCursor trySplit();
+
+    /* (non-javadoc)
+     * @return an upper bound of the number of assignments left, or Long.MAX_VALUE if it is not known
+     */
+    abstract long estimate();
+
+    /* (non-javadoc)
+     * Sweeps a range of blocks of 64 assignments, keeping the hits of the current block in a word
+     */
+    private static final class Sliced extends ModelCursor {
+        private final CompiledExpression program;
+        private final boolean value;
+        private final BitSlicedEngine engine;
+        private final Governor governor;
+        private long block;
+        private long end;
+        private long hits;
+        private long hitsBlock;
+
+        Sliced(CompiledExpression program, boolean value, long from, long to, BitSlicedEngine engine, Governor governor) {
+            this.program = program;
+            this.value = value;
+            this.block = from;
+            this.end = to;
+            this.engine = engine;
+            this.governor = governor;
+        }
+
+        @Override
+        boolean next(long[] assignment) {
+            while ( hits == 0 ){
+                if ( block >= end ){
+                    return false;
+                }
+                hitsBlock = block;
+                hits = engine.hits(block++, value);
+            }
+            assignment[0] = BitSlicedEngine.assignment(hitsBlock, hits);
+            hits &= hits - 1;
+            return true;
+        }
+
+        @Override
+        ModelCursor trySplit() {
+            long middle = block + (end - block) / 2;
+            if ( middle == block ){
+                return null;
+            }
+            BitSlicedEngine prefixEngine = new BitSlicedEngine(program);
+            Governor task = governor.task();                                                   //the prefix can be consumed by another thread
+            prefixEngine.govern(task);
+            ModelCursor prefix = new Sliced(program, value, block, middle, prefixEngine, task);
+            block = middle;
+            return prefix;
+        }
+
+        @Override
+        long estimate() {
+            return (end - block) * Long.SIZE + Long.bitCount(hits);
+        }
+    }
+
+    /* (non-javadoc)
+     * Reads a range of the words of a truth table, so nothing is evaluated again
+     */
+    private static final class Table extends ModelCursor {
+        private final long[] table;
+        private final long mask;
+        private final boolean value;
+        private int block;
+        private int end;
+        private long hits;
+        private int hitsBlock;
+
+        Table(long[] table, long mask, boolean value, int from, int to) {
+            this.table = table;
+            this.mask = mask;
+            this.value = value;
+            this.block = from;
+            this.end = to;
+        }
+
+        @Override
+        boolean next(long[] assignment) {
+            while ( hits == 0 ){
+                if ( block >= end ){
+                    return false;
+                }
+                hitsBlock = block;
+                hits = value ? table[block] : ~table[block] & mask;
+                block++;
+            }
+            assignment[0] = BitSlicedEngine.assignment(hitsBlock, hits);
+            hits &= hits - 1;
+            return true;
+        }
+
+        @Override
+        ModelCursor trySplit() {
+            int middle = block + (end - block) / 2;
+            if ( middle == block ){
+                return null;
+            }
+            ModelCursor prefix = new Table(table, mask, value, block, middle);
+            block = middle;
+            return prefix;
+        }
+
+        @Override
+        long estimate() {
+            return (long) (end - block) * Long.SIZE + Long.bitCount(hits);
+        }
+    }
+
+    /* (non-javadoc)
+     * Asks the clause-learning engine for a model, then blocks it so the next call finds another one
+     */
+    private static final class Clausal extends ModelCursor {
+        private final CompiledExpression program;
+        private final CdclSolver solver = new CdclSolver();
+        private final int[] blocking;
+        private boolean satisfiable;
+
+        Clausal(CompiledExpression program, boolean value, Governor governor) {
+            this.program = program;
+            this.blocking = new int[program.variableCount()];
+            this.satisfiable = solver.addClauses(CnfEncoder.encode(program, value, false, governor).clauses());
+            solver.govern(governor);
+        }
+
+        @Override
+        boolean next(long[] assignment) {
+            if ( !satisfiable || !solver.solve() ){
+                satisfiable = false;
+                return false;
+            }
+            for ( int i = 0 ; i < blocking.length ; i++ ){
+                boolean model = solver.modelValue(i + 1);
+                if ( model ){
+                    assignment[i >>> 6] |= 1L << i;
+                } else {
+                    assignment[i >>> 6] &= ~(1L << i);
+                }
+                blocking[i] = model ? -(i + 1) : i + 1;
+            }
+            satisfiable = solver.addClause(blocking);
+            return true;
+        }
+
+        @Override
+        ModelCursor trySplit() {
+            return null;
+        }
+
+        @Override
+        long estimate() {
+            return Long.MAX_VALUE;
+        }
+    }
+}
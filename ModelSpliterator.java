@@ -0,0 +1,71 @@
+package solver;
+
+import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Produces on demand the interpretations under which an expression has a given value, pulling each
+ * assignment from a {@link ModelCursor} only when the consumer asks for it.
+ * Every interpretation is independent, but they all share the validated variables of the expression,
+ * so only the words of their values are allocated and results that are not kept are collected at once.
+ * A limit reached by the cursor is thrown to the consumer as a {@link LimitReachedException}.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'variables', 'cursor' and 'assignment' cannot be null
+ * 'assignment' has a word for every 64 variables
+ */
+final class ModelSpliterator implements Spliterator<Interpretation> {
+
+    private final VariableIndex variables;
+    private final ModelCursor cursor;
+    private final long[] assignment;
+
+    ModelSpliterator(VariableIndex variables, ModelCursor cursor) {
+        this.variables = variables;
+        this.cursor = cursor;
+        this.assignment = new long[InterpretationSpliterator.words(variables.size())];
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Interpretation> action) {
+        if ( action == null ){
+            throw new IllegalArgumentException("The 'action' cannot be null");
+        }
+        try {
+            if ( !cursor.next(assignment) ){
+                return false;
+            }
+        } catch ( Governor.Exceeded e ){
+            throw new LimitReachedException(e.limit());
+        }
+        action.accept(new Interpretation(variables, assignment));
+        return true;
+    }
+
+    @Override
+    public Spliterator<Interpretation> trySplit() {
+        ModelCursor prefix = cursor.trySplit();
+        return prefix == null ? null : new ModelSpliterator(variables, prefix);
+    }
+
+    @Override
+    public long estimateSize() {
+        return cursor.estimate();
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL | IMMUTABLE;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return variables != null && cursor != null && assignment != null && assignment.length > (variables.size() >>> 6);
+    }
+}
@@ -0,0 +1,246 @@
+package expressions;
+
+import expressions.BinaryExpression.BinaryOperator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Represents the conjunction or the disjunction of any number of boolean expressions,
+ * kept in an array instead of a chain of binary expressions, so long chains are neither deep nor scattered.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'operands' and 'op' cannot be null, and 'op' is AND or OR
+ * 'operands' has at least two operands, none of them null
+ */
+class NaryExpression implements Expression {
+
+    private final Expression[] operands;
+    private final BinaryOperator op;
+    private final boolean hasVariables;
+    private final int hash;
+    private volatile VariableSet support;
+
+    /**
+     * Constructs a new n-ary expression
+     * @param operands the sub-expressions, which this expression keeps without copying
+     * @param op the operator joining them, {@code AND} or {@code OR}
+     */
+    NaryExpression(Expression[] operands, BinaryOperator op) {
+        if ( operands == null || operands.length < 2 || op == null ){
+            throw new IllegalArgumentException("The 'operands' must have at least two operands and the 'op' cannot be null");
+        }
+        boolean variables = false;
+        for ( Expression operand : operands ){
+            if ( operand == null ){
+                throw new IllegalArgumentException("The 'operands' cannot contain null");
+            }
+            variables |= ExpressionFactory.hasVariables(operand);
+        }
+        this.operands = operands;
+        this.op = op;
+        this.hasVariables = variables;
+        this.hash = ExpressionFactory.naryHash(operands, op);
+    }
+
+    @Override
+    public boolean evaluate(Interpretation interpretation) {
+        if ( interpretation == null ){
+            throw new IllegalArgumentException("The 'interpretation' cannot be null");
+        }
+        return Evaluator.evaluate(this, interpretation);
+    }
+
+    @Override
+    public Set<String> variables() {
+        VariableSet vars = this.support;
+        if ( vars == null ){
+            vars = VariableSet.supportOf(this);                                                //computed once, then shared by every call
+            this.support = vars;
+        }
+        return vars;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /* (non-javadoc)
+     * Collapses every chain of conjunctions, or of disjunctions, of an expression into a single n-ary node,
+     * without recursion; sub-expressions shared in the DAG are flattened once, and an operand repeated in a chain is kept once
+     * @return the flattened expression, which is 'expression' itself if it has no such chain
+     */
+    static Expression flatten(Expression expression) {
+        ExpressionFactory factory = ExpressionFactory.getInstance();
+        Map<Expression, Expression> flat = new IdentityHashMap<>();
+        Map<Expression, List<Expression>> children = new IdentityHashMap<>();
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while ( !pending.isEmpty() ){
+            Expression current = pending.peek();
+            if ( flat.containsKey(current) ){
+                pending.pop();
+                continue;
+            }
+
+            //First, I make sure every child is flattened, where the children of a chain are the operands of all its links
+
+            List<Expression> operands = children.computeIfAbsent(current, NaryExpression::childrenOf);
+            boolean ready = true;
+            for ( Expression operand : operands ){
+                if ( !flat.containsKey(operand) ){
+                    pending.push(operand);
+                    ready = false;
+                }
+            }
+            if ( !ready ){
+                continue;
+            }
+
+            //Then, I rebuild it from the flattened children, keeping it if none of them changed
+
+            Expression result = current;
+            if ( isChain(current) ){
+                BinaryOperator operator = operatorOf(current);
+                Set<Expression> joined = Collections.newSetFromMap(new IdentityHashMap<>());
+                List<Expression> distinct = new ArrayList<>();
+                for ( Expression operand : operands ){
+                    Expression child = flat.get(operand);
+                    if ( child instanceof NaryExpression && ((NaryExpression) child).op == operator ){     //a chain that collapsed to one of its operands
+                        for ( Expression inner : ((NaryExpression) child).operands ){
+                            if ( joined.add(inner) ){
+                                distinct.add(inner);
+                            }
+                        }
+                    } else if ( joined.add(child) ){
+                        distinct.add(child);
+                    }
+                }
+                result = factory.join(distinct.toArray(new Expression[0]), operator);
+            } else if ( current instanceof Negation ){
+                Expression operand = flat.get(operands.get(0));
+                if ( operand != operands.get(0) ){
+                    result = factory.negation(operand);
+                }
+            } else if ( current instanceof BinaryExpression ){
+                BinaryExpression binary = (BinaryExpression) current;
+                Expression left = flat.get(binary.left());
+                Expression right = flat.get(binary.right());
+                if ( left != binary.left() || right != binary.right() ){
+                    result = factory.binary(left, right, binary.operator());
+                }
+            }
+            flat.put(current, result);
+            children.remove(current);
+            pending.pop();
+        }
+        return flat.get(expression);
+    }
+
+    /* (non-javadoc)
+     * @return the sub-expressions of an expression; for a chain, the operands of every link of the chain below it
+     * that is not itself a link, each once, in order
+     */
+    private static List<Expression> childrenOf(Expression expression) {
+        List<Expression> children = new ArrayList<>();
+        if ( expression instanceof Negation ){
+            children.add(((Negation) expression).operand());
+        } else if ( expression instanceof BinaryExpression && !isChain(expression) ){
+            children.add(((BinaryExpression) expression).left());
+            children.add(((BinaryExpression) expression).right());
+        } else if ( isChain(expression) ){
+            BinaryOperator operator = operatorOf(expression);
+            Set<Expression> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            Deque<Expression> links = new ArrayDeque<>();
+            links.push(expression);
+            while ( !links.isEmpty() ){
+                Expression link = links.pop();
+                if ( !seen.add(link) ){
+                    continue;
+                }
+                if ( link != expression && operatorOf(link) != operator ){
+                    children.add(link);
+                } else if ( link instanceof BinaryExpression ){
+                    links.push(((BinaryExpression) link).right());
+                    links.push(((BinaryExpression) link).left());
+                } else {
+                    NaryExpression nary = (NaryExpression) link;
+                    for ( int i = nary.arity() - 1 ; i >= 0 ; i-- ){
+                        links.push(nary.operand(i));
+                    }
+                }
+            }
+        }
+        return children;
+    }
+
+    private static boolean isChain(Expression expression) {
+        BinaryOperator operator = operatorOf(expression);
+        return operator == BinaryOperator.AND || operator == BinaryOperator.OR;
+    }
+
+    private static BinaryOperator operatorOf(Expression expression) {
+        if ( expression instanceof BinaryExpression ){
+            return ((BinaryExpression) expression).operator();
+        }
+        return expression instanceof NaryExpression ? ((NaryExpression) expression).op : null;
+    }
+
+    /* (non-javadoc)
+     * @return true iff at least one variable occurs in this expression, without computing its variables
+     */
+    boolean hasVariables() {
+        return this.hasVariables;
+    }
+
+    /* (non-javadoc)
+     * @return the support set of this expression if it was already computed, null otherwise
+     */
+    VariableSet cachedSupport() {
+        return this.support;
+    }
+
+    /* (non-javadoc)
+     * @return the number of sub-expressions
+     */
+    int arity() {
+        return operands.length;
+    }
+
+    /* (non-javadoc)
+     * @return the sub-expression at a given position
+     */
+    Expression operand(int position) {
+        return operands[position];
+    }
+
+    /* (non-javadoc)
+     * @return the operator joining the sub-expressions, AND or OR
+     */
+    BinaryOperator operator() {
+        return this.op;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        if ( operands == null || operands.length < 2 || (op != BinaryOperator.AND && op != BinaryOperator.OR) ){
+            return false;
+        }
+        for ( Expression operand : operands ){
+            if ( operand == null ){
+                return false;
+            }
+        }
+        return true;
+    }
+}
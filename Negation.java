@@ -13,7 +13,9 @@ import java.util.Set;
  */
 class Negation implements Expression {
 
-    private Expression expression;
+    private final Expression expression;
+    private final boolean hasVariables;
+    private final int hash;
 
     /**
      * Constructs a new negated expression
@@ -25,6 +27,8 @@ class Negation implements Expression {
             throw new IllegalArgumentException("The 'expresion' cannot be null");
         }
         this.expression = expression;
+        this.hasVariables = ExpressionFactory.hasVariables(expression);
+        this.hash = ExpressionFactory.negationHash(expression);
     }
 
     @Override
@@ -32,12 +36,31 @@ class Negation implements Expression {
         if ( interpretation == null ){
             throw new IllegalArgumentException("The 'interpretation' cannot be null");
         }
-        return !expression.evaluate(interpretation);
+        return Evaluator.evaluate(this, interpretation);
     }
 
     @Override
     public Set<String> variables() {
-        return expression.variables();
+        return expression instanceof Negation ? VariableSet.supportOf(this) : expression.variables();         //a chain of negations is walked, not recursed
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /* (non-javadoc)
+     * @return the negated sub-expression
+     */
+    Expression operand() {
+        return this.expression;
+    }
+
+    /* (non-javadoc)
+     * @return true iff at least one variable occurs in this expression, without computing its variables
+     */
+    boolean hasVariables() {
+        return this.hasVariables;
     }
 
     //Check the invariant
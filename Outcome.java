@@ -0,0 +1,90 @@
+package solver;
+
+import java.util.Optional;
+
+/**
+ * Represents the outcome of a query run under a {@link SolverContext}: either its answer, or unknown
+ * because the query reached a limit of its context before finding it.
+ * @param <T> the type of the answer
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * exactly one of 'value' and 'limit' is null
+ */
+public final class Outcome<T> {
+
+    private final T value;
+    private final SolverContext.Limit limit;
+
+    private Outcome(T value, SolverContext.Limit limit) {
+        this.value = value;
+        this.limit = limit;
+    }
+
+    /* (non-javadoc)
+     * @return the outcome of a query answered with 'value'
+     */
+    static <T> Outcome<T> known(T value) {
+        return new Outcome<>(value, null);
+    }
+
+    /* (non-javadoc)
+     * @return the outcome of a query stopped by 'limit'
+     */
+    static <T> Outcome<T> unknown(SolverContext.Limit limit) {
+        return new Outcome<>(null, limit);
+    }
+
+    /**
+     * @return {@code true} iff the query was answered
+     */
+    public boolean isKnown() {
+        return limit == null;
+    }
+
+    /**
+     * @return {@code true} iff the query reached a limit before it was answered
+     */
+    public boolean isUnknown() {
+        return limit != null;
+    }
+
+    /**
+     * @return the answer of the query
+     * @throws IllegalStateException if the query was not answered
+     */
+    public T get() {
+        if ( limit != null ){
+            throw new IllegalStateException("The query was stopped by its " + limit + " limit");
+        }
+        return value;
+    }
+
+    /**
+     * @param other the value to use if the query was not answered
+     * @return the answer of the query, or {@code other} if it was not answered
+     */
+    public T orElse(T other) {
+        return limit == null ? value : other;
+    }
+
+    /**
+     * @return the limit that stopped the query, or nothing if it was answered
+     */
+    public Optional<SolverContext.Limit> limit() {
+        return Optional.ofNullable(limit);
+    }
+
+    @Override
+    public String toString() {
+        return limit == null ? String.valueOf(value) : "UNKNOWN (" + limit + ")";
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return (value == null) != (limit == null);
+    }
+}
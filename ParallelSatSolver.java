@@ -0,0 +1,390 @@
+package solver;
+
+import expressions.CompiledExpression;
+import expressions.Expression;
+import expressions.Interpretation;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * A sat solver that splits the assignments of an expression across the threads of a fork/join pool.
+ * The assignments are split into ranges of blocks of 64 (see {@link BitSlicedEngine}); once a task
+ * finds a model or a counterexample, every other task of the same query stops at its next block.
+ * Expressions are simplified before they are checked, except when their interpretations are listed.
+ * Expressions with more variables than {@link SatSolver} checks exhaustively are delegated to it, as checking
+ * all their assignments is out of reach however many threads share them.
+ * A query can run under a {@link SolverContext}, whose limits hold over all its tasks: a task reaching one
+ * stops every other at its next block.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'pool' cannot be null
+ */
+public class ParallelSatSolver implements AutoCloseable {
+
+    /* (non-javadoc)
+     * The number of leaf tasks created per thread, so that threads finishing early can steal work
+     */
+    private static final int TASKS_PER_THREAD = 16;
+
+    /* (non-javadoc)
+     * The smallest number of blocks a leaf task evaluates
+     */
+    private static final long MIN_LEAF_BLOCKS = 16;
+
+    private final ForkJoinPool pool;
+    private final boolean ownsPool;
+
+    /**
+     * Constructs a new parallel sat solver running on the common fork/join pool
+     */
+    public ParallelSatSolver() {
+        this.pool = ForkJoinPool.commonPool();
+        this.ownsPool = false;
+    }
+
+    /**
+     * Constructs a new parallel sat solver with its own pool of a given parallelism
+     * @param parallelism the number of threads to use
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public ParallelSatSolver(int parallelism) {
+        if ( parallelism <= 0 ){
+            throw new IllegalArgumentException("The 'parallelism' must be positive");
+        }
+        this.pool = new ForkJoinPool(parallelism);
+        this.ownsPool = true;
+    }
+
+    /**
+     * Constructs a new parallel sat solver running on a given pool
+     * @param pool the pool to run on, which is not shut down by {@link #close()}
+     * @throws IllegalArgumentException if {@code pool} is {@code null}
+     */
+    public ParallelSatSolver(ForkJoinPool pool) {
+        if ( pool == null ){
+            throw new IllegalArgumentException("The 'pool' cannot be null");
+        }
+        this.pool = pool;
+        this.ownsPool = false;
+    }
+
+    /**
+     * @return the number of threads this solver runs on
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Checks if an expression is a tautology, i.e.: it is true under all interpretations
+     * @param expression the expression to check
+     * @return {@code true} iff {@code no interpretation i : not expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public boolean isTautology(Expression expression) {
+        return isTautology(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Checks if an expression is a tautology, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query, shared by all its tasks
+     * @return the answer of {@link #isTautology(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<Boolean> isTautology(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        if ( expression.variables().size() > SatSolver.EXHAUSTIVE_LIMIT ){
+            return SatSolver.isTautology(expression, context);
+        }
+        return run(context, governor -> search(compile(expression, true, governor), false, governor) < 0);
+    }
+
+    /**
+     * Checks if an expression is a contradiction, i.e.: it is false under all interpretations
+     * @param expression the expression to check
+     * @return {@code true} iff {@code all interpretation i : not expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public boolean isContradiction(Expression expression) {
+        return isContradiction(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Checks if an expression is a contradiction, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query, shared by all its tasks
+     * @return the answer of {@link #isContradiction(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<Boolean> isContradiction(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        if ( expression.variables().size() > SatSolver.EXHAUSTIVE_LIMIT ){
+            return SatSolver.isContradiction(expression, context);
+        }
+        return run(context, governor -> search(compile(expression, true, governor), true, governor) < 0);
+    }
+
+    /**
+     * Checks if an expression is satisfiable, i.e.: it is true under at least one interpretation
+     * @param expression the expression to check
+     * @return {@code true} iff {@code exists interpretation i : expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public boolean isSatisfiable(Expression expression) {
+        return isSatisfiable(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Checks if an expression is satisfiable, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query, shared by all its tasks
+     * @return the answer of {@link #isSatisfiable(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<Boolean> isSatisfiable(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        if ( expression.variables().size() > SatSolver.EXHAUSTIVE_LIMIT ){
+            return SatSolver.isSatisfiable(expression, context);
+        }
+        return run(context, governor -> search(compile(expression, true, governor), true, governor) >= 0);
+    }
+
+    /**
+     * Returns all possible interpretations under which an expression is satisfiable, in the order of their assignments,
+     * as {@link SatSolver#allSatisfiableInterpretations(Expression, SatSolver.Engine)} lists them with the bit-sliced engine.
+     * An expression with more variables than are checked exhaustively is delegated to
+     * {@link SatSolver#allSatisfiableInterpretations(Expression)}, whose order depends on the engine it chooses
+     * @param expression the expression to check
+     * @return {@code l : all i in l : expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public List<Interpretation> allSatisfiableInterpretations(Expression expression) {
+        return allSatisfiableInterpretations(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Returns all possible interpretations under which an expression is satisfiable, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query, shared by all its tasks
+     * @return the answer of {@link #allSatisfiableInterpretations(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<List<Interpretation>> allSatisfiableInterpretations(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        if ( expression.variables().size() > SatSolver.EXHAUSTIVE_LIMIT ){
+            return SatSolver.allSatisfiableInterpretations(expression, SatSolver.Engine.AUTO, context);
+        }
+        return run(context, governor -> collect(compile(expression, false, governor), true, governor));
+    }
+
+    /**
+     * Returns all possible interpretations under which an expression is unsatisfiable, in the order of their assignments,
+     * as {@link SatSolver#allUnsatisfiableInterpretations(Expression, SatSolver.Engine)} lists them with the bit-sliced engine.
+     * An expression with more variables than are checked exhaustively is delegated to
+     * {@link SatSolver#allUnsatisfiableInterpretations(Expression)}, whose order depends on the engine it chooses
+     * @param expression the expression to check
+     * @return {@code l : all i in l : not expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public List<Interpretation> allUnsatisfiableInterpretations(Expression expression) {
+        return allUnsatisfiableInterpretations(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Returns all possible interpretations under which an expression is unsatisfiable, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query, shared by all its tasks
+     * @return the answer of {@link #allUnsatisfiableInterpretations(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<List<Interpretation>> allUnsatisfiableInterpretations(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        if ( expression.variables().size() > SatSolver.EXHAUSTIVE_LIMIT ){
+            return SatSolver.allUnsatisfiableInterpretations(expression, SatSolver.Engine.AUTO, context);
+        }
+        return run(context, governor -> collect(compile(expression, false, governor), false, governor));
+    }
+
+    /**
+     * Shuts down the pool of this solver if it was created by it
+     */
+    @Override
+    public void close() {
+        if ( ownsPool ){
+            pool.shutdown();
+        }
+    }
+
+    /* (non-javadoc)
+     * Answers a query under a context, or returns the limit its governor or one of its tasks reached
+     */
+    private static <T> Outcome<T> run(SolverContext context, Function<Governor, T> query) {
+        try {
+            return Outcome.known(query.apply(Governor.of(context)));
+        } catch ( Governor.Exceeded e ){
+            return Outcome.unknown(e.limit());
+        }
+    }
+
+    /* (non-javadoc)
+     * Compiles an expression for a query, simplified first if asked to, charging a node to a governor for every step;
+     * the simplification may drop variables, so the queries listing interpretations do not ask for it
+     */
+    private static CompiledExpression compile(Expression expression, boolean simplify, Governor governor) {
+        Runnable checkpoint = () -> governor.charge(0, 1);
+        return CompiledExpression.compile(simplify ? Expression.simplify(expression, checkpoint) : expression, checkpoint);
+    }
+
+    /* (non-javadoc)
+     * Returns an assignment under which a compiled expression evaluates to a given value, or -1
+     */
+    private long search(CompiledExpression program, boolean value, Governor governor) {
+        long blocks = new BitSlicedEngine(program).blockCount();
+        long assignment = pool.invoke(new SearchTask(program, value, 0, blocks, leafSize(blocks), new AtomicBoolean(), governor));
+        if ( assignment < 0 ){
+            governor.joinTasks();                                                              //an assignment found is an answer, whatever stopped the others
+        }
+        return assignment;
+    }
+
+    /* (non-javadoc)
+     * Returns the interpretations under which a compiled expression evaluates to a given value
+     */
+    private List<Interpretation> collect(CompiledExpression program, boolean value, Governor governor) {
+        long blocks = new BitSlicedEngine(program).blockCount();
+        List<Interpretation> result = pool.invoke(new CollectTask(program, value, 0, blocks, leafSize(blocks), governor));
+        governor.joinTasks();
+        return result;
+    }
+
+    private long leafSize(long blocks) {
+        return Math.max(MIN_LEAF_BLOCKS, blocks / ((long) pool.getParallelism() * TASKS_PER_THREAD));
+    }
+
+    private static void checkArguments(Expression expression, SolverContext context) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
+        }
+    }
+
+    /* (non-javadoc)
+     * Looks for an assignment with a given value in a range of blocks, stopping once 'found' is set or a task
+     * of the query reaches a limit
+     */
+    private static final class SearchTask extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledExpression program;
+        private final boolean value;
+        private final long from;
+        private final long to;
+        private final long leafSize;
+        private final AtomicBoolean found;
+        private final Governor governor;
+
+        SearchTask(CompiledExpression program, boolean value, long from, long to, long leafSize, AtomicBoolean found, Governor governor) {
+            this.program = program;
+            this.value = value;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.found = found;
+            this.governor = governor;
+        }
+
+        @Override
+        protected Long compute() {
+            if ( found.get() ){
+                return -1L;
+            }
+            if ( to - from > leafSize ){
+                long middle = (from + to) >>> 1;
+                SearchTask right = new SearchTask(program, value, middle, to, leafSize, found, governor);
+                right.fork();
+                long left = new SearchTask(program, value, from, middle, leafSize, found, governor).compute();
+                long other = right.join();
+                return left >= 0 ? left : other;
+            }
+
+            BitSlicedEngine engine = new BitSlicedEngine(program);
+            engine.govern(governor.task());                                                    //every block is charged, stopping at a limit
+            try {
+                for ( long block = from ; block < to && !found.get() ; block++ ){
+                    long hits = engine.hits(block, value);
+                    if ( hits != 0 ){
+                        found.set(true);                                                       //every other task stops at its next block
+                        return BitSlicedEngine.assignment(block, hits);
+                    }
+                }
+            } catch ( Governor.Exceeded e ){                                                   //the query learns it from joinTasks
+                return -1L;
+            }
+            return -1L;
+        }
+    }
+
+    /* (non-javadoc)
+     * Collects the interpretations with a given value in a range of blocks, in increasing order
+     */
+    private static final class CollectTask extends RecursiveTask<List<Interpretation>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final CompiledExpression program;
+        private final boolean value;
+        private final long from;
+        private final long to;
+        private final long leafSize;
+        private final Governor governor;
+
+        CollectTask(CompiledExpression program, boolean value, long from, long to, long leafSize, Governor governor) {
+            this.program = program;
+            this.value = value;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+            this.governor = governor;
+        }
+
+        @Override
+        protected List<Interpretation> compute() {
+            if ( to - from > leafSize ){
+                long middle = (from + to) >>> 1;
+                CollectTask right = new CollectTask(program, value, middle, to, leafSize, governor);
+                right.fork();
+                List<Interpretation> result = new CollectTask(program, value, from, middle, leafSize, governor).compute();
+                result.addAll(right.join());
+                return result;
+            }
+
+            List<Interpretation> result = new ArrayList<>();
+            BitSlicedEngine engine = new BitSlicedEngine(program);
+            engine.govern(governor.task());
+            try {
+                engine.forEach(value, from, to,
+                    assignment -> result.add(new Interpretation(program.variableIndex(), new long[] { assignment })));
+            } catch ( Governor.Exceeded e ){                                                   //the query learns it from joinTasks
+                result.clear();
+            }
+            return result;
+        }
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return pool != null;
+    }
+}
@@ -0,0 +1,31 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The flight recorder event of a phase of a query of {@link SatSolver} (see {@link SolverMetrics.Phase})
+ * @version 0.1
+ */
+@Name("solver.Phase")
+@Label("Solver Phase")
+@Category("Solver")
+@Description("A phase of a query answered by the sat solver")
+@StackTrace(false)
+final class PhaseEvent extends Event {
+
+    @Label("Query")
+    String query;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Allocated")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+}
@@ -0,0 +1,54 @@
+package solver;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The flight recorder event of a query of {@link SatSolver}, spanning the whole query
+ * @version 0.1
+ */
+@Name("solver.Query")
+@Label("Solver Query")
+@Category("Solver")
+@Description("A query answered by the sat solver")
+@StackTrace(false)
+final class QueryEvent extends Event {
+
+    @Label("Query")
+    String query;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Variables")
+    int variables;
+
+    @Label("Result")
+    String result;
+
+    @Label("Interpretations")
+    @Description("The interpretations the expression was evaluated under")
+    long interpretations;
+
+    @Label("Nodes")
+    @Description("The nodes of the compiled expression evaluated, once per node and interpretation")
+    long nodes;
+
+    @Label("Decisions")
+    long decisions;
+
+    @Label("Propagations")
+    long propagations;
+
+    @Label("Conflicts")
+    long conflicts;
+
+    @Label("Allocated")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+}
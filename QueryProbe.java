@@ -0,0 +1,179 @@
+package solver;
+
+import java.util.Collection;
+import java.util.Optional;
+import solver.SolverMetrics.Phase;
+
+/**
+ * Measures a single query of {@link SatSolver} for {@link SolverMetrics}: the query marks the start of each of its
+ * phases and reports what its engines did once they are done, and the probe publishes and aggregates it all when
+ * the query ends. While the metrics are off every query gets the same inert probe, whose methods return at once.
+ * A probe belongs to the thread answering its query.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * 'query' is null iff this is the inert probe
+ * 'phase' is null iff no phase is open, and 'phaseEvent', 'phaseStart' and 'phaseBytes' belong to it
+ */
+final class QueryProbe {
+
+    /* (non-javadoc)
+     * The probe of every query while the metrics are off
+     */
+    private static final QueryProbe OFF = new QueryProbe(null);
+
+    private final String query;
+    private QueryEvent event;
+    private long start;
+    private long startBytes;
+    private Phase phase;
+    private PhaseEvent phaseEvent;
+    private long phaseStart;
+    private long phaseBytes;
+    private long interpretations;
+    private long nodes;
+    private long decisions;
+    private long propagations;
+    private long conflicts;
+
+    private QueryProbe(String query) {
+        this.query = query;
+    }
+
+    /* (non-javadoc)
+     * @return a probe for a query of a given kind, measuring it if the metrics are on
+     */
+    static QueryProbe start(String query) {
+        if ( !SolverMetrics.on() ){
+            return OFF;
+        }
+        QueryProbe probe = new QueryProbe(query);
+        probe.event = new QueryEvent();
+        probe.event.begin();
+        probe.event.query = query;
+        probe.start = System.nanoTime();
+        probe.startBytes = SolverMetrics.allocatedBytes();
+        return probe;
+    }
+
+    /* (non-javadoc)
+     * Ends the open phase, if any, and opens another one
+     */
+    void phase(Phase next) {
+        if ( query == null ){
+            return;
+        }
+        closePhase();
+        phase = next;
+        phaseEvent = new PhaseEvent();
+        phaseEvent.begin();
+        phaseStart = System.nanoTime();
+        phaseBytes = SolverMetrics.allocatedBytes();
+    }
+
+    /* (non-javadoc)
+     * Records the engine answering the query and the number of variables it works on
+     */
+    void engine(String engine, int variables) {
+        if ( query == null ){
+            return;
+        }
+        event.engine = engine;
+        event.variables = variables;
+    }
+
+    /* (non-javadoc)
+     * Records that a program of a given length was evaluated under some interpretations
+     */
+    void evaluated(long interpretations, int length) {
+        if ( query == null ){
+            return;
+        }
+        this.interpretations += interpretations;
+        this.nodes += interpretations * length;
+    }
+
+    /* (non-javadoc)
+     * Records the decisions, propagations and conflicts a search took
+     */
+    void searched(long decisions, long propagations, long conflicts) {
+        if ( query == null ){
+            return;
+        }
+        this.decisions += decisions;
+        this.propagations += propagations;
+        this.conflicts += conflicts;
+    }
+
+    /* (non-javadoc)
+     * Records the work of a clause-learning solver used by this query only
+     */
+    void searched(CdclSolver solver) {
+        searched(solver.decisions(), solver.propagations(), solver.conflicts());
+    }
+
+    /* (non-javadoc)
+     * Ends the query, publishing its events, with a summary of its result, and adding its counts to the metrics
+     */
+    void end(Object result) {
+        if ( query == null ){
+            return;
+        }
+        closePhase();
+        long elapsed = System.nanoTime() - start;
+        SolverMetrics.getInstance().recordQuery(query, elapsed, interpretations, nodes, decisions, propagations, conflicts);
+        if ( event.shouldCommit() ){
+            event.result = summaryOf(result);
+            event.interpretations = interpretations;
+            event.nodes = nodes;
+            event.decisions = decisions;
+            event.propagations = propagations;
+            event.conflicts = conflicts;
+            event.allocated = startBytes < 0 ? 0 : SolverMetrics.allocatedBytes() - startBytes;
+            event.commit();
+        }
+    }
+
+    /* (non-javadoc)
+     * Summarizes the result of a query in a few words, so an event never holds a copy of a large one:
+     * a collection by its size, an analysis by its classification, an optional by its presence
+     */
+    private static String summaryOf(Object result) {
+        if ( result instanceof Collection ){
+            return ((Collection<?>) result).size() + " results";
+        }
+        if ( result instanceof Optional ){
+            return String.valueOf(((Optional<?>) result).isPresent());
+        }
+        if ( result instanceof Analysis ){
+            Analysis analysis = (Analysis) result;
+            return analysis.isTautology() ? "tautology" : analysis.isSatisfiable() ? "satisfiable" : "contradiction";
+        }
+        return String.valueOf(result);
+    }
+
+    private void closePhase() {
+        if ( phase == null ){
+            return;
+        }
+        long elapsed = System.nanoTime() - phaseStart;
+        long allocated = phaseBytes < 0 ? 0 : SolverMetrics.allocatedBytes() - phaseBytes;
+        SolverMetrics.getInstance().recordPhase(phase, elapsed, allocated);
+        if ( phaseEvent.shouldCommit() ){
+            phaseEvent.query = query;
+            phaseEvent.phase = phase.name();
+            phaseEvent.allocated = allocated;
+            phaseEvent.commit();
+        }
+        phase = null;
+        phaseEvent = null;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return (query != null || event == null) && (phase == null) == (phaseEvent == null);
+    }
+}
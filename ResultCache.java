@@ -0,0 +1,479 @@
+package solver;
+
+import expressions.Expression;
+import expressions.Fingerprint;
+import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A cache of the answers of {@link SatSolver}, so an expression asked about again is answered without solving it.
+ * Answers are kept by the {@link Fingerprint} of their expression, so they also answer every expression equal to it
+ * once its variables are renamed or the operands of its commutative operators reordered; a model is kept over the
+ * numbering of the fingerprint and renamed back for every expression it answers. Whether an expression is satisfiable,
+ * a tautology or a contradiction, one of its models, and its number of models are kept; an answer found for one question
+ * answers the others it decides, e.g.: a count of zero answers that the expression is a contradiction.
+ * <p>
+ * The cache keeps at most {@code capacity} expressions, evicted as by W-TinyLFU: a new expression enters a small window
+ * of recent expressions, kept in order of use; from there, it only takes the place of the least recently used expression
+ * of the main part if it was asked about more often lately, as estimated by a {@link FrequencySketch}. The main part
+ * keeps the expressions asked about again in a protected segment, so a burst of new expressions cannot flush them.
+ * Answers reached under a {@link SolverContext} are kept, unknown outcomes are not. A cache is thread-safe.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'window', 'probation', 'protectedSegment' and 'sketch' cannot be null, and no key is in two of them
+ * 'window' has at most 'windowCapacity' entries, and 'probation' and 'protectedSegment' at most 'mainCapacity' together,
+ * 'protectedSegment' at most 'protectedCapacity' of them
+ * every entry only holds answers about the expressions of its key, over the numbering of the key
+ */
+public final class ResultCache {
+
+    /* (non-javadoc)
+     * The answers known about the expressions of a fingerprint; 'model' is over the numbering of the fingerprint
+     */
+    private static final class Entry {
+        final int variables;
+        volatile Boolean satisfiable;
+        volatile Boolean tautology;
+        volatile long[] model;
+        volatile BigInteger models;
+
+        Entry(int variables) {
+            this.variables = variables;
+        }
+
+        Boolean satisfiable() {
+            if ( satisfiable != null ){
+                return satisfiable;
+            }
+            BigInteger count = models;
+            if ( count != null ){
+                return count.signum() > 0;
+            }
+            return model != null || Boolean.TRUE.equals(tautology) ? Boolean.TRUE : null;
+        }
+
+        Boolean tautology() {
+            if ( tautology != null ){
+                return tautology;
+            }
+            BigInteger count = models;
+            if ( count != null ){
+                return count.bitLength() == variables + 1 && count.getLowestSetBit() == variables;     //2 to the number of variables
+            }
+            return Boolean.FALSE.equals(satisfiable) ? Boolean.FALSE : null;
+        }
+
+        BigInteger models() {
+            if ( models != null ){
+                return models;
+            }
+            if ( Boolean.FALSE.equals(satisfiable) ){
+                return BigInteger.ZERO;
+            }
+            return Boolean.TRUE.equals(tautology) ? BigInteger.ONE.shiftLeft(variables) : null;
+        }
+    }
+
+    private final int capacity;
+    private final int windowCapacity;
+    private final int mainCapacity;
+    private final int protectedCapacity;
+    private final LinkedHashMap<Fingerprint, Entry> window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Fingerprint, Entry> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Fingerprint, Entry> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch sketch;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a new empty cache
+     * @param capacity the largest number of expressions kept
+     * @throws IllegalArgumentException if {@code capacity} is not positive
+     */
+    public ResultCache(int capacity) {
+        if ( capacity <= 0 ){
+            throw new IllegalArgumentException("The 'capacity' must be positive");
+        }
+        this.capacity = capacity;
+        this.windowCapacity = Math.max(1, capacity / 100);
+        this.mainCapacity = capacity - windowCapacity;
+        this.protectedCapacity = mainCapacity * 4 / 5;
+        this.sketch = new FrequencySketch(capacity);
+    }
+
+    /**
+     * Checks if an expression is satisfiable, as {@link SatSolver#isSatisfiable(Expression)} does, unless it is known
+     * @param expression the expression to check
+     * @return {@code true} iff {@code expression} is true under at least one interpretation
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public boolean isSatisfiable(Expression expression) {
+        return isSatisfiable(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Checks if an expression is satisfiable, within the limits of a context unless it is known
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #isSatisfiable(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<Boolean> isSatisfiable(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        Fingerprint key = Fingerprint.of(expression);
+        Entry entry = lookup(key);
+        Boolean known = entry == null ? null : entry.satisfiable();
+        if ( known != null ){
+            hits.increment();
+            return Outcome.known(known);
+        }
+        misses.increment();
+        Outcome<Optional<Interpretation>> model = solveModel(key, entry, expression, context);                 //a model costs no more
+        return model.isKnown() ? Outcome.known(model.get().isPresent()) : Outcome.unknown(model.limit().get());
+    }
+
+    /**
+     * Checks if an expression is a contradiction, as {@link SatSolver#isContradiction(Expression)} does, unless it is known
+     * @param expression the expression to check
+     * @return {@code true} iff {@code expression} is false under all interpretations
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public boolean isContradiction(Expression expression) {
+        return !isSatisfiable(expression);
+    }
+
+    /**
+     * Checks if an expression is a contradiction, within the limits of a context unless it is known
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #isContradiction(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<Boolean> isContradiction(Expression expression, SolverContext context) {
+        Outcome<Boolean> satisfiable = isSatisfiable(expression, context);
+        return satisfiable.isKnown() ? Outcome.known(!satisfiable.get()) : satisfiable;
+    }
+
+    /**
+     * Checks if an expression is a tautology, as {@link SatSolver#isTautology(Expression)} does, unless it is known
+     * @param expression the expression to check
+     * @return {@code true} iff {@code expression} is true under all interpretations
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public boolean isTautology(Expression expression) {
+        return isTautology(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Checks if an expression is a tautology, within the limits of a context unless it is known
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #isTautology(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<Boolean> isTautology(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        Fingerprint key = Fingerprint.of(expression);
+        Entry entry = lookup(key);
+        Boolean known = entry == null ? null : entry.tautology();
+        if ( known != null ){
+            hits.increment();
+            return Outcome.known(known);
+        }
+        misses.increment();
+        Outcome<Boolean> outcome = SatSolver.isTautology(expression, context);
+        if ( outcome.isKnown() ){
+            entryOf(key, entry).tautology = outcome.get();
+        }
+        return outcome;
+    }
+
+    /**
+     * Finds an interpretation under which an expression is satisfiable, as {@link SatSolver#findModel(Expression)}
+     * does, unless one is known
+     * @param expression the expression to check
+     * @return an interpretation {@code i : expression.evaluate(i)}, or nothing if {@code expression} is not satisfiable
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public Optional<Interpretation> findModel(Expression expression) {
+        return findModel(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Finds an interpretation under which an expression is satisfiable, within the limits of a context unless one is known
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #findModel(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<Optional<Interpretation>> findModel(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        Fingerprint key = Fingerprint.of(expression);
+        Entry entry = lookup(key);
+        if ( entry != null ){
+            long[] model = entry.model;
+            if ( model != null || Boolean.FALSE.equals(entry.satisfiable()) ){
+                hits.increment();
+                return Outcome.known(model == null ? Optional.empty() : Optional.of(interpretationOf(key, model)));
+            }
+        }
+        misses.increment();
+        return solveModel(key, entry, expression, context);
+    }
+
+    /**
+     * Counts the models of an expression, as {@link SatSolver#countModels(Expression)} does, unless their number is known
+     * @param expression the expression to check
+     * @return {@code #{ i : expression.evaluate(i) }}, over the interpretations of {@code expression.variables()}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public BigInteger countModels(Expression expression) {
+        return countModels(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Counts the models of an expression, within the limits of a context unless their number is known
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #countModels(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public Outcome<BigInteger> countModels(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+        Fingerprint key = Fingerprint.of(expression);
+        Entry entry = lookup(key);
+        BigInteger known = entry == null ? null : entry.models();
+        if ( known != null ){
+            hits.increment();
+            return Outcome.known(known);
+        }
+        misses.increment();
+        Outcome<BigInteger> outcome = SatSolver.countModels(expression, context);
+        if ( outcome.isKnown() ){
+            entryOf(key, entry).models = outcome.get();
+        }
+        return outcome;
+    }
+
+    /**
+     * @return the number of questions answered from this cache
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return the number of questions this cache could not answer, so were solved
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the fraction of the questions answered from this cache, or {@code 0} if none was asked
+     */
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * @return the number of expressions evicted, or not admitted, because this cache was full
+     */
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return the number of expressions whose answers are kept
+     */
+    public synchronized int size() {
+        return window.size() + probation.size() + protectedSegment.size();
+    }
+
+    /**
+     * @return the largest number of expressions kept
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Forgets every answer; the statistics are kept
+     */
+    public synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+    }
+
+    /* (non-javadoc)
+     * Finds a model of an expression with the solver, keeping it and whether the expression is satisfiable
+     */
+    private Outcome<Optional<Interpretation>> solveModel(Fingerprint key, Entry entry, Expression expression, SolverContext context) {
+        Outcome<Optional<Interpretation>> outcome = SatSolver.findModel(expression, context);
+        if ( outcome.isKnown() ){
+            Entry kept = entryOf(key, entry);
+            if ( outcome.get().isPresent() ){
+                kept.model = assignmentOf(key, outcome.get().get());
+            }
+            kept.satisfiable = outcome.get().isPresent();
+        }
+        return outcome;
+    }
+
+    /* (non-javadoc)
+     * @return the entry of a key, or null if it has none, counting the key as seen
+     */
+    private synchronized Entry lookup(Fingerprint key) {
+        sketch.increment(key);
+        Entry entry = window.get(key);
+        if ( entry == null ){
+            entry = protectedSegment.get(key);
+        }
+        if ( entry == null ){
+            entry = probation.remove(key);
+            if ( entry != null ){
+                protect(key, entry);                                                           //asked about again, so protected
+            }
+        }
+        return entry;
+    }
+
+    /* (non-javadoc)
+     * @return the entry found for a key, or a new one entering the window if it had none
+     */
+    private Entry entryOf(Fingerprint key, Entry found) {
+        if ( found != null ){
+            return found;
+        }
+        synchronized ( this ){
+            Entry entry = window.get(key);
+            if ( entry == null ){
+                entry = protectedSegment.get(key);
+            }
+            if ( entry == null ){
+                entry = probation.get(key);
+            }
+            if ( entry == null ){
+                entry = new Entry(key.variables().size());
+                window.put(key, entry);
+                if ( window.size() > windowCapacity ){
+                    admit(eldest(window));
+                }
+            }
+            return entry;
+        }
+    }
+
+    /* (non-javadoc)
+     * Moves an entry out of the window into the main part, if it is seen more often than the entry it would evict
+     */
+    private void admit(Map.Entry<Fingerprint, Entry> candidate) {
+        window.remove(candidate.getKey());
+        if ( probation.size() + protectedSegment.size() < mainCapacity ){
+            probation.put(candidate.getKey(), candidate.getValue());
+            return;
+        }
+        evictions.increment();
+        if ( mainCapacity == 0 ){
+            return;
+        }
+        Map.Entry<Fingerprint, Entry> victim = eldest(probation.isEmpty() ? protectedSegment : probation);
+        if ( sketch.frequency(candidate.getKey()) > sketch.frequency(victim.getKey()) ){
+            probation.remove(victim.getKey());
+            protectedSegment.remove(victim.getKey());
+            probation.put(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    private void protect(Fingerprint key, Entry entry) {
+        protectedSegment.put(key, entry);
+        if ( protectedSegment.size() > protectedCapacity ){
+            Map.Entry<Fingerprint, Entry> demoted = eldest(protectedSegment);
+            protectedSegment.remove(demoted.getKey());
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    private static Map.Entry<Fingerprint, Entry> eldest(LinkedHashMap<Fingerprint, Entry> segment) {
+        Iterator<Map.Entry<Fingerprint, Entry>> entries = segment.entrySet().iterator();
+        Map.Entry<Fingerprint, Entry> eldest = entries.next();
+        return Map.entry(eldest.getKey(), eldest.getValue());
+    }
+
+    /* (non-javadoc)
+     * @return the values of a model at the numbering of a fingerprint
+     */
+    private static long[] assignmentOf(Fingerprint key, Interpretation model) {
+        List<String> names = key.variables();
+        long[] assignment = new long[(names.size() >>> 6) + 1];
+        for ( int i = 0 ; i < names.size() ; i++ ){
+            if ( model.valueOf(names.get(i)) ){
+                assignment[i >>> 6] |= 1L << i;
+            }
+        }
+        return assignment;
+    }
+
+    /* (non-javadoc)
+     * @return the model of the expressions of a fingerprint, renamed to the variables of the fingerprint,
+     * over them in natural order as the solver returns it
+     */
+    private static Interpretation interpretationOf(Fingerprint key, long[] assignment) {
+        List<String> names = key.variables();
+        VariableIndex index = VariableIndex.of(new ArrayList<>(new TreeSet<>(names)));
+        long[] values = new long[(names.size() >>> 6) + 1];
+        for ( int i = 0 ; i < names.size() ; i++ ){
+            if ( (assignment[i >>> 6] & (1L << i)) != 0 ){
+                int position = index.indexOf(names.get(i));
+                values[position >>> 6] |= 1L << position;
+            }
+        }
+        return new Interpretation(index, values);
+    }
+
+    private static void checkArguments(Expression expression, SolverContext context) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
+        }
+    }
+
+    //Check the invariants
+
+    public synchronized boolean repOK(){
+        if ( window.size() > windowCapacity || probation.size() + protectedSegment.size() > mainCapacity
+                || protectedSegment.size() > protectedCapacity ){
+            return false;
+        }
+        for ( Fingerprint key : window.keySet() ){
+            if ( probation.containsKey(key) || protectedSegment.containsKey(key) ){
+                return false;
+            }
+        }
+        for ( Fingerprint key : probation.keySet() ){
+            if ( protectedSegment.containsKey(key) ){
+                return false;
+            }
+        }
+        return sketch.repOK();
+    }
+}
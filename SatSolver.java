@@ -1,108 +1,512 @@
 package solver;
 
+import expressions.CompiledExpression;
 import expressions.Expression;
 import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.math.BigInteger;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * A class representing a sat solver.
+ * All queries compile the expression once (see {@link CompiledExpression}). Small expressions are
+ * checked by sweeping their assignments as plain {@code long} values, larger ones are searched
+ * with a clause-learning solver; no interpretation is built unless it is returned.
+ * Decision queries, counts and single models simplify the expression first (see {@link Expression#simplify(Expression)}),
+ * which can remove variables and so shrink the search.
+ * Equivalence is decided as the unsatisfiability of the exclusive or of both expressions, by the same engines.
+ * The queries returning a result at once can be measured phase by phase (see {@link SolverMetrics}), and bounded
+ * in time, work and memory by a {@link SolverContext}, under which they return an {@link Outcome} that is unknown
+ * if a limit was reached.
+ * <p>
+ * The solver is thread-safe: it keeps no state between queries, and any number of threads can query it at once,
+ * on the same expressions, since expressions are immutable. It only reads the interpretations it is given, and every
+ * interpretation it returns is new and not kept, so the caller owns it (see {@link Interpretation}).
+ * Many independent expressions are best solved by a {@link BatchSolver}.
  * @version 0.1
  */
 public class SatSolver {
 
+    /**
+     * The engines a query can be answered with
+     */
+    public enum Engine {
+        /**
+         * Lets the solver choose the engine for every query
+         */
+        AUTO,
+        /**
+         * Evaluates the compiled expression one assignment at a time, kept as the reference engine
+         */
+        ENUMERATION,
+        /**
+         * Evaluates the compiled expression under 64 assignments per pass
+         */
+        BIT_SLICED,
+        /**
+         * Searches for an assignment with a conflict-driven clause-learning solver over the Tseitin encoding of the expression
+         */
+        CDCL,
+        /**
+         * Builds the binary decision diagram of the expression, which answers tautology and contradiction
+         * in constant time and from which models are read without evaluating the expression
+         */
+        BDD,
+    }
+
+    /* (non-javadoc)
+     * The largest number of variables whose assignments the bit-sliced engine can count in a long
+     */
+    private static final int MAX_SLICED_VARIABLES = Long.SIZE - 2;
+
+    /* (non-javadoc)
+     * The largest number of variables for which the automatic engine checks every assignment
+     */
+    static final int EXHAUSTIVE_LIMIT = 20;
+
     /**
      * Checks if an expression is a tautology, i.e.: it is true under all interpretations
      * @param expression the expression to check
      * @return {@code true} iff {@code no interpretation i : not expression.evaluate(i)}
      */
     public static boolean isTautology(Expression expression) {
+        return isTautology(expression, Engine.AUTO);
+    }
+
+    /**
+     * Checks if an expression is a tautology using a particular engine
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @return {@code true} iff {@code no interpretation i : not expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} or {@code engine} is {@code null}
+     */
+    public static boolean isTautology(Expression expression, Engine engine) {
+        return isTautology(expression, engine, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Checks if an expression is a tautology, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #isTautology(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public static Outcome<Boolean> isTautology(Expression expression, SolverContext context) {
+        return isTautology(expression, Engine.AUTO, context);
+    }
+
+    /**
+     * Checks if an expression is a tautology using a particular engine, within the limits of a context
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @param context the limits of the query
+     * @return the answer of {@link #isTautology(Expression, Engine)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression}, {@code engine} or {@code context} is {@code null}
+     */
+    public static Outcome<Boolean> isTautology(Expression expression, Engine engine, SolverContext context) {
         if ( expression == null ){
             throw new IllegalArgumentException("The 'expression' cannot be null");
         }
-        
-        Set<Interpretation> interpretations = getAllInterpretations(expression);               //We get all the possible interpretations
-
-        if ( interpretations.isEmpty() ){
-            return true;                                                                       //if the interpretations is just empty, it is always true
+        if ( engine == null || context == null ){
+            throw new IllegalArgumentException("The 'engine' and 'context' cannot be null");
         }
 
-        Interpretation[] interpretationArray = new Interpretation[interpretations.size()];
-        int index = 0;
-        for ( Interpretation interpretation : interpretations ){                               //We create a array to store the interpretations
-            interpretationArray[index] = interpretation;
-            index++;
-        }
+        QueryProbe probe = QueryProbe.start("isTautology");
+        return run(probe, context, governor -> find(compile(expression, true, probe, governor), false, engine, probe, governor) == null);       //a tautology has no assignment under which it is false
+    }
 
-        for ( int i = 0 ; i < interpretationArray.length ; i++ ){                              //We travel all the interpretations to check the value
-            if ( !expression.evaluate(interpretationArray[i]) ){
-                return false;
-            }
+    /**
+     * Checks if an expression is a contradiction, i.e.: it is false under all interpretations
+     * @param expression the expression to check
+     * @return {@code true} iff {@code all interpretation i : not expression.evaluate(i)}
+     */
+    public static boolean isContradiction(Expression expression) {
+        return isContradiction(expression, Engine.AUTO);
+    }
+
+    /**
+     * Checks if an expression is a contradiction using a particular engine
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @return {@code true} iff {@code all interpretation i : not expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} or {@code engine} is {@code null}
+     */
+    public static boolean isContradiction(Expression expression, Engine engine) {
+        return isContradiction(expression, engine, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Checks if an expression is a contradiction, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #isContradiction(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public static Outcome<Boolean> isContradiction(Expression expression, SolverContext context) {
+        return isContradiction(expression, Engine.AUTO, context);
+    }
+
+    /**
+     * Checks if an expression is a contradiction using a particular engine, within the limits of a context
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @param context the limits of the query
+     * @return the answer of {@link #isContradiction(Expression, Engine)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression}, {@code engine} or {@code context} is {@code null}
+     */
+    public static Outcome<Boolean> isContradiction(Expression expression, Engine engine, SolverContext context) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        if ( engine == null || context == null ){
+            throw new IllegalArgumentException("The 'engine' and 'context' cannot be null");
         }
 
-        return true;
+        QueryProbe probe = QueryProbe.start("isContradiction");
+        return run(probe, context, governor -> find(compile(expression, true, probe, governor), true, engine, probe, governor) == null);
+    }
+
+    /**
+     * Checks if an expression is satisfiable, i.e.: it is true under at least one interpretation
+     * @param expression the expression to check
+     * @return {@code true} iff {@code exists interpretation i : expression.evaluate(i)}
+     */
+    public static boolean isSatisfiable(Expression expression) {
+        return isSatisfiable(expression, Engine.AUTO);
+    }
+
+    /**
+     * Checks if an expression is satisfiable using a particular engine
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @return {@code true} iff {@code exists interpretation i : expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} or {@code engine} is {@code null}
+     */
+    public static boolean isSatisfiable(Expression expression, Engine engine) {
+        return isSatisfiable(expression, engine, SolverContext.unlimited()).get();
+    }
 
-    }                                                                                          //The idea is the same in the methods below, I will not write the explanatory note
+    /**
+     * Checks if an expression is satisfiable, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #isSatisfiable(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public static Outcome<Boolean> isSatisfiable(Expression expression, SolverContext context) {
+        return isSatisfiable(expression, Engine.AUTO, context);
+    }
 
     /**
-     * Checks if an expression is a contradiction, i.e.: it is false under all interpretations
+     * Checks if an expression is satisfiable using a particular engine, within the limits of a context
      * @param expression the expression to check
-     * @return {@code true} iff {@code all interpretation i : not expression.evaluate(i)}
+     * @param engine the engine to use
+     * @param context the limits of the query
+     * @return the answer of {@link #isSatisfiable(Expression, Engine)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression}, {@code engine} or {@code context} is {@code null}
      */
-    public static boolean isContradiction(Expression expression) {
+    public static Outcome<Boolean> isSatisfiable(Expression expression, Engine engine, SolverContext context) {
         if ( expression == null ){
             throw new IllegalArgumentException("The 'expression' cannot be null");
         }
+        if ( engine == null || context == null ){
+            throw new IllegalArgumentException("The 'engine' and 'context' cannot be null");
+        }
 
-        Set<Interpretation> interpretations = getAllInterpretations(expression);
+        QueryProbe probe = QueryProbe.start("isSatisfiable");
+        return run(probe, context, governor -> find(compile(expression, true, probe, governor), true, engine, probe, governor) != null);
+    }
 
-        Interpretation[] interpretationArray = new Interpretation[interpretations.size()];
-        int index = 0;
-        for ( Interpretation interpretation : interpretations ){
-            interpretationArray[index] = interpretation;
-            index++;
+    /**
+     * Classifies an expression with a single pass over it, instead of one per question (see {@link Analysis})
+     * @param expression the expression to analyse
+     * @return whether {@code expression} is satisfiable, a tautology or a contradiction, how many models and countermodels
+     * it has, and both of them on demand
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public static Analysis analyze(Expression expression) {
+        return analyze(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Classifies an expression with a single pass over it, within the limits of a context; the counts the analysis
+     * computes on demand are bounded by the context given to them (see {@link Analysis#modelCount(SolverContext)})
+     * @param expression the expression to analyse
+     * @param context the limits of the classification
+     * @return the answer of {@link #analyze(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public static Outcome<Analysis> analyze(Expression expression, SolverContext context) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
         }
 
-        for ( int i = 0 ; i < interpretationArray.length ; i++ ){
-            if ( expression.evaluate(interpretationArray[i]) ){
-                return false;
-            }
+        QueryProbe probe = QueryProbe.start("analyze");
+        return run(probe, context, governor -> new Analysis(expression, compile(expression, false, probe, governor), probe, governor));
+    }
+
+    /**
+     * Checks if two expressions are equivalent, i.e.: they have the same value under every interpretation.
+     * They are equivalent iff their exclusive or is unsatisfiable, which is checked as {@link #isSatisfiable(Expression)} does
+     * @param left an expression
+     * @param right another expression
+     * @return {@code true} iff {@code all interpretation i : left.evaluate(i) == right.evaluate(i)}
+     * @throws IllegalArgumentException if {@code left} or {@code right} is {@code null}
+     */
+    public static boolean isEquivalent(Expression left, Expression right) {
+        return isEquivalent(left, right, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Checks if two expressions are equivalent, within the limits of a context
+     * @param left an expression
+     * @param right another expression
+     * @param context the limits of the query
+     * @return the answer of {@link #isEquivalent(Expression, Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code left}, {@code right} or {@code context} is {@code null}
+     */
+    public static Outcome<Boolean> isEquivalent(Expression left, Expression right, SolverContext context) {
+        if ( left == null || right == null ){
+            throw new IllegalArgumentException("The 'left' and 'right' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
         }
 
-        return true;
+        QueryProbe probe = QueryProbe.start("isEquivalent");
+        Expression difference = left.xor(left, right);
+        return run(probe, context, governor -> find(compile(difference, true, probe, governor), true, Engine.AUTO, probe, governor) == null);
     }
 
-        
+    /**
+     * Checks if a set of clauses, e.g.: read by {@link DimacsReader}, is satisfiable using the clause-learning engine
+     * @param clauses the clauses to check
+     * @return {@code true} iff some assignment of the variables satisfies every clause
+     * @throws IllegalArgumentException if {@code clauses} is {@code null}
+     */
+    public static boolean isSatisfiable(ClauseStore clauses) {
+        return isSatisfiable(clauses, SolverContext.unlimited()).get();
+    }
 
     /**
-     * Checks if an expression is satisfiable, i.e.: it is true under at least one interpretation
+     * Checks if a set of clauses is satisfiable using the clause-learning engine, within the limits of a context
+     * @param clauses the clauses to check
+     * @param context the limits of the query
+     * @return the answer of {@link #isSatisfiable(ClauseStore)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code clauses} or {@code context} is {@code null}
+     */
+    public static Outcome<Boolean> isSatisfiable(ClauseStore clauses, SolverContext context) {
+        if ( clauses == null ){
+            throw new IllegalArgumentException("The 'clauses' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
+        }
+
+        QueryProbe probe = QueryProbe.start("isSatisfiable");
+        return run(probe, context, governor -> {
+            probe.engine(Engine.CDCL.name(), clauses.variableCount());
+            probe.phase(SolverMetrics.Phase.SEARCH);
+            CdclSolver solver = new CdclSolver();
+            solver.govern(governor);
+            boolean satisfiable = solver.addClauses(clauses) && solver.solve();
+            probe.searched(solver);
+            return satisfiable;
+        });
+    }
+
+    /**
+     * Finds an interpretation under which an expression is satisfiable
      * @param expression the expression to check
-     * @return {@code true} iff {@code exists interpretation i : expression.evaluate(i)}
+     * @return an interpretation {@code i : expression.evaluate(i)}, or nothing if {@code expression} is not satisfiable
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
      */
-    public static boolean isSatisfiable(Expression expression) {
+    public static Optional<Interpretation> findModel(Expression expression) {
+        return findModel(expression, Engine.AUTO);
+    }
+
+    /**
+     * Finds an interpretation under which an expression is satisfiable using a particular engine
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @return an interpretation {@code i : expression.evaluate(i)}, or nothing if {@code expression} is not satisfiable
+     * @throws IllegalArgumentException if {@code expression} or {@code engine} is {@code null}
+     */
+    public static Optional<Interpretation> findModel(Expression expression, Engine engine) {
+        return findModel(expression, engine, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Finds an interpretation under which an expression is satisfiable, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #findModel(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public static Outcome<Optional<Interpretation>> findModel(Expression expression, SolverContext context) {
+        return findModel(expression, Engine.AUTO, context);
+    }
+
+    /**
+     * Finds an interpretation under which an expression is satisfiable using a particular engine, within the limits of a context
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @param context the limits of the query
+     * @return the answer of {@link #findModel(Expression, Engine)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression}, {@code engine} or {@code context} is {@code null}
+     */
+    public static Outcome<Optional<Interpretation>> findModel(Expression expression, Engine engine, SolverContext context) {
         if ( expression == null ){
             throw new IllegalArgumentException("The 'expression' cannot be null");
         }
+        if ( engine == null || context == null ){
+            throw new IllegalArgumentException("The 'engine' and 'context' cannot be null");
+        }
 
-        Set<Interpretation> interpretations = getAllInterpretations(expression);
+        QueryProbe probe = QueryProbe.start("findModel");
+        return run(probe, context, governor -> {
+            CompiledExpression program = compile(expression, true, probe, governor);
+            long[] assignment = find(program, true, engine, probe, governor);
+            probe.phase(SolverMetrics.Phase.COLLECT);
+            return assignment == null ? Optional.empty() : Optional.of(widen(expression, program, assignment));
+        });
+    }
 
-        Interpretation[] interpretationArray = new Interpretation[interpretations.size()];
-        int index = 0;
-        for ( Interpretation interpretation : interpretations ){
-            interpretationArray[index] = interpretation;
-            index++;
+    /**
+     * Counts the interpretations of the variables of an expression under which it is satisfiable, without building them.
+     * Small expressions are counted by sweeping their assignments, larger ones by a model counter over their
+     * Tseitin encoding (see {@link ModelCounter}), which splits the formula into independent components
+     * @param expression the expression to check
+     * @return {@code #{ i : expression.evaluate(i) }}, over the interpretations of {@code expression.variables()}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public static BigInteger countModels(Expression expression) {
+        return countModels(expression, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Counts the interpretations of the variables of an expression under which it is satisfiable, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the query
+     * @return the answer of {@link #countModels(Expression)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     */
+    public static Outcome<BigInteger> countModels(Expression expression, SolverContext context) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
         }
 
-        for ( int i = 0 ; i < interpretationArray.length ; i++ ){
-            if  ( expression.evaluate(interpretationArray[i]) ){
-                return true;
+        QueryProbe probe = QueryProbe.start("countModels");
+        return run(probe, context, governor -> {
+            CompiledExpression program = compile(expression, true, probe, governor);
+            int removed = expression.variables().size() - program.variableCount();            //every variable simplified away doubles the count
+            if ( program.variableCount() <= EXHAUSTIVE_LIMIT ){
+                probe.engine(Engine.BIT_SLICED.name(), program.variableCount());
+                probe.phase(SolverMetrics.Phase.EVALUATE);
+                BitSlicedEngine engine = new BitSlicedEngine(program);
+                engine.govern(governor);
+                BigInteger count = BigInteger.valueOf(engine.count(true));
+                probe.evaluated(1L << program.variableCount(), program.length());
+                return count.shiftLeft(removed);
             }
+            probe.engine(ModelCounter.class.getSimpleName(), program.variableCount());
+            probe.phase(SolverMetrics.Phase.ENCODE);
+            ClauseStore clauses = CnfEncoder.encode(program, true, true, governor).clauses();
+            probe.phase(SolverMetrics.Phase.COUNT);
+            ModelCounter counter = new ModelCounter(clauses);
+            counter.govern(governor);
+            return counter.count().shiftLeft(removed);                                         //every model extends to exactly one model of the encoding
+        });
+    }
+
+    /**
+     * Counts the interpretations of a set of variables under which an expression is satisfiable, without building them.
+     * Each variable of {@code variables} the expression does not mention doubles the count
+     * @param expression the expression to check
+     * @param variables the variables to interpret, which must include every variable of {@code expression}
+     * @return {@code #{ i : expression.evaluate(i) }}, over the interpretations of {@code variables}
+     * @throws IllegalArgumentException if {@code expression} or {@code variables} is {@code null}
+     * @throws IllegalArgumentException if a variable of {@code expression} is not in {@code variables}
+     */
+    public static BigInteger countModels(Expression expression, Collection<String> variables) {
+        return countModels(expression, variables, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Counts the interpretations of a set of variables under which an expression is satisfiable, within the limits of a context
+     * @param expression the expression to check
+     * @param variables the variables to interpret, which must include every variable of {@code expression}
+     * @param context the limits of the query
+     * @return the answer of {@link #countModels(Expression, Collection)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression}, {@code variables} or {@code context} is {@code null}
+     * @throws IllegalArgumentException if a variable of {@code expression} is not in {@code variables}
+     */
+    public static Outcome<BigInteger> countModels(Expression expression, Collection<String> variables, SolverContext context) {
+        if ( expression == null || variables == null ){
+            throw new IllegalArgumentException("The 'expression' and 'variables' cannot be null");
         }
-        return false;
+        Set<String> universe = new HashSet<>(variables);
+        if ( !universe.containsAll(expression.variables()) ){
+            throw new IllegalArgumentException("The 'variables' must include every variable of the 'expression'");
+        }
+
+        Outcome<BigInteger> count = countModels(expression, context);
+        return count.isUnknown() ? count : Outcome.known(count.get().shiftLeft(universe.size() - expression.variables().size()));
+    }
+
+    /**
+     * Counts the assignments satisfying a set of clauses, e.g.: read by {@link DimacsReader}
+     * @param clauses the clauses to check
+     * @return the number of assignments of the variables {@code 1} to {@code clauses.variableCount()} satisfying every clause
+     * @throws IllegalArgumentException if {@code clauses} is {@code null}
+     */
+    public static BigInteger countModels(ClauseStore clauses) {
+        return countModels(clauses, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Counts the assignments satisfying a set of clauses, within the limits of a context
+     * @param clauses the clauses to check
+     * @param context the limits of the query
+     * @return the answer of {@link #countModels(ClauseStore)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code clauses} or {@code context} is {@code null}
+     */
+    public static Outcome<BigInteger> countModels(ClauseStore clauses, SolverContext context) {
+        if ( clauses == null ){
+            throw new IllegalArgumentException("The 'clauses' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
+        }
+
+        QueryProbe probe = QueryProbe.start("countModels");
+        return run(probe, context, governor -> {
+            probe.engine(ModelCounter.class.getSimpleName(), clauses.variableCount());
+            probe.phase(SolverMetrics.Phase.COUNT);
+            ModelCounter counter = new ModelCounter(clauses);
+            counter.govern(governor);
+            return counter.count();
+        });
     }
 
     /**
@@ -111,59 +515,526 @@ public class SatSolver {
      * @return {@code l : all i in l : expression.evaluate(i)}
      */
     public static List<Interpretation> allSatisfiableInterpretations(Expression expression) {
+        return allSatisfiableInterpretations(expression, Engine.AUTO);
+    }
+
+    /**
+     * Returns all possible interpretations under which an expression is satisfiable using a particular engine
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @return {@code l : all i in l : expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} or {@code engine} is {@code null}
+     */
+    public static List<Interpretation> allSatisfiableInterpretations(Expression expression, Engine engine) {
+        return allSatisfiableInterpretations(expression, engine, SolverContext.unlimited()).get();
+    }
+
+    /**
+     * Returns all possible interpretations under which an expression is satisfiable using a particular engine, within the limits of a context.
+     * Every interpretation built counts as an assignment visited, so the caps bound the size of the result too
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @param context the limits of the query
+     * @return the answer of {@link #allSatisfiableInterpretations(Expression, Engine)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression}, {@code engine} or {@code context} is {@code null}
+     */
+    public static Outcome<List<Interpretation>> allSatisfiableInterpretations(Expression expression, Engine engine, SolverContext context) {
         if ( expression == null ){
             throw new IllegalArgumentException("The 'expression' cannot be null");
         }
+        if ( engine == null || context == null ){
+            throw new IllegalArgumentException("The 'engine' and 'context' cannot be null");
+        }
+
+        QueryProbe probe = QueryProbe.start("allSatisfiableInterpretations");
+        return run(probe, context, governor -> interpretationsWithValue(compile(expression, false, probe, governor), true, engine, probe, governor));
+    }
+
+    /**
+     * Returns all possible interpretations under which an expression is unsatisfiable
+     * @param expression the expression to check
+     * @return {@code l : all i in l : not expression.evaluate(i)}
+     */
+    public static List<Interpretation> allUnsatisfiableInterpretations(Expression expression) {
+        return allUnsatisfiableInterpretations(expression, Engine.AUTO);
+    }
 
-        Set<Interpretation> interpretations = getAllInterpretations(expression);
+    /**
+     * Returns all possible interpretations under which an expression is unsatisfiable using a particular engine
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @return {@code l : all i in l : not expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} or {@code engine} is {@code null}
+     */
+    public static List<Interpretation> allUnsatisfiableInterpretations(Expression expression, Engine engine) {
+        return allUnsatisfiableInterpretations(expression, engine, SolverContext.unlimited()).get();
+    }
 
-        Interpretation[] interpretationArray = new Interpretation[interpretations.size()];
-        int index = 0;
-        for ( Interpretation interpretation : interpretations){
-            interpretationArray[index] = interpretation;
-            index++;
+    /**
+     * Returns all possible interpretations under which an expression is unsatisfiable using a particular engine, within the limits of a context.
+     * Every interpretation built counts as an assignment visited, so the caps bound the size of the result too
+     * @param expression the expression to check
+     * @param engine the engine to use
+     * @param context the limits of the query
+     * @return the answer of {@link #allUnsatisfiableInterpretations(Expression, Engine)}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression}, {@code engine} or {@code context} is {@code null}
+     */
+    public static Outcome<List<Interpretation>> allUnsatisfiableInterpretations(Expression expression, Engine engine, SolverContext context) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
+        }
+        if ( engine == null || context == null ){
+            throw new IllegalArgumentException("The 'engine' and 'context' cannot be null");
         }
 
-        List<Interpretation> satisfiableInterpretations = new ArrayList<>();                     //We create a list to store the satisfied interpretations  
-        
-        for ( int i = 0 ; i < interpretationArray.length ; i++ ){
-            if ( expression.evaluate(interpretationArray[i]) ){
-                satisfiableInterpretations.add(interpretationArray[i]);
-            }
+        QueryProbe probe = QueryProbe.start("allUnsatisfiableInterpretations");
+        return run(probe, context, governor -> interpretationsWithValue(compile(expression, false, probe, governor), false, engine, probe, governor));
+    }
+
+    /**
+     * Returns a lazy stream of the interpretations under which an expression is satisfiable.
+     * Each one is searched for when the stream asks for it, so stopping early stops the search and only the
+     * interpretations kept by the consumer stay in memory. The stream can be consumed in parallel.
+     * @param expression the expression to check
+     * @return the interpretations {@code i : expression.evaluate(i)}, in increasing order of their assignment for up to 62 variables
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     */
+    public static Stream<Interpretation> satisfiableInterpretations(Expression expression) {
+        return satisfiableInterpretations(expression, SolverContext.unlimited());
+    }
+
+    /**
+     * Returns a lazy stream of the interpretations under which an expression is satisfiable, within the limits of a
+     * context counted from this call, the interpretations handed out counting towards them
+     * @param expression the expression to check
+     * @param context the limits of the stream, shared by the parts it is split into
+     * @return the stream of {@link #satisfiableInterpretations(Expression)}
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     * @throws LimitReachedException if a limit of {@code context} is reached, now or while the stream is consumed
+     */
+    public static Stream<Interpretation> satisfiableInterpretations(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+
+        return start(context, governor -> modelsWithValue(compileLazily(expression, governor), true, governor));
+    }
+
+    /**
+     * Returns a lazy stream of the interpretations under which an expression is unsatisfiable
+     * @param expression the expression to check
+     * @return the interpretations {@code i : not expression.evaluate(i)}, in increasing order of their assignment for up to 62 variables
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     * @see #satisfiableInterpretations(Expression)
+     */
+    public static Stream<Interpretation> unsatisfiableInterpretations(Expression expression) {
+        return unsatisfiableInterpretations(expression, SolverContext.unlimited());
+    }
+
+    /**
+     * Returns a lazy stream of the interpretations under which an expression is unsatisfiable, within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the stream, shared by the parts it is split into
+     * @return the stream of {@link #unsatisfiableInterpretations(Expression)}
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     * @throws LimitReachedException if a limit of {@code context} is reached, now or while the stream is consumed
+     * @see #satisfiableInterpretations(Expression, SolverContext)
+     */
+    public static Stream<Interpretation> unsatisfiableInterpretations(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+
+        return start(context, governor -> modelsWithValue(compileLazily(expression, governor), false, governor));
+    }
+
+    /**
+     * Passes the interpretations under which an expression is satisfiable to an action until it returns {@code false}.
+     * A single interpretation is passed every time, a view of the assignment being checked that changes with it,
+     * so memory stays constant however many interpretations there are; {@link Interpretation#clone() clone} it to keep one
+     * @param expression the expression to check
+     * @param action the action to perform, returning {@code false} to stop
+     * @throws IllegalArgumentException if {@code expression} or {@code action} is {@code null}
+     */
+    public static void forEachSatisfiableInterpretation(Expression expression, Predicate<? super Interpretation> action) {
+        forEachSatisfiableInterpretation(expression, action, SolverContext.unlimited());
+    }
+
+    /**
+     * Passes the interpretations under which an expression is satisfiable to an action until it returns {@code false},
+     * within the limits of a context
+     * @param expression the expression to check
+     * @param action the action to perform, returning {@code false} to stop
+     * @param context the limits of the query
+     * @return the number of interpretations passed to {@code action}, or unknown if a limit of {@code context} is reached
+     * first, the interpretations passed until then having been passed all the same
+     * @throws IllegalArgumentException if {@code expression}, {@code action} or {@code context} is {@code null}
+     */
+    public static Outcome<Long> forEachSatisfiableInterpretation(Expression expression, Predicate<? super Interpretation> action,
+            SolverContext context) {
+        if ( expression == null || action == null ){
+            throw new IllegalArgumentException("The 'expression' and 'action' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
         }
 
-        return satisfiableInterpretations;
+        QueryProbe probe = QueryProbe.start("forEachSatisfiableInterpretation");
+        return run(probe, context, governor -> forEachWithValue(compile(expression, false, probe, governor), true, action, governor));
+    }
 
+    /**
+     * Passes the interpretations under which an expression is unsatisfiable to an action until it returns {@code false}
+     * @param expression the expression to check
+     * @param action the action to perform, returning {@code false} to stop
+     * @throws IllegalArgumentException if {@code expression} or {@code action} is {@code null}
+     * @see #forEachSatisfiableInterpretation(Expression, Predicate)
+     */
+    public static void forEachUnsatisfiableInterpretation(Expression expression, Predicate<? super Interpretation> action) {
+        forEachUnsatisfiableInterpretation(expression, action, SolverContext.unlimited());
     }
 
     /**
-     * Returns all possible interpretations under which an expression is unsatisfiable
+     * Passes the interpretations under which an expression is unsatisfiable to an action until it returns {@code false},
+     * within the limits of a context
      * @param expression the expression to check
-     * @return {@code l : all i in l : not expression.evaluate(i)}
+     * @param action the action to perform, returning {@code false} to stop
+     * @param context the limits of the query
+     * @return the number of interpretations passed to {@code action}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code expression}, {@code action} or {@code context} is {@code null}
+     * @see #forEachSatisfiableInterpretation(Expression, Predicate, SolverContext)
      */
-    public static List<Interpretation> allUnsatisfiableInterpretations(Expression expression) {
+    public static Outcome<Long> forEachUnsatisfiableInterpretation(Expression expression, Predicate<? super Interpretation> action,
+            SolverContext context) {
+        if ( expression == null || action == null ){
+            throw new IllegalArgumentException("The 'expression' and 'action' cannot be null");
+        }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
+        }
+
+        QueryProbe probe = QueryProbe.start("forEachUnsatisfiableInterpretation");
+        return run(probe, context, governor -> forEachWithValue(compile(expression, false, probe, governor), false, action, governor));
+    }
+
+    /**
+     * Returns a lazy stream of cubes covering exactly the interpretations under which an expression is satisfiable.
+     * The cubes are disjoint and leave as don't-cares the variables the result does not depend on, so there are
+     * usually far fewer of them than interpretations. They are read from the binary decision diagram of the expression
+     * @param expression the expression to check
+     * @return disjoint cubes whose interpretations are the {@code i : expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     * @see Cube
+     */
+    public static Stream<Cube> satisfiableCubes(Expression expression) {
+        return satisfiableCubes(expression, SolverContext.unlimited());
+    }
+
+    /**
+     * Returns a lazy stream of cubes covering exactly the interpretations under which an expression is satisfiable,
+     * within the limits of a context counted from this call: the diagram is built now, and every cube read counts
+     * towards them
+     * @param expression the expression to check
+     * @param context the limits of the stream
+     * @return the stream of {@link #satisfiableCubes(Expression)}
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     * @throws LimitReachedException if a limit of {@code context} is reached, now or while the stream is consumed
+     */
+    public static Stream<Cube> satisfiableCubes(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+
+        return start(context, governor -> cubesWithValue(compileLazily(expression, governor), true, governor));
+    }
+
+    /**
+     * Returns a lazy stream of cubes covering exactly the interpretations under which an expression is unsatisfiable
+     * @param expression the expression to check
+     * @return disjoint cubes whose interpretations are the {@code i : not expression.evaluate(i)}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     * @see #satisfiableCubes(Expression)
+     */
+    public static Stream<Cube> unsatisfiableCubes(Expression expression) {
+        return unsatisfiableCubes(expression, SolverContext.unlimited());
+    }
+
+    /**
+     * Returns a lazy stream of cubes covering exactly the interpretations under which an expression is unsatisfiable,
+     * within the limits of a context
+     * @param expression the expression to check
+     * @param context the limits of the stream
+     * @return the stream of {@link #unsatisfiableCubes(Expression)}
+     * @throws IllegalArgumentException if {@code expression} or {@code context} is {@code null}
+     * @throws LimitReachedException if a limit of {@code context} is reached, now or while the stream is consumed
+     * @see #satisfiableCubes(Expression, SolverContext)
+     */
+    public static Stream<Cube> unsatisfiableCubes(Expression expression, SolverContext context) {
+        checkArguments(expression, context);
+
+        return start(context, governor -> cubesWithValue(compileLazily(expression, governor), false, governor));
+    }
+
+    private static Stream<Interpretation> modelsWithValue(CompiledExpression program, boolean value, Governor governor) {
+        return StreamSupport.stream(new ModelSpliterator(program.variableIndex(), ModelCursor.of(program, value, governor)), false);
+    }
+
+    private static long forEachWithValue(CompiledExpression program, boolean value, Predicate<? super Interpretation> action,
+            Governor governor) {
+        ModelCursor cursor = ModelCursor.of(program, value, governor);
+        long[] assignment = new long[InterpretationSpliterator.words(program.variableCount())];
+        Interpretation view = Interpretation.viewOf(program.variableIndex(), assignment);           //the flyweight every result is read through
+        long passed = 0;
+        while ( cursor.next(assignment) ){
+            passed++;
+            if ( !action.test(view) ){
+                break;
+            }
+        }
+        return passed;
+    }
+
+    private static Stream<Cube> cubesWithValue(CompiledExpression program, boolean value, Governor governor) {
+        Iterator<Cube> cubes = diagramOf(program, governor).cubes(value);
+        Iterator<Cube> governed = governor == Governor.NONE ? cubes : new Iterator<Cube>() {
+            @Override
+            public boolean hasNext() {
+                return cubes.hasNext();
+            }
+
+            @Override
+            public Cube next() {
+                try {
+                    governor.charge(0, program.variableCount());                               //a path of the diagram per cube
+                } catch ( Governor.Exceeded e ){
+                    throw new LimitReachedException(e.limit());
+                }
+                return cubes.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(governed, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /* (non-javadoc)
+     * Starts a lazy query under a context, throwing the limit it reaches while starting as the consumer would meet it
+     */
+    private static <T> T start(SolverContext context, Function<Governor, T> query) {
+        try {
+            return query.apply(Governor.of(context));
+        } catch ( Governor.Exceeded e ){
+            throw new LimitReachedException(e.limit());
+        }
+    }
+
+    /* (non-javadoc)
+     * Compiles an expression for a lazy query, which reports no metrics, charging a node to a governor for every step
+     */
+    private static CompiledExpression compileLazily(Expression expression, Governor governor) {
+        return CompiledExpression.compile(expression, () -> governor.charge(0, 1));
+    }
+
+    private static void checkArguments(Expression expression, SolverContext context) {
         if ( expression == null ){
             throw new IllegalArgumentException("The 'expression' cannot be null");
         }
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
+        }
+    }
+
+    /* (non-javadoc)
+     * Returns the first assignment under which a compiled expression evaluates to a given value, or null
+     */
+    private static long[] find(CompiledExpression program, boolean value, Engine engine, QueryProbe probe, Governor governor) {
+        Engine selected = select(engine, program);
+        probe.engine(selected.name(), program.variableCount());
+        if ( selected == Engine.CDCL ){
+            probe.phase(SolverMetrics.Phase.ENCODE);
+            CdclSolver solver = new CdclSolver();
+            solver.govern(governor);
+            boolean consistent = solver.addClauses(CnfEncoder.encode(program, value, false, governor).clauses());
+            probe.phase(SolverMetrics.Phase.SEARCH);
+            boolean found = consistent && solver.solve();
+            probe.searched(solver);
+            return found ? assignmentOf(program, solver) : null;                               //a tautology is refuted by a model of its negation
+        }
+        if ( selected == Engine.BDD ){
+            probe.phase(SolverMetrics.Phase.DIAGRAM);
+            return diagramOf(program, governor).assignment(value);
+        }
+        probe.phase(SolverMetrics.Phase.EVALUATE);
+        if ( selected == Engine.BIT_SLICED ){
+            BitSlicedEngine sliced = new BitSlicedEngine(program);
+            sliced.govern(governor);
+            long assignment = sliced.find(value);
+            long all = 1L << program.variableCount();
+            probe.evaluated(assignment < 0 ? all : Math.min(((assignment >>> 6) + 1) << 6, all), program.length());     //whole blocks are evaluated
+            return assignment < 0 ? null : new long[] { assignment };
+        }
+
+        long[] assignment = new long[InterpretationSpliterator.words(program.variableCount())];
+        long[] scratch = new long[program.scratchSize()];
+        long evaluated = 0;
+        do {
+            evaluated++;
+            governor.charge(1, program.length());
+            if ( program.evaluate(assignment, scratch) == value ){
+                probe.evaluated(evaluated, program.length());
+                return assignment;
+            }
+        } while ( InterpretationSpliterator.increment(assignment, program.variableCount()) );
+        probe.evaluated(evaluated, program.length());
+        return null;
+    }
 
-        Set<Interpretation> interpretations = getAllInterpretations(expression);
+    /* (non-javadoc)
+     * Returns the interpretations under which a compiled expression evaluates to a given value
+     */
+    private static List<Interpretation> interpretationsWithValue(CompiledExpression program, boolean value, Engine engine, QueryProbe probe,
+            Governor governor) {
+        List<Interpretation> result = new ArrayList<>();
+        Engine selected = select(engine, program);
+        probe.engine(selected.name(), program.variableCount());
 
-        Interpretation[] interpretationArray = new Interpretation[interpretations.size()];
-        int index = 0;
-        for ( Interpretation interpretation : interpretations ){
-            interpretationArray[index] = interpretation;
-            index++;
+        if ( selected == Engine.CDCL ){                                                        //every model found is blocked until none is left
+            probe.phase(SolverMetrics.Phase.ENCODE);
+            CdclSolver solver = new CdclSolver();
+            solver.govern(governor);
+            int[] blocking = new int[program.variableCount()];
+            boolean satisfiable = solver.addClauses(CnfEncoder.encode(program, value, false, governor).clauses());
+            probe.phase(SolverMetrics.Phase.SEARCH);
+            while ( satisfiable && solver.solve() ){
+                result.add(toInterpretation(program, assignmentOf(program, solver)));
+                for ( int i = 0 ; i < blocking.length ; i++ ){
+                    blocking[i] = solver.modelValue(i + 1) ? -(i + 1) : i + 1;
+                }
+                satisfiable = solver.addClause(blocking);
+            }
+            probe.searched(solver);
+            return result;
+        }
+        if ( selected == Engine.BDD ){
+            probe.phase(SolverMetrics.Phase.DIAGRAM);
+            Bdd bdd = diagramOf(program, governor);
+            probe.phase(SolverMetrics.Phase.COLLECT);
+            bdd.forEachAssignment(value, assignment -> {
+                governor.charge(1, 0);
+                result.add(toInterpretation(program, assignment));
+            });
+            return result;
+        }
+        probe.phase(SolverMetrics.Phase.EVALUATE);
+        probe.evaluated(program.variableCount() < Long.SIZE - 1 ? 1L << program.variableCount() : Long.MAX_VALUE, program.length());
+        if ( selected == Engine.BIT_SLICED ){
+            BitSlicedEngine sliced = new BitSlicedEngine(program);
+            sliced.govern(governor);
+            sliced.forEach(value, assignment -> result.add(toInterpretation(program, new long[] { assignment })));
+            return result;
         }
 
-        List<Interpretation> unSatisfiableInterpretations = new ArrayList<>();
+        long[] assignment = new long[InterpretationSpliterator.words(program.variableCount())];
+        long[] scratch = new long[program.scratchSize()];
+        do {
+            governor.charge(1, program.length());
+            if ( program.evaluate(assignment, scratch) == value ){
+                result.add(toInterpretation(program, assignment));
+            }
+        } while ( InterpretationSpliterator.increment(assignment, program.variableCount()) );
 
-        for ( int i = 0 ; i < interpretationArray.length ; i++ ){
-            if ( !expression.evaluate(interpretationArray[i]) ){
-                unSatisfiableInterpretations.add(interpretationArray[i]);
+        return result;
+    }
+
+    /* (non-javadoc)
+     * Answers a query under the governor of a context, turning a limit reached into an unknown outcome. The query is
+     * given the governor for every phase, simplifying, compiling and encoding as well as searching, so any of them can stop it.
+     * The probe is ended however the query ends, an exception thrown through it being recorded as an error
+     */
+    private static <T> Outcome<T> run(QueryProbe probe, SolverContext context, Function<Governor, T> query) {
+        Object outcome = null;
+        try {
+            T result = query.apply(Governor.of(context));
+            outcome = result;
+            return Outcome.known(result);
+        } catch ( Governor.Exceeded e ){
+            outcome = "UNKNOWN (" + e.limit() + ")";
+            return Outcome.unknown(e.limit());
+        } catch ( RuntimeException | Error e ){
+            outcome = "ERROR (" + e.getClass().getSimpleName() + ")";
+            throw e;
+        } finally {
+            probe.end(outcome);
+        }
+    }
+
+    /* (non-javadoc)
+     * Compiles an expression for a query, simplified first if asked to, charging a node to a governor for every step
+     */
+    private static CompiledExpression compile(Expression expression, boolean simplify, QueryProbe probe, Governor governor) {
+        Runnable checkpoint = () -> governor.charge(0, 1);
+        Expression input = expression;
+        if ( simplify ){
+            probe.phase(SolverMetrics.Phase.SIMPLIFY);
+            input = Expression.simplify(expression, checkpoint);
+        }
+        probe.phase(SolverMetrics.Phase.COMPILE);
+        return CompiledExpression.compile(input, checkpoint);
+    }
+
+    /* (non-javadoc)
+     * Chooses the engine for a query: small expressions are checked exhaustively with the bit-sliced engine,
+     * larger ones are searched with the clause-learning engine
+     */
+    private static Engine select(Engine engine, CompiledExpression program) {
+        if ( engine == Engine.AUTO ){
+            return program.variableCount() <= EXHAUSTIVE_LIMIT ? Engine.BIT_SLICED : Engine.CDCL;
+        }
+        if ( engine == Engine.BIT_SLICED && program.variableCount() > MAX_SLICED_VARIABLES ){
+            return Engine.ENUMERATION;
+        }
+        return engine;
+    }
+
+    /* (non-javadoc)
+     * Builds the diagram of a compiled expression in a manager of its own, sifting its variables as it grows
+     */
+    private static Bdd diagramOf(CompiledExpression program, Governor governor) {
+        BddManager manager = new BddManager();
+        manager.setAutoReorder(true);
+        manager.govern(governor);
+        return manager.compile(program);
+    }
+
+    /* (non-javadoc)
+     * Reads the assignment of the variable slots of a compiled expression from the model of its encoding
+     */
+    private static long[] assignmentOf(CompiledExpression program, CdclSolver solver) {
+        long[] assignment = new long[InterpretationSpliterator.words(program.variableCount())];
+        for ( int i = 0 ; i < program.variableCount() ; i++ ){
+            if ( solver.modelValue(i + 1) ){
+                assignment[i >>> 6] |= 1L << i;
             }
         }
+        return assignment;
+    }
 
-        return unSatisfiableInterpretations;
+    /* (non-javadoc)
+     * Builds the interpretation for the assignment whose bit i is the value of the variable at slot i
+     */
+    private static Interpretation toInterpretation(CompiledExpression program, long[] assignment) {
+        return new Interpretation(program.variableIndex(), assignment);
+    }
+
+    /* (non-javadoc)
+     * Builds the interpretation of all the variables of an expression from an assignment of the variable slots
+     * of its simplified program, the variables simplified away being false
+     */
+    private static Interpretation widen(Expression expression, CompiledExpression program, long[] assignment) {
+        if ( expression.variables().size() == program.variableCount() ){
+            return toInterpretation(program, assignment);
+        }
+        VariableIndex variables = VariableIndex.of(new ArrayList<>(new TreeSet<>(expression.variables())));
+        long[] widened = new long[InterpretationSpliterator.words(variables.size())];
+        for ( int i = 0 ; i < program.variableCount() ; i++ ){
+            if ( (assignment[i >>> 6] & (1L << i)) != 0 ){
+                int position = variables.indexOf(program.variableIndex().name(i));
+                widened[position >>> 6] |= 1L << position;
+            }
+        }
+        return new Interpretation(variables, widened);
     }
 
     /**
@@ -179,57 +1050,35 @@ public class SatSolver {
     }
 
     /**
-     * Returns all possible interpretations for a particular expression
+     * Returns a lazy stream of all possible interpretations for a particular expression.
+     * Interpretations are built on demand, in increasing order of their assignment, so
+     * consumers can stop early without the whole set of interpretations ever existing.
      * @param expression the expression to use
      * @return all possible interpretations for {@code expression}
+     * @throws IllegalArgumentException if {@code expression} is {@code null}
+     * @see InterpretationSpliterator
      */
-    public static Set<Interpretation> getAllInterpretations(Expression expression) {
+    public static Stream<Interpretation> interpretations(Expression expression) {
         if ( expression == null ){
             throw new IllegalArgumentException("The 'expression' cannot be null");
         }
 
-        Set<String> variables = getAllVariables(expression);
-        Set<Interpretation> interpretations = new HashSet<>();
-
-        //First, I want to get all the variables
-
-        int variableNumber = getAllVariables(expression).size();
-        String[] variableArray = new String[variableNumber];
-
-        int index = 0;
-        for ( String var : variables ){
-            variableArray[index] = var;
-            index++;
-        }
-
-        //Then, I want to get all the possibilities(TFvalues) for the variables
-
-        int possibilitiesNumber = 1;
-        for ( int i = 0 ; i < variableNumber ; i++ ){
-            possibilitiesNumber = possibilitiesNumber*2;                         // *2 is because we have TRUE and FALSE  two situations
-        }
-
-        /*
-         * Now, I want to use the binary system to stand for the possibilities
-         * True is 1, False is 0
-         * every variable will take one bit
-         * form the bitset
-         */
-
-         for ( int i = 0 ; i < possibilitiesNumber ; i++ ){
-            BitSet bitSet = new BitSet(variableNumber);
+        List<String> variables = new ArrayList<>(new TreeSet<>(getAllVariables(expression)));
+        return StreamSupport.stream(new InterpretationSpliterator(variables), false);
+    }
 
-            for ( int j = 0 ; j < variableNumber ; j++ ){
-                if ( (i & ( 1<< j)) != 0){
-                    bitSet.set(j);
-                }
-            }
-        
-        Interpretation interpretation = new Interpretation(Arrays.asList(variableArray), bitSet);
-        interpretations.add(interpretation);
+    /**
+     * Returns all possible interpretations for a particular expression.
+     * This builds every interpretation up front, prefer {@link #interpretations(Expression)} to consume them lazily.
+     * @param expression the expression to use
+     * @return all possible interpretations for {@code expression}
+     */
+    public static Set<Interpretation> getAllInterpretations(Expression expression) {
+        if ( expression == null ){
+            throw new IllegalArgumentException("The 'expression' cannot be null");
         }
 
-        return interpretations;
+        return interpretations(expression).collect(Collectors.toCollection(HashSet::new));
     }
     
 }
@@ -0,0 +1,293 @@
+package expressions;
+
+import expressions.BinaryExpression.BinaryOperator;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites expressions into simplified negation normal form, to a fixpoint.
+ * Negations are pushed down to the variables, so the result only has variables, negated variables,
+ * n-ary conjunctions and disjunctions, and equivalences and exclusive disjunctions, which absorb a negation
+ * by swapping into each other instead of duplicating their operands. On the way up, every node is simplified:
+ * <ul>
+ * <li>constants are propagated: neutral operands are dropped and absorbing ones decide the node</li>
+ * <li>idempotence: repeated operands are kept once, and chains of the same operator are flattened</li>
+ * <li>complements: {@code x and not x} is {@code false}, {@code x or not x} is {@code true}</li>
+ * <li>absorption: {@code x and (x or y)} is {@code x}, and {@code x and (not x or y)} is {@code x and y}; dually for or</li>
+ * </ul>
+ * The operands of conjunctions and disjunctions are sorted by hash, so hash-consing also shares the nodes
+ * that only differ in the order of their operands. Every node is rewritten once per polarity and pass.
+ * @version 0.1
+ */
+final class Simplifier {
+
+    private static final Comparator<Expression> BY_HASH = Comparator.comparingInt(Expression::hashCode);
+
+    private final ExpressionFactory factory = ExpressionFactory.getInstance();
+    private final Map<Expression, Expression> positive = new IdentityHashMap<>();
+    private final Map<Expression, Expression> negative = new IdentityHashMap<>();
+    private final Runnable checkpoint;
+
+    private Simplifier(Runnable checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    /* (non-javadoc)
+     * @return the simplified negation normal form of an expression, rewritten until it no longer changes;
+     * 'checkpoint' is run for every node visited, and can stop the rewriting by throwing
+     */
+    static Expression simplify(Expression expression, Runnable checkpoint) {
+        Simplifier simplifier = new Simplifier(checkpoint);
+        Expression current = NaryExpression.flatten(expression);                               //so a long chain is not spliced again at every link
+        while ( true ){
+            Expression next = simplifier.rewrite(current, true);
+            if ( next == current ){
+                return current;
+            }
+            current = next;
+        }
+    }
+
+    /* (non-javadoc)
+     * Rewrites an expression, or its negation if 'polarity' is false, without recursion:
+     * a node is only rebuilt once all the children it needs are rewritten
+     */
+    private Expression rewrite(Expression expression, boolean polarity) {
+        Deque<Expression> nodes = new ArrayDeque<>();
+        Deque<Boolean> polarities = new ArrayDeque<>();
+        nodes.push(expression);
+        polarities.push(polarity);
+        while ( !nodes.isEmpty() ){
+            checkpoint.run();
+            Expression node = nodes.peek();
+            boolean sign = polarities.peek();
+            Map<Expression, Expression> memo = sign ? positive : negative;
+            if ( memo.containsKey(node) ){
+                nodes.pop();
+                polarities.pop();
+                continue;
+            }
+
+            //First, I make sure the children are rewritten with the polarities this node gives them
+
+            List<Expression> children = childrenOf(node);
+            boolean ready = true;
+            for ( int i = 0 ; i < children.size() ; i++ ){
+                boolean childSign = childPolarity(node, i, sign);
+                if ( !(childSign ? positive : negative).containsKey(children.get(i)) ){
+                    nodes.push(children.get(i));
+                    polarities.push(childSign);
+                    ready = false;
+                }
+            }
+            if ( !ready ){
+                continue;
+            }
+
+            //Then, I rebuild it from them
+
+            List<Expression> rewritten = new ArrayList<>(children.size());
+            for ( int i = 0 ; i < children.size() ; i++ ){
+                rewritten.add((childPolarity(node, i, sign) ? positive : negative).get(children.get(i)));
+            }
+            memo.put(node, rebuild(node, sign, rewritten));
+            nodes.pop();
+            polarities.pop();
+        }
+        return (polarity ? positive : negative).get(expression);
+    }
+
+    private static List<Expression> childrenOf(Expression expression) {
+        List<Expression> children = new ArrayList<>();
+        if ( expression instanceof Negation ){
+            children.add(((Negation) expression).operand());
+        } else if ( expression instanceof BinaryExpression ){
+            children.add(((BinaryExpression) expression).left());
+            children.add(((BinaryExpression) expression).right());
+        } else if ( expression instanceof NaryExpression ){
+            NaryExpression nary = (NaryExpression) expression;
+            for ( int i = 0 ; i < nary.arity() ; i++ ){
+                children.add(nary.operand(i));
+            }
+        }
+        return children;
+    }
+
+    /* (non-javadoc)
+     * @return the polarity the child at a given position of a node is rewritten with, when the node is rewritten with 'sign'
+     */
+    private static boolean childPolarity(Expression node, int position, boolean sign) {
+        if ( node instanceof Negation ){
+            return !sign;
+        }
+        if ( node instanceof BinaryExpression ){
+            switch ( ((BinaryExpression) node).operator() ){
+                case NAND:
+                case NOR:
+                    return !sign;
+                case IMPLIES:
+                    return position == 0 ? !sign : sign;
+                case IFF:
+                case XOR:
+                    return true;                                                               //a negation swaps the operator instead
+                default:
+                    return sign;
+            }
+        }
+        return sign;
+    }
+
+    /* (non-javadoc)
+     * @return the simplified form of a node, or of its negation if 'sign' is false, from its rewritten children
+     */
+    private Expression rebuild(Expression node, boolean sign, List<Expression> children) {
+        if ( node instanceof Variable ){
+            return sign ? node : factory.negation(node);
+        }
+        if ( node instanceof Constant ){
+            return factory.constant(((Constant) node).value() == sign);
+        }
+        if ( node instanceof Negation ){
+            return children.get(0);
+        }
+        if ( node instanceof NaryExpression ){
+            boolean and = ((NaryExpression) node).operator() == BinaryOperator.AND;
+            return junction(and == sign, children);
+        }
+        if ( node instanceof BinaryExpression ){
+            switch ( ((BinaryExpression) node).operator() ){
+                case AND:
+                    return junction(sign, children);
+                case OR:
+                    return junction(!sign, children);
+                case NAND:                                                                     //not (a and b) is not a or not b
+                    return junction(!sign, children);
+                case NOR:
+                    return junction(sign, children);
+                case IMPLIES:                                                                  //a implies b is not a or b
+                    return junction(!sign, children);
+                case IFF:
+                    return parity(!sign, children.get(0), children.get(1));
+                default:
+                    return parity(sign, children.get(0), children.get(1));
+            }
+        }
+        return node;                                                                           //an expression of another package is kept as it is
+    }
+
+    /* (non-javadoc)
+     * @return the simplified conjunction, or disjunction if 'and' is false, of simplified operands
+     */
+    private Expression junction(boolean and, List<Expression> operands) {
+        BinaryOperator op = and ? BinaryOperator.AND : BinaryOperator.OR;
+        BinaryOperator dual = and ? BinaryOperator.OR : BinaryOperator.AND;
+        Expression absorbing = factory.constant(!and);
+        Expression neutral = factory.constant(and);
+
+        //First, I splice nested junctions of the same operator, dropping neutral and repeated operands
+
+        List<Expression> flat = new ArrayList<>();
+        Set<Expression> present = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Expression> pending = new ArrayDeque<>();
+        for ( int i = operands.size() - 1 ; i >= 0 ; i-- ){
+            pending.push(operands.get(i));
+        }
+        while ( !pending.isEmpty() ){
+            Expression operand = pending.pop();
+            if ( operand == absorbing ){
+                return absorbing;
+            }
+            if ( operand instanceof NaryExpression && ((NaryExpression) operand).operator() == op ){
+                NaryExpression nary = (NaryExpression) operand;
+                for ( int i = nary.arity() - 1 ; i >= 0 ; i-- ){
+                    pending.push(nary.operand(i));
+                }
+            } else if ( operand != neutral && present.add(operand) ){
+                flat.add(operand);
+            }
+        }
+
+        //Then, I look for complementary literals
+
+        for ( Expression operand : flat ){
+            Expression complement = complementOf(operand);
+            if ( complement != null && present.contains(complement) ){
+                return absorbing;
+            }
+        }
+
+        //Finally, I absorb the dual junctions sharing an operand, and drop from them the complements of the operands
+
+        List<Expression> kept = new ArrayList<>(flat.size());
+        for ( Expression operand : flat ){
+            if ( !(operand instanceof NaryExpression) || ((NaryExpression) operand).operator() != dual ){
+                kept.add(operand);
+                continue;
+            }
+            NaryExpression nary = (NaryExpression) operand;
+            List<Expression> remaining = new ArrayList<>(nary.arity());
+            boolean absorbed = false;
+            for ( int i = 0 ; i < nary.arity() && !absorbed ; i++ ){
+                Expression inner = nary.operand(i);
+                Expression complement = complementOf(inner);
+                if ( present.contains(inner) ){
+                    absorbed = true;                                                           //x and (x or y) is x
+                } else if ( complement == null || !present.contains(complement) ){
+                    remaining.add(inner);                                                      //x and (not x or y) is x and y
+                }
+            }
+            if ( absorbed ){
+                continue;
+            }
+            if ( remaining.isEmpty() ){
+                return absorbing;
+            }
+            kept.add(remaining.size() == nary.arity() ? operand : factory.join(remaining.toArray(new Expression[0]), dual));
+        }
+        kept.sort(BY_HASH);
+        return factory.join(kept.toArray(new Expression[0]), op);
+    }
+
+    /* (non-javadoc)
+     * @return the simplified exclusive disjunction, or equivalence if 'xor' is false, of two simplified operands
+     */
+    private Expression parity(boolean xor, Expression left, Expression right) {
+        if ( left instanceof Constant || right instanceof Constant ){
+            Constant constant = (Constant) (left instanceof Constant ? left : right);
+            Expression other = left instanceof Constant ? right : left;
+            return constant.value() == xor ? rewrite(other, false) : other;                    //true xor b is not b, true iff b is b
+        }
+        if ( left == right ){
+            return factory.constant(!xor);
+        }
+        if ( complementOf(left) == right ){
+            return factory.constant(xor);
+        }
+        if ( BY_HASH.compare(right, left) < 0 ){
+            Expression swap = left;
+            left = right;
+            right = swap;
+        }
+        return factory.binary(left, right, xor ? BinaryOperator.XOR : BinaryOperator.IFF);
+    }
+
+    /* (non-javadoc)
+     * @return the complement of a literal, or null if the expression is not a literal
+     */
+    private Expression complementOf(Expression expression) {
+        if ( expression instanceof Variable ){
+            return factory.negation(expression);
+        }
+        if ( expression instanceof Negation && ((Negation) expression).operand() instanceof Variable ){
+            return ((Negation) expression).operand();
+        }
+        return null;
+    }
+}
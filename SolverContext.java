@@ -0,0 +1,222 @@
+package solver;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Represents the limits a query of {@link SatSolver} runs under: a deadline, a cancellation token, caps on the
+ * assignments and nodes it visits, and a budget of memory. A query that reaches a limit stops at its next
+ * checkpoint and returns an unknown {@link Outcome} naming the limit, instead of running on.
+ * <p>
+ * What a query visits depends on its engine: the enumerating engines visit assignments, and evaluate the nodes of the
+ * compiled expression under each of them; the clause-learning engine visits a node for every literal it propagates;
+ * the decision diagrams visit a node for every node they create. Before any engine, simplifying and compiling the
+ * expression visit a node for every step, and encoding it into clauses one for every instruction, so a query can
+ * also stop in those phases. The budget of memory is on the bytes the thread of the query allocates while answering it,
+ * as measured by the virtual machine, and is ignored where it cannot measure them.
+ * An interrupted thread stops its query as a cancelled one does, and keeps its interrupt status.
+ * <p>
+ * Contexts are immutable: every {@code with} method returns a new context. The deadline of
+ * {@link #withTimeout(Duration)} counts from the call, so a context with a timeout is meant for a single request.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * 'maxAssignments', 'maxNodes' and 'memoryBudget' are positive, Long.MAX_VALUE meaning no cap
+ * 'deadline' is meaningful iff 'hasDeadline'
+ */
+public final class SolverContext {
+
+    /**
+     * The limits a query can reach
+     */
+    public enum Limit {
+        /**
+         * The deadline passed
+         */
+        DEADLINE,
+        /**
+         * The token was cancelled or the thread interrupted
+         */
+        CANCELLED,
+        /**
+         * Too many assignments were visited
+         */
+        ASSIGNMENTS,
+        /**
+         * Too many nodes were visited
+         */
+        NODES,
+        /**
+         * Too many bytes were allocated
+         */
+        MEMORY,
+    }
+
+    /* (non-javadoc)
+     * The longest timeout kept, so the deadline can always be compared by the difference of the times
+     */
+    private static final Duration MAX_TIMEOUT = Duration.ofNanos(Long.MAX_VALUE >>> 1);
+
+    private static final SolverContext UNLIMITED = new SolverContext(false, 0, null, Long.MAX_VALUE, Long.MAX_VALUE, Long.MAX_VALUE);
+
+    private final boolean hasDeadline;
+    private final long deadline;                                                               //in the time of System.nanoTime
+    private final CancellationToken token;
+    private final long maxAssignments;
+    private final long maxNodes;
+    private final long memoryBudget;
+
+    private SolverContext(boolean hasDeadline, long deadline, CancellationToken token, long maxAssignments, long maxNodes, long memoryBudget) {
+        this.hasDeadline = hasDeadline;
+        this.deadline = deadline;
+        this.token = token;
+        this.maxAssignments = maxAssignments;
+        this.maxNodes = maxNodes;
+        this.memoryBudget = memoryBudget;
+    }
+
+    /**
+     * @return the context without any limit, under which a query always runs to its answer
+     */
+    public static SolverContext unlimited() {
+        return UNLIMITED;
+    }
+
+    /**
+     * @param timeout the time the query can take from now
+     * @return this context, with a deadline {@code timeout} from now
+     * @throws IllegalArgumentException if {@code timeout} is {@code null} or negative
+     */
+    public SolverContext withTimeout(Duration timeout) {
+        if ( timeout == null || timeout.isNegative() ){
+            throw new IllegalArgumentException("The 'timeout' cannot be null or negative");
+        }
+        long nanos = timeout.compareTo(MAX_TIMEOUT) >= 0 ? MAX_TIMEOUT.toNanos() : timeout.toNanos();
+        return new SolverContext(true, System.nanoTime() + nanos, token, maxAssignments, maxNodes, memoryBudget);
+    }
+
+    /**
+     * @param deadline the instant the query must be answered by
+     * @return this context, with {@code deadline} as its deadline
+     * @throws IllegalArgumentException if {@code deadline} is {@code null}
+     */
+    public SolverContext withDeadline(Instant deadline) {
+        if ( deadline == null ){
+            throw new IllegalArgumentException("The 'deadline' cannot be null");
+        }
+        Duration left = Duration.between(Instant.now(), deadline);
+        return withTimeout(left.isNegative() ? Duration.ZERO : left);
+    }
+
+    /**
+     * @param token the token that cancels the query
+     * @return this context, cancelled by {@code token}
+     * @throws IllegalArgumentException if {@code token} is {@code null}
+     */
+    public SolverContext withCancellation(CancellationToken token) {
+        if ( token == null ){
+            throw new IllegalArgumentException("The 'token' cannot be null");
+        }
+        return new SolverContext(hasDeadline, deadline, token, maxAssignments, maxNodes, memoryBudget);
+    }
+
+    /**
+     * @param maxAssignments the number of assignments the query can visit
+     * @return this context, with {@code maxAssignments} as its cap on assignments
+     * @throws IllegalArgumentException if {@code maxAssignments} is not positive
+     */
+    public SolverContext withMaxAssignments(long maxAssignments) {
+        if ( maxAssignments <= 0 ){
+            throw new IllegalArgumentException("The 'maxAssignments' must be positive");
+        }
+        return new SolverContext(hasDeadline, deadline, token, maxAssignments, maxNodes, memoryBudget);
+    }
+
+    /**
+     * @param maxNodes the number of nodes the query can visit
+     * @return this context, with {@code maxNodes} as its cap on nodes
+     * @throws IllegalArgumentException if {@code maxNodes} is not positive
+     */
+    public SolverContext withMaxNodes(long maxNodes) {
+        if ( maxNodes <= 0 ){
+            throw new IllegalArgumentException("The 'maxNodes' must be positive");
+        }
+        return new SolverContext(hasDeadline, deadline, token, maxAssignments, maxNodes, memoryBudget);
+    }
+
+    /**
+     * @param bytes the number of bytes the query can allocate
+     * @return this context, with {@code bytes} as its budget of memory
+     * @throws IllegalArgumentException if {@code bytes} is not positive
+     */
+    public SolverContext withMemoryBudget(long bytes) {
+        if ( bytes <= 0 ){
+            throw new IllegalArgumentException("The 'bytes' must be positive");
+        }
+        return new SolverContext(hasDeadline, deadline, token, maxAssignments, maxNodes, bytes);
+    }
+
+    /**
+     * @return {@code true} iff this context sets no limit
+     */
+    public boolean isUnlimited() {
+        return !hasDeadline && token == null && maxAssignments == Long.MAX_VALUE && maxNodes == Long.MAX_VALUE
+                && memoryBudget == Long.MAX_VALUE;
+    }
+
+    /**
+     * @return the time left until the deadline, zero once it passed, or nothing if there is no deadline
+     */
+    public Optional<Duration> remaining() {
+        if ( !hasDeadline ){
+            return Optional.empty();
+        }
+        return Optional.of(Duration.ofNanos(Math.max(0, deadline - System.nanoTime())));
+    }
+
+    /* (non-javadoc)
+     * @return the limit of time, cancellation or memory this context is past, given the bytes allocated so far, or null
+     */
+    Limit reached(long allocated) {
+        if ( token != null && token.isCancelled() || Thread.currentThread().isInterrupted() ){
+            return Limit.CANCELLED;
+        }
+        if ( hasDeadline && System.nanoTime() - deadline >= 0 ){
+            return Limit.DEADLINE;
+        }
+        if ( allocated > memoryBudget ){
+            return Limit.MEMORY;
+        }
+        return null;
+    }
+
+    /* (non-javadoc)
+     * @return true iff this context has a budget of memory
+     */
+    boolean hasMemoryBudget() {
+        return memoryBudget != Long.MAX_VALUE;
+    }
+
+    /* (non-javadoc)
+     * @return the cap on assignments, Long.MAX_VALUE if there is none
+     */
+    long maxAssignments() {
+        return maxAssignments;
+    }
+
+    /* (non-javadoc)
+     * @return the cap on nodes, Long.MAX_VALUE if there is none
+     */
+    long maxNodes() {
+        return maxNodes;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return maxAssignments > 0 && maxNodes > 0 && memoryBudget > 0 && (hasDeadline || deadline == 0);
+    }
+}
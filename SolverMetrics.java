@@ -0,0 +1,282 @@
+package solver;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Measures the queries of {@link SatSolver}: how many interpretations and nodes their engines evaluated,
+ * how many decisions, propagations and conflicts their searches took, and the wall time and the bytes
+ * allocated by each of their phases (see {@link Phase}).
+ * <p>
+ * Every query is published as a {@code solver.Query} event of Java Flight Recorder, and each of its phases as a
+ * {@code solver.Phase} event; the counts of all queries are aggregated here and published as the MXBean
+ * {@code solver:type=SolverMetrics}. The metrics are off unless the system property {@code solver.metrics} is
+ * {@code true} or they are enabled through {@link #setEnabled(boolean)}, which also publishes the MXBean.
+ * While they are off, a query only reads a flag once, and nothing is measured while expressions are evaluated:
+ * the counts are derived from what the engines report when they are done.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * every adder of 'phaseNanos' and 'phaseBytes' belongs to the phase of the same ordinal
+ */
+public final class SolverMetrics implements SolverMetricsMXBean {
+
+    /**
+     * The name the MXBean is published under
+     */
+    public static final String OBJECT_NAME = "solver:type=SolverMetrics";
+
+    /**
+     * The phases a query goes through, each measured on its own
+     */
+    public enum Phase {
+        /**
+         * Rewriting the expression into its simplified negation normal form
+         */
+        SIMPLIFY,
+        /**
+         * Compiling the expression into a program
+         */
+        COMPILE,
+        /**
+         * Encoding the program into clauses
+         */
+        ENCODE,
+        /**
+         * Searching for an assignment with the clause-learning solver
+         */
+        SEARCH,
+        /**
+         * Evaluating the program under assignments, one or 64 at a time
+         */
+        EVALUATE,
+        /**
+         * Building binary decision diagrams
+         */
+        DIAGRAM,
+        /**
+         * Counting the models of clauses
+         */
+        COUNT,
+        /**
+         * Building the interpretations returned
+         */
+        COLLECT,
+    }
+
+    private static final SolverMetrics INSTANCE = new SolverMetrics();
+    private static volatile boolean enabled;
+    private static boolean published;
+
+    private final LongAdder queries = new LongAdder();
+    private final Map<String, LongAdder> kinds = new ConcurrentHashMap<>();
+    private final LongAdder interpretations = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private final LongAdder decisions = new LongAdder();
+    private final LongAdder propagations = new LongAdder();
+    private final LongAdder conflicts = new LongAdder();
+    private final LongAdder nanos = new LongAdder();
+    private final LongAdder[] phaseNanos = adders();
+    private final LongAdder[] phaseBytes = adders();
+
+    static {
+        if ( Boolean.getBoolean("solver.metrics") ){
+            INSTANCE.setEnabled(true);
+        }
+    }
+
+    private SolverMetrics() {
+    }
+
+    /**
+     * @return the metrics of the queries of this virtual machine
+     */
+    public static SolverMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts or stops measuring the queries, publishing the MXBean the first time they are started
+     * @param enabled {@code true} to measure the queries
+     */
+    @Override
+    public void setEnabled(boolean enabled) {
+        if ( enabled ){
+            publish();
+        }
+        SolverMetrics.enabled = enabled;
+    }
+
+    @Override
+    public long getQueries() {
+        return queries.sum();
+    }
+
+    @Override
+    public Map<String, Long> getQueriesByKind() {
+        Map<String, Long> result = new TreeMap<>();
+        kinds.forEach((kind, count) -> result.put(kind, count.sum()));
+        return result;
+    }
+
+    @Override
+    public long getInterpretations() {
+        return interpretations.sum();
+    }
+
+    @Override
+    public long getNodes() {
+        return nodes.sum();
+    }
+
+    @Override
+    public long getDecisions() {
+        return decisions.sum();
+    }
+
+    @Override
+    public long getPropagations() {
+        return propagations.sum();
+    }
+
+    @Override
+    public long getConflicts() {
+        return conflicts.sum();
+    }
+
+    @Override
+    public long getNanos() {
+        return nanos.sum();
+    }
+
+    @Override
+    public Map<String, Long> getPhaseNanos() {
+        return byPhase(phaseNanos);
+    }
+
+    @Override
+    public Map<String, Long> getPhaseAllocatedBytes() {
+        return allocatedBytes() < 0 ? Map.of() : byPhase(phaseBytes);
+    }
+
+    @Override
+    public void reset() {
+        queries.reset();
+        kinds.clear();
+        interpretations.reset();
+        nodes.reset();
+        decisions.reset();
+        propagations.reset();
+        conflicts.reset();
+        nanos.reset();
+        for ( Phase phase : Phase.values() ){
+            phaseNanos[phase.ordinal()].reset();
+            phaseBytes[phase.ordinal()].reset();
+        }
+    }
+
+    /* (non-javadoc)
+     * @return true iff the queries are being measured; the only cost of a query while they are not
+     */
+    static boolean on() {
+        return enabled;
+    }
+
+    /* (non-javadoc)
+     * @return the bytes allocated by the current thread so far, or -1 if the virtual machine does not measure them
+     */
+    static long allocatedBytes() {
+        ThreadMXBean threads = Threads.BEAN;
+        if ( threads instanceof com.sun.management.ThreadMXBean ){
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            if ( allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled() ){
+                return allocations.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+
+    /* (non-javadoc)
+     * Adds the wall time and the bytes allocated by a phase of a query
+     */
+    void recordPhase(Phase phase, long elapsed, long allocated) {
+        phaseNanos[phase.ordinal()].add(elapsed);
+        if ( allocated > 0 ){
+            phaseBytes[phase.ordinal()].add(allocated);
+        }
+    }
+
+    /* (non-javadoc)
+     * Adds the counts of a finished query
+     */
+    void recordQuery(String kind, long elapsed, long interpretations, long nodes, long decisions, long propagations, long conflicts) {
+        this.queries.increment();
+        this.kinds.computeIfAbsent(kind, k -> new LongAdder()).increment();
+        this.nanos.add(elapsed);
+        this.interpretations.add(interpretations);
+        this.nodes.add(nodes);
+        this.decisions.add(decisions);
+        this.propagations.add(propagations);
+        this.conflicts.add(conflicts);
+    }
+
+    private static synchronized void publish() {
+        if ( published ){
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if ( !server.isRegistered(name) ){
+                server.registerMBean(INSTANCE, name);
+            }
+            published = true;
+        } catch ( JMException e ){
+            throw new IllegalStateException("The metrics could not be published as " + OBJECT_NAME, e);
+        }
+    }
+
+    /* (non-javadoc)
+     * Holds the bean of the threads, so the management classes are only loaded once a query is measured
+     */
+    private static final class Threads {
+        static final ThreadMXBean BEAN = ManagementFactory.getThreadMXBean();
+    }
+
+    private static LongAdder[] adders() {
+        LongAdder[] adders = new LongAdder[Phase.values().length];
+        for ( int i = 0 ; i < adders.length ; i++ ){
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    private static Map<String, Long> byPhase(LongAdder[] adders) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        for ( Phase phase : Phase.values() ){
+            result.put(phase.name(), adders[phase.ordinal()].sum());
+        }
+        return result;
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return phaseNanos.length == Phase.values().length && phaseBytes.length == Phase.values().length;
+    }
+}
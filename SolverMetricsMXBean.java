@@ -0,0 +1,77 @@
+package solver;
+
+import java.util.Map;
+
+/**
+ * The management interface of {@link SolverMetrics}, published as {@code solver:type=SolverMetrics}.
+ * Every count is aggregated over the queries answered while the metrics were enabled, since the last reset.
+ * @version 0.1
+ */
+public interface SolverMetricsMXBean {
+
+    /**
+     * @return {@code true} iff the queries are being measured
+     */
+    public boolean isEnabled();
+
+    /**
+     * Starts or stops measuring the queries; the counts gathered so far are kept
+     * @param enabled {@code true} to measure the queries
+     */
+    public void setEnabled(boolean enabled);
+
+    /**
+     * @return the number of queries measured
+     */
+    public long getQueries();
+
+    /**
+     * @return the number of queries measured, per kind of query
+     */
+    public Map<String, Long> getQueriesByKind();
+
+    /**
+     * @return the number of interpretations the engines evaluated the expressions under
+     */
+    public long getInterpretations();
+
+    /**
+     * @return the number of nodes of compiled expressions evaluated, once per node and interpretation
+     */
+    public long getNodes();
+
+    /**
+     * @return the number of decisions taken by the clause-learning searches
+     */
+    public long getDecisions();
+
+    /**
+     * @return the number of literals propagated by the clause-learning searches
+     */
+    public long getPropagations();
+
+    /**
+     * @return the number of conflicts met by the clause-learning searches
+     */
+    public long getConflicts();
+
+    /**
+     * @return the wall time of the queries, in nanoseconds
+     */
+    public long getNanos();
+
+    /**
+     * @return the wall time spent in every phase of the queries, in nanoseconds
+     */
+    public Map<String, Long> getPhaseNanos();
+
+    /**
+     * @return the bytes allocated in every phase of the queries, or nothing if the virtual machine does not measure them
+     */
+    public Map<String, Long> getPhaseAllocatedBytes();
+
+    /**
+     * Clears every count
+     */
+    public void reset();
+}
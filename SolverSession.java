@@ -0,0 +1,354 @@
+package solver;
+
+import expressions.CompiledExpression;
+import expressions.Expression;
+import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Represents a session of related questions about a base expression, answered by a single clause-learning solver.
+ * The base expression is encoded once; every question then only adds what it mentions for the first time, and
+ * the clauses learned by one question speed up the next ones. A question can assume some expressions true for
+ * itself only (see {@link #solve(Expression...)}), and constraints can be added inside levels that are pushed and
+ * popped (see {@link #push()}): every level has a selector variable, assumed by every question while the level is
+ * open and fixed false when it is popped, which retires its constraints but keeps everything learned.
+ * <p>
+ * Every expression is encoded with its gates constrained in both directions, so the same clauses serve it
+ * assumed true or false, and it is encoded only once however many questions mention it; the sub-expressions it
+ * shares with expressions encoded before reuse their gates instead of getting new ones.
+ * <p>
+ * A question can be bounded by a {@link SolverContext}: only its search is then counted towards the limits, and a
+ * question stopped by one leaves the session as it was, with what was learned until then, ready for the next one.
+ * A session is not thread-safe.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'solver', 'variables', 'names', 'literals' and 'selectors' cannot be null
+ * 'variables' maps every name of 'names', in order of creation, to its variable in 'solver'
+ * every literal of 'literals' follows its expression under every model of 'solver', by clauses never retracted
+ * every gate of 'gates' follows its operands both ways in 'solver', by clauses never retracted
+ * 'base' is the literal of the base expression
+ * 'selectors' has the selector variable of every level pushed and not popped, innermost last
+ * 'model' is null unless the last question was satisfiable and nothing was added since
+ */
+public final class SolverSession {
+
+    private final CdclSolver solver = new CdclSolver();
+    private final Map<String, Integer> variables = new HashMap<>();
+    private final List<String> names = new ArrayList<>();
+    private final Map<Expression, Integer> literals = new HashMap<>();
+    private final List<Integer> selectors = new ArrayList<>();
+    private final CnfEncoder.GateTable gates = new CnfEncoder.GateTable();
+    private final int base;
+
+    private long[] model;
+    private VariableIndex index;
+    private List<Expression> failed = new ArrayList<>();
+
+    /**
+     * Constructs a new session about an expression, encoding it
+     * @param base the expression the questions of this session are about
+     * @throws IllegalArgumentException if {@code base} is {@code null}
+     */
+    public SolverSession(Expression base) {
+        this(base, Governor.NONE);
+    }
+
+    /* (non-javadoc)
+     * Constructs a new session about an expression, charging its encoding to a governor; a session whose encoding
+     * is stopped is never built, so the gates it leaves behind are never reused
+     */
+    SolverSession(Expression base, Governor governor) {
+        if ( base == null ){
+            throw new IllegalArgumentException("The 'base' cannot be null");
+        }
+        this.base = literalOf(base, governor);
+    }
+
+    /**
+     * Checks if the base expression is satisfiable together with the constraints of the open levels and some assumptions.
+     * If it is, a model is available through {@link #model()}; if it is not because of the assumptions, the ones
+     * responsible are available through {@link #failedAssumptions()}
+     * @param assumptions expressions assumed true for this question only
+     * @return {@code true} iff some interpretation makes the base expression, every constraint and every assumption true
+     * @throws IllegalArgumentException if {@code assumptions} is {@code null} or contains {@code null}
+     */
+    public boolean solve(Expression... assumptions) {
+        checkAssumptions(assumptions);
+        return ask(base, assumptions);
+    }
+
+    /**
+     * Checks if the base expression is satisfiable together with the constraints of the open levels and some assumptions,
+     * within the limits of a context (see {@link #solve(Expression...)})
+     * @param context the limits of the question
+     * @param assumptions expressions assumed true for this question only
+     * @return {@code true} iff some interpretation makes the base expression, every constraint and every assumption true,
+     * or unknown if a limit of {@code context} is reached first, leaving no model and no failed assumptions
+     * @throws IllegalArgumentException if {@code context} or {@code assumptions} is {@code null}, or {@code assumptions} contains {@code null}
+     */
+    public Outcome<Boolean> solve(SolverContext context, Expression... assumptions) {
+        checkContext(context);
+        checkAssumptions(assumptions);
+        return bounded(context, () -> ask(base, assumptions));
+    }
+
+    /**
+     * Checks if the base expression is true under every interpretation satisfying the constraints of the open levels
+     * @return {@code true} iff no interpretation makes every constraint true and the base expression false
+     */
+    public boolean isTautology() {
+        return !ask(-base, new Expression[0]);
+    }
+
+    /**
+     * Checks if the base expression is true under every interpretation satisfying the constraints of the open levels,
+     * within the limits of a context
+     * @param context the limits of the question
+     * @return the answer of {@link #isTautology()}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code context} is {@code null}
+     */
+    public Outcome<Boolean> isTautology(SolverContext context) {
+        checkContext(context);
+        return bounded(context, () -> !ask(-base, new Expression[0]));
+    }
+
+    /**
+     * Checks if the base expression is false under every interpretation satisfying the constraints of the open levels
+     * @return {@code true} iff no interpretation makes every constraint and the base expression true
+     */
+    public boolean isContradiction() {
+        return !solve();
+    }
+
+    /**
+     * Checks if the base expression is false under every interpretation satisfying the constraints of the open levels,
+     * within the limits of a context
+     * @param context the limits of the question
+     * @return the answer of {@link #isContradiction()}, or unknown if a limit of {@code context} is reached first
+     * @throws IllegalArgumentException if {@code context} is {@code null}
+     */
+    public Outcome<Boolean> isContradiction(SolverContext context) {
+        checkContext(context);
+        return bounded(context, () -> !ask(base, new Expression[0]));
+    }
+
+    /**
+     * @return the model found by the last question, over every variable this session has seen, or nothing if
+     * that question was not satisfiable or a constraint or level was added or removed since
+     */
+    public Optional<Interpretation> model() {
+        if ( model == null ){
+            return Optional.empty();
+        }
+        if ( index == null || index.size() != names.size() ){
+            index = VariableIndex.of(names);
+        }
+        return Optional.of(new Interpretation(index, model));
+    }
+
+    /**
+     * @return the assumptions of the last question that together made it unsatisfiable; empty if it was satisfiable,
+     * or if the base expression and the constraints are unsatisfiable on their own
+     */
+    public List<Expression> failedAssumptions() {
+        return new ArrayList<>(failed);
+    }
+
+    /**
+     * Adds a constraint to the innermost open level, or for the rest of the session if no level is open
+     * @param constraint an expression every later question requires to be true
+     * @throws IllegalArgumentException if {@code constraint} is {@code null}
+     */
+    public void add(Expression constraint) {
+        if ( constraint == null ){
+            throw new IllegalArgumentException("The 'constraint' cannot be null");
+        }
+        int literal = literalOf(constraint, Governor.NONE);
+        if ( selectors.isEmpty() ){
+            solver.addClause(literal);
+        } else {
+            solver.addClause(literal, -selectors.get(selectors.size() - 1));
+        }
+        model = null;
+    }
+
+    /**
+     * Opens a new level, so the constraints added until it is popped can be removed together
+     */
+    public void push() {
+        selectors.add(solver.newVariable());
+        model = null;
+    }
+
+    /**
+     * Closes the innermost open level, removing the constraints added to it; what was learned meanwhile is kept
+     * @throws IllegalStateException if there is no open level
+     */
+    public void pop() {
+        if ( selectors.isEmpty() ){
+            throw new IllegalStateException("There is no level to pop");
+        }
+        solver.addClause(-selectors.remove(selectors.size() - 1));
+        model = null;
+    }
+
+    /**
+     * @return the number of open levels
+     */
+    public int level() {
+        return selectors.size();
+    }
+
+    /**
+     * @return the number of conflicts met by all the questions of this session so far
+     */
+    public long conflicts() {
+        return solver.conflicts();
+    }
+
+    /**
+     * @return the number of decisions taken by all the questions of this session so far
+     */
+    public long decisions() {
+        return solver.decisions();
+    }
+
+    /**
+     * @return the number of literals propagated by all the questions of this session so far
+     */
+    public long propagations() {
+        return solver.propagations();
+    }
+
+    /* (non-javadoc)
+     * Charges the search of every later question to a governor, for a session that is discarded once stopped
+     */
+    void govern(Governor governor) {
+        solver.govern(governor);
+    }
+
+    /* (non-javadoc)
+     * Asks a question under the governor of a context, which only the search is charged to: the assumptions are
+     * encoded in full or not at all, since the gates they add are shared with later questions
+     */
+    private Outcome<Boolean> bounded(SolverContext context, Supplier<Boolean> question) {
+        try {
+            solver.govern(Governor.of(context));
+            return Outcome.known(question.get());
+        } catch ( Governor.Exceeded e ){
+            model = null;
+            failed = new ArrayList<>();
+            return Outcome.unknown(e.limit());
+        } finally {
+            solver.govern(Governor.NONE);
+        }
+    }
+
+    /* (non-javadoc)
+     * Solves assuming the selectors of the open levels, a goal literal and the literals of some expressions
+     */
+    private boolean ask(int goal, Expression[] assumptions) {
+        int[] assumed = new int[selectors.size() + 1 + assumptions.length];
+        int size = 0;
+        for ( int selector : selectors ){
+            assumed[size++] = selector;
+        }
+        assumed[size++] = goal;
+        for ( Expression assumption : assumptions ){
+            assumed[size++] = literalOf(assumption, Governor.NONE);
+        }
+
+        model = null;
+        failed = new ArrayList<>();
+        if ( solver.solve(assumed) ){
+            long[] values = new long[InterpretationSpliterator.words(names.size())];
+            for ( int i = 0 ; i < names.size() ; i++ ){
+                if ( solver.modelValue(variables.get(names.get(i))) ){
+                    values[i >>> 6] |= 1L << i;
+                }
+            }
+            model = values;
+            return true;
+        }
+        int[] responsible = solver.failedAssumptions();
+        Arrays.sort(responsible);
+        for ( Expression assumption : assumptions ){
+            if ( Arrays.binarySearch(responsible, literals.get(assumption)) >= 0 && !failed.contains(assumption) ){
+                failed.add(assumption);
+            }
+        }
+        return false;
+    }
+
+    /* (non-javadoc)
+     * @return the literal following an expression, encoding it the first time it is asked for and charging that to a governor
+     */
+    private int literalOf(Expression expression, Governor governor) {
+        Integer known = literals.get(expression);
+        if ( known != null ){
+            return known;
+        }
+
+        //First, I map the variables of the expression to the ones of the solver, creating the new ones
+
+        CompiledExpression program = CompiledExpression.compile(expression, () -> governor.charge(0, 1));
+        int[] slots = new int[program.variableCount()];
+        for ( int i = 0 ; i < slots.length ; i++ ){
+            String name = program.variableIndex().name(i);
+            Integer variable = variables.get(name);
+            if ( variable == null ){
+                variable = solver.newVariable();
+                variables.put(name, variable);
+                names.add(name);
+            }
+            slots[i] = variable;
+        }
+
+        //Then, I add its gates, giving a variable of its own to an expression that folds to a constant
+
+        ClauseStore clauses = new ClauseStore();
+        int literal = CnfEncoder.encodeGates(program, true, true, slots, solver::newVariable, clauses, gates, governor);
+        solver.addClauses(clauses);
+        if ( literal == CnfEncoder.TRUE || literal == CnfEncoder.FALSE ){
+            int constant = solver.newVariable();
+            solver.addClause(literal == CnfEncoder.TRUE ? constant : -constant);
+            literal = constant;
+        }
+        literals.put(expression, literal);
+        return literal;
+    }
+
+    private static void checkContext(SolverContext context) {
+        if ( context == null ){
+            throw new IllegalArgumentException("The 'context' cannot be null");
+        }
+    }
+
+    private static void checkAssumptions(Expression[] assumptions) {
+        if ( assumptions == null ){
+            throw new IllegalArgumentException("The 'assumptions' cannot be null");
+        }
+        for ( Expression assumption : assumptions ){
+            if ( assumption == null ){
+                throw new IllegalArgumentException("The 'assumptions' cannot contain null");
+            }
+        }
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        return solver != null && variables != null && names != null && literals != null && selectors != null
+                && variables.size() == names.size() && base != 0;
+    }
+}
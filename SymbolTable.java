@@ -0,0 +1,83 @@
+package expressions;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The table of all variable names, each registered once with a dense integer id.
+ * Variables register their name when they are built, so sets of variables can be kept as bitsets
+ * over the ids and interpretations can be indexed by id instead of by name.
+ * Ids are never reused.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'ids' and 'names' cannot be null
+ * names[i] is the name with id i for every i < 'size', and ids maps it back to i
+ */
+final class SymbolTable {
+
+    private static final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int size;
+
+    private SymbolTable() {
+    }
+
+    /* (non-javadoc)
+     * Registers a variable name, which must already be valid
+     * @return the id of 'name', the existing one if it was already registered
+     */
+    static synchronized int register(String name) {
+        Integer id = ids.get(name);
+        if ( id != null ){
+            return id;
+        }
+        String[] current = names;
+        if ( size == current.length ){
+            current = Arrays.copyOf(current, size * 2);
+        }
+        current[size] = name;
+        names = current;                                                                       //publishes the name before its id can be seen
+        ids.put(name, size);
+        return size++;
+    }
+
+    /* (non-javadoc)
+     * @return the id of a name, or -1 if it was never registered
+     */
+    static int idOf(String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /* (non-javadoc)
+     * @return the name registered with an id
+     */
+    static String nameOf(int id) {
+        return names[id];
+    }
+
+    /* (non-javadoc)
+     * @return the number of registered names
+     */
+    static synchronized int size() {
+        return size;
+    }
+
+    //Check the invariants
+
+    static synchronized boolean repOK(){
+        if ( names == null || ids.size() != size ){
+            return false;
+        }
+        for ( int i = 0 ; i < size ; i++ ){
+            if ( names[i] == null || ids.get(names[i]) != i ){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -15,7 +15,10 @@ import java.util.Set;
  */
 class Variable implements Expression {
 
-    private String var;
+    private final String var;
+    private final int id;
+    private final VariableSet support;
+    private final int hash;
 
     /**
      * Constructs a new variable expression
@@ -33,6 +36,9 @@ class Variable implements Expression {
             throw new IllegalArgumentException("The 'var' cannot be null or empty");
         }
         this.var = var;
+        this.id = SymbolTable.register(var);
+        this.support = VariableSet.of(id);
+        this.hash = ExpressionFactory.variableHash(var);
     }
 
     /* (non-javadoc)
@@ -66,19 +72,39 @@ class Variable implements Expression {
         if ( interpretation == null ){
             throw new IllegalArgumentException("The 'interpretation' cannot be null");
         }
-        if ( !interpretation.exists(var) ){
+        int position = interpretation.positionOf(this.id);                                     //by id, without comparing names
+        if ( position < 0 ){
             throw new IllegalArgumentException("This variable is not exist in the interpretation");
         }
-        return interpretation.valueOf(this.var);
+        return interpretation.valueAt(position);
     
     }
 
     @Override
     public Set<String> variables() {
-        return Set.of(this.var);
+        return support;
     }
     
 
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /* (non-javadoc)
+     * @return the variable name this expression represents
+     */
+    String name() {
+        return this.var;
+    }
+
+    /* (non-javadoc)
+     * @return the id of this variable in the symbol table
+     */
+    int id() {
+        return this.id;
+    }
+
     //Check invaariant
 
     public boolean repOK(){
@@ -0,0 +1,207 @@
+package expressions;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An ordered list of distinct, valid variable names, each bound to a position.
+ * The names are validated once, when the index is built, so any number of interpretations can share
+ * the same index and give values to its variables by position without validating them again.
+ * Positions are found from the id each name has in the shared symbol table in constant time.
+ * An index is never modified once it is built, so it can be read by any number of threads; only the private copy
+ * an interpretation makes of it grows (see {@link Interpretation#add(String, boolean)}).
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'names', 'ids' and 'table' cannot be null
+ * names[i] is a valid name with id ids[i] for every i < 'size', and no name is repeated
+ * 'table' is an open-addressing table mapping every ids[i] to i + 1, 0 marking a free slot
+ */
+public final class VariableIndex {
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private String[] names;
+    private int[] ids;
+    private int size;
+    private int[] table;
+
+    private VariableIndex(int capacity) {
+        this.names = new String[Math.max(1, capacity)];
+        this.ids = new int[names.length];
+        this.table = new int[tableCapacity(names.length)];
+    }
+
+    /**
+     * Builds the index of a list of variables, each bound to its position in the list
+     * @param variables the variables of the index
+     * @return an index of {@code variables}, in the given order
+     * @throws IllegalArgumentException if {@code variables} is {@code null}
+     * @throws IllegalArgumentException if there is a variable in {@code variables} such that:
+     * <ul>
+     * <li>is {@code null}</li>
+     * <li>is empty</li>
+     * <li>doesn't follows the format <letter>(<letter-or-number>)*, i.e.: a letter followed by zero or more letters or numbers</li>
+     * <li>is repeated</li>
+     * </ul>
+     */
+    public static VariableIndex of(List<String> variables) {
+        if ( variables == null ){
+            throw new IllegalArgumentException("The 'variables' cannot be null");
+        }
+        VariableIndex index = new VariableIndex(variables.size());
+        for ( String v : variables ){
+            if ( v == null || v.isEmpty() ){
+                throw new IllegalArgumentException("At least one element in 'variables' cannot be null or empty");
+            }
+            int id = idOf(v);
+            if ( id < 0 ){
+                throw new IllegalArgumentException("At least one element in 'variables' do not satisfy the given format");
+            }
+            if ( index.position(id) >= 0 ){
+                throw new IllegalArgumentException("The element in 'variables' cannot be repeated");
+            }
+            index.append(v, id);
+        }
+        return index;
+    }
+
+    /**
+     * @return the number of variables of this index
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param position a position of this index
+     * @return the name of the variable at {@code position}
+     * @throws IndexOutOfBoundsException if {@code position} is not between {@code 0} and {@code size() - 1}
+     */
+    public String name(int position) {
+        if ( position < 0 || position >= size ){
+            throw new IndexOutOfBoundsException(position);
+        }
+        return names[position];
+    }
+
+    /**
+     * @return the names of the variables of this index, the name at index {@code i} being the one at position {@code i}
+     */
+    public List<String> names() {
+        return Collections.unmodifiableList(Arrays.asList(names).subList(0, size));
+    }
+
+    /**
+     * @param var a variable name
+     * @return the position of {@code var} in this index, or {@code -1} if it is not in this index
+     */
+    public int indexOf(String var) {
+        int id = var == null ? -1 : SymbolTable.idOf(var);
+        return id < 0 ? -1 : position(id);
+    }
+
+    /* (non-javadoc)
+     * @return the id of a name in the symbol table, registering it if it is valid, or -1 if it is not valid.
+     * Registered names are known to be valid, so only new names have their format checked
+     */
+    static int idOf(String var) {
+        int id = SymbolTable.idOf(var);
+        if ( id >= 0 ){
+            return id;
+        }
+        return Variable.checkFormat(var) ? SymbolTable.register(var) : -1;
+    }
+
+    /* (non-javadoc)
+     * @return the position of the variable with a given id, or -1 if it is not in this index
+     */
+    int position(int id) {
+        int mask = table.length - 1;
+        for ( int slot = mix(id) & mask ; table[slot] != 0 ; slot = (slot + 1) & mask ){
+            int position = table[slot] - 1;
+            if ( ids[position] == id ){
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    /* (non-javadoc)
+     * @return a copy of this index that can be appended to without changing this one
+     */
+    VariableIndex copy() {
+        VariableIndex copy = new VariableIndex(size + 1);
+        System.arraycopy(names, 0, copy.names, 0, size);
+        System.arraycopy(ids, 0, copy.ids, 0, size);
+        copy.size = size;
+        copy.rehash();
+        return copy;
+    }
+
+    /* (non-javadoc)
+     * Adds a valid variable that is not in this index yet at the next position.
+     * Only used while building an index, or on an index owned by a single interpretation
+     */
+    void append(String var, int id) {
+        if ( size == names.length ){
+            names = Arrays.copyOf(names, size * 2);
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        names[size] = var;
+        ids[size] = id;
+        size++;
+        if ( size > table.length * LOAD_FACTOR ){
+            table = new int[table.length * 2];
+            rehash();
+        } else {
+            insert(size - 1);
+        }
+    }
+
+    private void rehash() {
+        Arrays.fill(table, 0);
+        for ( int position = 0 ; position < size ; position++ ){
+            insert(position);
+        }
+    }
+
+    private void insert(int position) {
+        int mask = table.length - 1;
+        int slot = mix(ids[position]) & mask;
+        while ( table[slot] != 0 ){
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = position + 1;
+    }
+
+    private static int tableCapacity(int entries) {
+        int capacity = 2;
+        while ( capacity * LOAD_FACTOR < entries ){
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private static int mix(int id) {
+        int h = id * 0x9e3779b9;
+        return h ^ (h >>> 16);
+    }
+
+    //Check the invariants
+
+    public boolean repOK(){
+        if ( names == null || ids == null || table == null || size > names.length ){
+            return false;
+        }
+        for ( int i = 0 ; i < size ; i++ ){
+            if ( !Variable.checkFormat(names[i]) || SymbolTable.idOf(names[i]) != ids[i] || position(ids[i]) != i ){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,192 @@
+package expressions;
+
+import java.util.AbstractSet;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable set of variable names kept as a bitset over their ids in the {@link SymbolTable}.
+ * It is the cached support set that expressions return from {@code variables()}.
+ * The bitset only spans the words between the smallest and the largest id of the set, so a set takes memory for
+ * the range of its own ids, not for every id ever registered.
+ * @version 0.1
+ */
+
+/*
+ * Class invariants:
+ * the 'words' cannot be null, and its first and last words, if any, are not 0
+ * words[i] holds the ids from (offset + i) * 64 to (offset + i) * 64 + 63, and 'offset' is 0 if 'words' is empty
+ * 'size' is the number of bits set in 'words'
+ */
+final class VariableSet extends AbstractSet<String> {
+
+    static final VariableSet EMPTY = new VariableSet(new long[0], 0);
+
+    private final long[] words;
+    private final int offset;
+    private final int size;
+
+    private VariableSet(long[] words, int offset) {
+        this.words = words;
+        this.offset = offset;
+        int bits = 0;
+        for ( long word : words ){
+            bits += Long.bitCount(word);
+        }
+        this.size = bits;
+    }
+
+    /* (non-javadoc)
+     * @return the set holding only the variable with a given id
+     */
+    static VariableSet of(int id) {
+        return new VariableSet(new long[]{ 1L << id }, id >>> 6);
+    }
+
+    /* (non-javadoc)
+     * Computes the support set of an expression without recursion, reusing the sets already cached in it
+     * and caching none of the sets of its sub-expressions
+     */
+    static VariableSet supportOf(Expression expression) {
+        long[] words = new long[0];
+        int offset = 0;
+        Set<Expression> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        Deque<Expression> pending = new ArrayDeque<>();
+        pending.push(expression);
+        while ( !pending.isEmpty() ){
+            Expression current = pending.pop();
+            if ( !visited.add(current) ){
+                continue;
+            }
+            VariableSet cached = null;
+            if ( current instanceof Variable ){
+                cached = (VariableSet) current.variables();
+            } else if ( current instanceof BinaryExpression && current != expression ){
+                cached = ((BinaryExpression) current).cachedSupport();
+            } else if ( current instanceof NaryExpression && current != expression ){
+                cached = ((NaryExpression) current).cachedSupport();
+            }
+            if ( cached != null ){
+                if ( cached.words.length == 0 ){
+                    continue;
+                }
+                if ( words.length == 0 ){
+                    words = cached.words.clone();
+                    offset = cached.offset;
+                    continue;
+                }
+                int start = Math.min(offset, cached.offset);
+                int end = Math.max(offset + words.length, cached.offset + cached.words.length);
+                if ( start < offset || end > offset + words.length ){
+                    long[] wider = new long[end - start];
+                    System.arraycopy(words, 0, wider, offset - start, words.length);
+                    words = wider;
+                    offset = start;
+                }
+                for ( int i = 0 ; i < cached.words.length ; i++ ){
+                    words[cached.offset - offset + i] |= cached.words[i];
+                }
+            } else if ( current instanceof Negation ){
+                pending.push(((Negation) current).operand());
+            } else if ( current instanceof BinaryExpression ){
+                pending.push(((BinaryExpression) current).right());
+                pending.push(((BinaryExpression) current).left());
+            } else if ( current instanceof NaryExpression ){
+                NaryExpression nary = (NaryExpression) current;
+                for ( int i = nary.arity() - 1 ; i >= 0 ; i-- ){
+                    pending.push(nary.operand(i));
+                }
+            }
+        }
+        return words.length == 0 ? EMPTY : new VariableSet(words, offset);
+    }
+
+    /* (non-javadoc)
+     * @return true iff the variable with a given id is in this set
+     */
+    boolean containsId(int id) {
+        int index = (id >>> 6) - offset;
+        return id >= 0 && index >= 0 && index < words.length && (words[index] & (1L << id)) != 0;
+    }
+
+    /* (non-javadoc)
+     * @return the smallest id in this set not smaller than 'from', or -1 if there is none
+     */
+    int nextId(int from) {
+        if ( from < 0 || words.length == 0 ){
+            return -1;
+        }
+        from = Math.max(from, offset * Long.SIZE);
+        int index = (from >>> 6) - offset;
+        if ( index >= words.length ){
+            return -1;
+        }
+        long word = words[index] & (-1L << from);
+        while ( true ){
+            if ( word != 0 ){
+                return (offset + index) * Long.SIZE + Long.numberOfTrailingZeros(word);
+            }
+            if ( ++index == words.length ){
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if ( !(o instanceof String) ){
+            return false;
+        }
+        return containsId(SymbolTable.idOf((String) o));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = nextId(0);
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0;
+            }
+
+            @Override
+            public String next() {
+                if ( next < 0 ){
+                    throw new NoSuchElementException();
+                }
+                String name = SymbolTable.nameOf(next);
+                next = nextId(next + 1);
+                return name;
+            }
+        };
+    }
+
+    //Check the invariants
+
+    boolean repOK(){
+        if ( words == null || (words.length > 0 && (words[0] == 0 || words[words.length - 1] == 0)) ){
+            return false;
+        }
+        if ( offset < 0 || (words.length == 0 && offset != 0) ){
+            return false;
+        }
+        int bits = 0;
+        for ( long word : words ){
+            bits += Long.bitCount(word);
+        }
+        return bits == size;
+    }
+}
@@ -0,0 +1,66 @@
+package benchmarks;
+
+import expressions.Expression;
+import expressions.ExpressionParser;
+import expressions.Fingerprint;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.ResultCache;
+import solver.SatSolver;
+
+/**
+ * Measures a query answered by a {@link ResultCache} against the same query solved, and the fingerprint every cached
+ * query computes first, on random 3-SAT formulas near the threshold. The cache is asked about a renamed copy of the
+ * formula it was filled with.
+ * @version 0.1
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheBenchmark {
+
+    @Param({"20", "200"})
+    public int variables;
+
+    @Param({"42"})
+    public long seed;
+
+    private Expression expression;
+    private ResultCache cache;
+
+    @Setup
+    public void setUp() {
+        cache = new ResultCache(1024);
+        String text = Formulas.randomKSatText(variables, Formulas.THRESHOLD_3SAT, 3, seed);
+        cache.isSatisfiable(ExpressionParser.parse(text));
+        expression = ExpressionParser.parse(text.replace('x', 'y'));
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return cache.isSatisfiable(expression);
+    }
+
+    @Benchmark
+    public boolean solved() {
+        return SatSolver.isSatisfiable(expression);
+    }
+
+    @Benchmark
+    public Fingerprint fingerprint() {
+        return Fingerprint.of(expression);
+    }
+}
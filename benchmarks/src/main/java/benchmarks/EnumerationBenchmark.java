@@ -0,0 +1,79 @@
+package benchmarks;
+
+import expressions.Expression;
+import expressions.Interpretation;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.SatSolver;
+
+/**
+ * Measures listing interpretations of generated formulas, built all up front or streamed on demand.
+ * Every interpretation is listed, so the sizes stay small; run with {@code -prof gc} to compare their allocations.
+ * @version 0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnumerationBenchmark {
+
+    @Param({"KSAT", "PARITY", "IMPLICATIONS"})
+    public Formulas.Workload workload;
+
+    @Param({"10", "16"})
+    public int variables;
+
+    @Param({"42"})
+    public long seed;
+
+    private Expression formula;
+
+    @Setup
+    public void setUp() {
+        formula = workload.generate(variables, seed);
+    }
+
+    @Benchmark
+    public Set<Interpretation> getAllInterpretations() {
+        return SatSolver.getAllInterpretations(formula);
+    }
+
+    @Benchmark
+    public long interpretations() {
+        return SatSolver.interpretations(formula).count();
+    }
+
+    @Benchmark
+    public List<Interpretation> allSatisfiableInterpretations() {
+        return SatSolver.allSatisfiableInterpretations(formula);
+    }
+
+    @Benchmark
+    public List<Interpretation> allUnsatisfiableInterpretations() {
+        return SatSolver.allUnsatisfiableInterpretations(formula);
+    }
+
+    @Benchmark
+    public long satisfiableInterpretations() {
+        return SatSolver.satisfiableInterpretations(formula).count();
+    }
+
+    @Benchmark
+    public long satisfiableCubes() {
+        return SatSolver.satisfiableCubes(formula).count();
+    }
+}
@@ -0,0 +1,53 @@
+package benchmarks;
+
+import expressions.Expression;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.SatSolver;
+
+/**
+ * Measures checking a generated formula against its simplified form, i.e.: that their exclusive or is unsatisfiable,
+ * which doubles the formula, so the sizes are smaller than the ones of {@link QueryBenchmark}.
+ * @version 0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EquivalenceBenchmark {
+
+    @Param({"KSAT", "PIGEONHOLE", "PARITY", "IMPLICATIONS", "CONJUNCTION"})
+    public Formulas.Workload workload;
+
+    @Param({"16", "24"})
+    public int variables;
+
+    @Param({"42"})
+    public long seed;
+
+    private Expression formula;
+    private Expression rewritten;
+
+    @Setup
+    public void setUp() {
+        formula = workload.generate(variables, seed);
+        rewritten = Expression.simplify(formula);
+    }
+
+    @Benchmark
+    public boolean isEquivalent() {
+        return SatSolver.isEquivalent(formula, rewritten);
+    }
+}
@@ -0,0 +1,83 @@
+package benchmarks;
+
+import expressions.CompiledExpression;
+import expressions.Expression;
+import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures evaluating a generated formula under random interpretations, walking the expression itself
+ * and running its compiled program over the same assignments. The interpretations are built before measuring, and taken in turn.
+ * @version 0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluateBenchmark {
+
+    private static final int INTERPRETATIONS = 1024;                                           //a power of two, to cycle with a mask
+
+    @Param({"KSAT", "PIGEONHOLE", "PARITY", "IMPLICATIONS", "CONJUNCTION"})
+    public Formulas.Workload workload;
+
+    @Param({"64", "1024"})
+    public int variables;
+
+    @Param({"42"})
+    public long seed;
+
+    private Expression formula;
+    private CompiledExpression program;
+    private Interpretation[] interpretations;
+    private long[][] assignments;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        formula = workload.generate(variables, seed);
+        program = CompiledExpression.compile(formula);
+        VariableIndex index = program.variableIndex();
+        SplittableRandom random = new SplittableRandom(seed);
+        interpretations = new Interpretation[INTERPRETATIONS];
+        assignments = new long[INTERPRETATIONS][];
+        for ( int i = 0 ; i < INTERPRETATIONS ; i++ ){
+            long[] values = new long[(index.size() >>> 6) + 1];
+            for ( int w = 0 ; w < values.length ; w++ ){
+                values[w] = random.nextLong();
+            }
+            interpretations[i] = new Interpretation(index, values);
+            assignments[i] = values;
+        }
+    }
+
+    @Benchmark
+    public boolean evaluate() {
+        return formula.evaluate(interpretations[next++ & (INTERPRETATIONS - 1)]);
+    }
+
+    @Benchmark
+    public boolean evaluateCompiled() {
+        return program.evaluate(assignments[next++ & (INTERPRETATIONS - 1)]);
+    }
+
+    @Benchmark
+    public CompiledExpression compile() {
+        return CompiledExpression.compile(formula);
+    }
+}
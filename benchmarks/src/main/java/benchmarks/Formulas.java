@@ -0,0 +1,235 @@
+package benchmarks;
+
+import expressions.Expression;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Generates the formulas the benchmarks run on, each family stressing a different part of the library:
+ * <ul>
+ * <li>random k-SAT near the satisfiability threshold, the hardest random instances for a solver</li>
+ * <li>pigeonhole formulas, unsatisfiable and hard for resolution, so for clause learning</li>
+ * <li>parity chains, the worst case of a clause encoding and the best one of a decision diagram</li>
+ * <li>deep implication chains, nested to the right, which stress evaluating and compiling deep expressions</li>
+ * <li>wide conjunctions, a single node with many operands</li>
+ * </ul>
+ * The same arguments always generate the same formula, and the variables are named {@code x0}, {@code x1}, and so on.
+ * @version 0.1
+ */
+public final class Formulas {
+
+    /**
+     * The ratio of clauses to variables near which random 3-SAT formulas go from satisfiable to unsatisfiable
+     */
+    public static final double THRESHOLD_3SAT = 4.26;
+
+    private static final Expression BUILDER = Expression.createConstant(true);              //the receiver of the combinators
+
+    private Formulas() {
+    }
+
+    /**
+     * The families of formulas, all generated from a number of variables and a seed
+     */
+    public enum Workload {
+        KSAT, PIGEONHOLE, PARITY, IMPLICATIONS, CONJUNCTION;
+
+        /**
+         * Generates a formula of this family
+         * @param variables the number of variables; a pigeonhole formula takes the largest one that fits
+         * @param seed the seed of the random formulas
+         * @return the formula
+         */
+        public Expression generate(int variables, long seed) {
+            switch ( this ){
+                case KSAT:
+                    return randomKSat(variables, THRESHOLD_3SAT, 3, seed);
+                case PIGEONHOLE:
+                    int holes = 1;
+                    while ( (holes + 2) * (holes + 1) <= variables ){
+                        holes++;
+                    }
+                    return pigeonhole(holes);
+                case PARITY:
+                    return parity(variables);
+                case IMPLICATIONS:
+                    return implications(variables);
+                default:
+                    return conjunction(variables);
+            }
+        }
+    }
+
+    /**
+     * Generates a random k-CNF formula, every clause having k distinct variables with random signs
+     * @param variables the number of variables
+     * @param ratio the number of clauses per variable
+     * @param k the number of literals per clause
+     * @param seed the seed of the generator
+     * @return the conjunction of the clauses
+     * @throws IllegalArgumentException if {@code k} is not between 1 and {@code variables}, or {@code ratio} is not positive
+     */
+    public static Expression randomKSat(int variables, double ratio, int k, long seed) {
+        if ( k < 1 || k > variables || !(ratio > 0) ){
+            throw new IllegalArgumentException("The 'k' must be between 1 and 'variables', and the 'ratio' must be positive");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        Expression[] vars = variables(variables);
+        int count = (int) Math.max(1, Math.round(ratio * variables));
+        Expression[] clauses = new Expression[count];
+        for ( int c = 0 ; c < count ; c++ ){
+            Expression[] literals = new Expression[k];
+            int[] chosen = new int[k];
+            for ( int i = 0 ; i < k ; i++ ){
+                int variable;
+                do {
+                    variable = random.nextInt(variables);
+                } while ( contains(chosen, i, variable) );
+                chosen[i] = variable;
+                literals[i] = random.nextBoolean() ? vars[variable] : BUILDER.not(vars[variable]);
+            }
+            clauses[c] = BUILDER.or(literals);
+        }
+        return BUILDER.and(clauses);
+    }
+
+    /**
+     * Writes the random k-CNF formula of {@link #randomKSat(int, double, int, long)} in infix notation, as
+     * {@code (x3 | !x7 | x1) & ...}, so parsing the text builds the same expression
+     * @param variables the number of variables
+     * @param ratio the number of clauses per variable
+     * @param k the number of literals per clause
+     * @param seed the seed of the generator
+     * @return the text of the conjunction of the clauses
+     * @throws IllegalArgumentException if {@code k} is not between 1 and {@code variables}, or {@code ratio} is not positive
+     */
+    public static String randomKSatText(int variables, double ratio, int k, long seed) {
+        if ( k < 1 || k > variables || !(ratio > 0) ){
+            throw new IllegalArgumentException("The 'k' must be between 1 and 'variables', and the 'ratio' must be positive");
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int count = (int) Math.max(1, Math.round(ratio * variables));
+        StringBuilder text = new StringBuilder();
+        for ( int c = 0 ; c < count ; c++ ){
+            text.append(c == 0 ? "(" : " & (");
+            int[] chosen = new int[k];
+            for ( int i = 0 ; i < k ; i++ ){
+                int variable;
+                do {
+                    variable = random.nextInt(variables);
+                } while ( contains(chosen, i, variable) );
+                chosen[i] = variable;
+                text.append(i == 0 ? "" : " | ").append(random.nextBoolean() ? "x" : "!x").append(variable);
+            }
+            text.append(')');
+        }
+        return text.toString();
+    }
+
+    /**
+     * Generates the pigeonhole formula of {@code holes + 1} pigeons and {@code holes} holes, which is unsatisfiable:
+     * every pigeon sits in a hole, and no hole holds two pigeons
+     * @param holes the number of holes
+     * @return the formula, over {@code (holes + 1) * holes} variables
+     * @throws IllegalArgumentException if {@code holes} is not positive
+     */
+    public static Expression pigeonhole(int holes) {
+        if ( holes < 1 ){
+            throw new IllegalArgumentException("The 'holes' must be positive");
+        }
+        int pigeons = holes + 1;
+        Expression[] sits = variables(pigeons * holes);                                        //pigeon p in hole h is variable p * holes + h
+        List<Expression> clauses = new ArrayList<>();
+        for ( int p = 0 ; p < pigeons ; p++ ){
+            Expression[] somewhere = new Expression[holes];
+            for ( int h = 0 ; h < holes ; h++ ){
+                somewhere[h] = sits[p * holes + h];
+            }
+            clauses.add(BUILDER.or(somewhere));
+        }
+        for ( int h = 0 ; h < holes ; h++ ){
+            for ( int p = 0 ; p < pigeons ; p++ ){
+                for ( int q = p + 1 ; q < pigeons ; q++ ){
+                    clauses.add(BUILDER.or(BUILDER.not(sits[p * holes + h]), BUILDER.not(sits[q * holes + h])));
+                }
+            }
+        }
+        return BUILDER.and(clauses.toArray(new Expression[0]));
+    }
+
+    /**
+     * Generates the exclusive disjunction of some variables, as a chain of binary nodes nested to the left
+     * @param variables the number of variables
+     * @return {@code x0 xor x1 xor ... }, true iff an odd number of variables is true
+     * @throws IllegalArgumentException if {@code variables} is not positive
+     */
+    public static Expression parity(int variables) {
+        Expression[] vars = variables(variables);
+        Expression chain = vars[0];
+        for ( int i = 1 ; i < variables ; i++ ){
+            chain = BUILDER.xor(chain, vars[i]);
+        }
+        return chain;
+    }
+
+    /**
+     * Generates a chain of implications nested to the right, as deep as it has variables
+     * @param variables the number of variables
+     * @return {@code x0 implies (x1 implies ( ... implies x(n - 1)))}
+     * @throws IllegalArgumentException if {@code variables} is not positive
+     */
+    public static Expression implications(int variables) {
+        Expression[] vars = variables(variables);
+        Expression chain = vars[variables - 1];
+        for ( int i = variables - 2 ; i >= 0 ; i-- ){
+            chain = BUILDER.implies(vars[i], chain);
+        }
+        return chain;
+    }
+
+    /**
+     * Generates the conjunction of some variables, every other one negated, as a single n-ary node
+     * @param variables the number of variables
+     * @return {@code x0 and not x1 and x2 and ... }
+     * @throws IllegalArgumentException if {@code variables} is not positive
+     */
+    public static Expression conjunction(int variables) {
+        Expression[] vars = variables(variables);
+        for ( int i = 1 ; i < variables ; i += 2 ){
+            vars[i] = BUILDER.not(vars[i]);
+        }
+        return BUILDER.and(vars);
+    }
+
+    /**
+     * @return the names of the variables of the generated formulas of a given size, in the order they are numbered
+     */
+    public static List<String> names(int variables) {
+        List<String> names = new ArrayList<>(variables);
+        for ( int i = 0 ; i < variables ; i++ ){
+            names.add("x" + i);
+        }
+        return names;
+    }
+
+    private static Expression[] variables(int count) {
+        if ( count < 1 ){
+            throw new IllegalArgumentException("The 'variables' must be positive");
+        }
+        Expression[] vars = new Expression[count];
+        for ( int i = 0 ; i < count ; i++ ){
+            vars[i] = Expression.createVariableExpression("x" + i);
+        }
+        return vars;
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for ( int i = 0 ; i < size ; i++ ){
+            if ( values[i] == value ){
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,97 @@
+package benchmarks;
+
+import expressions.Interpretation;
+import expressions.VariableIndex;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures building interpretations in each of the ways the library offers, and looking variables up in them.
+ * @version 0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InterpretationBenchmark {
+
+    @Param({"16", "256"})
+    public int variables;
+
+    @Param({"42"})
+    public long seed;
+
+    private List<String> names;
+    private VariableIndex index;
+    private BitSet bits;
+    private long[] words;
+    private Interpretation interpretation;
+    private String[] lookups;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        names = Formulas.names(variables);
+        index = VariableIndex.of(names);
+        SplittableRandom random = new SplittableRandom(seed);
+        words = new long[(variables >>> 6) + 1];
+        for ( int w = 0 ; w < words.length ; w++ ){
+            words[w] = random.nextLong();
+        }
+        bits = BitSet.valueOf(words);
+        interpretation = new Interpretation(index, words);
+        lookups = new String[64];
+        for ( int i = 0 ; i < lookups.length ; i++ ){
+            lookups[i] = new String(names.get(random.nextInt(variables)));                   //not the interned name, as a parser would give it
+        }
+    }
+
+    @Benchmark
+    public Interpretation fromNames() {
+        return new Interpretation(names, bits);
+    }
+
+    @Benchmark
+    public Interpretation fromIndex() {
+        return new Interpretation(index, words);
+    }
+
+    @Benchmark
+    public Interpretation view() {
+        return Interpretation.viewOf(index, words);
+    }
+
+    @Benchmark
+    public Interpretation incremental() {
+        Interpretation built = new Interpretation();
+        for ( int i = 0 ; i < variables ; i++ ){
+            built.add(names.get(i), bits.get(i));
+        }
+        return built;
+    }
+
+    @Benchmark
+    public boolean valueOf() {
+        return interpretation.valueOf(lookups[next++ & (lookups.length - 1)]);
+    }
+
+    @Benchmark
+    public boolean exists() {
+        return interpretation.exists(lookups[next++ & (lookups.length - 1)]);
+    }
+}
@@ -0,0 +1,55 @@
+package benchmarks;
+
+import expressions.Expression;
+import expressions.ExpressionParser;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures parsing random 3-SAT formulas near the threshold written in infix notation, from a string and from a reader.
+ * The larger size is a text of about two megabytes.
+ * @version 0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+
+    @Param({"1000", "20000"})
+    public int variables;
+
+    @Param({"42"})
+    public long seed;
+
+    private String text;
+
+    @Setup
+    public void setUp() {
+        text = Formulas.randomKSatText(variables, Formulas.THRESHOLD_3SAT, 3, seed);
+    }
+
+    @Benchmark
+    public Expression fromString() {
+        return ExpressionParser.parse(text);
+    }
+
+    @Benchmark
+    public Expression fromReader() throws IOException {
+        return ExpressionParser.parse(new StringReader(text));
+    }
+}
@@ -0,0 +1,87 @@
+package benchmarks;
+
+import expressions.Expression;
+import expressions.Interpretation;
+import java.math.BigInteger;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import solver.Analysis;
+import solver.SatSolver;
+
+/**
+ * Measures every query of {@link SatSolver} on generated formulas, from scratch each time:
+ * nothing is kept between two calls but the hash-consed expressions themselves.
+ * The small size is answered from truth tables and the large one by the clause-learning solver.
+ * Equivalence checks a formula twice as large, so it has its own sizes in {@link EquivalenceBenchmark}.
+ * @version 0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+
+    @Param({"KSAT", "PIGEONHOLE", "PARITY", "IMPLICATIONS", "CONJUNCTION"})
+    public Formulas.Workload workload;
+
+    @Param({"16", "48"})
+    public int variables;
+
+    @Param({"42"})
+    public long seed;
+
+    private Expression formula;
+
+    @Setup
+    public void setUp() {
+        formula = workload.generate(variables, seed);
+    }
+
+    @Benchmark
+    public boolean isTautology() {
+        return SatSolver.isTautology(formula);
+    }
+
+    @Benchmark
+    public boolean isContradiction() {
+        return SatSolver.isContradiction(formula);
+    }
+
+    @Benchmark
+    public boolean isSatisfiable() {
+        return SatSolver.isSatisfiable(formula);
+    }
+
+    @Benchmark
+    public Optional<Interpretation> findModel() {
+        return SatSolver.findModel(formula);
+    }
+
+    @Benchmark
+    public BigInteger countModels() {
+        return SatSolver.countModels(formula);
+    }
+
+    @Benchmark
+    public Analysis analyze() {
+        return SatSolver.analyze(formula);
+    }
+
+    @Benchmark
+    public Expression simplify() {
+        return Expression.simplify(formula);
+    }
+}
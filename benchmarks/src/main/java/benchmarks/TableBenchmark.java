@@ -0,0 +1,89 @@
+package benchmarks;
+
+import expressions.Expression;
+import expressions.ExpressionReader;
+import expressions.ExpressionTable;
+import expressions.ExpressionWriter;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures writing and reading random 3-SAT formulas near the threshold in the binary format of {@link ExpressionWriter},
+ * from a memory-mapped file and from a stream, and building the expression of a table read.
+ * The larger size has about a million nodes.
+ * @version 0.1
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableBenchmark {
+
+    @Param({"1000", "100000"})
+    public int variables;
+
+    @Param({"42"})
+    public long seed;
+
+    private Expression expression;
+    private ExpressionTable table;
+    private byte[] bytes;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException {
+        expression = Formulas.randomKSat(variables, Formulas.THRESHOLD_3SAT, 3, seed);
+        table = ExpressionTable.of(expression);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpressionWriter.write(table, out);
+        bytes = out.toByteArray();
+        file = Files.createTempFile("table", ".bexp");
+        Files.write(file, bytes);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int write() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+        ExpressionWriter.write(expression, out);
+        return out.size();
+    }
+
+    @Benchmark
+    public ExpressionTable readFile() throws IOException {
+        return ExpressionReader.read(file);
+    }
+
+    @Benchmark
+    public ExpressionTable readStream() throws IOException {
+        return ExpressionReader.read(new ByteArrayInputStream(bytes));
+    }
+
+    @Benchmark
+    public Expression toExpression() {
+        return table.toExpression();
+    }
+}
@@ -0,0 +1,92 @@
+package expressions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the compiled programs against the expressions they come from: every way of evaluating them, with and
+ * without registers, with registers that fit a word and with more than 64, and the size of the program of an
+ * expression that shares its sub-expressions.
+ * @version 0.1
+ */
+public class CompiledExpressionTest {
+
+    @Test
+    public void programsAgreeWithTheirExpressions() {
+        Random random = new Random(5);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            CompiledExpression program = CompiledExpression.compile(expression);
+            long[] scratch = new long[program.scratchSize()];
+            long[] variableWords = new long[program.variableCount()];
+            for ( int i = 0 ; i < variableWords.length ; i++ ){
+                for ( long assignment = 0 ; assignment < Long.SIZE ; assignment++ ){
+                    variableWords[i] |= ((assignment >>> i) & 1L) << assignment;              //the first 64 assignments, one per bit
+                }
+            }
+            long sliced = program.evaluateSliced(variableWords, new long[program.scratchSize()]);
+
+            assertTrue(program.repOK(), expression.toString());
+            for ( long assignment = 0 ; assignment < 1L << program.variableCount() ; assignment++ ){
+                long[] words = { assignment };
+                boolean value = expression.evaluate(new Interpretation(program.variableIndex(), words));
+                assertEquals(value, program.evaluate(assignment), expression.toString());
+                assertEquals(value, program.evaluate(words), expression.toString());
+                assertEquals(value, program.evaluate(words, scratch), expression.toString());
+                if ( assignment < Long.SIZE ){
+                    assertEquals(value, ((sliced >>> assignment) & 1L) != 0, expression.toString());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void programsBeyondAWordAgreeWithTheirExpressions() {
+        Random random = new Random(9);
+        for ( int length : new int[] { 3, 40, 70, 100 } ){
+            Expression expression = RandomExpressions.sharedChain(length);
+            CompiledExpression program = CompiledExpression.compile(expression);
+            long[] scratch = new long[program.scratchSize()];
+            long[] words = new long[(program.variableCount() + Long.SIZE - 1) / Long.SIZE];
+
+            assertTrue(program.repOK());
+            assertTrue(program.registerCount() >= length - 1, "registers " + program.registerCount());
+            for ( int round = 0 ; round < 200 ; round++ ){
+                for ( int i = 0 ; i < words.length ; i++ ){
+                    words[i] = random.nextLong();
+                }
+                Interpretation interpretation = new Interpretation(program.variableIndex(), words);
+                boolean value = interpretation.valueOf("x0");
+                for ( int i = 1 ; i <= length ; i++ ){                                         //each link is y when the previous one holds, x otherwise
+                    value = interpretation.valueOf((value ? "y" : "x") + i);
+                }
+                assertEquals(value, program.evaluate(words), "length " + length);
+                assertEquals(value, program.evaluate(words, scratch), "length " + length);
+            }
+        }
+    }
+
+    @Test
+    public void largeProgramsNeedTheirScratch() {
+        CompiledExpression small = CompiledExpression.compile(RandomExpressions.sharedChain(3));
+        CompiledExpression large = CompiledExpression.compile(RandomExpressions.sharedChain(70));
+        long[] words = new long[(large.variableCount() + Long.SIZE - 1) / Long.SIZE];
+
+        small.evaluate(words, null);
+        assertThrows(IllegalArgumentException.class, () -> large.evaluate(words, null));
+        assertThrows(IllegalArgumentException.class, () -> large.evaluate(words, new long[large.scratchSize() - 1]));
+        assertThrows(IllegalArgumentException.class, () -> large.evaluate(new long[0], new long[large.scratchSize()]));
+    }
+
+    @Test
+    public void sharedSubExpressionsAreCompiledOnce() {
+        CompiledExpression program = CompiledExpression.compile(RandomExpressions.sharedChain(20));   //a tree of millions of nodes
+
+        assertTrue(program.repOK());
+        assertTrue(program.length() < 500, "length " + program.length());
+    }
+}
@@ -0,0 +1,60 @@
+package expressions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+import java.util.function.BinaryOperator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the evaluation folds the operators over constants, wherever they occur, and agrees with the
+ * compiled programs and the simplified expressions on expressions mixing constants and variables.
+ * @version 0.1
+ */
+public class EvaluatorTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void operatorsOverConstantsFold() {
+        Expression q = Expression.createVariableExpression("q");
+        Interpretation falseQ = new Interpretation();
+        falseQ.add("q", false);
+
+        assertTrue(ExpressionParser.parse("q | (true & true)").evaluate(falseQ));
+        assertFalse(ExpressionParser.parse("q | (true & false)").evaluate(falseQ));
+        assertTrue(X.or(q, X.and(X, X)).evaluate(falseQ));
+        assertTrue(X.implies(X.xor(X, X), q).evaluate(falseQ));
+        assertFalse(X.iff(X.nor(X, X), X).evaluate(new Interpretation()));
+        assertTrue(X.nand(X.not(X), Expression.createConstant(false)).evaluate(new Interpretation()));
+    }
+
+    @Test
+    public void constantsAgreeWithTheCompiledPrograms() {
+        List<BinaryOperator<Expression>> operators = List.of(X::and, X::or, X::implies, X::iff, X::xor, X::nand, X::nor);
+        Random random = new Random(11);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            for ( int i = 0 ; i < 3 ; i++ ){
+                Expression constant = Expression.createConstant(random.nextBoolean());
+                Expression folded = operators.get(random.nextInt(operators.size())).apply(constant,
+                        Expression.createConstant(random.nextBoolean()));
+                Expression operand = random.nextBoolean() ? folded : constant;
+                expression = random.nextBoolean() ? operators.get(random.nextInt(operators.size())).apply(expression, operand)
+                        : operators.get(random.nextInt(operators.size())).apply(operand, expression);
+            }
+            CompiledExpression program = CompiledExpression.compile(expression);
+            Expression simplified = Expression.simplify(expression);
+
+            for ( long assignment = 0 ; assignment < 1L << program.variableCount() ; assignment++ ){
+                Interpretation interpretation = new Interpretation(program.variableIndex(), new long[] { assignment });
+                boolean value = expression.evaluate(interpretation);
+                assertEquals(program.evaluate(assignment), value, expression.toString());
+                assertEquals(simplified.evaluate(interpretation), value, expression.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package expressions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks the precedence and grouping of the operators of {@link ExpressionParser}, and the texts it rejects.
+ * Expressions are hash-consed, so two texts parse to the same expression iff they parse to the same node.
+ * @version 0.1
+ */
+public class ExpressionParserTest {
+
+    @ParameterizedTest
+    @CsvSource(delimiter = ';', value = {
+        "!a & b;                (!a) & b",
+        "a & b ^ c;             (a & b) ^ c",
+        "a ^ b | c;             (a ^ b) | c",
+        "a | b -> c;            (a | b) -> c",
+        "a -> b <-> c;          (a -> b) <-> c",
+        "a | b & c;             a | (b & c)",
+        "!a -> b & c | d <-> e; ((!a) -> ((b & c) | d)) <-> e",
+        "a -> b -> c;           a -> (b -> c)",
+        "a ^ b ^ c;             (a ^ b) ^ c",
+        "a <-> b <-> c;         (a <-> b) <-> c",
+        "!!a;                   !(!a)",
+    })
+    public void operatorsBindAsDocumented(String text, String grouped) {
+        assertSame(ExpressionParser.parse(grouped), ExpressionParser.parse(text));
+    }
+
+    @Test
+    public void parenthesesOverridePrecedence() {
+        assertNotSame(ExpressionParser.parse("a | b & c"), ExpressionParser.parse("(a | b) & c"));
+        assertNotSame(ExpressionParser.parse("a -> b -> c"), ExpressionParser.parse("(a -> b) -> c"));
+    }
+
+    @Test
+    public void atomsAreVariablesOrConstants() {
+        assertSame(Expression.createVariableExpression("p1"), ExpressionParser.parse("p1"));
+        assertSame(Expression.createConstant(true), ExpressionParser.parse("true"));
+        assertSame(Expression.createConstant(false), ExpressionParser.parse("false"));
+        assertSame(Expression.createConstant(true), ExpressionParser.parse("1"));
+        assertSame(Expression.createConstant(false), ExpressionParser.parse("0"));
+        assertSame(ExpressionParser.parse("p&q"), ExpressionParser.parse("  p   &\tq "));
+    }
+
+    @Test
+    public void chainsOfTheSameOperatorAreOneNode() {
+        Expression chain = ExpressionParser.parse("a & b & c & d");
+        assertTrue(chain instanceof NaryExpression);
+        assertEquals(4, ((NaryExpression) chain).arity());
+    }
+
+    @Test
+    public void readersParseAsTexts() throws IOException {
+        String text = "!(p & q) -> r <-> (s ^ p | q)";
+        assertSame(ExpressionParser.parse(text), ExpressionParser.parse(new StringReader(text)));
+    }
+
+    @Test
+    public void deepNestingDoesNotOverflow() {
+        int depth = 100_000;
+        StringBuilder text = new StringBuilder();
+        for ( int i = 0 ; i < depth ; i++ ){
+            text.append("!(");
+        }
+        text.append('a');
+        for ( int i = 0 ; i < depth ; i++ ){
+            text.append(')');
+        }
+        assertSame(Expression.createVariableExpression("a"), Expression.simplify(ExpressionParser.parse(text)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "", "   ", "a &", "& a", "(a", "a)", "a b", "()", "a & & b", "a $ b", "1a", "a -", "!", "a <- b" })
+    public void malformedTextsAreRejected(String text) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse(text));
+        assertTrue(e.getMessage().contains("position"), e.getMessage());
+    }
+
+    @Test
+    public void nullIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse((CharSequence) null));
+        assertThrows(IllegalArgumentException.class, () -> ExpressionParser.parse((java.io.Reader) null));
+    }
+}
@@ -0,0 +1,137 @@
+package expressions;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/**
+ * Checks that {@link ExpressionReader} reads back what {@link ExpressionWriter} writes, from streams and files,
+ * and rejects the bytes that are not an expression. Expressions are hash-consed, so a round trip must give back
+ * the very same node.
+ * @version 0.1
+ */
+public class ExpressionWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @ParameterizedTest
+    @ValueSource(strings = { "p", "true", "false", "!p", "p -> q", "(a & b) <-> !(c ^ a) | d & b & c", "!(x1 | x2) -> (x1 <-> x2) ^ x3" })
+    public void streamsRoundTrip(String text) throws IOException {
+        Expression expression = ExpressionParser.parse(text);
+        ExpressionTable table = ExpressionReader.read(new ByteArrayInputStream(bytesOf(expression)));
+
+        assertTrue(table.repOK());
+        assertSame(expression, table.toExpression());
+    }
+
+    @Test
+    public void filesRoundTrip() throws IOException {
+        Expression expression = ExpressionParser.parse("(a & b) | (b & c) | (c & a) -> !(a ^ b ^ c)");
+        Path file = directory.resolve("expression.bexp");
+        ExpressionWriter.write(expression, file);
+
+        assertSame(expression, ExpressionReader.read(file).toExpression());
+    }
+
+    @Test
+    public void sharedNodesAreWrittenOnce() throws IOException {
+        Expression x = Expression.createVariableExpression("x");
+        Expression shared = x;
+        for ( int i = 0 ; i < 10_000 ; i++ ){                                                  //a tree of 2^10000 leaves, a DAG of 20000 nodes
+            shared = x.and(shared, x.or(shared, x));
+        }
+        byte[] bytes = bytesOf(shared);
+        ExpressionTable table = ExpressionReader.read(new ByteArrayInputStream(bytes));
+
+        assertEquals(ExpressionTable.of(shared).size(), table.size());
+        assertTrue(bytes.length < 8 * table.size());
+        assertSame(shared, table.toExpression());
+    }
+
+    @Test
+    public void tablesRoundTripAsWritten() throws IOException {
+        Expression expression = ExpressionParser.parse("a & !b | c -> a");
+        ExpressionTable table = ExpressionTable.of(expression);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpressionWriter.write(table, out);
+        ExpressionTable read = ExpressionReader.read(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(table.size(), read.size());
+        assertEquals(table.names(), read.names());
+        for ( int node = 0 ; node < table.size() ; node++ ){
+            assertEquals(table.kind(node), read.kind(node));
+            assertEquals(table.arity(node), read.arity(node));
+            for ( int i = 0 ; i < table.arity(node) ; i++ ){
+                assertEquals(table.argument(node, i), read.argument(node, i));
+            }
+        }
+    }
+
+    @Test
+    public void malformedInputsAreRejected() throws IOException {
+        byte[] bytes = bytesOf(ExpressionParser.parse("a & (b | !c)"));
+
+        assertRejected(new byte[0]);
+        assertRejected(Arrays.copyOf(bytes, 3));                                               //a truncated magic
+        assertRejected(Arrays.copyOf(bytes, bytes.length - 1));                                //a truncated node
+        assertRejected(Arrays.copyOf(bytes, bytes.length + 1));                                //a trailing byte
+        byte[] version = bytes.clone();
+        version[4]++;
+        assertRejected(version);
+        byte[] magic = bytes.clone();
+        magic[0] = 'X';
+        assertRejected(magic);
+    }
+
+    @Test
+    public void operandsMustBeEarlierNodes() {
+        byte[] bytes = {
+            'B', 'E', 'X', 'P', 1,
+            1, 1, 'a',                                                                         //one name
+            2, 2,                                                                              //two nodes, two arguments
+            ExpressionTable.VAR,                                                               //a
+            (byte) (ExpressionTable.NOT | 2 << 4)                                              //not of the node two back, before the first
+        };
+        assertRejected(bytes);
+        bytes[bytes.length - 1] = (byte) (ExpressionTable.NOT | 1 << 4);
+        assertArrayEquals(new int[] { ExpressionTable.VAR, ExpressionTable.NOT }, kindsOf(bytes));
+    }
+
+    private static byte[] bytesOf(Expression expression) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ExpressionWriter.write(expression, out);
+        return out.toByteArray();
+    }
+
+    private static int[] kindsOf(byte[] bytes) {
+        try {
+            ExpressionTable table = ExpressionReader.read(new ByteArrayInputStream(bytes));
+            int[] kinds = new int[table.size()];
+            for ( int node = 0 ; node < kinds.length ; node++ ){
+                kinds[node] = table.kind(node);
+            }
+            return kinds;
+        } catch ( IOException e ){
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void assertRejected(byte[] bytes) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> ExpressionReader.read(new ByteArrayInputStream(bytes)));
+        assertTrue(e.getMessage().startsWith("The input is not a valid expression"), e.getMessage());
+    }
+}
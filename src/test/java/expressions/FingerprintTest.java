@@ -0,0 +1,61 @@
+package expressions;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that fingerprints ignore the names of the variables, the order of the operands of commutative operators and
+ * the grouping of chains, and nothing else.
+ * @version 0.1
+ */
+public class FingerprintTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void renamedExpressionsHaveEqualFingerprints() {
+        for ( long seed = 0 ; seed < 300 ; seed++ ){
+            Expression expression = RandomExpressions.randomExpression(new Random(seed), "v");
+            Expression renamed = RandomExpressions.randomExpression(new Random(seed), "w");
+            Fingerprint fingerprint = Fingerprint.of(expression);
+            Fingerprint other = Fingerprint.of(renamed);
+
+            assertTrue(fingerprint.repOK());
+            assertEquals(fingerprint, other, expression.toString());
+            assertEquals(fingerprint.hashCode(), other.hashCode());
+            for ( int i = 0 ; i < fingerprint.variables().size() ; i++ ){
+                assertEquals(fingerprint.variables().get(i).substring(1), other.variables().get(i).substring(1));
+            }
+        }
+    }
+
+    @Test
+    public void commutedAndRegroupedExpressionsHaveEqualFingerprints() {
+        Expression a = Expression.createVariableExpression("a");
+        Expression b = Expression.createVariableExpression("b");
+        Expression c = Expression.createVariableExpression("c");
+        Fingerprint fingerprint = Fingerprint.of(X.and(a, X.or(b, X.not(c))));
+
+        assertEquals(fingerprint, Fingerprint.of(X.and(X.or(X.not(c), b), a)));
+        assertEquals(Fingerprint.of(X.and(a, b, c)), Fingerprint.of(X.and(X.and(a, b), c)));
+        assertEquals(Fingerprint.of(X.and(X.and(a, b), c)), Fingerprint.of(X.and(a, X.and(b, c))));
+        assertEquals(Fingerprint.of(X.xor(a, X.not(b))), Fingerprint.of(X.xor(X.not(c), a)));
+        assertEquals(Fingerprint.of(X.implies(a, X.not(b))), Fingerprint.of(X.implies(b, X.not(c))));
+    }
+
+    @Test
+    public void differentStructuresHaveDifferentFingerprints() {
+        Expression a = Expression.createVariableExpression("a");
+        Expression b = Expression.createVariableExpression("b");
+
+        assertNotEquals(Fingerprint.of(X.and(a, b)), Fingerprint.of(X.or(a, b)));
+        assertNotEquals(Fingerprint.of(X.and(a, b)), Fingerprint.of(X.and(a, X.not(b))));
+        assertNotEquals(Fingerprint.of(X.and(a, b)), Fingerprint.of(X.and(a, a)));
+        assertNotEquals(Fingerprint.of(X.implies(a, X.not(b))), Fingerprint.of(X.implies(X.not(a), b)));
+        assertNotEquals(Fingerprint.of(Expression.createConstant(true)), Fingerprint.of(Expression.createConstant(false)));
+    }
+}
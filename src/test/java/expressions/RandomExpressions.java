@@ -0,0 +1,111 @@
+package expressions;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+/**
+ * Builds the random expressions the tests check the engines against, and counts their models by brute force.
+ * The expressions are DAGs over a few variables, so their sub-expressions are shared, and have no constants,
+ * which the simplifier folds away before any engine sees them.
+ * @version 0.1
+ */
+public final class RandomExpressions {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    private RandomExpressions() {
+    }
+
+    /**
+     * @param random the source of the choices
+     * @return a random expression over at most eight variables, built bottom-up from a pool, so operands are shared
+     */
+    public static Expression randomExpression(Random random) {
+        return randomExpression(random, "v");
+    }
+
+    /**
+     * @param random the source of the choices
+     * @param prefix the prefix of the names of the variables, followed by their number
+     * @return a random expression as {@link #randomExpression(Random)} builds, the same choices giving the same
+     * expression whatever the prefix, up to the names of its variables
+     */
+    public static Expression randomExpression(Random random, String prefix) {
+        List<Expression> pool = new ArrayList<>();
+        int variables = 1 + random.nextInt(8);
+        for ( int i = 0 ; i < variables ; i++ ){
+            pool.add(Expression.createVariableExpression(prefix + i));
+        }
+        int nodes = 1 + random.nextInt(40);
+        for ( int i = 0 ; i < nodes ; i++ ){
+            Expression a = pool.get(random.nextInt(pool.size()));
+            Expression b = pool.get(random.nextInt(pool.size()));
+            switch ( random.nextInt(9) ){
+                case 0:
+                    pool.add(X.not(a));
+                    break;
+                case 1:
+                    pool.add(X.and(a, b));
+                    break;
+                case 2:
+                    pool.add(X.or(a, b));
+                    break;
+                case 3:
+                    pool.add(X.implies(a, b));
+                    break;
+                case 4:
+                    pool.add(X.iff(a, b));
+                    break;
+                case 5:
+                    pool.add(X.xor(a, b));
+                    break;
+                case 6:
+                    pool.add(X.nand(a, b));
+                    break;
+                case 7:
+                    pool.add(X.nor(a, b));
+                    break;
+                default:
+                    pool.add(X.or(a, b, pool.get(random.nextInt(pool.size()))));
+                    break;
+            }
+        }
+        return pool.get(pool.size() - 1);
+    }
+
+    /**
+     * @param length the number of links of the chain
+     * @return the chain {@code e = (e | x) & (!e | y)} of fresh variables {@code x} and {@code y} over {@code x0}: a tree
+     * of {@code 2^length} nodes, a DAG of a few per link, whose every link is shared and one deeper than the previous one
+     */
+    public static Expression sharedChain(int length) {
+        Expression e = Expression.createVariableExpression("x0");
+        for ( int i = 1 ; i <= length ; i++ ){
+            Expression x = Expression.createVariableExpression("x" + i);
+            Expression y = Expression.createVariableExpression("y" + i);
+            e = X.and(X.or(e, x), X.or(X.not(e), y));
+        }
+        return e;
+    }
+
+    /**
+     * @param expression the expression to count the models of
+     * @return the number of interpretations of the variables of an expression under which it is true, evaluating every one
+     */
+    public static long bruteForceCount(Expression expression) {
+        List<String> variables = new ArrayList<>(new TreeSet<>(expression.variables()));
+        long models = 0;
+        for ( long assignment = 0 ; assignment < 1L << variables.size() ; assignment++ ){
+            Interpretation interpretation = new Interpretation();
+            for ( int i = 0 ; i < variables.size() ; i++ ){
+                interpretation.add(variables.get(i), (assignment >>> i & 1) != 0);
+            }
+            if ( expression.evaluate(interpretation) ){
+                models++;
+            }
+        }
+        return models;
+    }
+}
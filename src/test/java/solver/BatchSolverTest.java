@@ -0,0 +1,81 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.RandomExpressions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a batch solver answers as the solver does, in the order of the batch or as soon as it can, and that
+ * a task stops at the earlier of the deadline of its context and the timeout of the solver.
+ * @version 0.1
+ */
+public class BatchSolverTest {
+
+    @Test
+    public void resultsAgreeWithTheSolver() throws InterruptedException {
+        Random random = new Random(31);
+        List<Expression> batch = new ArrayList<>();
+        for ( int i = 0 ; i < 200 ; i++ ){
+            batch.add(RandomExpressions.randomExpression(random));
+        }
+        for ( boolean ordered : new boolean[] { true, false } ){
+            List<BatchResult> results = new ArrayList<>();
+            try ( BatchSolver solver = new BatchSolver(4, 8, null) ){
+                solver.solveAll(batch.iterator(), SolverContext.unlimited(), ordered, results::add);
+                assertTrue(solver.repOK());
+            }
+
+            assertEquals(batch.size(), results.size());
+            TreeSet<Long> positions = new TreeSet<>();
+            for ( int i = 0 ; i < results.size() ; i++ ){
+                BatchResult result = results.get(i);
+                Expression expression = batch.get((int) result.position());
+                long models = RandomExpressions.bruteForceCount(expression);
+                if ( ordered ){
+                    assertEquals(i, result.position());
+                }
+                positions.add(result.position());
+                assertTrue(result.repOK());
+                assertEquals(models > 0, result.satisfiable().get(), expression.toString());
+                assertEquals(models == 1L << expression.variables().size(), result.tautology().get(), expression.toString());
+                result.model().ifPresent(model -> assertTrue(expression.evaluate(model), expression.toString()));
+            }
+            assertEquals(batch.size(), positions.size());
+        }
+    }
+
+    @Test
+    public void theDeadlineOfTheCallerIsKept() throws Exception {
+        try ( BatchSolver solver = new BatchSolver(1, 1, Duration.ofSeconds(20)) ){
+            long start = System.nanoTime();
+            BatchResult result = solver.submit(SatSolverTest.pigeonhole(11, 10), SolverContext.unlimited().withTimeout(Duration.ofMillis(200)))
+                    .get();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            assertTrue(result.satisfiable().isUnknown());
+            assertEquals(SolverContext.Limit.DEADLINE, result.satisfiable().limit().orElseThrow());
+            assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0, "elapsed " + elapsed);
+        }
+    }
+
+    @Test
+    public void theTimeoutOfTheSolverIsKept() throws Exception {
+        try ( BatchSolver solver = new BatchSolver(1, 1, Duration.ofMillis(200)) ){
+            long start = System.nanoTime();
+            BatchResult result = solver.submit(SatSolverTest.pigeonhole(11, 10), SolverContext.unlimited().withTimeout(Duration.ofSeconds(20)))
+                    .get();
+            Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+            assertEquals(SolverContext.Limit.DEADLINE, result.satisfiable().limit().orElseThrow());
+            assertTrue(elapsed.compareTo(Duration.ofSeconds(5)) < 0, "elapsed " + elapsed);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.RandomExpressions;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the decision diagrams against a brute-force evaluation of random expressions, before and after their
+ * variables are reordered.
+ * @version 0.1
+ */
+public class BddManagerTest {
+
+    @Test
+    public void diagramsAgreeWithTheTruthTable() {
+        Random random = new Random(7);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            long models = RandomExpressions.bruteForceCount(expression);
+            BddManager manager = new BddManager();
+            Bdd bdd = manager.compile(expression);
+
+            assertEquals(models > 0, bdd.isSatisfiable(), expression.toString());
+            assertEquals(models == 1L << expression.variables().size(), bdd.isTautology(), expression.toString());
+            long[] found = { 0 };
+            bdd.forEachModel(model -> {
+                assertTrue(expression.evaluate(model), expression.toString());
+                found[0]++;
+            });
+            assertEquals(models, found[0], expression.toString());
+            manager.reorder();
+            assertTrue(manager.repOK(), expression.toString());
+            assertTrue(bdd.isEquivalentTo(manager.compile(expression)), expression.toString());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.CompiledExpression;
+import expressions.Expression;
+import expressions.RandomExpressions;
+import java.math.BigInteger;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the Tseitin encodings against a brute-force evaluation of random expressions, and checks that the size
+ * of an encoding follows the DAG of the expression.
+ * @version 0.1
+ */
+public class CnfEncoderTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void encodingsAreEquisatisfiable() {
+        Random random = new Random(13);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            long models = RandomExpressions.bruteForceCount(expression);
+            Cnf cnf = CnfEncoder.encode(expression);
+
+            assertTrue(cnf.repOK(), expression.toString());
+            assertEquals(models > 0, SatSolver.isSatisfiable(cnf.clauses()), expression.toString());
+            assertEquals(models < 1L << expression.variables().size(), SatSolver.isSatisfiable(CnfEncoder.encode(X.not(expression)).clauses()),
+                    expression.toString());
+        }
+    }
+
+    @Test
+    public void equivalenceEncodingsKeepTheModelCount() {
+        Random random = new Random(17);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            Cnf cnf = CnfEncoder.encode(CompiledExpression.compile(expression), true, true);  //every gate follows its operands
+
+            assertTrue(cnf.repOK(), expression.toString());
+            assertEquals(BigInteger.valueOf(RandomExpressions.bruteForceCount(expression)), SatSolver.countModels(cnf.clauses()),
+                    expression.toString());
+        }
+    }
+
+    @Test
+    public void sharedSubExpressionsAreEncodedOnce() {
+        Cnf cnf = CnfEncoder.encode(RandomExpressions.sharedChain(20));                        //a tree of millions of nodes
+
+        assertTrue(cnf.repOK());
+        assertTrue(cnf.clauses().clauseCount() < 500, "clauses " + cnf.clauses().clauseCount());
+    }
+}
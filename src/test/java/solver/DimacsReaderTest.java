@@ -0,0 +1,91 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.RandomExpressions;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the reader reads back what the writer writes, and that it rejects a header of another format or
+ * declaring another number of clauses than the file holds.
+ * @version 0.1
+ */
+public class DimacsReaderTest {
+
+    private Path file;
+
+    @BeforeEach
+    public void createFile() throws IOException {
+        file = Files.createTempFile("dimacs", ".cnf");
+    }
+
+    @AfterEach
+    public void deleteFile() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void readsWhatTheWriterWrites() throws IOException {
+        Random random = new Random(7);
+        for ( int i = 0 ; i < 50 ; i++ ){
+            ClauseStore written = CnfEncoder.encode(RandomExpressions.randomExpression(random)).clauses();
+            try ( OutputStream out = Files.newOutputStream(file) ){
+                DimacsWriter.write(written, out);
+            }
+            ClauseStore read = DimacsReader.read(file);
+
+            assertEquals(written.clauseCount(), read.clauseCount());
+            for ( int c = 0 ; c < written.clauseCount() ; c++ ){
+                assertArrayEquals(written.clause(c), read.clause(c));
+            }
+            assertTrue(read.repOK());
+        }
+    }
+
+    @Test
+    public void readsCommentsMissingEndsAndEndMarkers() throws IOException {
+        ClauseStore clauses = read("c a comment\np cnf 3 2\n1 -2 0\n c another\n2 3");
+        assertEquals(2, clauses.clauseCount());
+        assertArrayEquals(new int[] { 2, 3 }, clauses.clause(1));
+
+        assertEquals(1, read("p cnf 2 1\n1 2 0\n%\n0\n").clauseCount());
+    }
+
+    @Test
+    public void rejectsAnotherNumberOfClauses() {
+        assertRejected("p cnf 3 3\n1 -2 0\n2 3 0\n", "2 clauses where the header declares 3");
+        assertRejected("p cnf 3 1\n1 -2 0\n2 3 0\n", "2 clauses where the header declares 1");
+        assertRejected("p cnf 3 1\n1 -2 0\n2 3\n", "2 clauses where the header declares 1");
+    }
+
+    @Test
+    public void rejectsAnotherFormat() {
+        assertRejected("p dnf 3 1\n1 -2 0\n", "the format is not cnf");
+        assertRejected("p cnfx 3 1\n1 -2 0\n", "the format is not cnf");
+        assertRejected("p cn f 3 1\n1 -2 0\n", "unexpected character 'f'");
+        assertRejected("p 3 1\n1 -2 0\n", "the format is not cnf");
+        assertRejected("p cnf 3 x 1\n1 -2 0\n", "unexpected character 'x'");
+    }
+
+    private ClauseStore read(String contents) throws IOException {
+        Files.write(file, contents.getBytes(StandardCharsets.US_ASCII));
+        return DimacsReader.read(file);
+    }
+
+    private void assertRejected(String contents, String reason) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> read(contents));
+        assertTrue(e.getMessage().contains(reason), e.getMessage());
+    }
+}
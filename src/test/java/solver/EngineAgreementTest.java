@@ -0,0 +1,47 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.Interpretation;
+import expressions.RandomExpressions;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+/**
+ * Checks the engines of {@link SatSolver} against a brute-force evaluation of random expressions.
+ * @version 0.1
+ */
+public class EngineAgreementTest {
+
+    private static final int ROUNDS = 300;
+
+    @ParameterizedTest
+    @EnumSource(value = SatSolver.Engine.class, names = { "AUTO", "ENUMERATION", "BIT_SLICED", "CDCL", "BDD" })
+    public void everyEngineAgreesWithTheTruthTable(SatSolver.Engine engine) {
+        Random random = new Random(engine.ordinal());
+        for ( int round = 0 ; round < ROUNDS ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            long models = RandomExpressions.bruteForceCount(expression);
+            boolean satisfiable = models > 0;
+            boolean tautology = models == 1L << expression.variables().size();
+            String what = engine + " on " + expression;
+
+            assertEquals(satisfiable, SatSolver.isSatisfiable(expression, engine), what);
+            assertEquals(tautology, SatSolver.isTautology(expression, engine), what);
+            assertEquals(!satisfiable, SatSolver.isContradiction(expression, engine), what);
+            Optional<Interpretation> model = SatSolver.findModel(expression, engine);
+            assertEquals(satisfiable, model.isPresent(), what);
+            model.ifPresent(m -> assertTrue(expression.evaluate(m), what));
+            List<Interpretation> all = SatSolver.allSatisfiableInterpretations(expression, engine);
+            assertEquals(models, all.size(), what);
+            for ( Interpretation interpretation : all ){
+                assertTrue(expression.evaluate(interpretation), what);
+            }
+        }
+    }
+}
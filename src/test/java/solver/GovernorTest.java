@@ -0,0 +1,148 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that every query bounded by a context stops with the limit it reaches, deadlines and cancellation
+ * included, and that what it leaves behind can still be used.
+ * @version 0.1
+ */
+public class GovernorTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void deadlinesStopTheSearch() {
+        Expression hard = SatSolverTest.pigeonhole(11, 10);
+        Outcome<Boolean> outcome = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> SatSolver.isSatisfiable(hard, SolverContext.unlimited().withTimeout(Duration.ofMillis(50))));
+
+        assertTrue(outcome.isUnknown());
+        assertEquals(SolverContext.Limit.DEADLINE, outcome.limit().orElseThrow());
+    }
+
+    @Test
+    public void cancellationFromAnotherThreadStopsTheSearch() throws InterruptedException {
+        Expression hard = SatSolverTest.pigeonhole(11, 10);
+        CancellationToken token = new CancellationToken();
+        Thread canceller = new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch ( InterruptedException e ){
+                Thread.currentThread().interrupt();
+            }
+            token.cancel();
+        });
+        canceller.start();
+        Outcome<Boolean> outcome = assertTimeoutPreemptively(Duration.ofSeconds(10),
+                () -> SatSolver.isSatisfiable(hard, SolverContext.unlimited().withCancellation(token)));
+        canceller.join();
+
+        assertTrue(outcome.isUnknown());
+        assertEquals(SolverContext.Limit.CANCELLED, outcome.limit().orElseThrow());
+    }
+
+    @Test
+    public void cancelledQueriesStopAtOnce() {
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        SolverContext cancelled = SolverContext.unlimited().withCancellation(token);
+        Expression formula = SatSolverTest.pigeonhole(3, 3);
+        ClauseStore clauses = CnfEncoder.encode(formula).clauses();
+
+        assertEquals(SolverContext.Limit.CANCELLED, SatSolver.analyze(formula, cancelled).limit().orElseThrow());
+        assertEquals(SolverContext.Limit.CANCELLED, SatSolver.isSatisfiable(clauses, cancelled).limit().orElseThrow());
+        assertEquals(SolverContext.Limit.CANCELLED, SatSolver.countModels(clauses, cancelled).limit().orElseThrow());
+        assertEquals(SolverContext.Limit.CANCELLED, new SolverSession(formula).solve(cancelled).limit().orElseThrow());
+        LimitReachedException thrown = assertThrows(LimitReachedException.class, () -> SatSolver.satisfiableInterpretations(formula, cancelled));
+        assertEquals(SolverContext.Limit.CANCELLED, thrown.limit());
+    }
+
+    @Test
+    public void sessionsStayUsableAfterAStop() {
+        SolverSession refuted = new SolverSession(SatSolverTest.pigeonhole(7, 6));
+        Outcome<Boolean> stopped = refuted.isContradiction(SolverContext.unlimited().withMaxNodes(10));
+
+        assertTrue(stopped.isUnknown());
+        assertEquals(SolverContext.Limit.NODES, stopped.limit().orElseThrow());
+        assertTrue(refuted.model().isEmpty());
+        assertTrue(refuted.isContradiction(SolverContext.unlimited()).get());
+        assertTrue(refuted.repOK());
+
+        Expression a = Expression.createVariableExpression("a");
+        SolverSession session = new SolverSession(SatSolverTest.pigeonhole(6, 6));
+        assertTrue(session.solve(SolverContext.unlimited().withMaxNodes(1), a).isUnknown());
+        assertTrue(session.failedAssumptions().isEmpty());
+        assertTrue(session.solve(SolverContext.unlimited(), a).get());
+        assertTrue(session.model().isPresent());
+        assertFalse(session.isTautology(SolverContext.unlimited()).get());
+    }
+
+    @Test
+    public void streamsThrowTheLimitTheyReach() {
+        Expression[] variables = new Expression[30];
+        for ( int i = 0 ; i < variables.length ; i++ ){
+            variables[i] = Expression.createVariableExpression("v" + i);
+        }
+        Expression formula = X.or(variables);
+        SolverContext bounded = SolverContext.unlimited().withMaxNodes(10_000);
+
+        LimitReachedException interpretations = assertThrows(LimitReachedException.class,
+                () -> SatSolver.satisfiableInterpretations(formula, bounded).count());
+        assertEquals(SolverContext.Limit.NODES, interpretations.limit());
+        LimitReachedException cubes = assertThrows(LimitReachedException.class,
+                () -> SatSolver.satisfiableCubes(formula, SolverContext.unlimited().withMaxNodes(500)).count());
+        assertEquals(SolverContext.Limit.NODES, cubes.limit());
+        assertEquals(5, SatSolver.satisfiableInterpretations(formula, bounded).limit(5).count());
+        assertEquals(30, SatSolver.satisfiableCubes(formula, SolverContext.unlimited()).count());
+    }
+
+    @Test
+    public void forEachCountsWhatItPassedUntilItStops() {
+        Expression[] variables = new Expression[12];
+        for ( int i = 0 ; i < variables.length ; i++ ){
+            variables[i] = Expression.createVariableExpression("v" + i);
+        }
+        Expression formula = X.or(variables);
+        AtomicLong passed = new AtomicLong();
+        Outcome<Long> stopped = SatSolver.forEachSatisfiableInterpretation(formula, i -> passed.incrementAndGet() > 0,
+                SolverContext.unlimited().withMaxAssignments(1_000));
+
+        assertTrue(stopped.isUnknown());
+        assertEquals(SolverContext.Limit.ASSIGNMENTS, stopped.limit().orElseThrow());
+        assertTrue(passed.get() > 0 && passed.get() < 4_095);
+        assertEquals(4_095L, SatSolver.forEachSatisfiableInterpretation(formula, i -> true, SolverContext.unlimited()).get());
+        assertEquals(1L, SatSolver.forEachUnsatisfiableInterpretation(formula, i -> true, SolverContext.unlimited()).get());
+        AtomicLong taken = new AtomicLong();
+        assertEquals(3L, SatSolver.forEachSatisfiableInterpretation(formula, i -> taken.incrementAndGet() < 3,
+                SolverContext.unlimited()).get());
+    }
+
+    @Test
+    public void analysesAndTheirCountsAreBounded() {
+        Expression formula = SatSolverTest.pigeonhole(5, 6);
+
+        Outcome<Analysis> stopped = SatSolver.analyze(formula, SolverContext.unlimited().withMaxNodes(10));
+        assertTrue(stopped.isUnknown());
+        assertEquals(SolverContext.Limit.NODES, stopped.limit().orElseThrow());
+
+        Analysis analysis = SatSolver.analyze(formula, SolverContext.unlimited()).get();
+        assertTrue(analysis.isSatisfiable());
+        Outcome<BigInteger> count = analysis.modelCount(SolverContext.unlimited().withMaxNodes(10));
+        assertTrue(count.isUnknown());
+        assertEquals(SolverContext.Limit.NODES, count.limit().orElseThrow());
+        assertTrue(analysis.countermodelCount(SolverContext.unlimited().withMaxNodes(10)).isUnknown());
+        assertEquals(SatSolver.countModels(formula), analysis.modelCount(SolverContext.unlimited()).get());
+        assertEquals(analysis.modelCount(), analysis.modelCount(SolverContext.unlimited().withMaxNodes(1)).get());
+    }
+}
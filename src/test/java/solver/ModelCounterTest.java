@@ -0,0 +1,48 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import expressions.Expression;
+import expressions.RandomExpressions;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the model counts against a brute-force evaluation of random expressions, over their own variables and
+ * over larger sets, and on chains far too long for the counter to recurse over.
+ * @version 0.1
+ */
+public class ModelCounterTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void countsAgreeWithTheTruthTable() {
+        Random random = new Random(42);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            BigInteger models = BigInteger.valueOf(RandomExpressions.bruteForceCount(expression));
+            List<String> variables = new ArrayList<>(expression.variables());
+            variables.add("free0");
+            variables.add("free1");
+
+            assertEquals(models, SatSolver.countModels(expression), expression.toString());
+            assertEquals(models.shiftLeft(2), SatSolver.countModels(expression, variables), expression.toString());
+            assertEquals(models, SatSolver.countModels(expression, SolverContext.unlimited()).get(), expression.toString());
+        }
+    }
+
+    @Test
+    public void longChainsAreCountedWithoutRecursion() {
+        int links = 10_000;
+        Expression[] implications = new Expression[links];
+        for ( int i = 0 ; i < links ; i++ ){
+            implications[i] = X.implies(Expression.createVariableExpression("x" + i), Expression.createVariableExpression("x" + (i + 1)));
+        }
+
+        assertEquals(BigInteger.valueOf(links + 2), SatSolver.countModels(X.and(implications)));
+    }
+}
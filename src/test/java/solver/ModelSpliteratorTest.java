@@ -0,0 +1,79 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.Interpretation;
+import expressions.RandomExpressions;
+import java.math.BigInteger;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the lazy views of the models: the streams, sequential and parallel, the actions that stop early, and the
+ * cubes, against a brute-force evaluation of random expressions.
+ * @version 0.1
+ */
+public class ModelSpliteratorTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void streamsAgreeWithTheTruthTable() {
+        Random random = new Random(19);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            long models = RandomExpressions.bruteForceCount(expression);
+            long all = 1L << expression.variables().size();
+
+            assertEquals(models, SatSolver.satisfiableInterpretations(expression).count(), expression.toString());
+            assertEquals(models, SatSolver.satisfiableInterpretations(expression).parallel().count(), expression.toString());
+            assertEquals(all - models, SatSolver.unsatisfiableInterpretations(expression).count(), expression.toString());
+            assertTrue(SatSolver.satisfiableInterpretations(expression).allMatch(expression::evaluate), expression.toString());
+            assertTrue(SatSolver.unsatisfiableInterpretations(expression).noneMatch(expression::evaluate), expression.toString());
+            long[] seen = { 0 };
+            SatSolver.forEachSatisfiableInterpretation(expression, model -> {
+                assertTrue(expression.evaluate(model), expression.toString());
+                return ++seen[0] < 2;                                                          //stops after the second one
+            });
+            assertEquals(Math.min(models, 2), seen[0], expression.toString());
+        }
+    }
+
+    @Test
+    public void cubesCoverExactlyTheModels() {
+        Random random = new Random(23);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            List<Cube> cubes = SatSolver.satisfiableCubes(expression).collect(Collectors.toList());
+            BigInteger models = BigInteger.valueOf(RandomExpressions.bruteForceCount(expression));
+
+            assertEquals(models, cubes.stream().map(Cube::size).reduce(BigInteger.ZERO, BigInteger::add), expression.toString());
+            assertEquals(BigInteger.ONE.shiftLeft(expression.variables().size()).subtract(models),
+                    SatSolver.unsatisfiableCubes(expression).map(Cube::size).reduce(BigInteger.ZERO, BigInteger::add), expression.toString());
+            for ( Interpretation model : SatSolver.allSatisfiableInterpretations(expression) ){
+                assertEquals(1, cubes.stream().filter(cube -> cube.covers(model)).count(), expression.toString());
+                assertTrue(cubes.stream().allMatch(Cube::repOK), expression.toString());
+            }
+        }
+    }
+
+    @Test
+    public void streamsOnlySearchWhatIsConsumed() {
+        Expression[] literals = new Expression[60];
+        for ( int i = 0 ; i < literals.length ; i++ ){
+            literals[i] = Expression.createVariableExpression("x" + i);
+        }
+        Expression formula = X.or(literals);                                                   //2^60 - 1 models
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertEquals(1000, SatSolver.satisfiableInterpretations(formula).limit(1000).count());
+            assertEquals(List.of(BigInteger.ONE), SatSolver.unsatisfiableCubes(formula).map(Cube::size).collect(Collectors.toList()));
+        });
+    }
+}
@@ -0,0 +1,73 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.Interpretation;
+import expressions.RandomExpressions;
+import java.time.Duration;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the parallel solver against a brute-force evaluation of random expressions, its delegation of expressions
+ * too large to check exhaustively, and the limits of a context shared by the tasks of a query.
+ * @version 0.1
+ */
+public class ParallelSatSolverTest {
+
+    @Test
+    public void answersAgreeWithTheTruthTable() {
+        Random random = new Random(37);
+        try ( ParallelSatSolver solver = new ParallelSatSolver(4) ){
+            for ( int round = 0 ; round < 300 ; round++ ){
+                Expression expression = RandomExpressions.randomExpression(random);
+                long models = RandomExpressions.bruteForceCount(expression);
+                long all = 1L << expression.variables().size();
+                List<Interpretation> satisfying = solver.allSatisfiableInterpretations(expression);
+
+                assertEquals(models > 0, solver.isSatisfiable(expression), expression.toString());
+                assertEquals(models == all, solver.isTautology(expression), expression.toString());
+                assertEquals(models == 0, solver.isContradiction(expression), expression.toString());
+                assertEquals(models, satisfying.size(), expression.toString());
+                assertTrue(satisfying.stream().allMatch(expression::evaluate), expression.toString());
+                assertEquals(all - models, solver.allUnsatisfiableInterpretations(expression).size(), expression.toString());
+            }
+            assertTrue(solver.repOK());
+        }
+    }
+
+    @Test
+    public void largeExpressionsAreDelegated() {
+        try ( ParallelSatSolver solver = new ParallelSatSolver(4) ){
+            assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {                       //42 variables: 2^42 assignments
+                assertFalse(solver.isSatisfiable(SatSolverTest.pigeonhole(7, 6)));
+                assertTrue(solver.isSatisfiable(SatSolverTest.pigeonhole(6, 6)));
+                assertTrue(solver.isContradiction(SatSolverTest.pigeonhole(7, 6)));
+            });
+        }
+    }
+
+    @Test
+    public void limitsHoldOverAllTheTasks() {
+        Expression formula = SatSolverTest.pigeonhole(5, 4);                                   //20 variables, checked exhaustively
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        try ( ParallelSatSolver solver = new ParallelSatSolver(4) ){
+            Outcome<Boolean> capped = solver.isSatisfiable(formula, SolverContext.unlimited().withMaxAssignments(100_000));
+            Outcome<List<Interpretation>> listed = solver.allSatisfiableInterpretations(formula, SolverContext.unlimited().withMaxAssignments(100_000));
+
+            assertEquals(SolverContext.Limit.ASSIGNMENTS, capped.limit().orElseThrow());
+            assertEquals(SolverContext.Limit.ASSIGNMENTS, listed.limit().orElseThrow());
+            assertEquals(SolverContext.Limit.CANCELLED,
+                    solver.isTautology(formula, SolverContext.unlimited().withCancellation(token)).limit().orElseThrow());
+            assertEquals(SolverContext.Limit.DEADLINE,
+                    solver.isContradiction(formula, SolverContext.unlimited().withTimeout(Duration.ZERO)).limit().orElseThrow());
+            assertFalse(solver.isSatisfiable(formula, SolverContext.unlimited().withTimeout(Duration.ofMinutes(1))).get());
+        }
+    }
+}
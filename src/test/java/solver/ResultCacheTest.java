@@ -0,0 +1,105 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.Interpretation;
+import expressions.RandomExpressions;
+import java.math.BigInteger;
+import java.util.Optional;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the cache answers as the solver does, answers renamed expressions from the same entry, derives the
+ * answers one question decides, does not keep unknown outcomes, and keeps to its capacity.
+ * @version 0.1
+ */
+public class ResultCacheTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void answersAgreeWithTheSolver() {
+        ResultCache cache = new ResultCache(64);
+        Random random = new Random(29);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression expression = RandomExpressions.randomExpression(random);
+            long models = RandomExpressions.bruteForceCount(expression);
+
+            for ( int pass = 0 ; pass < 2 ; pass++ ){                                          //solved, then answered from the cache
+                assertEquals(BigInteger.valueOf(models), cache.countModels(expression), expression.toString());
+                assertEquals(models > 0, cache.isSatisfiable(expression), expression.toString());
+                assertEquals(models == 0, cache.isContradiction(expression), expression.toString());
+                assertEquals(models == 1L << expression.variables().size(), cache.isTautology(expression), expression.toString());
+                Optional<Interpretation> model = cache.findModel(expression);
+                assertEquals(models > 0, model.isPresent(), expression.toString());
+                model.ifPresent(m -> assertTrue(expression.evaluate(m), expression.toString()));
+            }
+        }
+        assertTrue(cache.repOK());
+    }
+
+    @Test
+    public void renamedExpressionsAreAnsweredFromTheCache() {
+        for ( long seed = 0 ; seed < 100 ; seed++ ){
+            ResultCache cache = new ResultCache(16);
+            Expression expression = RandomExpressions.randomExpression(new Random(seed), "v");
+            Expression renamed = RandomExpressions.randomExpression(new Random(seed), "w");
+            Optional<Interpretation> model = cache.findModel(expression);
+            long misses = cache.missCount();
+            Optional<Interpretation> renamedModel = cache.findModel(renamed);
+
+            assertEquals(misses, cache.missCount(), renamed.toString());
+            assertEquals(1, cache.hitCount(), renamed.toString());
+            assertEquals(model.isPresent(), renamedModel.isPresent(), renamed.toString());
+            renamedModel.ifPresent(m -> assertTrue(renamed.evaluate(m), renamed.toString()));
+        }
+    }
+
+    @Test
+    public void oneAnswerDecidesTheOthers() {
+        ResultCache cache = new ResultCache(16);
+        Expression a = Expression.createVariableExpression("a");
+        Expression b = Expression.createVariableExpression("b");
+        Expression formula = X.or(a, b);
+
+        assertEquals(BigInteger.valueOf(3), cache.countModels(formula));
+        long misses = cache.missCount();
+        assertTrue(cache.isSatisfiable(formula));
+        assertFalse(cache.isTautology(formula));
+        assertFalse(cache.isContradiction(formula));
+        assertEquals(misses, cache.missCount());
+        assertEquals(3, cache.hitCount());
+    }
+
+    @Test
+    public void unknownOutcomesAreNotKept() {
+        ResultCache cache = new ResultCache(16);
+        CancellationToken token = new CancellationToken();
+        token.cancel();
+        Expression formula = X.and(Expression.createVariableExpression("a"), Expression.createVariableExpression("b"));
+
+        assertTrue(cache.isSatisfiable(formula, SolverContext.unlimited().withCancellation(token)).isUnknown());
+        assertTrue(cache.countModels(formula, SolverContext.unlimited().withCancellation(token)).isUnknown());
+        assertEquals(0, cache.size());
+        assertTrue(cache.isSatisfiable(formula));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void evictionsKeepToTheCapacity() {
+        ResultCache cache = new ResultCache(10);
+        Expression chain = Expression.createVariableExpression("x0");
+        for ( int i = 1 ; i <= 100 ; i++ ){                                                    //every link a new structure
+            chain = X.and(chain, X.or(Expression.createVariableExpression("x" + i), Expression.createVariableExpression("y" + i)));
+            cache.isSatisfiable(chain);
+            assertTrue(cache.size() <= cache.capacity());
+            assertTrue(cache.repOK());
+        }
+
+        assertTrue(cache.evictionCount() >= 90, "evictions " + cache.evictionCount());
+    }
+}
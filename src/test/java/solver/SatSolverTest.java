@@ -0,0 +1,95 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.RandomExpressions;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the queries of {@link SatSolver} on the inputs that are large for one of its phases.
+ * @version 0.1
+ */
+public class SatSolverTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void clauseLearningRefutesPigeonholes() {
+        Expression fitting = pigeonhole(6, 6);
+
+        assertFalse(SatSolver.isSatisfiable(pigeonhole(7, 6), SatSolver.Engine.CDCL));
+        assertFalse(SatSolver.isSatisfiable(pigeonhole(7, 6)));
+        assertTrue(fitting.evaluate(SatSolver.findModel(fitting, SatSolver.Engine.CDCL).orElseThrow()));
+    }
+
+    @Test
+    public void equivalenceAgreesWithTheTruthTable() {
+        Random random = new Random(11);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression left = RandomExpressions.randomExpression(random);
+            Expression right = RandomExpressions.randomExpression(random);
+            boolean equivalent = RandomExpressions.bruteForceCount(X.xor(left, right)) == 0;
+
+            assertTrue(SatSolver.isEquivalent(left, Expression.simplify(left)), left.toString());
+            assertEquals(equivalent, SatSolver.isEquivalent(left, right), left + " and " + right);
+        }
+    }
+
+    @Test
+    public void equivalenceOfLargeFormulasIsQuick() {
+        Random random = new Random(3);
+        Expression formula = randomThreeCnf(random, 50, 213);
+        Expression other = X.and(formula, randomThreeCnf(random, 50, 1));
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            assertTrue(SatSolver.isEquivalent(formula, Expression.simplify(formula)));
+            assertEquals(!SatSolver.isSatisfiable(X.and(formula, X.not(other))), SatSolver.isEquivalent(formula, other));
+        });
+    }
+
+    /* (non-javadoc)
+     * @return a conjunction of random clauses of three literals over some variables
+     */
+    private static Expression randomThreeCnf(Random random, int variables, int clauseCount) {
+        Expression[] clauses = new Expression[clauseCount + 1];
+        for ( int c = 0 ; c < clauseCount ; c++ ){
+            Expression[] literals = new Expression[3];
+            for ( int j = 0 ; j < literals.length ; j++ ){
+                Expression variable = Expression.createVariableExpression("x" + random.nextInt(variables));
+                literals[j] = random.nextBoolean() ? variable : X.not(variable);
+            }
+            clauses[c] = X.or(literals);
+        }
+        clauses[clauseCount] = Expression.createVariableExpression("x0");                      //so a single clause is still a conjunction
+        return X.and(clauses);
+    }
+
+    /* (non-javadoc)
+     * @return the formula placing every pigeon in a hole, at most one per hole: unsatisfiable iff there are more pigeons
+     */
+    static Expression pigeonhole(int pigeons, int holes) {
+        List<Expression> clauses = new ArrayList<>();
+        for ( int p = 0 ; p < pigeons ; p++ ){
+            Expression[] somewhere = new Expression[holes];
+            for ( int h = 0 ; h < holes ; h++ ){
+                somewhere[h] = Expression.createVariableExpression("p" + p + "h" + h);
+            }
+            clauses.add(holes == 1 ? X.or(somewhere[0], somewhere[0]) : X.or(somewhere));
+        }
+        for ( int h = 0 ; h < holes ; h++ ){
+            for ( int p = 0 ; p < pigeons ; p++ ){
+                for ( int q = p + 1 ; q < pigeons ; q++ ){
+                    clauses.add(X.nand(Expression.createVariableExpression("p" + p + "h" + h), Expression.createVariableExpression("p" + q + "h" + h)));
+                }
+            }
+        }
+        return X.and(clauses.toArray(new Expression[0]));
+    }
+}
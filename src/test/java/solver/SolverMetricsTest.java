@@ -0,0 +1,89 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the metrics count every query, however it ends, and that its flight recorder events summarize its
+ * result instead of holding a copy of it.
+ * @version 0.1
+ */
+public class SolverMetricsTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void everyQueryIsCountedHoweverItEnds() {
+        Expression formula = X.or(Expression.createVariableExpression("a"), Expression.createVariableExpression("b"));
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        metrics.setEnabled(true);
+        try {
+            metrics.reset();
+            SatSolver.isSatisfiable(formula);
+            SatSolver.isSatisfiable(SatSolverTest.pigeonhole(6, 5), SolverContext.unlimited().withMaxNodes(10));
+            assertThrows(IllegalStateException.class, () -> SatSolver.forEachSatisfiableInterpretation(formula, i -> {
+                throw new IllegalStateException();
+            }));
+
+            assertEquals(3, metrics.getQueries());
+            assertEquals(Map.of("forEachSatisfiableInterpretation", 1L, "isSatisfiable", 2L), metrics.getQueriesByKind());
+            assertTrue(metrics.getInterpretations() > 0);
+        } finally {
+            metrics.setEnabled(false);
+            metrics.reset();
+        }
+    }
+
+    @Test
+    public void eventsSummarizeTheResults() throws IOException {
+        Expression[] variables = new Expression[10];
+        for ( int i = 0 ; i < variables.length ; i++ ){
+            variables[i] = Expression.createVariableExpression("v" + i);
+        }
+        Expression formula = X.or(variables);
+        SolverMetrics metrics = SolverMetrics.getInstance();
+        List<RecordedEvent> events;
+        Path dump = Files.createTempFile("solver", ".jfr");
+        metrics.setEnabled(true);
+        try ( Recording recording = new Recording() ){
+            recording.enable("solver.Query");
+            recording.enable("solver.Phase");
+            recording.start();
+            SatSolver.allSatisfiableInterpretations(formula);
+            SatSolver.analyze(formula);
+            SatSolver.isSatisfiable(SatSolverTest.pigeonhole(6, 5), SolverContext.unlimited().withMaxNodes(10));
+            assertThrows(IllegalStateException.class, () -> SatSolver.forEachUnsatisfiableInterpretation(formula, i -> {
+                throw new IllegalStateException();
+            }));
+            recording.stop();
+            recording.dump(dump);
+            events = RecordingFile.readAllEvents(dump);
+        } finally {
+            metrics.setEnabled(false);
+            metrics.reset();
+            Files.deleteIfExists(dump);
+        }
+
+        List<String> results = new ArrayList<>();
+        for ( RecordedEvent event : events ){
+            if ( event.getEventType().getName().equals("solver.Query") ){
+                results.add(event.getString("query") + ": " + event.getString("result"));
+            }
+        }
+        assertEquals(List.of("allSatisfiableInterpretations: 1023 results", "analyze: satisfiable",
+                "isSatisfiable: UNKNOWN (NODES)", "forEachUnsatisfiableInterpretation: ERROR (IllegalStateException)"), results);
+    }
+}
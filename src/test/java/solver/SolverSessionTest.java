@@ -0,0 +1,130 @@
+package solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import expressions.Expression;
+import expressions.ExpressionParser;
+import expressions.Interpretation;
+import expressions.RandomExpressions;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that a {@link SolverSession} answers as fresh queries of {@link SatSolver} would, through assumptions,
+ * levels pushed and popped, and the constraints added inside them.
+ * @version 0.1
+ */
+public class SolverSessionTest {
+
+    private static final Expression X = Expression.createConstant(true);
+
+    @Test
+    public void assumptionsOnlyHoldForTheirQuestion() {
+        Expression p = Expression.createVariableExpression("p");
+        Expression q = Expression.createVariableExpression("q");
+        SolverSession session = new SolverSession(ExpressionParser.parse("p -> q"));
+
+        assertFalse(session.solve(p, X.not(q)));
+        assertEquals(Arrays.asList(p, X.not(q)), sorted(session.failedAssumptions(), p, X.not(q)));
+        assertFalse(session.model().isPresent());
+        assertTrue(session.solve(p));
+        Interpretation model = session.model().orElseThrow();
+        assertTrue(model.valueOf("p") && model.valueOf("q"));
+        assertTrue(session.failedAssumptions().isEmpty());
+        assertTrue(session.solve(X.not(q)));
+        assertFalse(session.model().orElseThrow().valueOf("p"));
+    }
+
+    @Test
+    public void poppingALevelRemovesItsConstraints() {
+        Expression p = Expression.createVariableExpression("p");
+        Expression q = Expression.createVariableExpression("q");
+        SolverSession session = new SolverSession(X.or(p, q));
+
+        session.push();
+        session.add(X.not(p));
+        assertEquals(1, session.level());
+        assertTrue(session.solve());
+        assertFalse(session.solve(X.not(q)));
+        session.push();
+        session.add(X.not(q));
+        assertTrue(session.isContradiction());
+        session.pop();
+        assertTrue(session.solve());
+        assertTrue(session.model().orElseThrow().valueOf("q"));
+        session.pop();
+        assertEquals(0, session.level());
+        assertTrue(session.solve(X.not(q)));
+        assertThrows(IllegalStateException.class, session::pop);
+    }
+
+    @Test
+    public void constraintsOutsideLevelsStay() {
+        Expression p = Expression.createVariableExpression("p");
+        SolverSession session = new SolverSession(Expression.createVariableExpression("q"));
+
+        session.add(p);
+        session.push();
+        session.pop();
+        assertFalse(session.solve(X.not(p)));
+        assertFalse(session.isTautology());
+        assertTrue(session.solve(p));
+    }
+
+    @Test
+    public void repeatedAssumptionsOpenMoreLevelsThanVariables() {
+        Expression x = Expression.createVariableExpression("x");
+        Expression[] assumptions = new Expression[100];
+        Arrays.fill(assumptions, x);
+        SolverSession session = new SolverSession(x);
+
+        assertTrue(session.solve(assumptions));
+        assertTrue(session.solve(assumptions));
+        assumptions[50] = X.not(x);
+        assertFalse(session.solve(assumptions));
+    }
+
+    @Test
+    public void questionsAgreeWithFreshQueries() {
+        Random random = new Random(5);
+        for ( int round = 0 ; round < 300 ; round++ ){
+            Expression base = RandomExpressions.randomExpression(random);
+            Expression first = RandomExpressions.randomExpression(random);
+            Expression second = X.xor(X.not(first), base);
+            SolverSession session = new SolverSession(base);
+            String what = base + " with " + first;
+
+            assertEquals(SatSolver.isSatisfiable(X.and(base, first)), session.solve(first), what);
+            assertEquals(SatSolver.isSatisfiable(X.and(base, second)), session.solve(second), what);
+            assertEquals(SatSolver.isSatisfiable(base), session.solve(), what);
+            assertEquals(SatSolver.isTautology(base), session.isTautology(), what);
+            session.push();
+            session.add(first);
+            assertEquals(SatSolver.isSatisfiable(X.and(base, first, second)), session.solve(second), what);
+            session.model().ifPresent(model -> assertTrue(X.and(base, first, second).evaluate(model)));
+            session.pop();
+            assertEquals(SatSolver.isSatisfiable(X.and(base, second)), session.solve(second), what);
+            assertTrue(session.repOK(), what);
+        }
+    }
+
+    /* (non-javadoc)
+     * @return the expressions of a list in the order of 'order', which must list each of them
+     */
+    private static List<Expression> sorted(List<Expression> expressions, Expression... order) {
+        List<Expression> result = new ArrayList<>();
+        for ( Expression expression : order ){
+            if ( expressions.contains(expression) ){
+                result.add(expression);
+            }
+        }
+        assertEquals(expressions.size(), result.size());
+        return result;
+    }
+}